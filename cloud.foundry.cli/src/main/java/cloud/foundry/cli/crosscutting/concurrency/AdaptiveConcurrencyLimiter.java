@@ -0,0 +1,124 @@
+package cloud.foundry.cli.crosscutting.concurrency;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import cloud.foundry.cli.crosscutting.logging.Log;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Limiter that adjusts its limit to the load of the cloud foundry instance by additive increase and multiplicative
+ * decrease (AIMD).
+ *
+ * Every request that succeeds within the expected latency raises the limit by one divided by the current limit, so
+ * that the limit grows by about one per round of requests. A failed request or a request whose latency exceeds the
+ * smoothed latency by far halves the limit. The limit is decreased at most once for all requests that were already in
+ * flight when the last decrease happened, since all of them suffered from the same congestion.
+ */
+public class AdaptiveConcurrencyLimiter extends ConcurrencyLimiter {
+
+    private static final Log log = Log.getLog(AdaptiveConcurrencyLimiter.class);
+
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_INITIAL_LIMIT = 4;
+    public static final int DEFAULT_MAX_LIMIT = 64;
+
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double estimatedLimit;
+    private double smoothedLatency;
+    private long lastDecreaseAt;
+
+    /**
+     * Creates a limiter with the default bounds.
+     * @param name the name of the limiter, used in log messages
+     * @throws NullPointerException if the name is null
+     */
+    public AdaptiveConcurrencyLimiter(String name) {
+        this(name, DEFAULT_MIN_LIMIT, DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT);
+    }
+
+    /**
+     * @param name the name of the limiter, used in log messages
+     * @param minLimit the limit is never decreased below this value
+     * @param initialLimit the limit to start with
+     * @param maxLimit the limit is never increased above this value
+     * @throws NullPointerException if the name is null
+     * @throws IllegalArgumentException if the bounds are not ordered or the minimum is smaller than one
+     */
+    public AdaptiveConcurrencyLimiter(String name, int minLimit, int initialLimit, int maxLimit) {
+        this(name, minLimit, initialLimit, maxLimit, System::nanoTime);
+    }
+
+    /**
+     * @param name the name of the limiter, used in log messages
+     * @param minLimit the limit is never decreased below this value
+     * @param initialLimit the limit to start with
+     * @param maxLimit the limit is never increased above this value
+     * @param clock supplies the current time in nanoseconds, used to measure the latency of requests
+     * @throws NullPointerException if the name or the clock is null
+     * @throws IllegalArgumentException if the bounds are not ordered or the minimum is smaller than one
+     */
+    AdaptiveConcurrencyLimiter(String name, int minLimit, int initialLimit, int maxLimit, LongSupplier clock) {
+        super(name, initialLimit, clock);
+        checkArgument(minLimit >= 1, "The minimum limit must be at least one");
+        checkArgument(minLimit <= initialLimit && initialLimit <= maxLimit,
+                "The initial limit must lie between the minimum and the maximum limit");
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = initialLimit;
+        this.smoothedLatency = 0;
+        this.lastDecreaseAt = Long.MIN_VALUE;
+    }
+
+    /**
+     * @return the limit is never decreased below this value
+     */
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    /**
+     * @return the limit is never increased above this value
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    @Override
+    protected int adjustLimit(int currentLimit, long latency, boolean success, long acquiredAt) {
+        boolean congested = !success
+                || (smoothedLatency > 0 && latency > LATENCY_TOLERANCE * smoothedLatency);
+
+        if (success) {
+            smoothedLatency = smoothedLatency == 0
+                    ? latency
+                    : (1 - LATENCY_SMOOTHING) * smoothedLatency + LATENCY_SMOOTHING * latency;
+        }
+
+        if (congested) {
+            // requests that were in flight during the last decrease must not decrease the limit again
+            if (acquiredAt <= lastDecreaseAt) {
+                return currentLimit;
+            }
+            lastDecreaseAt = now();
+            estimatedLimit = Math.max(minLimit, estimatedLimit * DECREASE_FACTOR);
+        } else if ((getInFlight() + 1) * 2 >= currentLimit) {
+            // only grow if the current limit is actually used, otherwise the limit would grow without bound
+            estimatedLimit = Math.min(maxLimit, estimatedLimit + 1 / estimatedLimit);
+        }
+
+        int newLimit = (int) estimatedLimit;
+        if (newLimit != currentLimit) {
+            log.verbose("Concurrency limit of", getName(), "changed from", currentLimit, "to", newLimit);
+        }
+        return newLimit;
+    }
+
+}
@@ -0,0 +1,278 @@
+package cloud.foundry.cli.crosscutting.concurrency;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.util.context.Context;
+
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of requests that are in flight at the same time. Requests that exceed the limit are queued and
+ * subscribed to as soon as a running request terminates. Waiting for a permit does not block any thread.
+ *
+ * Queued requests with a higher priority get their permits first, requests of equal priority in the order they were
+ * queued. The priority is taken from the subscriber context, see {@link #withPriority(Flux, int)}.
+ *
+ * The limit of this class is fixed. Subclasses may adjust it based on the outcome of the requests, see
+ * {@link #adjustLimit(int, long, boolean, long)}.
+ */
+public class ConcurrencyLimiter {
+
+    /**
+     * The priority of requests that have not been assigned a priority.
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private static final String PRIORITY_CONTEXT_KEY = ConcurrencyLimiter.class.getName() + ".priority";
+
+    private final String name;
+    private final LongSupplier clock;
+    private final Queue<Waiter> waiting;
+
+    private int limit;
+    private int inFlight;
+    private long queued;
+
+    /**
+     * @param name the name of the limiter, used in log messages
+     * @param limit the maximum number of requests that may be in flight at the same time
+     * @throws NullPointerException if the name is null
+     * @throws IllegalArgumentException if the limit is smaller than one
+     */
+    public ConcurrencyLimiter(String name, int limit) {
+        this(name, limit, System::nanoTime);
+    }
+
+    /**
+     * @param name the name of the limiter, used in log messages
+     * @param limit the maximum number of requests that may be in flight at the same time
+     * @param clock supplies the current time in nanoseconds, used to measure the latency of requests
+     * @throws NullPointerException if the name or the clock is null
+     * @throws IllegalArgumentException if the limit is smaller than one
+     */
+    protected ConcurrencyLimiter(String name, int limit, LongSupplier clock) {
+        checkNotNull(name);
+        checkNotNull(clock);
+        checkArgument(limit >= 1, "The limit must be at least one");
+
+        this.name = name;
+        this.limit = limit;
+        this.clock = clock;
+        this.waiting = new PriorityQueue<>(Comparator.comparingInt((Waiter waiter) -> -waiter.priority)
+                .thenComparingLong(waiter -> waiter.sequenceNumber));
+        this.inFlight = 0;
+    }
+
+    /**
+     * @param name the name of the limiter, used in log messages
+     * @return a limiter that never delays any request
+     */
+    public static ConcurrencyLimiter unlimited(String name) {
+        return new ConcurrencyLimiter(name, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Assigns a priority to all limited requests that are subscribed to as part of the given request, in any limiter.
+     * @param request the request to assign the priority to
+     * @param priority the priority, higher priorities get their permits first
+     * @param <T> the type of the results
+     * @return flux which can be subscribed on to trigger the request with the priority
+     * @throws NullPointerException if the request is null
+     */
+    public static <T> Flux<T> withPriority(Flux<T> request, int priority) {
+        checkNotNull(request);
+
+        return request.subscriberContext(Context.of(PRIORITY_CONTEXT_KEY, priority));
+    }
+
+    /**
+     * Prepares a request that is only subscribed to once a permit of this limiter is available. The permit is
+     * returned when the request terminates or gets cancelled.
+     * @param request the request to limit
+     * @param <T> the type of the result
+     * @return mono which can be subscribed on to trigger the limited request
+     * @throws NullPointerException if the argument is null
+     */
+    public <T> Mono<T> limit(Mono<T> request) {
+        checkNotNull(request);
+
+        return acquire().flatMap(permit -> request
+                .doOnSuccess(result -> permit.release(true))
+                .doOnError(throwable -> permit.release(false))
+                .doOnCancel(permit::cancel));
+    }
+
+    /**
+     * Prepares a request that is only subscribed to once a permit of this limiter is available. The permit is
+     * returned when the request terminates or gets cancelled.
+     * @param request the request to limit
+     * @param <T> the type of the results
+     * @return flux which can be subscribed on to trigger the limited request
+     * @throws NullPointerException if the argument is null
+     */
+    public <T> Flux<T> limit(Flux<T> request) {
+        checkNotNull(request);
+
+        return acquire().flatMapMany(permit -> request
+                .doOnComplete(() -> permit.release(true))
+                .doOnError(throwable -> permit.release(false))
+                .doOnCancel(permit::cancel));
+    }
+
+    /**
+     * @return the name of the limiter
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of requests that may currently be in flight at the same time
+     */
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the number of requests that are currently in flight
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the number of requests that are currently waiting for a permit
+     */
+    public synchronized int getWaiting() {
+        return waiting.size();
+    }
+
+    /**
+     * Called whenever a request that terminated returned its permit to determine the new limit. Cancelled requests
+     * return their permits without this call, since their latency says nothing about the load. The limiter is locked
+     * during this call. Returns the current limit by default.
+     * @param currentLimit the current limit
+     * @param latency the time in nanoseconds that passed between handing out the permit and returning it
+     * @param success whether the request completed without an error
+     * @param acquiredAt the time in nanoseconds when the permit was handed out
+     * @return the new limit, at least one
+     */
+    protected int adjustLimit(int currentLimit, long latency, boolean success, long acquiredAt) {
+        return currentLimit;
+    }
+
+    /**
+     * @return the current time in nanoseconds
+     */
+    protected long now() {
+        return clock.getAsLong();
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            int priority = sink.currentContext().getOrDefault(PRIORITY_CONTEXT_KEY, DEFAULT_PRIORITY);
+            Waiter waiter;
+            List<Waiter> dispatched;
+            synchronized (this) {
+                waiter = new Waiter(sink, priority, queued++);
+                waiting.add(waiter);
+                dispatched = dispatchWaiting();
+            }
+
+            // a waiter that gets cancelled after it has been dispatched never receives its permit
+            sink.onCancel(() -> {
+                Permit permit;
+                synchronized (this) {
+                    waiting.remove(waiter);
+                    permit = waiter.permit;
+                }
+                if (permit != null) {
+                    permit.cancel();
+                }
+            });
+            dispatched.forEach(Waiter::grant);
+        });
+    }
+
+    // must be called while holding the lock, the returned waiters must be granted after releasing it
+    private List<Waiter> dispatchWaiting() {
+        List<Waiter> dispatched = new LinkedList<>();
+        while (!waiting.isEmpty() && inFlight < limit) {
+            inFlight++;
+            Waiter waiter = waiting.poll();
+            waiter.permit = new Permit();
+            dispatched.add(waiter);
+        }
+        return dispatched;
+    }
+
+    /**
+     * A request that waits for its permit.
+     */
+    private class Waiter {
+
+        private final MonoSink<Permit> sink;
+        private final int priority;
+        private final long sequenceNumber;
+        private Permit permit;
+
+        private Waiter(MonoSink<Permit> sink, int priority, long sequenceNumber) {
+            this.sink = sink;
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        private void grant() {
+            sink.success(permit);
+        }
+    }
+
+    /**
+     * A permit that allows one request to run. It is returned at most once.
+     */
+    private class Permit {
+
+        private final long acquiredAt;
+        private final AtomicBoolean released;
+
+        private Permit() {
+            this.acquiredAt = now();
+            this.released = new AtomicBoolean(false);
+        }
+
+        private void release(boolean success) {
+            giveBack(true, success);
+        }
+
+        // the request has been cancelled, e.g. because a sibling request failed, so the limit stays as it is
+        private void cancel() {
+            giveBack(false, false);
+        }
+
+        private void giveBack(boolean terminated, boolean success) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+
+            List<Waiter> dispatched;
+            synchronized (ConcurrencyLimiter.this) {
+                inFlight--;
+                if (terminated) {
+                    limit = Math.max(1, adjustLimit(limit, now() - acquiredAt, success, acquiredAt));
+                }
+                dispatched = dispatchWaiting();
+            }
+            dispatched.forEach(Waiter::grant);
+        }
+    }
+}
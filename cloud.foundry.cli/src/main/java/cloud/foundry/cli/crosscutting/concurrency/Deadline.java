@@ -0,0 +1,156 @@
+package cloud.foundry.cli.crosscutting.concurrency;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * A point in time until which all requests of a run have to be completed. Requests that are limited by a deadline
+ * fail with a {@link TimeoutException} once the deadline has passed or once their own timeout has elapsed, whichever
+ * happens first.
+ */
+public class Deadline {
+
+    private static final Deadline NONE = new Deadline(null, System::nanoTime);
+
+    private final Duration timeout;
+    private final LongSupplier clock;
+    private final long expiresAt;
+
+    private Deadline(Duration timeout, LongSupplier clock) {
+        this.timeout = timeout;
+        this.clock = clock;
+        this.expiresAt = timeout == null ? Long.MAX_VALUE : clock.getAsLong() + timeout.toNanos();
+    }
+
+    /**
+     * @param timeout the duration from now on until the deadline is reached
+     * @return a deadline that is reached once the timeout has elapsed
+     * @throws NullPointerException if the argument is null
+     * @throws IllegalArgumentException if the timeout is not positive
+     */
+    public static Deadline after(Duration timeout) {
+        return after(timeout, System::nanoTime);
+    }
+
+    static Deadline after(Duration timeout, LongSupplier clock) {
+        checkNotNull(timeout);
+        checkNotNull(clock);
+        checkArgument(!timeout.isNegative() && !timeout.isZero(), "The timeout must be positive");
+
+        return new Deadline(timeout, clock);
+    }
+
+    /**
+     * @return a deadline that is never reached
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /**
+     * @return whether the deadline has passed already
+     */
+    public boolean isExpired() {
+        return timeout != null && clock.getAsLong() >= expiresAt;
+    }
+
+    /**
+     * @return the time that remains until the deadline is reached, zero if it has passed already or null if the
+     * deadline is never reached
+     */
+    public Duration getRemaining() {
+        if (timeout == null) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(0, expiresAt - clock.getAsLong()));
+    }
+
+    /**
+     * Prepares a request that fails if it does not complete before the deadline is reached.
+     * @param request the request to limit
+     * @param <T> the type of the results
+     * @return flux which can be subscribed on to trigger the limited request
+     * @throws NullPointerException if the argument is null
+     */
+    public <T> Flux<T> limit(Flux<T> request) {
+        checkNotNull(request);
+
+        if (timeout == null) {
+            return request;
+        }
+        // the remaining time is determined anew for every result, so that the flux as a whole meets the deadline
+        return Flux.defer(() -> request.timeout(Mono.delay(getRemaining()),
+                result -> Mono.delay(getRemaining()),
+                Flux.error(this::deadlineExceeded)));
+    }
+
+    /**
+     * Prepares a request that fails if it does not complete within its own timeout or before the deadline is reached,
+     * whichever happens first. The time is measured from the moment on the request is subscribed to.
+     * @param request the request to limit
+     * @param operationTimeout the maximum duration of the request itself
+     * @param <T> the type of the result
+     * @return mono which can be subscribed on to trigger the limited request
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public <T> Mono<T> limit(Mono<T> request, Duration operationTimeout) {
+        checkNotNull(request);
+        checkNotNull(operationTimeout);
+
+        return Mono.defer(() -> request.timeout(Mono.delay(effectiveTimeout(operationTimeout)),
+                Mono.error(() -> timeoutException(operationTimeout))));
+    }
+
+    /**
+     * Prepares a request that fails if it does not complete within its own timeout or before the deadline is reached,
+     * whichever happens first. The time is measured from the moment on the request is subscribed to.
+     * @param request the request to limit
+     * @param operationTimeout the maximum duration of the request itself
+     * @param <T> the type of the results
+     * @return flux which can be subscribed on to trigger the limited request
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public <T> Flux<T> limit(Flux<T> request, Duration operationTimeout) {
+        checkNotNull(request);
+        checkNotNull(operationTimeout);
+
+        return Flux.defer(() -> {
+            long operationExpiresAt = clock.getAsLong() + effectiveTimeout(operationTimeout).toNanos();
+            return request.timeout(Mono.delay(remainingUntil(operationExpiresAt)),
+                    result -> Mono.delay(remainingUntil(operationExpiresAt)),
+                    Flux.error(() -> timeoutException(operationTimeout)));
+        });
+    }
+
+    private Duration effectiveTimeout(Duration operationTimeout) {
+        Duration remaining = getRemaining();
+        if (remaining == null || operationTimeout.compareTo(remaining) <= 0) {
+            return operationTimeout;
+        }
+        return remaining;
+    }
+
+    private Duration remainingUntil(long operationExpiresAt) {
+        return Duration.ofNanos(Math.max(0, operationExpiresAt - clock.getAsLong()));
+    }
+
+    private TimeoutException deadlineExceeded() {
+        return new TimeoutException("Deadline of " + timeout.getSeconds() + " seconds exceeded");
+    }
+
+    private TimeoutException timeoutException(Duration operationTimeout) {
+        if (isExpired()) {
+            return deadlineExceeded();
+        }
+        return new TimeoutException("Operation did not complete within " + operationTimeout.getSeconds()
+                + " seconds");
+    }
+
+}
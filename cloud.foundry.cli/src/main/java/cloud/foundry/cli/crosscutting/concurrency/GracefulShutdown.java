@@ -0,0 +1,332 @@
+package cloud.foundry.cli.crosscutting.concurrency;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.logging.Log;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Keeps track of the requests of a run so that the run can be shut down gracefully, e.g. when the user presses
+ * Ctrl-C. Once the shutdown is initiated, tracked requests that have not started yet are not started at all. The
+ * requests that are in flight get a grace period to complete. Afterwards, a report tells which requests completed,
+ * failed, got interrupted or were never started.
+ *
+ * Requests that wait for permits of a limiter before they actually start are tracked via
+ * {@link #trackQueued(String, Flux)} and pass {@link #admit(Mono)} once they hold their permits. Until then they are
+ * queued rather than in flight, and they are not started at all if the shutdown is initiated in the meantime.
+ */
+public class GracefulShutdown {
+
+    private static final Log log = Log.getLog(GracefulShutdown.class);
+
+    public static final Duration DEFAULT_GRACE_PERIOD = Duration.ofSeconds(30);
+
+    private static final String ADMISSION_CONTEXT_KEY = GracefulShutdown.class.getName() + ".admission";
+
+    private final Duration gracePeriod;
+    private final Thread shutdownHook;
+
+    private final Set<String> queued;
+    private final Set<String> inFlight;
+    private final List<String> completed;
+    private final List<String> failed;
+    private final List<String> skipped;
+
+    private boolean shuttingDown;
+
+    /**
+     * @param gracePeriod the maximum duration to wait for requests that are in flight once the shutdown is initiated
+     * @throws NullPointerException if the argument is null
+     * @throws IllegalArgumentException if the grace period is negative
+     */
+    public GracefulShutdown(Duration gracePeriod) {
+        checkNotNull(gracePeriod);
+        checkArgument(!gracePeriod.isNegative(), "The grace period must not be negative");
+
+        this.gracePeriod = gracePeriod;
+        this.shutdownHook = new Thread(this::shutDown, "graceful-shutdown");
+        this.queued = new LinkedHashSet<>();
+        this.inFlight = new LinkedHashSet<>();
+        this.completed = new LinkedList<>();
+        this.failed = new LinkedList<>();
+        this.skipped = new LinkedList<>();
+        this.shuttingDown = false;
+    }
+
+    /**
+     * Registers this instance as shutdown hook of the JVM, so that a termination signal like SIGINT shuts it down.
+     */
+    public void install() {
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Removes this instance as shutdown hook of the JVM. Has to be called once the run is over.
+     */
+    public void uninstall() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // the JVM is already shutting down, the hook runs anyways
+        }
+    }
+
+    /**
+     * Prepares a request that is tracked by this instance. In case the shutdown has been initiated already when the
+     * request is subscribed to, the request is not started and fails with a {@link CancellationException} instead.
+     * @param description describes the request in the report, e.g. "application my-app"
+     * @param request the request to track
+     * @param <T> the type of the results
+     * @return flux which can be subscribed on to trigger the tracked request
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public <T> Flux<T> track(String description, Flux<T> request) {
+        checkNotNull(description);
+        checkNotNull(request);
+
+        return Flux.defer(() -> {
+            synchronized (this) {
+                if (shuttingDown) {
+                    skipped.add(description);
+                    return Flux.error(notStarted(description));
+                }
+                inFlight.add(description);
+            }
+            return request
+                    .doOnComplete(() -> finish(description, completed))
+                    .doOnError(throwable -> finish(description, failed))
+                    .doOnCancel(() -> finish(description, failed));
+        });
+    }
+
+    /**
+     * Prepares a request that is tracked by this instance like {@link #track(String, Flux)}, but that waits for
+     * permits before it actually starts. The request is queued until it passes {@link #admit(Mono)} or
+     * {@link #admit(Flux)}, only then it is in flight. If the shutdown is initiated while it is queued, it is not
+     * started and fails with a {@link CancellationException} once it is admitted.
+     * @param description describes the request in the report, e.g. "application my-app"
+     * @param request the request to track, has to pass {@link #admit(Mono)} or {@link #admit(Flux)} before starting
+     * @param <T> the type of the results
+     * @return flux which can be subscribed on to trigger the tracked request
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public <T> Flux<T> trackQueued(String description, Flux<T> request) {
+        return trackQueued(description, request, () -> { });
+    }
+
+    /**
+     * Prepares a request that is tracked like {@link #trackQueued(String, Flux)} and notifies once it is admitted,
+     * e.g. to measure how long it is in flight without the time it waits for its permits.
+     * @param description describes the request in the report, e.g. "application my-app"
+     * @param request the request to track, has to pass {@link #admit(Mono)} or {@link #admit(Flux)} before starting
+     * @param onAdmission runs once the request is admitted and about to start
+     * @param <T> the type of the results
+     * @return flux which can be subscribed on to trigger the tracked request
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public <T> Flux<T> trackQueued(String description, Flux<T> request, Runnable onAdmission) {
+        checkNotNull(description);
+        checkNotNull(request);
+        checkNotNull(onAdmission);
+
+        return Flux.defer(() -> {
+            synchronized (this) {
+                if (shuttingDown) {
+                    skipped.add(description);
+                    return Flux.error(notStarted(description));
+                }
+                queued.add(description);
+            }
+            return request
+                    .doOnComplete(() -> finish(description, completed))
+                    .doOnError(throwable -> finish(description, failed))
+                    .doOnCancel(() -> finish(description, failed))
+                    .subscriberContext(Context.of(ADMISSION_CONTEXT_KEY, new Admission(description, onAdmission)));
+        });
+    }
+
+    /**
+     * Prepares a request that is only started if the shutdown has not been initiated by the time it is subscribed
+     * to, e.g. once it holds its permits. From then on the request counts as in flight. Requests that are not
+     * tracked via {@link #trackQueued(String, Flux)} are always started.
+     * @param request the request to admit
+     * @param <T> the type of the result
+     * @return mono which can be subscribed on to trigger the admitted request
+     * @throws NullPointerException if the argument is null
+     */
+    public static <T> Mono<T> admit(Mono<T> request) {
+        checkNotNull(request);
+
+        return Mono.subscriberContext().flatMap(context -> {
+            Admission admission = context.getOrDefault(ADMISSION_CONTEXT_KEY, null);
+            return admission == null || admission.admit() ? request : Mono.error(admission.notStarted());
+        });
+    }
+
+    /**
+     * Prepares a request that is only started if the shutdown has not been initiated by the time it is subscribed
+     * to, e.g. once it holds its permits. From then on the request counts as in flight. Requests that are not
+     * tracked via {@link #trackQueued(String, Flux)} are always started.
+     * @param request the request to admit
+     * @param <T> the type of the results
+     * @return flux which can be subscribed on to trigger the admitted request
+     * @throws NullPointerException if the argument is null
+     */
+    public static <T> Flux<T> admit(Flux<T> request) {
+        checkNotNull(request);
+
+        return Mono.subscriberContext().flatMapMany(context -> {
+            Admission admission = context.getOrDefault(ADMISSION_CONTEXT_KEY, null);
+            return admission == null || admission.admit() ? request : Flux.error(admission.notStarted());
+        });
+    }
+
+    /**
+     * Initiates the shutdown. Waits at most for the grace period until all requests in flight have terminated and
+     * reports the outcome of all tracked requests afterwards.
+     */
+    public void shutDown() {
+        long waitUntil = System.nanoTime() + gracePeriod.toNanos();
+
+        synchronized (this) {
+            if (shuttingDown) {
+                return;
+            }
+            shuttingDown = true;
+            if (!inFlight.isEmpty()) {
+                log.warning("Shutting down, waiting up to", gracePeriod.getSeconds(), "seconds for",
+                        inFlight.size(), "requests in flight");
+            }
+            // queued requests are not admitted anymore, they are not started at all
+            skipped.addAll(queued);
+
+            try {
+                long remaining = waitUntil - System.nanoTime();
+                while (!inFlight.isEmpty() && remaining > 0) {
+                    wait(remaining / 1_000_000 + 1);
+                    remaining = waitUntil - System.nanoTime();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            report();
+        }
+    }
+
+    /**
+     * @return whether the shutdown has been initiated
+     */
+    public synchronized boolean isShuttingDown() {
+        return shuttingDown;
+    }
+
+    /**
+     * Logs the outcome of all tracked requests.
+     */
+    public synchronized void report() {
+        log.info("Completed:", completed.isEmpty() ? "nothing" : String.join(", ", completed));
+        if (!failed.isEmpty()) {
+            log.error("Failed:", String.join(", ", failed));
+        }
+        if (!inFlight.isEmpty()) {
+            log.error("Interrupted while in flight:", String.join(", ", inFlight));
+        }
+        if (!skipped.isEmpty()) {
+            log.warning("Not started:", String.join(", ", skipped));
+        }
+    }
+
+    /**
+     * @return descriptions of all requests that completed successfully
+     */
+    public synchronized List<String> getCompleted() {
+        return new LinkedList<>(completed);
+    }
+
+    /**
+     * @return descriptions of all requests that failed or got cancelled
+     */
+    public synchronized List<String> getFailed() {
+        return new LinkedList<>(failed);
+    }
+
+    /**
+     * @return descriptions of all requests that are currently waiting to be admitted
+     */
+    public synchronized List<String> getQueued() {
+        return new LinkedList<>(queued);
+    }
+
+    /**
+     * @return descriptions of all requests that are currently in flight
+     */
+    public synchronized List<String> getInFlight() {
+        return new LinkedList<>(inFlight);
+    }
+
+    /**
+     * @return descriptions of all requests that were not started due to the shutdown
+     */
+    public synchronized List<String> getSkipped() {
+        return new LinkedList<>(skipped);
+    }
+
+    private synchronized void finish(String description, List<String> outcome) {
+        if (inFlight.remove(description)) {
+            outcome.add(description);
+            notifyAll();
+        } else if (queued.remove(description) && !shuttingDown) {
+            // a request that terminated while waiting for its permits has not been started
+            skipped.add(description);
+        }
+    }
+
+    private static CancellationException notStarted(String description) {
+        return new CancellationException("Not started due to shutdown: " + description);
+    }
+
+    /**
+     * The admission of a queued request, taken from the subscriber context once the request holds its permits.
+     */
+    private class Admission {
+
+        private final String description;
+        private final Runnable onAdmission;
+
+        private Admission(String description, Runnable onAdmission) {
+            this.description = description;
+            this.onAdmission = onAdmission;
+        }
+
+        private boolean admit() {
+            synchronized (GracefulShutdown.this) {
+                if (!queued.remove(description)) {
+                    // admitted before, e.g. by an outer limiter
+                    return inFlight.contains(description);
+                }
+                if (shuttingDown) {
+                    return false;
+                }
+                inFlight.add(description);
+            }
+            onAdmission.run();
+            return true;
+        }
+
+        private CancellationException notStarted() {
+            return GracefulShutdown.notStarted(description);
+        }
+    }
+
+}
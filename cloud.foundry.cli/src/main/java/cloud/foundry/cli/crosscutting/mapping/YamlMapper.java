@@ -6,6 +6,8 @@ import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationManifestBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.Bean;
 import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.OperationTimingsBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.PlanBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.SpaceDevelopersBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
@@ -216,6 +218,8 @@ public class YamlMapper {
         representer.addClassTag(SpecBean.class, Tag.MAP);
         representer.addClassTag(TargetBean.class, Tag.MAP);
         representer.addClassTag(ConfigBean.class, Tag.MAP);
+        representer.addClassTag(PlanBean.class, Tag.MAP);
+        representer.addClassTag(OperationTimingsBean.class, Tag.MAP);
         return new Yaml(representer, options);
     }
 }
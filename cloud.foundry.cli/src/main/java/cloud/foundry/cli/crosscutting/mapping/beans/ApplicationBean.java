@@ -2,6 +2,7 @@ package cloud.foundry.cli.crosscutting.mapping.beans;
 
 import org.cloudfoundry.client.v3.Metadata;
 import org.cloudfoundry.operations.applications.ApplicationManifest;
+import org.javers.core.metamodel.annotation.DiffIgnore;
 import org.javers.core.metamodel.annotation.TypeName;
 
 /**
@@ -24,6 +25,14 @@ public class ApplicationBean implements Bean {
     private String path;
     private String meta;
 
+    // only affects the order of the operations of the apply process, not the application itself
+    @DiffIgnore
+    private Integer priority;
+
+    // only identifies the live application this application has been renamed from, not part of the application
+    @DiffIgnore
+    private String previousName;
+
     /**
      *
      * @param manifest the application manifest data
@@ -36,6 +45,18 @@ public class ApplicationBean implements Bean {
         this.path = meta.getAnnotations().get(PATH_KEY);
     }
 
+    /**
+     * Creates a copy of another application bean. The manifest is shared with the other bean.
+     * @param other the application bean to copy
+     */
+    public ApplicationBean(ApplicationBean other) {
+        this.manifest = other.manifest;
+        this.path = other.path;
+        this.meta = other.meta;
+        this.priority = other.priority;
+        this.previousName = other.previousName;
+    }
+
     public ApplicationBean() {
     }
 
@@ -64,12 +85,38 @@ public class ApplicationBean implements Bean {
         this.meta = meta;
     }
 
+    /**
+     * @return the priority of the operations of the application in the apply process, higher priorities are
+     * dispatched first, null for the default priority
+     */
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * @return the name of the live application that is renamed to this application, null if the application has
+     * not been renamed
+     */
+    public String getPreviousName() {
+        return previousName;
+    }
+
+    public void setPreviousName(String previousName) {
+        this.previousName = previousName;
+    }
+
     @Override
     public String toString() {
         return "ApplicationBean{" +
                 "manifest=" + manifest +
                 ", path='" + path + '\'' +
                 ", meta='" + meta + '\'' +
+                ", priority=" + priority +
+                ", previousName='" + previousName + '\'' +
                 '}';
     }
 }
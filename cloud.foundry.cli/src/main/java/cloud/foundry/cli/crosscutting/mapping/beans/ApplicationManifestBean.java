@@ -59,6 +59,27 @@ public class ApplicationManifestBean implements Bean {
         this.timeout = manifest.getTimeout();
     }
 
+    /**
+     * Creates a copy of another manifest bean. The lists and maps are shared with the other bean.
+     * @param other the manifest bean to copy
+     */
+    public ApplicationManifestBean(ApplicationManifestBean other) {
+        this.buildpack = other.buildpack;
+        this.command = other.command;
+        this.disk = other.disk;
+        this.environmentVariables = other.environmentVariables;
+        this.healthCheckHttpEndpoint = other.healthCheckHttpEndpoint;
+        this.healthCheckType = other.healthCheckType;
+        this.instances = other.instances;
+        this.memory = other.memory;
+        this.noRoute = other.noRoute;
+        this.randomRoute = other.randomRoute;
+        this.routes = other.routes;
+        this.services = other.services;
+        this.stack = other.stack;
+        this.timeout = other.timeout;
+    }
+
     public ApplicationManifestBean() {
     }
 
@@ -0,0 +1,36 @@
+package cloud.foundry.cli.crosscutting.mapping.beans;
+
+import java.util.Map;
+
+/**
+ * Bean holding the average durations of the operations of previous apply runs.
+ */
+public class OperationTimingsBean implements Bean {
+
+    private Map<String, Long> averageDurations;
+
+    public OperationTimingsBean() {
+    }
+
+    public OperationTimingsBean(Map<String, Long> averageDurations) {
+        this.averageDurations = averageDurations;
+    }
+
+    /**
+     * @return the average durations in milliseconds by the names of the operation types
+     */
+    public Map<String, Long> getAverageDurations() {
+        return averageDurations;
+    }
+
+    public void setAverageDurations(Map<String, Long> averageDurations) {
+        this.averageDurations = averageDurations;
+    }
+
+    @Override
+    public String toString() {
+        return "OperationTimingsBean{" +
+                "averageDurations=" + averageDurations +
+                '}';
+    }
+}
@@ -0,0 +1,145 @@
+package cloud.foundry.cli.crosscutting.mapping.beans;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bean holding a plan of the apply process: the operations that turn the live configuration into the desired
+ * configuration and fingerprints of the live state the operations were planned for.
+ */
+public class PlanBean implements Bean {
+
+    private String fingerprint;
+    private Map<String, String> resourceFingerprints;
+    private String deploymentStrategy;
+    private String waves;
+    private Map<String, Long> averageDurations;
+    private String only;
+    private Map<String, List<String>> operations;
+    private ConfigBean live;
+    private ConfigBean desired;
+    private ConfigBean lastApplied;
+
+    public PlanBean() {
+    }
+
+    /**
+     * @return the fingerprint of the live state, null if the space did not exist when the plan was created
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * @return the fingerprints of the complete configurations of the existing apps and services the planned operations
+     * change, by their resources, e.g. "apps/billing", null if the space did not exist when the plan was created
+     */
+    public Map<String, String> getResourceFingerprints() {
+        return resourceFingerprints;
+    }
+
+    public void setResourceFingerprints(Map<String, String> resourceFingerprints) {
+        this.resourceFingerprints = resourceFingerprints;
+    }
+
+    public String getDeploymentStrategy() {
+        return deploymentStrategy;
+    }
+
+    public void setDeploymentStrategy(String deploymentStrategy) {
+        this.deploymentStrategy = deploymentStrategy;
+    }
+
+    /**
+     * @return the sizes of the waves the applications are rolled out in, null if they are rolled out at once
+     */
+    public String getWaves() {
+        return waves;
+    }
+
+    public void setWaves(String waves) {
+        this.waves = waves;
+    }
+
+    /**
+     * @return the average durations in milliseconds by the types of operations that the alternative ways to apply the
+     * changes were chosen by, null if no durations had been recorded when the plan was created
+     */
+    public Map<String, Long> getAverageDurations() {
+        return averageDurations;
+    }
+
+    public void setAverageDurations(Map<String, Long> averageDurations) {
+        this.averageDurations = averageDurations;
+    }
+
+    /**
+     * @return the resources the plan is limited to, null if it covers all resources
+     */
+    public String getOnly() {
+        return only;
+    }
+
+    public void setOnly(String only) {
+        this.only = only;
+    }
+
+    /**
+     * @return the descriptions of the planned operations together with the descriptions of the operations they
+     * depend on, in the order the operations were planned
+     */
+    public Map<String, List<String>> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, List<String>> operations) {
+        this.operations = operations;
+    }
+
+    public ConfigBean getLive() {
+        return live;
+    }
+
+    public void setLive(ConfigBean live) {
+        this.live = live;
+    }
+
+    public ConfigBean getDesired() {
+        return desired;
+    }
+
+    public void setDesired(ConfigBean desired) {
+        this.desired = desired;
+    }
+
+    /**
+     * @return the configuration that had been applied last when the plan was created, null if it was unknown
+     */
+    public ConfigBean getLastApplied() {
+        return lastApplied;
+    }
+
+    public void setLastApplied(ConfigBean lastApplied) {
+        this.lastApplied = lastApplied;
+    }
+
+    @Override
+    public String toString() {
+        return "PlanBean{" +
+                "fingerprint='" + fingerprint + '\'' +
+                ", resourceFingerprints=" + resourceFingerprints +
+                ", deploymentStrategy='" + deploymentStrategy + '\'' +
+                ", waves='" + waves + '\'' +
+                ", averageDurations=" + averageDurations +
+                ", only='" + only + '\'' +
+                ", operations=" + operations +
+                ", live=" + live +
+                ", desired=" + desired +
+                ", lastApplied=" + lastApplied +
+                '}';
+    }
+}
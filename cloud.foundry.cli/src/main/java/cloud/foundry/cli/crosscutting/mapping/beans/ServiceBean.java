@@ -2,6 +2,7 @@ package cloud.foundry.cli.crosscutting.mapping.beans;
 
 import org.apache.commons.lang3.StringUtils;
 import org.cloudfoundry.operations.services.ServiceInstance;
+import org.javers.core.metamodel.annotation.DiffIgnore;
 
 import java.util.List;
 import java.util.Map;
@@ -15,7 +16,11 @@ public class ServiceBean implements Bean {
     private String plan;
     private List<String> tags;
     private Map<String, Object> params;
-    
+
+    // only identifies the live service instance this service has been renamed from, not part of the service
+    @DiffIgnore
+    private String previousName;
+
 
     public ServiceBean(ServiceInstance serviceInstance) {
         this.service = serviceInstance.getService();
@@ -57,6 +62,18 @@ public class ServiceBean implements Bean {
     public void setParams(Map<String, Object> params) {
         this.params = params;
     }
+
+    /**
+     * @return the name of the live service instance that is renamed to this service, null if the service has not
+     * been renamed
+     */
+    public String getPreviousName() {
+        return previousName;
+    }
+
+    public void setPreviousName(String previousName) {
+        this.previousName = previousName;
+    }
     
     @Override
     public String toString() {
@@ -65,6 +82,7 @@ public class ServiceBean implements Bean {
                 ", plan='" + plan + '\'' +
                 ", tags=" + tags + '\'' +
                 ", params=" + StringUtils.join(params) +
+                ", previousName='" + previousName + '\'' +
                 '}';
     }
 }
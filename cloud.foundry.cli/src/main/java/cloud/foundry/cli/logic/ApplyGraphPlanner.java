@@ -0,0 +1,181 @@
+package cloud.foundry.cli.logic;
+
+import cloud.foundry.cli.crosscutting.exceptions.ApplyException;
+import cloud.foundry.cli.crosscutting.logging.Log;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.logic.apply.ApplicationRequestsPlanner;
+import cloud.foundry.cli.logic.apply.ApplyBulkheads;
+import cloud.foundry.cli.logic.apply.ApplyBulkheads.Kind;
+import cloud.foundry.cli.logic.apply.ApplyCostModel;
+import cloud.foundry.cli.logic.apply.ApplyGraph;
+import cloud.foundry.cli.logic.apply.ApplyOperation;
+import cloud.foundry.cli.logic.apply.ApplyRenames;
+import cloud.foundry.cli.logic.apply.ApplySelection;
+import cloud.foundry.cli.logic.apply.ApplyWaves;
+import cloud.foundry.cli.logic.apply.DeploymentStrategy;
+import cloud.foundry.cli.logic.apply.ServiceRequestsPlanner;
+import cloud.foundry.cli.logic.apply.SpaceDevelopersRequestsPlanner;
+import cloud.foundry.cli.logic.diff.DiffResult;
+import cloud.foundry.cli.logic.diff.change.CfChange;
+import cloud.foundry.cli.logic.diff.change.container.CfContainerChange;
+import cloud.foundry.cli.operations.ApplicationsOperations;
+import cloud.foundry.cli.operations.ServicesOperations;
+import cloud.foundry.cli.operations.SpaceDevelopersOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Diffs a live configuration with a desired configuration and plans the operations that resolve the differences,
+ * together with the dependencies between them, for a deployment strategy and waves.
+ */
+class ApplyGraphPlanner {
+
+    private static final Log log = Log.getLog(ApplyGraphPlanner.class);
+
+    // the number of resources from which on their operations are planned in parallel
+    private static final int PARALLEL_PLANNING_THRESHOLD = 32;
+
+    private final DiffLogic diffLogic;
+    private final SpaceDevelopersOperations spaceDevelopersOperations;
+    private final ServicesOperations servicesOperations;
+    private final ApplicationsOperations applicationsOperations;
+    private final ApplyBulkheads bulkheads;
+    private final DeploymentStrategy deploymentStrategy;
+    private final ApplyWaves waves;
+    private final ApplyCostModel costModel;
+
+    /**
+     * @throws ApplyException if waves are combined with the deployment strategy {@link DeploymentStrategy#STAGE_AHEAD}
+     */
+    ApplyGraphPlanner(DiffLogic diffLogic,
+                      SpaceDevelopersOperations spaceDevelopersOperations,
+                      ServicesOperations servicesOperations,
+                      ApplicationsOperations applicationsOperations,
+                      ApplyBulkheads bulkheads,
+                      DeploymentStrategy deploymentStrategy,
+                      ApplyWaves waves,
+                      ApplyCostModel costModel) {
+        if (!waves.isNone() && deploymentStrategy == DeploymentStrategy.STAGE_AHEAD) {
+            // staging ahead switches all apps at once, which contradicts rolling them out in waves
+            throw new ApplyException("Waves cannot be combined with the deployment strategy "
+                    + DeploymentStrategy.STAGE_AHEAD);
+        }
+
+        this.diffLogic = diffLogic;
+        this.spaceDevelopersOperations = spaceDevelopersOperations;
+        this.servicesOperations = servicesOperations;
+        this.applicationsOperations = applicationsOperations;
+        this.bulkheads = bulkheads;
+        this.deploymentStrategy = deploymentStrategy;
+        this.waves = waves;
+        this.costModel = costModel;
+    }
+
+    /**
+     * @param liveConfigBean the live configuration
+     * @param desiredConfigBean the desired configuration
+     * @param lastAppliedConfigBean the configuration applied last, may be null
+     * @param selection the resources that are compared
+     * @param success set to false if the operations of any resource cannot be planned
+     * @return the planned operations
+     */
+    ApplyGraph createGraph(ConfigBean liveConfigBean,
+                           ConfigBean desiredConfigBean,
+                           ConfigBean lastAppliedConfigBean,
+                           ApplySelection selection,
+                           AtomicBoolean success) {
+        // resources that are not selected are neither compared nor removed, renamed resources are selected by their
+        // new names, so their live counterparts are selected by their previous names
+        ConfigBean selectedLiveConfigBean = selection.withPreviousNames(desiredConfigBean).select(liveConfigBean);
+        ConfigBean selectedDesiredConfigBean = selection.select(desiredConfigBean);
+
+        // renamed apps and services are renamed in place instead of being removed and created again, so only their
+        // remaining differences are diffed
+        ApplyRenames renames = ApplyRenames.detect(selectedLiveConfigBean, selectedDesiredConfigBean);
+        DiffResult wrappedDiff = diffLogic.createDiffResult(renames.applyTo(selectedLiveConfigBean),
+                selectedDesiredConfigBean, selection.select(lastAppliedConfigBean));
+
+        CfContainerChange spaceDevelopersChange = wrappedDiff.getSpaceDevelopersChange();
+        Map<String, List<CfChange>> servicesChanges = wrappedDiff.getServiceChanges();
+        Map<String, List<CfChange>> appsChanges = renames.withRenamedBindings(wrappedDiff.getApplicationChanges());
+
+        ApplyGraph graph = new ApplyGraph();
+        if (renames.isEmpty() && spaceDevelopersChange == null && servicesChanges.isEmpty()
+                && appsChanges.isEmpty()) {
+            return graph;
+        }
+
+        renames.addOperations(graph, applicationsOperations, servicesOperations, bulkheads);
+
+        if (spaceDevelopersChange != null) {
+            SpaceDevelopersRequestsPlanner.addSpaceDevelopersOperations(graph, spaceDevelopersOperations,
+                    spaceDevelopersChange, bulkheads);
+        }
+
+        ServiceRequestsPlanner serviceRequestsPlanner = new ServiceRequestsPlanner(servicesOperations, bulkheads);
+        ApplicationRequestsPlanner appRequestsPlanner = new ApplicationRequestsPlanner(applicationsOperations,
+                bulkheads, deploymentStrategy, costModel);
+        List<Consumer<ApplyGraph>> resourcePlanners = new LinkedList<>();
+        servicesChanges.forEach((serviceName, serviceChanges) -> resourcePlanners.add(resourceGraph ->
+                serviceRequestsPlanner.addApplyOperations(resourceGraph, serviceName, serviceChanges)));
+        appsChanges.forEach((applicationName, applicationChanges) -> resourcePlanners.add(resourceGraph ->
+                appRequestsPlanner.addApplyOperations(resourceGraph, applicationName, applicationChanges)));
+        planResources(resourcePlanners, success).forEach(graph::addAll);
+
+        graph.addRenameDependencies();
+        // instead of waiting for all services before touching any app, each operation only waits for the
+        // services it actually needs
+        if (selectedDesiredConfigBean.getSpec() != null && selectedDesiredConfigBean.getSpec().getApps() != null) {
+            graph.addServiceDependencies(selectedDesiredConfigBean.getSpec().getApps());
+        }
+        // a failed staging keeps all apps on their old droplets instead of leaving the space half switched
+        if (deploymentStrategy == DeploymentStrategy.STAGE_AHEAD) {
+            graph.addPhaseDependencies(ApplyOperation.Type.STAGE_APPLICATION,
+                    ApplyOperation.Type.SWITCH_APPLICATION_DROPLET);
+        }
+        if (!waves.isNone()) {
+            // awaiting the health of an application takes about as long as restarting it and is limited alike
+            graph.addWaves(waves, applicationName -> new ApplyOperation(
+                    ApplyOperation.Type.AWAIT_APPLICATION_HEALTH, applicationName,
+                    bulkheads.limit(Kind.APPLICATION_RESTARTS, applicationsOperations.awaitHealthy(applicationName))));
+        }
+        return graph;
+    }
+
+    // the planners hold no state of the planned resources, so many resources are planned in parallel, each one into
+    // a graph of its own, the graphs are returned in the order of the resources
+    private List<ApplyGraph> planResources(List<Consumer<ApplyGraph>> resourcePlanners, AtomicBoolean success) {
+        Function<Consumer<ApplyGraph>, ApplyGraph> planResource = resourcePlanner -> {
+            ApplyGraph resourceGraph = new ApplyGraph();
+            try {
+                resourcePlanner.accept(resourceGraph);
+            } catch (ApplyException e) {
+                log.error(e);
+                success.set(false);
+            }
+            return resourceGraph;
+        };
+
+        // a few resources are planned faster than they are handed over to other threads, and threads that must
+        // not block, e.g. when streaming, plan on their own
+        if (resourcePlanners.size() < PARALLEL_PLANNING_THRESHOLD || Schedulers.isInNonBlockingThread()) {
+            return resourcePlanners.stream().map(planResource).collect(Collectors.toList());
+        }
+        log.debug("Planning", resourcePlanners.size(), "resources in parallel");
+        return Flux.fromIterable(resourcePlanners)
+                .flatMapSequential(resourcePlanner -> Mono.fromCallable(() -> planResource.apply(resourcePlanner))
+                        .subscribeOn(Schedulers.parallel()))
+                .collectList()
+                .block();
+    }
+
+}
@@ -2,25 +2,37 @@ package cloud.foundry.cli.logic;
 
 import static com.google.common.base.Preconditions.*;
 
+import cloud.foundry.cli.crosscutting.concurrency.Deadline;
+import cloud.foundry.cli.crosscutting.concurrency.GracefulShutdown;
 import cloud.foundry.cli.crosscutting.exceptions.ApplyException;
 import cloud.foundry.cli.crosscutting.logging.Log;
 import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
-import cloud.foundry.cli.logic.apply.ApplicationRequestsPlanner;
-import cloud.foundry.cli.logic.apply.ServiceRequestsPlanner;
-import cloud.foundry.cli.logic.apply.SpaceDevelopersRequestsPlanner;
-import cloud.foundry.cli.logic.diff.DiffResult;
-import cloud.foundry.cli.logic.diff.change.CfChange;
-import cloud.foundry.cli.logic.diff.change.container.CfContainerChange;
+import cloud.foundry.cli.crosscutting.mapping.beans.PlanBean;
+import cloud.foundry.cli.logic.apply.ApplyBulkheads;
+import cloud.foundry.cli.logic.apply.ApplyCostModel;
+import cloud.foundry.cli.logic.apply.ApplyExecutor;
+import cloud.foundry.cli.logic.apply.ApplyGraph;
+import cloud.foundry.cli.logic.apply.ApplyJournal;
+import cloud.foundry.cli.logic.apply.ApplyOperation;
+import cloud.foundry.cli.logic.apply.ApplySelection;
+import cloud.foundry.cli.logic.apply.ApplyWaves;
+import cloud.foundry.cli.logic.apply.DeploymentStrategy;
+import cloud.foundry.cli.logic.apply.LiveStateVerifier;
 import cloud.foundry.cli.operations.*;
 
 import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 /**
  * This class takes care of applying desired cloud foundry configurations to a
@@ -30,8 +42,19 @@ public class ApplyLogic {
 
     private static final Log log = Log.getLog(ApplyLogic.class);
 
+    // the maximum duration of fetching or creating spaces
+    private static final Duration SPACE_REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
     private GetLogic getLogic;
     private DiffLogic diffLogic;
+    private ApplyBulkheads bulkheads;
+    private Deadline deadline;
+    private GracefulShutdown gracefulShutdown;
+    private DeploymentStrategy deploymentStrategy;
+    private ApplyCostModel costModel;
+    private ApplyWaves waves;
+    private ConfigBean lastAppliedConfigBean;
+    private ApplySelection selection;
 
     private SpaceDevelopersOperations spaceDevelopersOperations;
     private ServicesOperations servicesOperations;
@@ -58,16 +81,45 @@ public class ApplyLogic {
      * @throws NullPointerException if the argument is null
      */
     public ApplyLogic(@Nonnull DefaultCloudFoundryOperations cfOperations, boolean autoStart) {
-        checkNotNull(cfOperations);
+        this(cfOperations, autoStart, Deadline.none());
+    }
 
-        this.servicesOperations = new ServicesOperations(cfOperations);
-        this.applicationsOperations = new ApplicationsOperations(cfOperations, autoStart);
+    /**
+     * Creates a new instance that will use the provided cf operations internally.
+     * @param autoStart sets whether app should start automatically when deployed
+     * @param cfOperations the cf operations that should be used to communicate with
+     *                     the cf instance
+     * @param deadline the deadline all requests of the apply process have to meet
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public ApplyLogic(@Nonnull DefaultCloudFoundryOperations cfOperations,
+                      boolean autoStart,
+                      @Nonnull Deadline deadline) {
+        checkNotNull(cfOperations);
+        checkNotNull(deadline);
+
+        // all operations share their reads, e.g. the service instances that are fetched during the get process are
+        // reused while applying the changes
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        // all asynchronous operations of the run are awaited together
+        AsyncOperationPoller asyncOperationPoller = new AsyncOperationPoller();
+        this.servicesOperations = new ServicesOperations(cfOperations, requestCoalescer, asyncOperationPoller);
+        this.applicationsOperations = new ApplicationsOperations(cfOperations, autoStart, requestCoalescer,
+                asyncOperationPoller);
         this.spaceOperations = new SpaceOperations(cfOperations);
         this.spaceDevelopersOperations = new SpaceDevelopersOperations(cfOperations);
         this.targetOperations = new TargetOperations(cfOperations);
 
-        this.getLogic = new GetLogic();
+        this.deadline = deadline;
+        this.getLogic = new GetLogic(deadline);
         this.diffLogic = new DiffLogic();
+        // each kind of request adapts its concurrency to its own latencies
+        this.bulkheads = ApplyBulkheads.adaptive(deadline);
+        this.gracefulShutdown = new GracefulShutdown(GracefulShutdown.DEFAULT_GRACE_PERIOD);
+        this.deploymentStrategy = DeploymentStrategy.ROLLING;
+        this.costModel = new ApplyCostModel();
+        this.waves = ApplyWaves.none();
+        this.selection = ApplySelection.all();
     }
 
     public void setApplicationsOperations(ApplicationsOperations applicationsOperations) {
@@ -98,6 +150,54 @@ public class ApplyLogic {
         this.getLogic = getLogic;
     }
 
+    public void setBulkheads(ApplyBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    public void setGracefulShutdown(GracefulShutdown gracefulShutdown) {
+        this.gracefulShutdown = gracefulShutdown;
+    }
+
+    public void setDeploymentStrategy(DeploymentStrategy deploymentStrategy) {
+        this.deploymentStrategy = deploymentStrategy;
+    }
+
+    /**
+     * @param costModel estimates the cost of the operations, records the durations of the executed operations
+     */
+    public void setCostModel(ApplyCostModel costModel) {
+        this.costModel = costModel;
+    }
+
+    public ApplyCostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * @param waves the sizes of the waves the applications are rolled out in, each wave waits for the previous wave
+     *              to become healthy
+     */
+    public void setWaves(ApplyWaves waves) {
+        this.waves = waves;
+    }
+
+    /**
+     * @param lastAppliedConfigBean the configuration that has been applied to the target last, null if unknown,
+     *                              turns the comparison of the live and the desired configuration into a three-way
+     *                              comparison
+     */
+    public void setLastAppliedConfig(ConfigBean lastAppliedConfigBean) {
+        this.lastAppliedConfigBean = lastAppliedConfigBean;
+    }
+
+    /**
+     * @param selection the resources the apply run is limited to, the other resources are neither fetched nor
+     *                  compared nor removed
+     */
+    public void setSelection(ApplySelection selection) {
+        this.selection = selection;
+    }
+
     /**
      * Provides the service of manipulating the state of a cloud foundry instance
      * such that it matches with a desired configuration ({@link ConfigBean}).
@@ -106,96 +206,348 @@ public class ApplyLogic {
      * @throws NullPointerException if one of the desired parameters is null.
      */
     public void apply(ConfigBean desiredConfigBean) {
-        checkNotNull(desiredConfigBean);
-        checkNotNull(desiredConfigBean.getTarget(), "Target bean may not be null.");
-        checkNotNull(desiredConfigBean.getTarget().getSpace(), "Space may not be null.");
+        checkDesiredConfigBean(desiredConfigBean);
 
         try {
-            Mono<List<String>> getAllRequest = spaceOperations.getAll();
-
-            log.info("Fetching names of all spaces");
-            List<String> spaceNames = getAllRequest.block();
-            log.verbose("Fetching names of all spaces completed");
+            String desiredSpaceName = targetOperations.getSpace();
 
             // getting
 
             ConfigBean liveConfigBean = new ConfigBean();
 
-            String desiredSpaceName = targetOperations.getSpace();
             // when it's a new space the getAll process can be skipped, since there is nothing to compare the config to
-            if (!spaceNames.contains(desiredSpaceName)) {
-                log.info("Creating space", desiredSpaceName);
-
-                Mono<Void> createRequest = spaceOperations.create(desiredSpaceName);
-                createRequest.block();
-                log.verbose("Creating space", desiredSpaceName, "completed");
-
-                // switch to desired space
-                log.info("Switching to space", desiredSpaceName);
+            if (!fetchSpaceNames().contains(desiredSpaceName)) {
+                createSpace(desiredSpaceName);
             } else {
                 log.verbose("Space", desiredSpaceName, "already exists, skipping");
 
-                liveConfigBean = getLogic.getAll(
-                        spaceDevelopersOperations,
-                        servicesOperations,
-                        applicationsOperations,
-                        targetOperations);
+                liveConfigBean = fetchLiveConfig(selection.withPreviousNames(desiredConfigBean));
             }
 
-            // diffing
-
-            DiffResult wrappedDiff = diffLogic.createDiffResult(liveConfigBean, desiredConfigBean);
+            // diffing and planning
 
-            CfContainerChange spaceDevelopersChange = wrappedDiff.getSpaceDevelopersChange();
-            Map<String, List<CfChange>> servicesChanges = wrappedDiff.getServiceChanges();
-            Map<String, List<CfChange>> appsChanges = wrappedDiff.getApplicationChanges();
+            // let's be optimistic
+            // prove me wrong!
+            final AtomicBoolean success = new AtomicBoolean(true);
 
-            if (spaceDevelopersChange == null && servicesChanges.isEmpty() && appsChanges.isEmpty()) {
+            ApplyGraph graph = createGraphPlanner(deploymentStrategy, waves, costModel)
+                    .createGraph(liveConfigBean, desiredConfigBean, lastAppliedConfigBean, selection, success);
+            if (graph.isEmpty() && success.get()) {
                 log.info("No changes found, no applying necessary.");
                 return;
             }
 
             // applying
 
+            createExecutor().execute(graph, desiredConfigBean, success, ApplyJournal.none());
+        } catch (Exception ex) {
+            throw new ApplyException(ex);
+        }
+    }
 
-            Flux<Void> spaceDevelopersRequests = Flux.empty();
-            if (spaceDevelopersChange != null) {
-                spaceDevelopersRequests = SpaceDevelopersRequestsPlanner
-                        .createSpaceDevelopersRequests(spaceDevelopersOperations, spaceDevelopersChange);
+    /**
+     * Manipulates the state of a cloud foundry instance like {@link #apply(ConfigBean)}, but without waiting for the
+     * whole live configuration to be fetched and compared first. The space developers and services are fetched,
+     * compared and changed first. Afterwards, each app is a unit of work of its own: its live state is fetched and
+     * compared with its desired state and its operations are performed while the other apps are still being fetched.
+     * Since only a few apps are in progress at the same time, the first apps are changed right away and the memory
+     * needed does not grow with the number of apps. Services that are removed are removed last, after the apps have
+     * been unbound from them. Renames are not detected, the apps are removed and created again instead.
+     *
+     * @param desiredConfigBean desired configuration for a cloud foundry instance
+     * @throws NullPointerException if one of the desired parameters is null.
+     * @throws ApplyException if the configuration cannot be applied, or if waves or the deployment strategy
+     * {@link DeploymentStrategy#STAGE_AHEAD} are used, which both need the operations of all apps at once
+     */
+    public void applyStreaming(ConfigBean desiredConfigBean) {
+        checkDesiredConfigBean(desiredConfigBean);
+        if (!waves.isNone() || deploymentStrategy == DeploymentStrategy.STAGE_AHEAD) {
+            throw new ApplyException("Streaming cannot be combined with waves or the deployment strategy "
+                    + DeploymentStrategy.STAGE_AHEAD);
+        }
+
+        try {
+            String desiredSpaceName = targetOperations.getSpace();
+            boolean spaceExists = fetchSpaceNames().contains(desiredSpaceName);
+            if (!spaceExists) {
+                createSpace(desiredSpaceName);
             }
 
-            ServiceRequestsPlanner serviceRequestsPlanner = new ServiceRequestsPlanner(servicesOperations);
+            new StreamingApply(getLogic, spaceDevelopersOperations, servicesOperations, applicationsOperations,
+                    createGraphPlanner(deploymentStrategy, waves, costModel), createExecutor(), selection,
+                    lastAppliedConfigBean)
+                    .apply(desiredConfigBean, spaceExists);
+        } catch (Exception ex) {
+            throw new ApplyException(ex);
+        }
+    }
 
-            Flux<Void> servicesRequests = Flux.fromIterable(servicesChanges.entrySet())
-                    .flatMap(element -> serviceRequestsPlanner.createApplyRequests(
-                            element.getKey(),
-                            element.getValue()));
+    /**
+     * Plans the manipulation of the state of a cloud foundry instance such that it matches with a desired
+     * configuration, without performing it. The plan can be applied later on via {@link #applyPlan(PlanBean)}.
+     *
+     * @param desiredConfigBean desired configuration for a cloud foundry instance
+     * @return the plan, holding the planned operations and a fingerprint of the live state they were planned for
+     * @throws NullPointerException if one of the desired parameters is null.
+     * @throws ApplyException if the operations cannot be planned
+     */
+    public PlanBean plan(ConfigBean desiredConfigBean) {
+        checkDesiredConfigBean(desiredConfigBean);
 
-            ApplicationRequestsPlanner appRequestsPlanner = new ApplicationRequestsPlanner(applicationsOperations);
+        try {
+            String desiredSpaceName = targetOperations.getSpace();
 
-            Flux<Void> appsRequests = Flux.fromIterable(appsChanges.entrySet())
-                    .flatMap(element -> appRequestsPlanner.createApplyRequests(element.getKey(),
-                            element.getValue()));
+            ConfigBean liveConfigBean = new ConfigBean();
+            String fingerprint = null;
+
+            if (!fetchSpaceNames().contains(desiredSpaceName)) {
+                log.info("Space", desiredSpaceName, "does not exist, it will be created when applying the plan");
+            } else {
+                // the fingerprint is taken before fetching, so that changes in between are noticed when applying
+                ApplySelection liveSelection = selection.withPreviousNames(desiredConfigBean);
+                fingerprint = createVerifier().fetchFingerprint(liveSelection);
+                liveConfigBean = fetchLiveConfig(liveSelection);
+            }
 
-            // let's be optimistic
-            // prove me wrong!
             final AtomicBoolean success = new AtomicBoolean(true);
-            log.info("Applying changes");
-            Flux.merge(spaceDevelopersRequests, servicesRequests)
-                    .concatWith(appsRequests)
-                    .onErrorContinue((throwable, consumer) -> {
-                        log.error(throwable);
-                        success.set(false);
-                    })
-                    .blockLast();
-            log.info("Applying changes completed");
+            ApplyGraph graph = createGraphPlanner(deploymentStrategy, waves, costModel)
+                    .createGraph(liveConfigBean, desiredConfigBean, lastAppliedConfigBean, selection, success);
             if (!success.get()) {
-                throw new RuntimeException("Failed to apply configuration: exceptions thrown during execution");
+                throw new RuntimeException("Failed to plan configuration: exceptions thrown during planning");
             }
+            log.info("Planned", graph.getOperations().size(), "operations");
 
+            PlanBean plan = new PlanBean();
+            plan.setFingerprint(fingerprint);
+            if (fingerprint != null) {
+                plan.setResourceFingerprints(LiveStateVerifier.fingerprintResources(liveConfigBean,
+                        LiveStateVerifier.getChangedResources(graph)));
+            }
+            plan.setDeploymentStrategy(deploymentStrategy.name());
+            plan.setWaves(waves.isNone() ? null : waves.toString());
+            plan.setAverageDurations(toMillis(costModel.getRecordedDurations()));
+            plan.setOnly(selection.isAll() ? null : selection.toString());
+            plan.setOperations(describeOperations(graph));
+            plan.setLive(liveConfigBean);
+            plan.setDesired(desiredConfigBean);
+            plan.setLastApplied(lastAppliedConfigBean);
+            return plan;
         } catch (Exception ex) {
             throw new ApplyException(ex);
         }
     }
-}
 
+    /**
+     * Applies a plan that has been created by {@link #plan(ConfigBean)}. Instead of fetching the whole live
+     * configuration again, only the fingerprint of the live state is compared to the fingerprint of the plan, and
+     * only the existing apps and services that the planned operations change are fetched and compared to their
+     * fingerprints in the plan. The deployment strategy of the plan takes precedence over the deployment strategy of
+     * this instance.
+     *
+     * @param plan the plan to apply
+     * @throws NullPointerException if the plan or its desired configuration is null
+     * @throws ApplyException if the live state has changed since the plan was created or if the plan does not match
+     * its configurations
+     */
+    public void applyPlan(PlanBean plan) {
+        applyPlan(plan, ApplyJournal.none());
+    }
+
+    /**
+     * Applies a plan like {@link #applyPlan(PlanBean)} and records the progress in a journal. If the journal has been
+     * resumed, the operations that have succeeded in a previous run are skipped. Since they have changed the live
+     * state, its fingerprint is not compared in that case. Instead, it is verified that the apps and services created
+     * or removed by these operations still exist or are still gone.
+     *
+     * @param plan the plan to apply
+     * @param journal the journal that records the progress of the operations
+     * @throws NullPointerException if any of the arguments or the desired configuration of the plan is null
+     * @throws ApplyException if the live state has changed since the plan was created or if the plan does not match
+     * its configurations
+     */
+    public void applyPlan(PlanBean plan, ApplyJournal journal) {
+        checkNotNull(plan);
+        checkNotNull(journal);
+        checkDesiredConfigBean(plan.getDesired());
+        checkNotNull(plan.getDeploymentStrategy(), "Deployment strategy may not be null.");
+
+        try {
+            String desiredSpaceName = targetOperations.getSpace();
+            boolean spaceExists = fetchSpaceNames().contains(desiredSpaceName);
+            LiveStateVerifier verifier = createVerifier();
+            ApplySelection planSelection = plan.getOnly() == null
+                    ? ApplySelection.all()
+                    : ApplySelection.parse(plan.getOnly());
+
+            if (plan.getFingerprint() == null) {
+                if (spaceExists && !journal.isResumed()) {
+                    throw new ApplyException("Space " + desiredSpaceName + " has been created since the plan was "
+                            + "created, please create a new plan");
+                }
+                if (!spaceExists) {
+                    createSpace(desiredSpaceName);
+                }
+            } else {
+                if (!spaceExists) {
+                    throw new ApplyException("Space " + desiredSpaceName + " has been removed since the plan was "
+                            + "created, please create a new plan");
+                }
+                if (!journal.isResumed()) {
+                    log.info("Comparing the live state with the plan");
+                    Map<String, String> resourceFingerprints = plan.getResourceFingerprints() == null
+                            ? Collections.emptyMap()
+                            : plan.getResourceFingerprints();
+                    if (!plan.getFingerprint().equals(verifier.fetchFingerprint(
+                            planSelection.withPreviousNames(plan.getDesired())))
+                            || !resourceFingerprints.equals(
+                                    verifier.fetchResourceFingerprints(resourceFingerprints.keySet()))) {
+                        throw new ApplyException("The live state of space " + desiredSpaceName + " has changed "
+                                + "since the plan was created, please create a new plan");
+                    }
+                    log.verbose("Comparing the live state with the plan completed");
+                }
+            }
+
+            // the operations hold prepared requests, which cannot be stored in the plan, so they are derived from the
+            // recorded configurations again, which does not need any request to the cloud foundry instance
+            ConfigBean liveConfigBean = plan.getLive() == null ? new ConfigBean() : plan.getLive();
+            DeploymentStrategy planDeploymentStrategy = DeploymentStrategy.valueOf(plan.getDeploymentStrategy());
+            ApplyWaves planWaves = plan.getWaves() == null ? ApplyWaves.none() : ApplyWaves.parse(plan.getWaves());
+            // the durations recorded in the meantime must not change the alternatives chosen when planning
+            ApplyCostModel planCostModel = plan.getAverageDurations() == null
+                    ? new ApplyCostModel()
+                    : new ApplyCostModel(fromMillis(plan.getAverageDurations()));
+
+            final AtomicBoolean success = new AtomicBoolean(true);
+            ApplyGraph graph = createGraphPlanner(planDeploymentStrategy, planWaves, planCostModel)
+                    .createGraph(liveConfigBean, plan.getDesired(), plan.getLastApplied(), planSelection, success);
+
+            Map<String, List<String>> plannedOperations = plan.getOperations() == null
+                    ? Collections.emptyMap()
+                    : plan.getOperations();
+            if (!success.get() || !describeOperations(graph).equals(plannedOperations)) {
+                throw new ApplyException("The planned operations do not match the configurations of the plan, "
+                        + "please create a new plan");
+            }
+            if (graph.isEmpty()) {
+                log.info("No changes planned, no applying necessary.");
+                return;
+            }
+
+            if (journal.isResumed()) {
+                verifier.verifyCompletedOperations(graph, journal.getCompletedOperations(graph));
+            }
+
+            createExecutor().execute(graph, plan.getDesired(), success, journal);
+        } catch (Exception ex) {
+            throw new ApplyException(ex);
+        }
+    }
+
+    /**
+     * Explains the operations that would manipulate the state of a cloud foundry instance such that it matches with
+     * a desired configuration, together with their estimated cost. Nothing is fetched or applied.
+     *
+     * @param liveConfigBean the current configuration of the cloud foundry instance
+     * @param desiredConfigBean desired configuration for a cloud foundry instance
+     * @return the explanation, one line per operation and a line with the estimated total
+     * @throws NullPointerException if any of the arguments is null
+     * @throws ApplyException if the operations cannot be planned
+     */
+    public String explain(ConfigBean liveConfigBean, ConfigBean desiredConfigBean) {
+        checkNotNull(liveConfigBean);
+        checkNotNull(desiredConfigBean);
+
+        final AtomicBoolean success = new AtomicBoolean(true);
+        ApplyGraph graph = createGraphPlanner(deploymentStrategy, waves, costModel)
+                .createGraph(liveConfigBean, desiredConfigBean, lastAppliedConfigBean, selection, success);
+        if (!success.get()) {
+            throw new ApplyException("Failed to plan configuration: exceptions thrown during planning");
+        }
+
+        StringBuilder explanation = new StringBuilder();
+        for (ApplyOperation operation : graph.getOperations()) {
+            explanation.append(String.format("%-70s %s%n", operation, costModel.estimate(operation)));
+        }
+        explanation.append("Estimated total: ").append(costModel.estimate(graph));
+        return explanation.toString();
+    }
+
+    private void checkDesiredConfigBean(ConfigBean desiredConfigBean) {
+        checkNotNull(desiredConfigBean);
+        checkNotNull(desiredConfigBean.getTarget(), "Target bean may not be null.");
+        checkNotNull(desiredConfigBean.getTarget().getSpace(), "Space may not be null.");
+    }
+
+    private List<String> fetchSpaceNames() {
+        Mono<List<String>> getAllRequest = deadline.limit(spaceOperations.getAll(), SPACE_REQUEST_TIMEOUT);
+
+        log.info("Fetching names of all spaces");
+        List<String> spaceNames = getAllRequest.block();
+        log.verbose("Fetching names of all spaces completed");
+        return spaceNames;
+    }
+
+    private void createSpace(String spaceName) {
+        log.info("Creating space", spaceName);
+
+        Mono<Void> createRequest = deadline.limit(spaceOperations.create(spaceName), SPACE_REQUEST_TIMEOUT);
+        createRequest.block();
+        log.verbose("Creating space", spaceName, "completed");
+
+        // switch to desired space
+        log.info("Switching to space", spaceName);
+    }
+
+    private ConfigBean fetchLiveConfig(ApplySelection selection) {
+        if (selection.isAll()) {
+            return getLogic.getAll(spaceDevelopersOperations, servicesOperations, applicationsOperations,
+                    targetOperations);
+        }
+        log.info("Fetching the selected resources", selection);
+        return getLogic.getSelected(spaceDevelopersOperations, servicesOperations, applicationsOperations,
+                targetOperations, selection);
+    }
+
+    // the operations are settable, so the collaborators are created for each run
+    private ApplyGraphPlanner createGraphPlanner(DeploymentStrategy deploymentStrategy,
+                                                 ApplyWaves waves,
+                                                 ApplyCostModel costModel) {
+        return new ApplyGraphPlanner(diffLogic, spaceDevelopersOperations, servicesOperations,
+                applicationsOperations, bulkheads, deploymentStrategy, waves, costModel);
+    }
+
+    private ApplyExecutor createExecutor() {
+        return new ApplyExecutor(bulkheads, gracefulShutdown, deadline, costModel);
+    }
+
+    private LiveStateVerifier createVerifier() {
+        return new LiveStateVerifier(spaceDevelopersOperations, applicationsOperations, servicesOperations,
+                selection -> getLogic.getSelected(spaceDevelopersOperations, servicesOperations,
+                        applicationsOperations, targetOperations, selection),
+                deadline);
+    }
+
+    private static Map<String, Long> toMillis(Map<ApplyOperation.Type, Duration> durations) {
+        Map<String, Long> millis = new TreeMap<>();
+        durations.forEach((type, duration) -> millis.put(type.name(), duration.toMillis()));
+        return millis;
+    }
+
+    private static Map<ApplyOperation.Type, Duration> fromMillis(Map<String, Long> millis) {
+        Map<ApplyOperation.Type, Duration> durations = new EnumMap<>(ApplyOperation.Type.class);
+        millis.forEach((type, duration) -> durations.put(ApplyOperation.Type.valueOf(type),
+                Duration.ofMillis(duration)));
+        return durations;
+    }
+
+    private Map<String, List<String>> describeOperations(ApplyGraph graph) {
+        Map<String, List<String>> descriptions = new LinkedHashMap<>();
+        for (ApplyOperation operation : graph.getOperations()) {
+            descriptions.put(operation.toString(), graph.getDependencies(operation).stream()
+                    .map(ApplyOperation::toString)
+                    .collect(Collectors.toList()));
+        }
+        return descriptions;
+    }
+}
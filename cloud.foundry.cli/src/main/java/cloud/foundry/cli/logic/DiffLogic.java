@@ -6,9 +6,12 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import cloud.foundry.cli.crosscutting.exceptions.DiffException;
 import cloud.foundry.cli.crosscutting.logging.Log;
 import cloud.foundry.cli.crosscutting.mapping.beans.Bean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
 import cloud.foundry.cli.logic.diff.DiffNode;
 import cloud.foundry.cli.logic.diff.DiffResult;
 import cloud.foundry.cli.logic.diff.Differ;
+import cloud.foundry.cli.logic.diff.LastAppliedBaseline;
+import cloud.foundry.cli.logic.diff.ManifestDefaults;
 import cloud.foundry.cli.logic.diff.output.DiffOutput;
 
 /**
@@ -41,12 +44,39 @@ public class DiffLogic {
         }
     }
 
+    /**
+     * Compares the two given configurations like {@link #createDiffResult(Bean, Bean)}, but takes the configuration
+     * into account that has been applied last. Apps, services and space developers that have not changed since then
+     * are not compared to the live configuration, and settings that have never been declared are left as they are.
+     * @param liveConfig the configuration that is currently on the live system
+     * @param desiredConfig the configuration state that the live system should change to
+     * @param lastAppliedConfig the configuration that has been applied to the live system last, null if unknown
+     * @return @DiffResult object that provides access to the found changes
+     * @throws NullPointerException when liveConfig or desiredConfig is null
+     * @throws DiffException in case of any errors during the diff procedure
+     */
+    public DiffResult createDiffResult(ConfigBean liveConfig, ConfigBean desiredConfig, ConfigBean lastAppliedConfig) {
+        checkNotNull(liveConfig);
+        checkNotNull(desiredConfig);
+
+        if (lastAppliedConfig == null) {
+            return createDiffResult(liveConfig, desiredConfig);
+        }
+        try {
+            log.debug("Comparing the desired configuration with the last applied configuration");
+            return doCreateDiffResult(LastAppliedBaseline.normalize(liveConfig, desiredConfig, lastAppliedConfig),
+                    desiredConfig);
+        } catch (Exception e) {
+            throw new DiffException(e.getMessage(), e);
+        }
+    }
+
     private DiffResult doCreateDiffResult(Bean liveConfig, Bean desiredConfig) {
         Differ differ = new Differ();
         log.debug("Adding filter to ignore map changes on spec bean");
         differ.ignoreSpecBeanMapChange();
 
-        return new DiffResult(differ.createDiffTree(liveConfig, desiredConfig));
+        return new DiffResult(differ.createDiffTree(withoutDefaults(liveConfig, desiredConfig), desiredConfig));
     }
 
     /**
@@ -75,7 +105,7 @@ public class DiffLogic {
         log.debug("Adding filter to ignore map changes on spec bean");
         differ.ignoreSpecBeanMapChange();
 
-        DiffNode diffNode = differ.createDiffTree(liveConfig, desiredConfig);
+        DiffNode diffNode = differ.createDiffTree(withoutDefaults(liveConfig, desiredConfig), desiredConfig);
 
         DiffOutput diffOutput = new DiffOutput();
         log.info("Creating diff output");
@@ -83,4 +113,12 @@ public class DiffLogic {
         log.verbose("Creating diff output completed");
         return output;
     }
+
+    private Bean withoutDefaults(Bean liveConfig, Bean desiredConfig) {
+        if (!(liveConfig instanceof ConfigBean)) {
+            return liveConfig;
+        }
+        log.debug("Removing the defaults of cloud foundry the desired configuration omits from the live configuration");
+        return ManifestDefaults.normalize((ConfigBean) liveConfig, (ConfigBean) desiredConfig);
+    }
 }
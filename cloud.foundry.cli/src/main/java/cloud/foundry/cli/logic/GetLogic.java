@@ -1,5 +1,10 @@
 package cloud.foundry.cli.logic;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.concurrency.AdaptiveConcurrencyLimiter;
+import cloud.foundry.cli.crosscutting.concurrency.ConcurrencyLimiter;
+import cloud.foundry.cli.crosscutting.concurrency.Deadline;
 import cloud.foundry.cli.crosscutting.exceptions.GetException;
 import cloud.foundry.cli.crosscutting.logging.Log;
 import cloud.foundry.cli.crosscutting.mapping.ResourceProvider;
@@ -8,7 +13,9 @@ import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.TargetBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
+import cloud.foundry.cli.logic.apply.ApplySelection;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -26,6 +33,42 @@ public class GetLogic {
 
     private static final Log log = Log.getLog(GetLogic.class);
 
+    // the maximum duration of fetching all space developers, services or applications
+    private static final Duration FETCH_TIMEOUT = Duration.ofMinutes(10);
+
+    private final ConcurrencyLimiter fetchLimiter;
+    private final Deadline deadline;
+
+    /**
+     * Creates a get logic that adapts the number of concurrent requests for the single services and applications to
+     * the load of the cloud foundry instance.
+     */
+    public GetLogic() {
+        this(Deadline.none());
+    }
+
+    /**
+     * Creates a get logic that adapts the number of concurrent requests for the single services and applications to
+     * the load of the cloud foundry instance.
+     * @param deadline the deadline all requests have to meet
+     * @throws NullPointerException if the argument is null
+     */
+    public GetLogic(Deadline deadline) {
+        this(new AdaptiveConcurrencyLimiter("fetch"), deadline);
+    }
+
+    /**
+     * @param fetchLimiter limits the concurrent requests for the single services and applications
+     * @param deadline the deadline all requests have to meet
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public GetLogic(ConcurrencyLimiter fetchLimiter, Deadline deadline) {
+        checkNotNull(fetchLimiter);
+        checkNotNull(deadline);
+
+        this.fetchLimiter = fetchLimiter;
+        this.deadline = deadline;
+    }
 
     /**
      * Gets all the necessary configuration-information from a cloud foundry
@@ -44,9 +87,11 @@ public class GetLogic {
                              TargetOperations targetOperations) {
 
         String apiVersion = VersionPropertiesFileUtils.determineApiVersion(new ResourceProvider(), new Properties());
-        Mono<List<String>> spaceDevelopers = spaceDevelopersOperations.getAll();
-        Mono<Map<String, ServiceBean>> services = servicesOperations.getAll();
-        Mono<Map<String, ApplicationBean>> apps = applicationsOperations.getAll();
+        Mono<List<String>> spaceDevelopers = deadline.limit(spaceDevelopersOperations.getAll(), FETCH_TIMEOUT);
+        Mono<Map<String, ServiceBean>> services = deadline.limit(servicesOperations.getAll(fetchLimiter),
+                FETCH_TIMEOUT);
+        Mono<Map<String, ApplicationBean>> apps = deadline.limit(applicationsOperations.getAll(fetchLimiter),
+                FETCH_TIMEOUT);
         ConfigBean configBean = new ConfigBean();
         SpecBean specBean = new SpecBean();
         configBean.setApiVersion(apiVersion);
@@ -61,6 +106,57 @@ public class GetLogic {
             getAllRequests.blockLast();
         } catch (RuntimeException e) {
             throw new GetException(e);
+        } finally {
+            log.verbose("Concurrency limit of", fetchLimiter.getName(), "is", fetchLimiter.getLimit());
+        }
+
+        configBean.setSpec(specBean);
+        configBean.setTarget(determineTarget(targetOperations));
+        return configBean;
+    }
+
+    /**
+     * Gets the configuration-information of the selected resources from a cloud foundry instance. Only the data of
+     * the selected apps and services is fetched, the space developers only if all resources are selected.
+     *
+     * @param spaceDevelopersOperations operations for manipulating space developers on a cloud foundry instance
+     * @param servicesOperations operations for querying and manipulating services on a cloud foundry instance
+     * @param applicationsOperations operations for querying and manipulating applications on a cloud foundry instance
+     * @param targetOperations operations to determine target information from a cloud foundry instance
+     * @param selection the selected resources
+     * @return a config bean instance holding the information of the selected resources
+     * @throws NullPointerException if the selection is null
+     * @throws GetException if an error occurs during the information retrieving
+     */
+    public ConfigBean getSelected(SpaceDevelopersOperations spaceDevelopersOperations,
+                                  ServicesOperations servicesOperations,
+                                  ApplicationsOperations applicationsOperations,
+                                  TargetOperations targetOperations,
+                                  ApplySelection selection) {
+        checkNotNull(selection);
+        if (selection.isAll()) {
+            return getAll(spaceDevelopersOperations, servicesOperations, applicationsOperations, targetOperations);
+        }
+
+        String apiVersion = VersionPropertiesFileUtils.determineApiVersion(new ResourceProvider(), new Properties());
+        Mono<Map<String, ServiceBean>> services = deadline.limit(
+                servicesOperations.getAll(fetchLimiter, selection::includesService), FETCH_TIMEOUT);
+        Mono<Map<String, ApplicationBean>> apps = deadline.limit(
+                applicationsOperations.getAll(fetchLimiter, selection::includesApplication), FETCH_TIMEOUT);
+        ConfigBean configBean = new ConfigBean();
+        SpecBean specBean = new SpecBean();
+        configBean.setApiVersion(apiVersion);
+        log.debug("Fetching the data of the selected apps and services");
+        Flux<Object> getSelectedRequests = Flux.merge(
+                services.doOnSuccess(specBean::setServices),
+                apps.doOnSuccess(specBean::setApps));
+
+        try {
+            getSelectedRequests.blockLast();
+        } catch (RuntimeException e) {
+            throw new GetException(e);
+        } finally {
+            log.verbose("Concurrency limit of", fetchLimiter.getName(), "is", fetchLimiter.getLimit());
         }
 
         configBean.setSpec(specBean);
@@ -75,7 +171,8 @@ public class GetLogic {
      * @throws GetException if an error occurs during the information retrieving
      */
     List<String> getSpaceDevelopers(SpaceDevelopersOperations spaceDevelopersOperations) {
-        Mono<List<String>> getSpaceDevelopersRequest = spaceDevelopersOperations.getAll();
+        Mono<List<String>> getSpaceDevelopersRequest = deadline.limit(spaceDevelopersOperations.getAll(),
+                FETCH_TIMEOUT);
 
         try {
             return getSpaceDevelopersRequest.block();
@@ -91,7 +188,8 @@ public class GetLogic {
      * @throws GetException if an error occurs during the information retrieving
      */
     Map<String, ServiceBean> getServices(ServicesOperations servicesOperations) {
-        Mono<Map<String, ServiceBean>> getServicesRequest = servicesOperations.getAll();
+        Mono<Map<String, ServiceBean>> getServicesRequest = deadline.limit(servicesOperations.getAll(fetchLimiter),
+                FETCH_TIMEOUT);
 
         try {
             return getServicesRequest.block();
@@ -107,7 +205,9 @@ public class GetLogic {
      * @throws GetException if an error occurs during the information retrieving
      */
     Map<String, ApplicationBean> getApplications(ApplicationsOperations applicationsOperations) {
-        Mono<Map<String, ApplicationBean>> getApplicationsRequest = applicationsOperations.getAll();
+        Mono<Map<String, ApplicationBean>> getApplicationsRequest = deadline.limit(
+                applicationsOperations.getAll(fetchLimiter),
+                FETCH_TIMEOUT);
 
         try {
             return getApplicationsRequest.block();
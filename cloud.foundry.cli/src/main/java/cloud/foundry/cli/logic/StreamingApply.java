@@ -0,0 +1,190 @@
+package cloud.foundry.cli.logic;
+
+import cloud.foundry.cli.crosscutting.concurrency.AdaptiveConcurrencyLimiter;
+import cloud.foundry.cli.crosscutting.logging.Log;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
+import cloud.foundry.cli.logic.apply.ApplyExecutor;
+import cloud.foundry.cli.logic.apply.ApplyGraph;
+import cloud.foundry.cli.logic.apply.ApplyJournal;
+import cloud.foundry.cli.logic.apply.ApplySelection;
+import cloud.foundry.cli.logic.apply.ApplySummary;
+import cloud.foundry.cli.operations.ApplicationsOperations;
+import cloud.foundry.cli.operations.ServicesOperations;
+import cloud.foundry.cli.operations.SpaceDevelopersOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Applies a desired configuration app by app, see {@link ApplyLogic#applyStreaming(ConfigBean)}. The space
+ * developers and services are fetched, compared and changed first, afterwards the apps are streamed, and the removed
+ * services are removed last.
+ */
+class StreamingApply {
+
+    private static final Log log = Log.getLog(StreamingApply.class);
+
+    // the number of apps that are fetched, compared and changed at the same time when streaming
+    private static final int STREAMED_APPLICATIONS = 16;
+
+    private final GetLogic getLogic;
+    private final SpaceDevelopersOperations spaceDevelopersOperations;
+    private final ServicesOperations servicesOperations;
+    private final ApplicationsOperations applicationsOperations;
+    private final ApplyGraphPlanner graphPlanner;
+    private final ApplyExecutor executor;
+    private final ApplySelection selection;
+    private final ConfigBean lastAppliedConfigBean;
+
+    StreamingApply(GetLogic getLogic,
+                   SpaceDevelopersOperations spaceDevelopersOperations,
+                   ServicesOperations servicesOperations,
+                   ApplicationsOperations applicationsOperations,
+                   ApplyGraphPlanner graphPlanner,
+                   ApplyExecutor executor,
+                   ApplySelection selection,
+                   ConfigBean lastAppliedConfigBean) {
+        this.getLogic = getLogic;
+        this.spaceDevelopersOperations = spaceDevelopersOperations;
+        this.servicesOperations = servicesOperations;
+        this.applicationsOperations = applicationsOperations;
+        this.graphPlanner = graphPlanner;
+        this.executor = executor;
+        this.selection = selection;
+        this.lastAppliedConfigBean = lastAppliedConfigBean;
+    }
+
+    /**
+     * @param desiredConfigBean desired configuration for a cloud foundry instance
+     * @param spaceExists whether the space existed before, otherwise there is nothing to fetch
+     * @throws RuntimeException if any operation fails or is skipped
+     */
+    void apply(ConfigBean desiredConfigBean, boolean spaceExists) {
+        // the space developers and services are few compared to the apps, so they are fetched as a whole
+        List<String> liveSpaceDevelopers = spaceExists && selection.includesSpaceDevelopers()
+                ? getLogic.getSpaceDevelopers(spaceDevelopersOperations)
+                : null;
+        // renamed services are neither renamed nor left behind, they are removed and created again
+        Map<String, ServiceBean> liveServices = spaceExists
+                ? selection.withPreviousNames(desiredConfigBean)
+                        .filterServices(getLogic.getServices(servicesOperations))
+                : Collections.emptyMap();
+        Map<String, ServiceBean> desiredServices = getServices(desiredConfigBean);
+
+        // services that are removed stay until the apps have been unbound from them
+        Map<String, ServiceBean> keptServices = new LinkedHashMap<>(liveServices);
+        keptServices.putAll(desiredServices);
+        Map<String, ServiceBean> removedServices = new LinkedHashMap<>(liveServices);
+        removedServices.keySet().removeAll(desiredServices.keySet());
+
+        ConfigBean liveServicesConfigBean = createConfigBean(liveSpaceDevelopers, liveServices, null);
+        ConfigBean desiredServicesConfigBean = createConfigBean(desiredConfigBean.getSpec().getSpaceDevelopers(),
+                keptServices, null);
+        ConfigBean lastAppliedServicesConfigBean = lastAppliedConfigBean == null
+                || lastAppliedConfigBean.getSpec() == null
+                ? null
+                : createConfigBean(lastAppliedConfigBean.getSpec().getSpaceDevelopers(),
+                        getServices(lastAppliedConfigBean), null);
+
+        AtomicBoolean success = new AtomicBoolean(true);
+        ApplySummary summary = new ApplySummary();
+        Map<String, Integer> priorities = ApplyExecutor.getApplicationPriorities(desiredConfigBean);
+        Flux<Void> operations = Flux.concat(
+                Flux.defer(() -> executor.run(graphPlanner.createGraph(liveServicesConfigBean,
+                        desiredServicesConfigBean, lastAppliedServicesConfigBean, selection, success),
+                        priorities, summary, success, ApplyJournal.none())),
+                Flux.defer(() -> streamApplications(desiredConfigBean, spaceExists, priorities, summary,
+                        success)),
+                Flux.defer(() -> executor.run(graphPlanner.createGraph(createConfigBean(null, removedServices, null),
+                        createConfigBean(null, Collections.emptyMap(), null), null, selection, success),
+                        priorities, summary, success, ApplyJournal.none())));
+
+        log.info("Applying changes app by app");
+        executor.await(operations, summary, success);
+    }
+
+    private Flux<Void> streamApplications(ConfigBean desiredConfigBean,
+                                          boolean spaceExists,
+                                          Map<String, Integer> priorities,
+                                          ApplySummary summary,
+                                          AtomicBoolean success) {
+        Map<String, ApplicationBean> desiredApps = getApplications(desiredConfigBean);
+        ApplySelection liveSelection = selection.withPreviousNames(desiredConfigBean);
+        Mono<Set<String>> liveApplicationNames = spaceExists
+                ? applicationsOperations.getSummaries().map(Map::keySet)
+                : Mono.just(Collections.emptySet());
+
+        return liveApplicationNames.flatMapMany(liveNames -> Flux.concat(
+                // new apps do not need to be fetched, so they go first
+                Flux.fromIterable(desiredApps.keySet())
+                        .filter(name -> selection.includesApplication(name) && !liveNames.contains(name))
+                        .map(name -> createApplicationGraph(name, null, desiredApps, success)),
+                // apps created in the meantime are not fetched again
+                Flux.defer(() -> liveNames.isEmpty()
+                        ? Flux.empty()
+                        : applicationsOperations.getEach(new AdaptiveConcurrencyLimiter("fetch"),
+                                name -> liveNames.contains(name) && liveSelection.includesApplication(name))
+                        .map(app -> createApplicationGraph(app.getT1(), app.getT2(), desiredApps, success)))))
+                // each app is fetched, compared and changed on its own, but only a few at the same time
+                .flatMap(graph -> executor.run(graph, priorities, summary, success, ApplyJournal.none()),
+                        STREAMED_APPLICATIONS);
+    }
+
+    private ApplyGraph createApplicationGraph(String applicationName,
+                                              ApplicationBean liveApplicationBean,
+                                              Map<String, ApplicationBean> desiredApps,
+                                              AtomicBoolean success) {
+        ConfigBean lastAppliedApplicationConfigBean = lastAppliedConfigBean == null
+                ? null
+                : createConfigBean(null, null, getApplication(getApplications(lastAppliedConfigBean), applicationName));
+        return graphPlanner.createGraph(createConfigBean(null, null, getApplication(
+                        liveApplicationBean == null
+                                ? Collections.emptyMap()
+                                : Collections.singletonMap(applicationName, liveApplicationBean),
+                        applicationName)),
+                createConfigBean(null, null, getApplication(desiredApps, applicationName)),
+                lastAppliedApplicationConfigBean, ApplySelection.all(), success);
+    }
+
+    private static Map<String, ApplicationBean> getApplication(Map<String, ApplicationBean> apps,
+                                                               String applicationName) {
+        ApplicationBean app = apps.get(applicationName);
+        return app == null ? Collections.emptyMap() : Collections.singletonMap(applicationName, app);
+    }
+
+    private static Map<String, ApplicationBean> getApplications(ConfigBean configBean) {
+        if (configBean.getSpec() == null || configBean.getSpec().getApps() == null) {
+            return Collections.emptyMap();
+        }
+        return configBean.getSpec().getApps();
+    }
+
+    private static Map<String, ServiceBean> getServices(ConfigBean configBean) {
+        if (configBean.getSpec() == null || configBean.getSpec().getServices() == null) {
+            return Collections.emptyMap();
+        }
+        return configBean.getSpec().getServices();
+    }
+
+    private static ConfigBean createConfigBean(List<String> spaceDevelopers,
+                                               Map<String, ServiceBean> services,
+                                               Map<String, ApplicationBean> apps) {
+        SpecBean spec = new SpecBean();
+        spec.setSpaceDevelopers(spaceDevelopers);
+        spec.setServices(services);
+        spec.setApps(apps);
+        ConfigBean configBean = new ConfigBean();
+        configBean.setSpec(spec);
+        return configBean;
+    }
+
+}
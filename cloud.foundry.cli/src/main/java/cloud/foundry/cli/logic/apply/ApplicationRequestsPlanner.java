@@ -7,6 +7,9 @@ import cloud.foundry.cli.crosscutting.logging.Log;
 import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationManifestBean;
 import cloud.foundry.cli.crosscutting.mapping.validation.ObjectPropertyValidation;
+import cloud.foundry.cli.logic.apply.ApplyBulkheads.Kind;
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
+import cloud.foundry.cli.logic.diff.ManifestDefaults;
 import cloud.foundry.cli.logic.diff.change.CfChange;
 import cloud.foundry.cli.logic.diff.change.ChangeType;
 import cloud.foundry.cli.logic.diff.change.container.CfContainerChange;
@@ -17,7 +20,6 @@ import cloud.foundry.cli.logic.diff.change.object.CfNewObject;
 import cloud.foundry.cli.logic.diff.change.object.CfRemovedObject;
 import cloud.foundry.cli.operations.ApplicationsOperations;
 import org.cloudfoundry.operations.applications.ApplicationHealthCheck;
-import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -27,7 +29,8 @@ import java.util.function.Predicate;
 
 /**
  * This class is responsible to build the requests in the context of
- * applications according to the CfChanges.
+ * applications according to the CfChanges. It holds no state of the planned applications, so it can plan several
+ * applications at the same time.
  */
 public class ApplicationRequestsPlanner {
 
@@ -47,19 +50,58 @@ public class ApplicationRequestsPlanner {
     private static final String ROUTES_FIELD_NAME = "routes";
     private static final String INSTANCES_FIELD_NAME = "instances";
 
-
-    // stores field-names related to applications that require an app restart when
-    // their values in the configuration are changed
-    private static final Set<String> FIELDS_REQUIRE_RESTART = new HashSet<String>() {{
-        add(META_FIELD_NAME);
+    // stores field-names related to applications that require the bits of the app to be pushed again when their
+    // values in the configuration are changed
+    private static final Set<String> FIELDS_REQUIRE_PUSH = new HashSet<String>() {{
         add(PATH_FIELD_NAME);
-        add(BUILDPACK_FIELD_NAME);
+    }};
+
+    // stores field-names related to applications that are changed by scaling the app
+    private static final Set<String> FIELDS_REQUIRE_SCALE = new HashSet<String>() {{
+        add(MEMORY_FIELD_NAME);
+        add(DISK_FIELD_NAME);
+        add(INSTANCES_FIELD_NAME);
+    }};
+
+    // stores field-names related to applications that are changed by scaling the app, the changes take effect after
+    // a restart
+    private static final Set<String> FIELDS_REQUIRE_SCALE_AND_RESTART = new HashSet<String>() {{
+        add(MEMORY_FIELD_NAME);
+        add(DISK_FIELD_NAME);
+    }};
+
+    // stores field-names related to applications that are changed by updating the web process of the app, the
+    // changes take effect after a restart
+    private static final Set<String> FIELDS_REQUIRE_PROCESS_UPDATE = new HashSet<String>() {{
         add(COMMAND_FIELD_NAME);
-        add(STACK_FIELD_NAME);
         add(HEALTH_CHECK_TYPE_FIELD_NAME);
         add(HEALTH_CHECK_HTTP_ENDPOINT_FIELD_NAME);
-        add(MEMORY_FIELD_NAME);
-        add(DISK_FIELD_NAME);
+    }};
+
+    // stores field-names related to applications that are changed by updating the lifecycle of the app, the changes
+    // take effect after a restage
+    private static final Set<String> FIELDS_REQUIRE_LIFECYCLE_UPDATE = new HashSet<String>() {{
+        add(BUILDPACK_FIELD_NAME);
+        add(STACK_FIELD_NAME);
+    }};
+
+    // the lifecycle actions that make the changes of an app take effect, ordered by their cost, each action also
+    // makes the changes take effect that require a cheaper action
+    private enum LifecycleAction {
+        NONE,
+        RESTART,
+        RESTAGE
+    }
+
+    // stores the types of operations whose changes only take effect after a lifecycle action of the app, together
+    // with the cheapest action that suffices
+    private static final Map<Type, LifecycleAction> REQUIRED_LIFECYCLE_ACTIONS = new EnumMap<Type, LifecycleAction>(
+            Type.class) {{
+        put(Type.UPDATE_APPLICATION_LIFECYCLE, LifecycleAction.RESTAGE);
+        put(Type.UPDATE_APPLICATION_PROCESS, LifecycleAction.RESTART);
+        put(Type.UPDATE_ENVIRONMENT_VARIABLES, LifecycleAction.RESTART);
+        put(Type.BIND_SERVICE, LifecycleAction.RESTART);
+        put(Type.UNBIND_SERVICE, LifecycleAction.RESTART);
     }};
 
     // assertion checks to make sure fields actually exist
@@ -87,14 +129,73 @@ public class ApplicationRequestsPlanner {
     }
 
     private final ApplicationsOperations appOperations;
-    private String applicationName;
+    private final ApplyBulkheads bulkheads;
+    private final DeploymentStrategy deploymentStrategy;
+    private final ApplyCostModel costModel;
+
+    // the application that is planned, passed along instead of being kept in a field, so that a planner can plan
+    // several applications at the same time
+    private static class Context {
+        private final String applicationName;
+        private final List<CfChange> changes;
+
+        private Context(String applicationName, List<CfChange> changes) {
+            this.applicationName = applicationName;
+            this.changes = changes;
+        }
+    }
 
     /**
      *
      * @param appOperations the ApplicationOperations object used for
      */
     public ApplicationRequestsPlanner(ApplicationsOperations appOperations) {
+        this(appOperations, new ApplyBulkheads());
+    }
+
+    /**
+     *
+     * @param appOperations the ApplicationOperations object used for
+     * @param bulkheads the bulkheads the planned requests run in
+     * @throws NullPointerException if the bulkheads are null
+     */
+    public ApplicationRequestsPlanner(ApplicationsOperations appOperations, ApplyBulkheads bulkheads) {
+        this(appOperations, bulkheads, DeploymentStrategy.ROLLING);
+    }
+
+    /**
+     *
+     * @param appOperations the ApplicationOperations object used for
+     * @param bulkheads the bulkheads the planned requests run in
+     * @param deploymentStrategy the strategy to roll out new bits of the applications
+     * @throws NullPointerException if the bulkheads or the deployment strategy are null
+     */
+    public ApplicationRequestsPlanner(ApplicationsOperations appOperations,
+                                      ApplyBulkheads bulkheads,
+                                      DeploymentStrategy deploymentStrategy) {
+        this(appOperations, bulkheads, deploymentStrategy, new ApplyCostModel());
+    }
+
+    /**
+     *
+     * @param appOperations the ApplicationOperations object used for
+     * @param bulkheads the bulkheads the planned requests run in
+     * @param deploymentStrategy the strategy to roll out new bits of the applications
+     * @param costModel estimates the cost of the alternative ways to apply the changes of an application
+     * @throws NullPointerException if the bulkheads, the deployment strategy or the cost model are null
+     */
+    public ApplicationRequestsPlanner(ApplicationsOperations appOperations,
+                                      ApplyBulkheads bulkheads,
+                                      DeploymentStrategy deploymentStrategy,
+                                      ApplyCostModel costModel) {
+        checkNotNull(bulkheads);
+        checkNotNull(deploymentStrategy);
+        checkNotNull(costModel);
+
         this.appOperations = appOperations;
+        this.bulkheads = bulkheads;
+        this.deploymentStrategy = deploymentStrategy;
+        this.costModel = costModel;
     }
 
     /**
@@ -109,54 +210,167 @@ public class ApplicationRequestsPlanner {
      */
     public Flux<Void> createApplyRequests(@Nonnull String applicationName,
         @Nonnull List<CfChange> applicationChanges) {
+        ApplyGraph graph = new ApplyGraph();
+        addApplyOperations(graph, applicationName, applicationChanges);
+        return graph.execute();
+    }
+
+    /**
+     * Adds the operations for one application to the graph, including the dependencies among them.
+     *
+     * @param graph              the graph to add the operations to
+     * @param applicationName    the name of the application
+     * @param applicationChanges a list with all the Changes found during diff for
+     *                           that specific application
+     * @throws NullPointerException if any of the arguments are null
+     * @throws ApplyException if during the planing process a non recoverable error occurs
+     */
+    public void addApplyOperations(@Nonnull ApplyGraph graph,
+                                   @Nonnull String applicationName,
+                                   @Nonnull List<CfChange> applicationChanges) {
+        checkNotNull(graph);
         checkNotNull(applicationName);
         checkNotNull(applicationChanges);
 
         try {
-            this.applicationName = applicationName;
-            return this.doCreateApplyRequests(applicationChanges);
+            doAddApplyOperations(graph, new Context(applicationName, applicationChanges));
         } catch (Exception exception) {
             throw new ApplyException(exception);
         }
     }
 
-    private Flux<Void> doCreateApplyRequests(List<CfChange> changes) {
-        List<Publisher<Void>> requests = new LinkedList<>();
-
-        if (hasNewObject(changes)) {
-            log.debug("Requesting creation of app", applicationName);
+    private void doAddApplyOperations(ApplyGraph graph, Context context) {
+        if (hasNewObject(context.changes)) {
+            log.debug("Requesting creation of app", context.applicationName);
 
-            ApplicationBean bean = (ApplicationBean) getChange(changes, change -> change instanceof CfNewObject)
+            ApplicationBean bean = (ApplicationBean) getChange(context.changes, change -> change instanceof CfNewObject)
                     .get()
                     .getAffectedObject();
 
-            return Flux.merge(this.appOperations.create(applicationName, bean));
-        } else if (hasRemovedObject(changes)) {
-            log.debug("Requesting removal of app", applicationName);
+            graph.addOperation(new ApplyOperation(Type.CREATE_APPLICATION, context.applicationName,
+                    bulkheads.limit(Kind.APPLICATION_PUSHES,
+                            this.appOperations.create(context.applicationName, bean))));
+        } else if (hasRemovedObject(context.changes)) {
+            log.debug("Requesting removal of app", context.applicationName);
 
-            return Flux.merge(this.appOperations.remove(applicationName));
-        } else if (hasFieldsThatRequireRestart(changes)) {
-            log.debug("Requesting redeployment/update of app", applicationName);
+            graph.addOperation(new ApplyOperation(Type.REMOVE_APPLICATION, context.applicationName,
+                    bulkheads.limit(Kind.APPLICATION_CHANGES, this.appOperations.remove(context.applicationName))));
+        } else if (context.changes.size() > 0) {
+            addCheapestUpdateOperations(graph, context);
+        }
+    }
 
-            for (CfChange change : changes) {
-                logChange(change);
+    // plans each valid alternative of applying the changes of an existing app and adds the cheapest one to the graph
+    private void addCheapestUpdateOperations(ApplyGraph graph, Context context) {
+        Map<String, ApplyGraph> alternatives = new LinkedHashMap<>();
+        // with the recreate strategy, new bits are only pushed by recreating the app
+        if (deploymentStrategy != DeploymentStrategy.RECREATE || !hasAnyField(context.changes, FIELDS_REQUIRE_PUSH)) {
+            alternatives.put("in-place update", createInPlaceUpdateOperations(context));
+        }
+        alternatives.put("recreation", createRecreationOperations(context));
+
+        Map.Entry<String, ApplyGraph> cheapest = null;
+        ApplyCost cheapestCost = null;
+        for (Map.Entry<String, ApplyGraph> alternative : alternatives.entrySet()) {
+            ApplyCost cost = costModel.estimate(alternative.getValue());
+            log.debug("Estimated cost of", alternative.getKey(), "of app", context.applicationName + ":", cost);
+            if (cheapest == null || ApplyCost.CHEAPEST_FIRST.compare(cost, cheapestCost) < 0) {
+                cheapest = alternative;
+                cheapestCost = cost;
             }
+        }
+
+        log.debug("Requesting", cheapest.getKey(), "of app", context.applicationName);
+        graph.addAll(cheapest.getValue());
+    }
+
+    private ApplyGraph createRecreationOperations(Context context) {
+        ApplyGraph graph = new ApplyGraph();
+        ApplicationBean bean = (ApplicationBean) context.changes.get(0).getAffectedObject();
+        // the request is only prepared if the alternative is actually executed
+        graph.addOperation(new ApplyOperation(Type.UPDATE_APPLICATION, context.applicationName,
+                bulkheads.limit(Kind.APPLICATION_PUSHES,
+                        Mono.defer(() -> appOperations.update(context.applicationName, bean)))));
+        return graph;
+    }
+
+    private ApplyGraph createInPlaceUpdateOperations(Context context) {
+        ApplyGraph graph = new ApplyGraph();
+        addUpdateMetaOperation(graph, context);
+        addUpdateLifecycleOperation(graph, context);
+        addUpdateProcessOperation(graph, context);
+        addScaleOperation(graph, context);
+        addChangedEnvironmentVariablesOperation(graph, context);
+        addChangedServicesOperations(graph, context);
+        addChangedRoutesOperations(graph, context);
+        addLifecycleOperation(graph, context);
+        return graph;
+    }
+
+    // coalesces the pending changes of the app into at most one lifecycle action, the cheapest one that makes all of
+    // them take effect, so that the app is neither restarted repeatedly nor restaged needlessly
+    private void addLifecycleOperation(ApplyGraph graph, Context context) {
+        LifecycleAction action = LifecycleAction.NONE;
+        List<ApplyOperation> dependencies = new LinkedList<>();
+        for (ApplyOperation operation : graph.getOperations()) {
+            LifecycleAction requiredAction = getRequiredLifecycleAction(operation, context);
+            // the process of the app cannot be scaled while the app is restarted, so it is scaled before
+            if (requiredAction != LifecycleAction.NONE || operation.getType() == Type.SCALE_APPLICATION) {
+                dependencies.add(operation);
+                if (requiredAction.compareTo(action) > 0) {
+                    action = requiredAction;
+                }
+            }
+        }
+
+        if (hasAnyField(context.changes, FIELDS_REQUIRE_PUSH)) {
+            // pushing new bits stages and restarts the app anyway
+            addPushOperation(graph, context, dependencies);
+        } else if (action == LifecycleAction.RESTAGE) {
+            log.debug("Requesting restage of app", context.applicationName, "after", dependencies.size(), "changes");
+            addAfterAll(graph, createRestageOperation(context), dependencies);
+        } else if (action == LifecycleAction.RESTART) {
+            log.debug("Requesting restart of app", context.applicationName, "after", dependencies.size(), "changes");
+            addAfterAll(graph, createRestartOperation(context), dependencies);
+        }
+    }
+
+    private LifecycleAction getRequiredLifecycleAction(ApplyOperation operation, Context context) {
+        // new instances are started right away, whereas new limits only apply to instances that are started again
+        if (operation.getType() == Type.SCALE_APPLICATION) {
+            return hasAnyField(context.changes, FIELDS_REQUIRE_SCALE_AND_RESTART)
+                    ? LifecycleAction.RESTART
+                    : LifecycleAction.NONE;
+        }
+        return REQUIRED_LIFECYCLE_ACTIONS.getOrDefault(operation.getType(), LifecycleAction.NONE);
+    }
 
-            ApplicationBean bean = (ApplicationBean) changes.get(0).getAffectedObject();
-            return Flux.concat(appOperations.update(applicationName, bean));
-        } else if (changes.size() > 0) {
-            log.debug("Requesting rolling update of app " + applicationName);
-            requests.add(getScaleInstancesRequest(changes));
-            requests.add(getChangedEnvironmentVariablesRequests(changes));
-            requests.add(getChangedServicesRequests(changes));
-            requests.add(getChangedRoutesRequests(changes));
+    private ApplyOperation createRestageOperation(Context context) {
+        // with the recreate strategy, downtime is accepted anyway and the classic restage is faster
+        if (deploymentStrategy == DeploymentStrategy.RECREATE) {
+            return new ApplyOperation(Type.RESTAGE_APPLICATION, context.applicationName,
+                    bulkheads.limit(Kind.APPLICATION_PUSHES, this.appOperations.restage(context.applicationName)));
         }
+        return new ApplyOperation(Type.ROLLING_RESTAGE_APPLICATION, context.applicationName,
+                bulkheads.limit(Kind.APPLICATION_PUSHES, this.appOperations.rollingRestage(context.applicationName)));
+    }
+
+    private ApplyOperation createRestartOperation(Context context) {
+        // with the recreate strategy, downtime is accepted anyway and the classic restart is faster
+        if (deploymentStrategy == DeploymentStrategy.RECREATE) {
+            return new ApplyOperation(Type.RESTART_APPLICATION, context.applicationName,
+                    bulkheads.limit(Kind.APPLICATION_RESTARTS, this.appOperations.restart(context.applicationName)));
+        }
+        return new ApplyOperation(Type.ROLLING_RESTART_APPLICATION, context.applicationName,
+                bulkheads.limit(Kind.APPLICATION_RESTARTS, this.appOperations.rollingRestart(context.applicationName)));
+    }
 
-        return Flux.merge(requests);
+    private boolean hasAnyField(List<CfChange> changes, Set<String> fieldNames) {
+        return changes.stream().anyMatch(change -> fieldNames.contains(change.getPropertyName()));
     }
 
-    private boolean hasFieldsThatRequireRestart(List<CfChange> changes) {
-        return changes.stream().anyMatch(change -> FIELDS_REQUIRE_RESTART.contains(change.getPropertyName()));
+    private boolean hasField(List<CfChange> changes, String fieldName) {
+        return changes.stream().anyMatch(change -> change.getPropertyName().equals(fieldName));
     }
 
     private boolean hasRemovedObject(List<CfChange> changes) {
@@ -167,131 +381,270 @@ public class ApplicationRequestsPlanner {
         return changes.stream().anyMatch(change -> change instanceof CfNewObject);
     }
 
-    private Flux<Void> getChangedServicesRequests(List<CfChange> changes) {
-        Optional<CfChange> optionalServicesChange = getChange(changes,
+    private void addChangedServicesOperations(ApplyGraph graph, Context context) {
+        Optional<CfChange> optionalServicesChange = getChange(context.changes,
                 change -> change.getPropertyName().equals(SERVICES_FIELD_NAME));
-        List<Mono<Void>> requests = new LinkedList<>();
 
         if (optionalServicesChange.isPresent()) {
 
             CfContainerChange servicesChange = (CfContainerChange) optionalServicesChange.get();
-            logChange(servicesChange);
+            logChange(context, servicesChange);
 
             for (CfContainerValueChanged valueChanged : servicesChange.getValueChangesBy(ChangeType.ADDED)) {
-                log.debug("Requesting binding of service", valueChanged.getValue(), "to application", applicationName);
-                requests.add(this.appOperations.bindToService(applicationName, valueChanged.getValue()));
+                log.debug("Requesting binding of service", valueChanged.getValue(),
+                        "to application", context.applicationName);
+                graph.addOperation(new ApplyOperation(Type.BIND_SERVICE, context.applicationName,
+                        valueChanged.getValue(),
+                        bulkheads.limit(Kind.SERVICE_BINDINGS,
+                                this.appOperations.bindToService(context.applicationName, valueChanged.getValue()))));
             }
 
             for (CfContainerValueChanged valueChanged : servicesChange.getValueChangesBy(ChangeType.REMOVED)) {
                 log.debug(
                         "Requesting unbinding of service", valueChanged.getValue(),
-                        "from application", applicationName
+                        "from application", context.applicationName
                 );
-                requests.add(this.appOperations.unbindFromService(applicationName, valueChanged.getValue()));
+                graph.addOperation(new ApplyOperation(Type.UNBIND_SERVICE, context.applicationName,
+                        valueChanged.getValue(),
+                        bulkheads.limit(Kind.SERVICE_BINDINGS,
+                                this.appOperations.unbindFromService(context.applicationName,
+                                        valueChanged.getValue()))));
             }
 
         }
-        return Flux.merge(requests);
     }
 
-    private Flux<Void> getChangedEnvironmentVariablesRequests(List<CfChange> changes) {
-        Optional<CfChange> optionalEnvVarsChange = getChange(changes,
+    private void addChangedEnvironmentVariablesOperation(ApplyGraph graph, Context context) {
+        Optional<CfChange> optionalEnvVarsChange = getChange(context.changes,
                 change -> change.getPropertyName().equals(ENVIRONMENT_VARIABLES_FIELD_NAME));
 
-        if (optionalEnvVarsChange.isPresent()) {
-            List<Mono<Void>> requests = new LinkedList<>();
-            CfMapChange enVarsChange = (CfMapChange) optionalEnvVarsChange.get();
-            logChange(enVarsChange);
-
-            for (CfMapValueChanged valueChanged : enVarsChange.getChangedValues()) {
-                switch (valueChanged.getChangeType()) {
-                    case ADDED:
-                        log.debug("Requesting addition of environment variable",
-                                valueChanged.getKey(),
-                                "with value",
-                                valueChanged.getValueAfter(),
-                                "to application",
-                                applicationName);
-                        requests.add(this.appOperations.addEnvironmentVariable(applicationName,
-                                valueChanged.getKey(),
-                                valueChanged.getValueAfter()));
-                        break;
-                    case CHANGED:
-                        log.debug("Requesting change of environment variable",
-                                valueChanged.getKey(),
-                                "from value",
-                                valueChanged.getValueBefore(),
-                                "to value",
-                                valueChanged.getValueAfter(),
-                                "for application",
-                                applicationName);
-                        requests.add(this.appOperations.addEnvironmentVariable(applicationName,
-                                valueChanged.getKey(),
-                                valueChanged.getValueAfter()));
-                        break;
-                    case REMOVED:
-                        log.debug("Requesting removal of environment variable",
-                                valueChanged.getKey(),
-                                "from application",
-                                applicationName);
-                        requests.add(this.appOperations.removeEnvironmentVariable(applicationName,
-                                valueChanged.getKey()));
-                        break;
-                    default:
-                        throw new AssertionError("Encountered unknown change type " + valueChanged.getChangeType());
-                }
+        if (!optionalEnvVarsChange.isPresent()) {
+            return;
+        }
+
+        CfMapChange enVarsChange = (CfMapChange) optionalEnvVarsChange.get();
+        logChange(context, enVarsChange);
+
+        // all changes are sent within a single request, removed variables are set to null
+        Map<String, String> variables = new LinkedHashMap<>();
+        for (CfMapValueChanged valueChanged : enVarsChange.getChangedValues()) {
+            switch (valueChanged.getChangeType()) {
+                case ADDED:
+                    log.debug("Requesting addition of environment variable",
+                            valueChanged.getKey(),
+                            "with value",
+                            valueChanged.getValueAfter(),
+                            "to application",
+                            context.applicationName);
+                    variables.put(valueChanged.getKey(), valueChanged.getValueAfter());
+                    break;
+                case CHANGED:
+                    log.debug("Requesting change of environment variable",
+                            valueChanged.getKey(),
+                            "from value",
+                            valueChanged.getValueBefore(),
+                            "to value",
+                            valueChanged.getValueAfter(),
+                            "for application",
+                            context.applicationName);
+                    variables.put(valueChanged.getKey(), valueChanged.getValueAfter());
+                    break;
+                case REMOVED:
+                    log.debug("Requesting removal of environment variable",
+                            valueChanged.getKey(),
+                            "from application",
+                            context.applicationName);
+                    variables.put(valueChanged.getKey(), null);
+                    break;
+                default:
+                    throw new AssertionError("Encountered unknown change type " + valueChanged.getChangeType());
             }
-            return Flux.concat(requests);
         }
-        return Flux.empty();
+
+        if (variables.isEmpty()) {
+            return;
+        }
+
+        graph.addOperation(new ApplyOperation(Type.UPDATE_ENVIRONMENT_VARIABLES, context.applicationName,
+                bulkheads.limit(Kind.APPLICATION_CHANGES,
+                        this.appOperations.updateEnvironmentVariables(context.applicationName, variables))));
     }
 
 
-    private Publisher<Void> getChangedRoutesRequests(List<CfChange> changes) {
-        Optional<CfChange> optionalRoutesChange = getChange(changes,
+    private void addChangedRoutesOperations(ApplyGraph graph, Context context) {
+        Optional<CfChange> optionalRoutesChange = getChange(context.changes,
                 change -> change.getPropertyName().equals(ROUTES_FIELD_NAME));
-        List<Mono<Void>> requests = new LinkedList<>();
 
         if (optionalRoutesChange.isPresent()) {
             CfContainerChange routesChanges = (CfContainerChange) optionalRoutesChange.get();
-            logChange(routesChanges);
+            logChange(context, routesChanges);
 
+            // route changes of an app are applied one after another
+            ApplyOperation previousOperation = null;
             for (CfContainerValueChanged valueChanged : routesChanges.getValueChangesBy(ChangeType.ADDED)) {
                 log.debug("Requesting addition of route",
                         valueChanged.getValue(),
                         "to application",
-                        applicationName);
-                requests.add(this.appOperations.addRoute(applicationName, valueChanged.getValue()));
+                        context.applicationName);
+                ApplyOperation operation = new ApplyOperation(Type.ADD_ROUTE, context.applicationName,
+                        valueChanged.getValue(),
+                        bulkheads.limit(Kind.ROUTE_MAPPINGS,
+                                this.appOperations.addRoute(context.applicationName, valueChanged.getValue())));
+                addAfter(graph, operation, previousOperation);
+                previousOperation = operation;
             }
 
             for (CfContainerValueChanged valueChanged : routesChanges.getValueChangesBy(ChangeType.REMOVED)) {
                 log.debug("Requesting removal of route",
                         valueChanged.getValue(),
                         "from application",
-                        applicationName);
-                requests.add(this.appOperations.removeRoute(applicationName, valueChanged.getValue()));
+                        context.applicationName);
+                ApplyOperation operation = new ApplyOperation(Type.REMOVE_ROUTE, context.applicationName,
+                        valueChanged.getValue(),
+                        bulkheads.limit(Kind.ROUTE_MAPPINGS,
+                                this.appOperations.removeRoute(context.applicationName, valueChanged.getValue())));
+                addAfter(graph, operation, previousOperation);
+                previousOperation = operation;
             }
 
         }
-        return Flux.concat(requests);
     }
 
 
-    private Mono<Void> getScaleInstancesRequest(List<CfChange> changes) {
-        Optional<CfChange> instancesChange = getChange(changes,
-                change -> change.getPropertyName().equals(INSTANCES_FIELD_NAME));
+    private void addScaleOperation(ApplyGraph graph, Context context) {
+        if (!hasAnyField(context.changes, FIELDS_REQUIRE_SCALE)) {
+            return;
+        }
+        context.changes.stream()
+                .filter(change -> FIELDS_REQUIRE_SCALE.contains(change.getPropertyName()))
+                .forEach(change -> logChange(context, change));
+
+        ApplicationManifestBean manifest = getDesiredManifest(context.changes);
+        // only the changed limits are passed, unchanged limits stay as they are
+        graph.addOperation(new ApplyOperation(Type.SCALE_APPLICATION, context.applicationName,
+                bulkheads.limit(Kind.APPLICATION_CHANGES, this.appOperations.scale(context.applicationName,
+                        getChangedLimit(context, DISK_FIELD_NAME, manifest.getDisk(),
+                                ManifestDefaults.DEFAULT_DISK),
+                        getChangedLimit(context, MEMORY_FIELD_NAME, manifest.getMemory(),
+                                ManifestDefaults.DEFAULT_MEMORY),
+                        getChangedLimit(context, INSTANCES_FIELD_NAME, manifest.getInstances(),
+                                ManifestDefaults.DEFAULT_INSTANCES)))));
+    }
+
+    // a limit that is removed from the desired manifest is reset to the default of cloud foundry instead of being
+    // left as it is, otherwise it would show up as a change again and again
+    private Integer getChangedLimit(Context context, String fieldName, Integer desiredLimit, int defaultLimit) {
+        if (!hasField(context.changes, fieldName)) {
+            return null;
+        }
+        return desiredLimit != null ? desiredLimit : defaultLimit;
+    }
 
-        if (instancesChange.isPresent()) {
-            logChange(instancesChange.get());
+    private void addUpdateMetaOperation(ApplyGraph graph, Context context) {
+        // the path is stored in the meta information of the app as well
+        Optional<CfChange> metaChange = getChange(context.changes,
+                change -> change.getPropertyName().equals(META_FIELD_NAME)
+                        || change.getPropertyName().equals(PATH_FIELD_NAME));
+
+        if (metaChange.isPresent()) {
+            logChange(context, metaChange.get());
+
+            ApplicationBean bean = (ApplicationBean) metaChange.get().getAffectedObject();
+            graph.addOperation(new ApplyOperation(Type.UPDATE_APPLICATION_META, context.applicationName,
+                    bulkheads.limit(Kind.APPLICATION_CHANGES,
+                            this.appOperations.updateMeta(context.applicationName, bean))));
+        }
+    }
+
+    private void addUpdateLifecycleOperation(ApplyGraph graph, Context context) {
+        if (!hasAnyField(context.changes, FIELDS_REQUIRE_LIFECYCLE_UPDATE)) {
+            return;
+        }
+        context.changes.stream()
+                .filter(change -> FIELDS_REQUIRE_LIFECYCLE_UPDATE.contains(change.getPropertyName()))
+                .forEach(change -> logChange(context, change));
+
+        ApplicationManifestBean manifest = getDesiredManifest(context.changes);
+        graph.addOperation(new ApplyOperation(Type.UPDATE_APPLICATION_LIFECYCLE, context.applicationName,
+                bulkheads.limit(Kind.APPLICATION_CHANGES, this.appOperations.updateLifecycle(context.applicationName,
+                        manifest.getBuildpack(),
+                        manifest.getStack()))));
+    }
 
-            ApplicationBean bean = (ApplicationBean) instancesChange.get().getAffectedObject();
-            // only changing instances can be done inplace
-            return this.appOperations.scale(applicationName,
-                    null,
-                    null,
-                    bean.getManifest().getInstances());
+    private void addUpdateProcessOperation(ApplyGraph graph, Context context) {
+        if (!hasAnyField(context.changes, FIELDS_REQUIRE_PROCESS_UPDATE)) {
+            return;
         }
-        return Mono.empty();
+        context.changes.stream()
+                .filter(change -> FIELDS_REQUIRE_PROCESS_UPDATE.contains(change.getPropertyName()))
+                .forEach(change -> logChange(context, change));
+
+        ApplicationManifestBean manifest = getDesiredManifest(context.changes);
+        // values that are removed from the desired manifest are reset instead of being left as they are, otherwise
+        // they would show up as changes again and again
+        String command = manifest.getCommand();
+        if (command == null && hasField(context.changes, COMMAND_FIELD_NAME)) {
+            command = ApplicationsOperations.DETECTED_COMMAND;
+        }
+        ApplicationHealthCheck healthCheckType = manifest.getHealthCheckType();
+        if (healthCheckType == null && hasField(context.changes, HEALTH_CHECK_TYPE_FIELD_NAME)) {
+            healthCheckType = ManifestDefaults.DEFAULT_HEALTH_CHECK_TYPE;
+        }
+        graph.addOperation(new ApplyOperation(Type.UPDATE_APPLICATION_PROCESS, context.applicationName,
+                bulkheads.limit(Kind.APPLICATION_CHANGES, this.appOperations.updateProcess(context.applicationName,
+                        command,
+                        healthCheckType,
+                        manifest.getHealthCheckHttpEndpoint()))));
+    }
+
+    private void addPushOperation(ApplyGraph graph, Context context, List<ApplyOperation> dependencies) {
+        ApplyOperation operation;
+        if (deploymentStrategy == DeploymentStrategy.STAGE_AHEAD) {
+            ApplicationBean bean = (ApplicationBean) context.changes.get(0).getAffectedObject();
+            // the switch needs the id of the droplet the staging produced
+            Mono<String> droplet = this.appOperations.stage(context.applicationName, bean).cache();
+
+            ApplyOperation stageOperation = new ApplyOperation(Type.STAGE_APPLICATION, context.applicationName,
+                    bulkheads.limit(Kind.APPLICATION_PUSHES, droplet.then()));
+            graph.addOperation(stageOperation);
+            // the staging uses the new lifecycle
+            dependencies.stream()
+                    .filter(dependency -> dependency.getType() == Type.UPDATE_APPLICATION_LIFECYCLE)
+                    .forEach(dependency -> graph.addDependency(stageOperation, dependency));
+
+            operation = new ApplyOperation(Type.SWITCH_APPLICATION_DROPLET, context.applicationName,
+                    bulkheads.limit(Kind.DROPLET_SWITCHES,
+                            droplet.flatMap(dropletId -> this.appOperations.switchDroplet(context.applicationName,
+                                    dropletId))));
+            dependencies.add(stageOperation);
+        } else {
+            // the deployment stages the new bits and restarts the app as well
+            ApplicationBean bean = (ApplicationBean) context.changes.get(0).getAffectedObject();
+            operation = new ApplyOperation(Type.DEPLOY_APPLICATION, context.applicationName,
+                    bulkheads.limit(Kind.APPLICATION_PUSHES, this.appOperations.deploy(context.applicationName, bean)));
+        }
+
+        addAfterAll(graph, operation, dependencies);
+    }
+
+    private ApplicationManifestBean getDesiredManifest(List<CfChange> changes) {
+        ApplicationBean bean = (ApplicationBean) changes.get(0).getAffectedObject();
+        if (bean.getManifest() == null) {
+            return new ApplicationManifestBean();
+        }
+        return bean.getManifest();
+    }
+
+    private void addAfter(ApplyGraph graph, ApplyOperation operation, ApplyOperation previousOperation) {
+        graph.addOperation(operation);
+        if (previousOperation != null) {
+            graph.addDependency(operation, previousOperation);
+        }
+    }
+
+    private void addAfterAll(ApplyGraph graph, ApplyOperation operation, List<ApplyOperation> dependencies) {
+        graph.addOperation(operation);
+        dependencies.forEach(dependency -> graph.addDependency(operation, dependency));
     }
 
     private Optional<CfChange> getChange(List<CfChange> changes, Predicate<CfChange> predicate) {
@@ -301,7 +654,7 @@ public class ApplicationRequestsPlanner {
                 .findFirst();
     }
 
-    private void logChange(CfChange change) {
-        log.debug("Property", change.getPropertyName(), "for app", applicationName, "will be updated.");
+    private void logChange(Context context, CfChange change) {
+        log.debug("Property", change.getPropertyName(), "for app", context.applicationName, "will be updated.");
     }
 }
@@ -0,0 +1,208 @@
+package cloud.foundry.cli.logic.apply;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.concurrency.AdaptiveConcurrencyLimiter;
+import cloud.foundry.cli.crosscutting.concurrency.ConcurrencyLimiter;
+import cloud.foundry.cli.crosscutting.concurrency.Deadline;
+import cloud.foundry.cli.crosscutting.concurrency.GracefulShutdown;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Isolates the apply requests of different kinds from each other. Each kind of request runs in its own bulkhead, i.e.
+ * it has its own limit and its own queue of waiting requests. Slow requests like app pushes or the provisioning by a
+ * slow service broker thus can only exhaust their own bulkhead, while cheap requests like changes of environment
+ * variables keep flowing.
+ *
+ * All requests additionally share a common limiter that caps the total number of requests in flight.
+ *
+ * The limits of the bulkheads either are fixed or adapt to the latencies of their own kind of requests, see
+ * {@link #adaptive(Deadline)}. A bulkhead never adapts to the latencies of other kinds, since a push taking minutes
+ * says nothing about the congestion of requests that usually take less than a second.
+ */
+public class ApplyBulkheads {
+
+    /**
+     * The kinds of apply requests that are isolated from each other.
+     */
+    public enum Kind {
+        APPLICATION_PUSHES("application pushes", 4, Duration.ofMinutes(15)),
+        APPLICATION_CHANGES("application changes", 16, Duration.ofMinutes(5)),
+        APPLICATION_RESTARTS("application restarts", 4, Duration.ofMinutes(10)),
+        DROPLET_SWITCHES("droplet switches", 4, Duration.ofMinutes(5)),
+        ROUTE_MAPPINGS("route mappings", 8, Duration.ofMinutes(2)),
+        SERVICE_PROVISIONING("service provisioning", 4, Duration.ofMinutes(30)),
+        SERVICE_BINDINGS("service bindings", 8, Duration.ofMinutes(5)),
+        ROLE_CHANGES("role changes", 8, Duration.ofMinutes(2));
+
+        private final String description;
+        private final int defaultLimit;
+        private final Duration timeout;
+
+        Kind(String description, int defaultLimit, Duration timeout) {
+            this.description = description;
+            this.defaultLimit = defaultLimit;
+            this.timeout = timeout;
+        }
+
+        /**
+         * @return the number of requests of this kind that may be in flight at the same time by default
+         */
+        public int getDefaultLimit() {
+            return defaultLimit;
+        }
+
+        /**
+         * @return the maximum duration of a single request of this kind
+         */
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    private final ConcurrencyLimiter sharedLimiter;
+    private final Map<Kind, ConcurrencyLimiter> bulkheads;
+    private final Deadline deadline;
+
+    /**
+     * Creates bulkheads with the default limits whose requests are not limited in total.
+     */
+    public ApplyBulkheads() {
+        this(ConcurrencyLimiter.unlimited("apply"));
+    }
+
+    /**
+     * Creates bulkheads with the default limits.
+     * @param sharedLimiter limits the total number of requests in flight among all bulkheads
+     * @throws NullPointerException if the argument is null
+     */
+    public ApplyBulkheads(ConcurrencyLimiter sharedLimiter) {
+        this(sharedLimiter, new EnumMap<>(Kind.class));
+    }
+
+    /**
+     * Creates bulkheads whose requests have no deadline.
+     * @param sharedLimiter limits the total number of requests in flight among all bulkheads
+     * @param limits the limits of the bulkheads, kinds without a limit get their default limit
+     * @throws NullPointerException if any of the arguments is null
+     * @throws IllegalArgumentException if any of the limits is smaller than one
+     */
+    public ApplyBulkheads(ConcurrencyLimiter sharedLimiter, Map<Kind, Integer> limits) {
+        this(sharedLimiter, limits, Deadline.none());
+    }
+
+    /**
+     * @param sharedLimiter limits the total number of requests in flight among all bulkheads
+     * @param limits the limits of the bulkheads, kinds without a limit get their default limit
+     * @param deadline the deadline all requests have to meet in addition to the timeout of their kind
+     * @throws NullPointerException if any of the arguments is null
+     * @throws IllegalArgumentException if any of the limits is smaller than one
+     */
+    public ApplyBulkheads(ConcurrencyLimiter sharedLimiter, Map<Kind, Integer> limits, Deadline deadline) {
+        this(sharedLimiter, deadline, kind -> {
+            int limit = checkNotNull(limits).getOrDefault(kind, kind.getDefaultLimit());
+            checkArgument(limit >= 1, "The limit of the bulkhead for " + kind + " must be at least one");
+
+            return new ConcurrencyLimiter(kind.toString(), limit);
+        });
+    }
+
+    private ApplyBulkheads(ConcurrencyLimiter sharedLimiter,
+                           Deadline deadline,
+                           Function<Kind, ConcurrencyLimiter> bulkheadCreator) {
+        checkNotNull(sharedLimiter);
+        checkNotNull(deadline);
+
+        this.sharedLimiter = sharedLimiter;
+        this.deadline = deadline;
+        this.bulkheads = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            bulkheads.put(kind, bulkheadCreator.apply(kind));
+        }
+    }
+
+    /**
+     * Creates bulkheads whose limits adapt to the latencies and failures of their own kind of requests, starting
+     * below and never exceeding the default limit of their kind. The total number of requests in flight is capped by
+     * the maximum limit of an adaptive limiter.
+     * @param deadline the deadline all requests have to meet in addition to the timeout of their kind
+     * @return the adaptive bulkheads
+     * @throws NullPointerException if the argument is null
+     */
+    public static ApplyBulkheads adaptive(Deadline deadline) {
+        return new ApplyBulkheads(new ConcurrencyLimiter("apply", AdaptiveConcurrencyLimiter.DEFAULT_MAX_LIMIT),
+                deadline,
+                kind -> new AdaptiveConcurrencyLimiter(kind.toString(), AdaptiveConcurrencyLimiter.DEFAULT_MIN_LIMIT,
+                        Math.min(AdaptiveConcurrencyLimiter.DEFAULT_INITIAL_LIMIT, kind.getDefaultLimit()),
+                        kind.getDefaultLimit()));
+    }
+
+    /**
+     * Prepares a request that is only subscribed to once a permit of its bulkhead and of the shared limiter is
+     * available. The request fails if it exceeds the timeout of its kind or the deadline. If it is tracked via
+     * {@link GracefulShutdown#trackQueued(String, Flux)}, it is admitted once it holds its permits.
+     * @param kind the kind of the request, determines its bulkhead
+     * @param request the request to limit
+     * @param <T> the type of the result
+     * @return mono which can be subscribed on to trigger the limited request
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public <T> Mono<T> limit(Kind kind, Mono<T> request) {
+        checkNotNull(kind);
+        checkNotNull(request);
+
+        // the bulkhead permit is acquired first, so that waiting requests of a full bulkhead hold no shared permits,
+        // a request that got its permits after a shutdown has been initiated is not started anymore
+        return bulkheads.get(kind).limit(sharedLimiter.limit(GracefulShutdown.admit(
+                deadline.limit(request, kind.getTimeout()))));
+    }
+
+    /**
+     * Prepares a request that is only subscribed to once a permit of its bulkhead and of the shared limiter is
+     * available. The request fails if it exceeds the timeout of its kind or the deadline. If it is tracked via
+     * {@link GracefulShutdown#trackQueued(String, Flux)}, it is admitted once it holds its permits.
+     * @param kind the kind of the request, determines its bulkhead
+     * @param request the request to limit
+     * @param <T> the type of the results
+     * @return flux which can be subscribed on to trigger the limited request
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public <T> Flux<T> limit(Kind kind, Flux<T> request) {
+        checkNotNull(kind);
+        checkNotNull(request);
+
+        return bulkheads.get(kind).limit(sharedLimiter.limit(GracefulShutdown.admit(
+                deadline.limit(request, kind.getTimeout()))));
+    }
+
+    /**
+     * @param kind the kind of requests
+     * @return the limiter of the bulkhead for the kind of requests
+     * @throws NullPointerException if the argument is null
+     */
+    public ConcurrencyLimiter getBulkhead(Kind kind) {
+        checkNotNull(kind);
+
+        return bulkheads.get(kind);
+    }
+
+    /**
+     * @return the limiter that is shared among all bulkheads
+     */
+    public ConcurrencyLimiter getSharedLimiter() {
+        return sharedLimiter;
+    }
+
+}
@@ -0,0 +1,80 @@
+package cloud.foundry.cli.logic.apply;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * The estimated cost of one or more operations of the apply process.
+ */
+public class ApplyCost {
+
+    /**
+     * Orders costs by their downtime first, by their duration second and by their number of API calls last.
+     */
+    public static final Comparator<ApplyCost> CHEAPEST_FIRST = Comparator.comparing(ApplyCost::getDowntime)
+            .thenComparing(ApplyCost::getDuration)
+            .thenComparingInt(ApplyCost::getApiCalls);
+
+    /**
+     * The cost of doing nothing.
+     */
+    public static final ApplyCost NONE = new ApplyCost(0, Duration.ZERO, Duration.ZERO);
+
+    private final int apiCalls;
+    private final Duration duration;
+    private final Duration downtime;
+
+    /**
+     * @param apiCalls the number of requests to the cloud foundry instance
+     * @param duration the time until all operations have completed
+     * @param downtime the time the affected applications are not available
+     * @throws NullPointerException if any of the durations is null
+     * @throws IllegalArgumentException if the number of API calls is negative
+     */
+    public ApplyCost(int apiCalls, Duration duration, Duration downtime) {
+        checkArgument(apiCalls >= 0, "The number of API calls may not be negative");
+        checkNotNull(duration);
+        checkNotNull(downtime);
+
+        this.apiCalls = apiCalls;
+        this.duration = duration;
+        this.downtime = downtime;
+    }
+
+    public int getApiCalls() {
+        return apiCalls;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getDowntime() {
+        return downtime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ApplyCost otherCost = (ApplyCost) o;
+        return apiCalls == otherCost.apiCalls &&
+                duration.equals(otherCost.duration) &&
+                downtime.equals(otherCost.downtime);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(apiCalls, duration, downtime);
+    }
+
+    @Override
+    public String toString() {
+        return apiCalls + " API calls, ~" + duration.getSeconds() + "s, " + downtime.getSeconds() + "s downtime";
+    }
+
+}
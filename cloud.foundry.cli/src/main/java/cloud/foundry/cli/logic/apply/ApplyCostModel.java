@@ -0,0 +1,184 @@
+package cloud.foundry.cli.logic.apply;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the cost of the operations of the apply process. The duration of an operation is estimated by the average
+ * duration of the operations of the same type in previous runs. As long as no duration has been recorded for a type,
+ * a default duration is assumed.
+ *
+ * The operations of some types make the affected application unavailable while they run. Their duration counts as
+ * downtime as well.
+ */
+public class ApplyCostModel {
+
+    // the weight of a newly recorded duration in the average duration
+    private static final double RECORDING_WEIGHT = 0.25;
+
+    private static final Map<Type, Integer> API_CALLS = new EnumMap<>(Type.class);
+    private static final Map<Type, Duration> DEFAULT_DURATIONS = new EnumMap<>(Type.class);
+
+    // operations that stop the instances of an application before new ones are started
+    private static final Set<Type> DOWNTIME_TYPES = EnumSet.of(Type.UPDATE_APPLICATION, Type.RESTART_APPLICATION,
+            Type.RESTAGE_APPLICATION, Type.SWITCH_APPLICATION_DROPLET);
+
+    static {
+        putDefault(Type.CREATE_SERVICE, 3, Duration.ofSeconds(60));
+        putDefault(Type.UPDATE_SERVICE, 3, Duration.ofSeconds(60));
+        putDefault(Type.REMOVE_SERVICE, 5, Duration.ofSeconds(60));
+        putDefault(Type.RENAME_SERVICE, 2, Duration.ofSeconds(2));
+        putDefault(Type.CREATE_APPLICATION, 10, Duration.ofSeconds(120));
+        putDefault(Type.UPDATE_APPLICATION, 12, Duration.ofSeconds(150));
+        putDefault(Type.REMOVE_APPLICATION, 2, Duration.ofSeconds(10));
+        putDefault(Type.RENAME_APPLICATION, 2, Duration.ofSeconds(2));
+        putDefault(Type.SCALE_APPLICATION, 2, Duration.ofSeconds(10));
+        putDefault(Type.UPDATE_APPLICATION_META, 2, Duration.ofSeconds(2));
+        putDefault(Type.UPDATE_APPLICATION_LIFECYCLE, 2, Duration.ofSeconds(2));
+        putDefault(Type.UPDATE_APPLICATION_PROCESS, 3, Duration.ofSeconds(2));
+        putDefault(Type.RESTART_APPLICATION, 3, Duration.ofSeconds(30));
+        putDefault(Type.ROLLING_RESTART_APPLICATION, 4, Duration.ofSeconds(60));
+        putDefault(Type.RESTAGE_APPLICATION, 4, Duration.ofSeconds(90));
+        putDefault(Type.ROLLING_RESTAGE_APPLICATION, 8, Duration.ofSeconds(150));
+        putDefault(Type.DEPLOY_APPLICATION, 10, Duration.ofSeconds(120));
+        putDefault(Type.STAGE_APPLICATION, 8, Duration.ofSeconds(90));
+        putDefault(Type.SWITCH_APPLICATION_DROPLET, 4, Duration.ofSeconds(30));
+        putDefault(Type.UPDATE_ENVIRONMENT_VARIABLES, 2, Duration.ofSeconds(2));
+        putDefault(Type.BIND_SERVICE, 3, Duration.ofSeconds(5));
+        putDefault(Type.UNBIND_SERVICE, 3, Duration.ofSeconds(5));
+        putDefault(Type.ADD_ROUTE, 4, Duration.ofSeconds(3));
+        putDefault(Type.REMOVE_ROUTE, 4, Duration.ofSeconds(3));
+        putDefault(Type.AWAIT_APPLICATION_HEALTH, 2, Duration.ofSeconds(20));
+        putDefault(Type.ASSIGN_SPACE_DEVELOPER, 2, Duration.ofSeconds(2));
+        putDefault(Type.REVOKE_SPACE_DEVELOPER, 2, Duration.ofSeconds(2));
+    }
+
+    private static void putDefault(Type type, int apiCalls, Duration duration) {
+        API_CALLS.put(type, apiCalls);
+        DEFAULT_DURATIONS.put(type, duration);
+    }
+
+    // guarded by this
+    private final Map<Type, Duration> recordedDurations;
+
+    /**
+     * Creates a cost model without any recorded durations.
+     */
+    public ApplyCostModel() {
+        this(Collections.emptyMap());
+    }
+
+    /**
+     * @param recordedDurations the average durations of the operation types in previous runs
+     * @throws NullPointerException if the argument is null
+     */
+    public ApplyCostModel(Map<Type, Duration> recordedDurations) {
+        checkNotNull(recordedDurations);
+
+        this.recordedDurations = new EnumMap<>(Type.class);
+        this.recordedDurations.putAll(recordedDurations);
+    }
+
+    /**
+     * Records the duration of a completed operation, so that later estimates of the same type take it into account.
+     * @param type the type of the operation
+     * @param duration the duration of the operation
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public synchronized void record(Type type, Duration duration) {
+        checkNotNull(type);
+        checkNotNull(duration);
+
+        Duration average = recordedDurations.get(type);
+        if (average == null) {
+            recordedDurations.put(type, duration);
+        } else {
+            long averageMillis = Math.round((1 - RECORDING_WEIGHT) * average.toMillis()
+                    + RECORDING_WEIGHT * duration.toMillis());
+            recordedDurations.put(type, Duration.ofMillis(averageMillis));
+        }
+    }
+
+    /**
+     * @return the average durations of the operation types recorded so far
+     */
+    public synchronized Map<Type, Duration> getRecordedDurations() {
+        return new HashMap<>(recordedDurations);
+    }
+
+    /**
+     * @param operation the operation to estimate
+     * @return the estimated cost of the operation
+     * @throws NullPointerException if the argument is null
+     */
+    public ApplyCost estimate(ApplyOperation operation) {
+        checkNotNull(operation);
+
+        Duration duration = getDuration(operation.getType());
+        Duration downtime = DOWNTIME_TYPES.contains(operation.getType()) ? duration : Duration.ZERO;
+        return new ApplyCost(API_CALLS.get(operation.getType()), duration, downtime);
+    }
+
+    /**
+     * Estimates the cost of all operations of a graph. Since independent operations run concurrently, the duration is
+     * the duration of the longest chain of dependent operations. The downtime is the sum of the downtimes of all
+     * operations.
+     * @param graph the graph to estimate
+     * @return the estimated cost of the graph
+     * @throws NullPointerException if the argument is null
+     */
+    public ApplyCost estimate(ApplyGraph graph) {
+        checkNotNull(graph);
+
+        int apiCalls = 0;
+        Duration duration = Duration.ZERO;
+        Duration downtime = Duration.ZERO;
+        Map<ApplyOperation, Duration> completionTimes = new HashMap<>();
+        for (ApplyOperation operation : graph.getOperations()) {
+            ApplyCost cost = estimate(operation);
+            apiCalls += cost.getApiCalls();
+            downtime = downtime.plus(cost.getDowntime());
+
+            Duration completionTime = getCompletionTime(graph, operation, completionTimes);
+            if (completionTime.compareTo(duration) > 0) {
+                duration = completionTime;
+            }
+        }
+        return new ApplyCost(apiCalls, duration, downtime);
+    }
+
+    private synchronized Duration getDuration(Type type) {
+        return recordedDurations.getOrDefault(type, DEFAULT_DURATIONS.get(type));
+    }
+
+    // the time from the start of the graph until the operation has completed, the graph is known to be acyclic
+    private Duration getCompletionTime(ApplyGraph graph,
+                                       ApplyOperation operation,
+                                       Map<ApplyOperation, Duration> completionTimes) {
+        Duration completionTime = completionTimes.get(operation);
+        if (completionTime != null) {
+            return completionTime;
+        }
+
+        Duration startTime = Duration.ZERO;
+        for (ApplyOperation dependency : graph.getDependencies(operation)) {
+            Duration dependencyCompletionTime = getCompletionTime(graph, dependency, completionTimes);
+            if (dependencyCompletionTime.compareTo(startTime) > 0) {
+                startTime = dependencyCompletionTime;
+            }
+        }
+        completionTime = startTime.plus(getDuration(operation.getType()));
+        completionTimes.put(operation, completionTime);
+        return completionTime;
+    }
+
+}
@@ -0,0 +1,199 @@
+package cloud.foundry.cli.logic.apply;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.concurrency.ConcurrencyLimiter;
+import cloud.foundry.cli.crosscutting.concurrency.Deadline;
+import cloud.foundry.cli.crosscutting.concurrency.GracefulShutdown;
+import cloud.foundry.cli.crosscutting.logging.Log;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.logic.apply.ApplyBulkheads.Kind;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Performs the operations of apply graphs. The operations are limited by their bulkheads, the progress is recorded
+ * in a journal and summarized once all operations have terminated, and the durations of the successful operations
+ * are recorded in the cost model.
+ */
+public class ApplyExecutor {
+
+    private static final Log log = Log.getLog(ApplyExecutor.class);
+
+    private final ApplyBulkheads bulkheads;
+    private final GracefulShutdown gracefulShutdown;
+    private final Deadline deadline;
+    private final ApplyCostModel costModel;
+
+    /**
+     * @param bulkheads the bulkheads that limit the operations
+     * @param gracefulShutdown lets the operations in flight drain on a termination signal
+     * @param deadline the deadline all operations have to meet
+     * @param costModel records the durations of the successful operations
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public ApplyExecutor(ApplyBulkheads bulkheads,
+                         GracefulShutdown gracefulShutdown,
+                         Deadline deadline,
+                         ApplyCostModel costModel) {
+        checkNotNull(bulkheads);
+        checkNotNull(gracefulShutdown);
+        checkNotNull(deadline);
+        checkNotNull(costModel);
+
+        this.bulkheads = bulkheads;
+        this.gracefulShutdown = gracefulShutdown;
+        this.deadline = deadline;
+        this.costModel = costModel;
+    }
+
+    /**
+     * Performs the operations of a graph and waits until all of them have terminated.
+     * @param graph the operations to perform
+     * @param desiredConfigBean the desired configuration, which holds the priorities of the apps
+     * @param success set to false if any operation fails or is skipped
+     * @param journal records the progress of the operations
+     * @throws RuntimeException if any operation fails or is skipped
+     */
+    public void execute(ApplyGraph graph, ConfigBean desiredConfigBean, AtomicBoolean success, ApplyJournal journal) {
+        log.info("Applying changes");
+        ApplySummary summary = new ApplySummary();
+        await(run(graph, getApplicationPriorities(desiredConfigBean), summary, success, journal), summary, success);
+    }
+
+    /**
+     * Prepares the operations of a graph, so that several graphs can be performed via
+     * {@link #await(Flux, ApplySummary, AtomicBoolean)} at once. The operations that have completed according to the
+     * journal are skipped.
+     * @param graph the operations to perform
+     * @param applicationPriorities the priorities of the apps by their names
+     * @param summary collects the outcomes of the operations
+     * @param success set to false if any operation fails or is skipped
+     * @param journal records the progress of the operations
+     * @return flux which can be subscribed on to perform the operations
+     */
+    public Flux<Void> run(ApplyGraph graph,
+                          Map<String, Integer> applicationPriorities,
+                          ApplySummary summary,
+                          AtomicBoolean success,
+                          ApplyJournal journal) {
+        Set<String> completedOperations = journal.getCompletedOperations(graph);
+        // operations of critical apps get their permits first instead of waiting behind less important operations
+        Map<ApplyOperation, Integer> priorities = graph.getPriorities(applicationPriorities);
+        // the durations of the successful operations refine the estimates of later runs
+        Map<ApplyOperation, Long> startTimes = new ConcurrentHashMap<>();
+        return graph.execute(
+                operation -> {
+                    if (completedOperations.contains(operation.toString())) {
+                        log.verbose("Skipping", operation, "since it has completed in a previous run");
+                        return Flux.empty();
+                    }
+                    // the operations wait for their permits in their bulkheads, only then they are in flight, so
+                    // their durations are measured from then on
+                    return ConcurrencyLimiter.withPriority(
+                            gracefulShutdown.trackQueued(operation.toString(), operation.getRequest().flux(),
+                                    () -> startTimes.put(operation, System.nanoTime())),
+                            priorities.get(operation));
+                },
+                new ApplyGraph.Listener() {
+                    @Override
+                    public void onStart(ApplyOperation operation) {
+                        if (!completedOperations.contains(operation.toString())) {
+                            // replaced once the operation is admitted, unless it is not limited at all
+                            startTimes.put(operation, System.nanoTime());
+                            journal.recordStart(operation);
+                        }
+                    }
+
+                    @Override
+                    public void onSuccess(ApplyOperation operation) {
+                        Long startTime = startTimes.get(operation);
+                        if (startTime == null) {
+                            summary.addCompletedBefore(operation);
+                            return;
+                        }
+                        costModel.record(operation.getType(), Duration.ofNanos(System.nanoTime() - startTime));
+                        journal.recordSuccess(operation);
+                        summary.addSucceeded(operation);
+                    }
+
+                    @Override
+                    public void onFailure(ApplyOperation operation, Throwable throwable) {
+                        if (throwable instanceof CancellationException) {
+                            log.warning("Skipped", operation, "due to the shutdown");
+                            summary.addSkipped(operation);
+                            success.set(false);
+                            return;
+                        }
+                        log.error("Failed to", operation + ":", throwable);
+                        journal.recordFailure(operation);
+                        summary.addFailed(operation);
+                        success.set(false);
+                    }
+
+                    @Override
+                    public void onSkip(ApplyOperation operation) {
+                        log.warning("Skipped", operation, "since an operation it depends on failed");
+                        summary.addSkipped(operation);
+                        success.set(false);
+                    }
+                });
+    }
+
+    /**
+     * Performs prepared operations and waits until all of them have terminated.
+     * @param operations the operations as prepared by {@link #run}
+     * @param summary collects the outcomes of the operations, it is logged afterwards
+     * @param success set to false if any operation fails or is skipped
+     * @throws RuntimeException if any operation fails or is skipped
+     */
+    public void await(Flux<Void> operations, ApplySummary summary, AtomicBoolean success) {
+        // a termination signal stops the scheduling of further requests and lets the requests in flight drain
+        gracefulShutdown.install();
+        try {
+            deadline.limit(operations).blockLast();
+        } catch (RuntimeException e) {
+            if (deadline.isExpired()) {
+                log.error("Deadline exceeded while applying changes");
+                gracefulShutdown.report();
+            }
+            throw e;
+        } finally {
+            gracefulShutdown.uninstall();
+            summary.log();
+        }
+        log.info("Applying changes completed");
+        for (Kind kind : Kind.values()) {
+            log.verbose("Concurrency limit of", kind, "is", bulkheads.getBulkhead(kind).getLimit());
+        }
+        if (!success.get()) {
+            throw new RuntimeException("Failed to apply configuration: exceptions thrown during execution");
+        }
+    }
+
+    /**
+     * @param desiredConfigBean the desired configuration
+     * @return the priorities of the apps that have one by their names
+     */
+    public static Map<String, Integer> getApplicationPriorities(ConfigBean desiredConfigBean) {
+        Map<String, Integer> priorities = new HashMap<>();
+        if (desiredConfigBean.getSpec() == null || desiredConfigBean.getSpec().getApps() == null) {
+            return priorities;
+        }
+        for (Map.Entry<String, ApplicationBean> app : desiredConfigBean.getSpec().getApps().entrySet()) {
+            if (app.getValue() != null && app.getValue().getPriority() != null) {
+                priorities.put(app.getKey(), app.getValue().getPriority());
+            }
+        }
+        return priorities;
+    }
+
+}
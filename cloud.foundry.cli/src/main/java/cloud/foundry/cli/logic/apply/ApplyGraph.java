@@ -0,0 +1,410 @@
+package cloud.foundry.cli.logic.apply;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.concurrency.ConcurrencyLimiter;
+import cloud.foundry.cli.crosscutting.exceptions.ApplyException;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Schedules the operations of the apply process according to their dependencies. Each operation starts as soon as
+ * all operations it depends on have completed, independent of any other operation. Thus, an application that does not
+ * need a new service is not held up by a slow service broker.
+ */
+public class ApplyGraph {
+
+    // operations of an application that need the services of the application to exist
+    private static final Set<Type> SERVICE_CONSUMING_TYPES = EnumSet.of(Type.CREATE_APPLICATION,
+            Type.UPDATE_APPLICATION);
+
+    // operations of a service that other operations have to wait for
+    private static final Set<Type> SERVICE_PROVIDING_TYPES = EnumSet.of(Type.CREATE_SERVICE, Type.UPDATE_SERVICE,
+            Type.RENAME_SERVICE);
+
+    // operations that belong to a service
+    private static final Set<Type> SERVICE_TYPES = EnumSet.of(Type.CREATE_SERVICE, Type.UPDATE_SERVICE,
+            Type.REMOVE_SERVICE, Type.RENAME_SERVICE);
+
+    // operations that do not belong to an application
+    private static final Set<Type> NON_APPLICATION_TYPES = EnumSet.of(Type.CREATE_SERVICE, Type.UPDATE_SERVICE,
+            Type.REMOVE_SERVICE, Type.RENAME_SERVICE, Type.ASSIGN_SPACE_DEVELOPER, Type.REVOKE_SPACE_DEVELOPER);
+
+    /**
+     * Gets notified about the progress of the operations. All methods do nothing by default.
+     */
+    public interface Listener {
+
+        /**
+         * Called when an operation starts.
+         * @param operation the operation
+         */
+        default void onStart(ApplyOperation operation) {
+        }
+
+        /**
+         * Called when an operation has completed successfully.
+         * @param operation the operation
+         */
+        default void onSuccess(ApplyOperation operation) {
+        }
+
+        /**
+         * Called when an operation has failed.
+         * @param operation the operation
+         * @param throwable the reason of the failure
+         */
+        default void onFailure(ApplyOperation operation, Throwable throwable) {
+        }
+
+        /**
+         * Called when an operation is not started since one of its dependencies failed or was skipped.
+         * @param operation the operation
+         */
+        default void onSkip(ApplyOperation operation) {
+        }
+    }
+
+    private final Map<ApplyOperation, Set<ApplyOperation>> dependencies;
+
+    public ApplyGraph() {
+        this.dependencies = new LinkedHashMap<>();
+    }
+
+    /**
+     * @param operation the operation to add, the operation is scheduled after all operations it depends on
+     * @throws NullPointerException if the argument is null
+     */
+    public void addOperation(ApplyOperation operation) {
+        checkNotNull(operation);
+
+        dependencies.putIfAbsent(operation, new LinkedHashSet<>());
+    }
+
+    /**
+     * Declares that an operation may only start once another operation has completed.
+     * @param operation the dependent operation
+     * @param dependency the operation that has to complete first
+     * @throws NullPointerException if any of the arguments is null
+     * @throws IllegalArgumentException if any of the operations has not been added to this graph
+     */
+    public void addDependency(ApplyOperation operation, ApplyOperation dependency) {
+        checkNotNull(operation);
+        checkNotNull(dependency);
+        checkArgument(dependencies.containsKey(operation), "Unknown operation " + operation);
+        checkArgument(dependencies.containsKey(dependency), "Unknown operation " + dependency);
+
+        dependencies.get(operation).add(dependency);
+    }
+
+    /**
+     * Adds all operations of another graph to this graph, including the dependencies among them.
+     * @param other the graph to add the operations of
+     * @throws NullPointerException if the argument is null
+     */
+    public void addAll(ApplyGraph other) {
+        checkNotNull(other);
+
+        for (Map.Entry<ApplyOperation, Set<ApplyOperation>> entry : other.dependencies.entrySet()) {
+            addOperation(entry.getKey());
+            dependencies.get(entry.getKey()).addAll(entry.getValue());
+        }
+    }
+
+    /**
+     * Lets all operations of applications that use a service wait for the creation or update of the service. Also
+     * lets the removal of a service wait until it has been unbound from all applications.
+     * @param desiredApplications the desired applications by their names
+     * @throws NullPointerException if the argument is null
+     */
+    public void addServiceDependencies(Map<String, ApplicationBean> desiredApplications) {
+        checkNotNull(desiredApplications);
+
+        for (ApplyOperation operation : getOperations()) {
+            for (String serviceName : getUsedServices(operation, desiredApplications)) {
+                getOperations(serviceName, SERVICE_PROVIDING_TYPES)
+                        .forEach(serviceOperation -> addDependency(operation, serviceOperation));
+            }
+            if (operation.getType() == Type.REMOVE_SERVICE) {
+                getOperations().stream()
+                        .filter(other -> other.getType() == Type.UNBIND_SERVICE)
+                        .filter(other -> operation.getResourceName().equals(other.getTarget()))
+                        .forEach(unbindOperation -> addDependency(operation, unbindOperation));
+            }
+        }
+    }
+
+    /**
+     * Lets all other operations of a renamed application or service wait for its rename, since they address it by
+     * its new name. This includes the bindings of a renamed service to applications.
+     */
+    public void addRenameDependencies() {
+        for (ApplyOperation rename : getOperations(Type.RENAME_APPLICATION)) {
+            dependencies.keySet().stream()
+                    .filter(operation -> operation != rename)
+                    .filter(operation -> !NON_APPLICATION_TYPES.contains(operation.getType()))
+                    .filter(operation -> operation.getResourceName().equals(rename.getResourceName()))
+                    .forEach(operation -> addDependency(operation, rename));
+        }
+        for (ApplyOperation rename : getOperations(Type.RENAME_SERVICE)) {
+            dependencies.keySet().stream()
+                    .filter(operation -> operation != rename)
+                    .filter(operation -> SERVICE_TYPES.contains(operation.getType())
+                            ? operation.getResourceName().equals(rename.getResourceName())
+                            : isBindingOf(operation, rename.getResourceName()))
+                    .forEach(operation -> addDependency(operation, rename));
+        }
+    }
+
+    private static boolean isBindingOf(ApplyOperation operation, String serviceName) {
+        return (operation.getType() == Type.BIND_SERVICE || operation.getType() == Type.UNBIND_SERVICE)
+                && serviceName.equals(operation.getTarget());
+    }
+
+    /**
+     * Lets all operations of the later type wait for all operations of the earlier type. If any operation of the
+     * earlier type fails, all operations of the later type are skipped.
+     * @param earlierType the type of the operations that have to complete first
+     * @param laterType the type of the dependent operations
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public void addPhaseDependencies(Type earlierType, Type laterType) {
+        checkNotNull(earlierType);
+        checkNotNull(laterType);
+
+        List<ApplyOperation> earlierOperations = getOperations(earlierType);
+        for (ApplyOperation operation : getOperations(laterType)) {
+            earlierOperations.forEach(earlierOperation -> addDependency(operation, earlierOperation));
+        }
+    }
+
+    /**
+     * Rolls out the applications in waves. The applications are split into waves in the order of their names. Once
+     * all operations of an application have completed, an additional operation awaits the health of the application,
+     * except for removed applications. The operations of a wave wait for the health checks and the removals of the
+     * previous wave, so a failure or an unhealthy application skips all later waves.
+     * @param waves the sizes of the waves
+     * @param healthCheckFactory creates the operation that awaits the health of an application by its name
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public void addWaves(ApplyWaves waves, Function<String, ApplyOperation> healthCheckFactory) {
+        checkNotNull(waves);
+        checkNotNull(healthCheckFactory);
+
+        List<String> applicationNames = dependencies.keySet().stream()
+                .filter(operation -> !NON_APPLICATION_TYPES.contains(operation.getType()))
+                .map(ApplyOperation::getResourceName)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+
+        List<ApplyOperation> previousGates = Collections.emptyList();
+        for (List<String> wave : waves.partition(applicationNames)) {
+            List<ApplyOperation> gates = new LinkedList<>();
+            for (String applicationName : wave) {
+                List<ApplyOperation> applicationOperations = dependencies.keySet().stream()
+                        .filter(operation -> !NON_APPLICATION_TYPES.contains(operation.getType()))
+                        .filter(operation -> operation.getResourceName().equals(applicationName))
+                        .collect(Collectors.toList());
+                for (ApplyOperation operation : applicationOperations) {
+                    previousGates.forEach(gate -> addDependency(operation, gate));
+                }
+
+                Optional<ApplyOperation> removal = applicationOperations.stream()
+                        .filter(operation -> operation.getType() == Type.REMOVE_APPLICATION)
+                        .findFirst();
+                if (removal.isPresent()) {
+                    gates.add(removal.get());
+                    continue;
+                }
+                ApplyOperation healthCheck = healthCheckFactory.apply(applicationName);
+                addOperation(healthCheck);
+                applicationOperations.forEach(operation -> addDependency(healthCheck, operation));
+                gates.add(healthCheck);
+            }
+            previousGates = gates;
+        }
+    }
+
+    /**
+     * Determines the priorities the operations are dispatched with. An operation of an application gets the priority
+     * of the application. An operation that other operations depend on inherits the highest priority of these, so
+     * that e.g. a service needed by a critical application is not held up behind less important operations.
+     * @param applicationPriorities the priorities by the names of the applications, other applications get the
+     *                              default priority
+     * @return the priorities of all operations
+     * @throws NullPointerException if the argument is null
+     * @throws ApplyException if the dependencies are cyclic
+     */
+    public Map<ApplyOperation, Integer> getPriorities(Map<String, Integer> applicationPriorities) {
+        checkNotNull(applicationPriorities);
+
+        Map<ApplyOperation, Integer> priorities = new HashMap<>();
+        for (ApplyOperation operation : dependencies.keySet()) {
+            Integer priority = NON_APPLICATION_TYPES.contains(operation.getType())
+                    ? null
+                    : applicationPriorities.get(operation.getResourceName());
+            priorities.put(operation, priority == null ? ConcurrencyLimiter.DEFAULT_PRIORITY : priority);
+        }
+
+        // dependent operations are sorted after their dependencies, so each priority is final once it is passed on
+        List<ApplyOperation> sorted = sortTopologically();
+        Collections.reverse(sorted);
+        for (ApplyOperation operation : sorted) {
+            for (ApplyOperation dependency : dependencies.get(operation)) {
+                priorities.merge(dependency, priorities.get(operation), Math::max);
+            }
+        }
+        return priorities;
+    }
+
+    /**
+     * @return all operations in the order they were added
+     */
+    public List<ApplyOperation> getOperations() {
+        return new LinkedList<>(dependencies.keySet());
+    }
+
+    /**
+     * @param operation an operation of this graph
+     * @return the operations the given operation directly depends on
+     * @throws IllegalArgumentException if the operation has not been added to this graph
+     */
+    public Set<ApplyOperation> getDependencies(ApplyOperation operation) {
+        checkArgument(dependencies.containsKey(operation), "Unknown operation " + operation);
+
+        return Collections.unmodifiableSet(dependencies.get(operation));
+    }
+
+    /**
+     * @return whether the graph contains no operations
+     */
+    public boolean isEmpty() {
+        return dependencies.isEmpty();
+    }
+
+    /**
+     * Prepares the execution of all operations. The resulting flux fails as soon as any operation fails.
+     * @return flux which can be subscribed on to trigger the operations
+     * @throws ApplyException if the dependencies are cyclic
+     */
+    public Flux<Void> execute() {
+        return mergeAll(schedule(operation -> operation.getRequest().flux(), new Listener() {}));
+    }
+
+    /**
+     * Prepares the execution of all operations. A failing operation does not affect the operations that do not depend
+     * on it. The operations that depend on it are skipped. The resulting flux never fails, the outcome of the
+     * operations is passed to the listener instead.
+     * @param runner runs a single operation, e.g. by subscribing to its request
+     * @param listener gets notified about the progress of the operations
+     * @return flux which can be subscribed on to trigger the operations
+     * @throws NullPointerException if any of the arguments is null
+     * @throws ApplyException if the dependencies are cyclic
+     */
+    public Flux<Void> execute(Function<ApplyOperation, Flux<Void>> runner, Listener listener) {
+        checkNotNull(runner);
+        checkNotNull(listener);
+
+        return mergeAll(schedule(runner, listener).stream()
+                .map(execution -> execution.onErrorResume(throwable -> Flux.empty()))
+                .collect(Collectors.toList()));
+    }
+
+    // all executions are subscribed to right away, they wait for their dependencies on their own
+    private Flux<Void> mergeAll(List<Flux<Void>> executions) {
+        return Flux.merge(Flux.fromIterable(executions), Integer.MAX_VALUE);
+    }
+
+    private List<Flux<Void>> schedule(Function<ApplyOperation, Flux<Void>> runner, Listener listener) {
+        Map<ApplyOperation, Flux<Void>> executions = new LinkedHashMap<>();
+        for (ApplyOperation operation : sortTopologically()) {
+            List<Flux<Void>> dependencyExecutions = dependencies.get(operation).stream()
+                    .map(executions::get)
+                    .collect(Collectors.toList());
+
+            Flux<Void> operationExecution = Flux.defer(() -> runner.apply(operation))
+                    .doOnSubscribe(subscription -> listener.onStart(operation))
+                    .doOnComplete(() -> listener.onSuccess(operation))
+                    .doOnError(throwable -> listener.onFailure(operation, throwable));
+
+            // the execution is cached, so that it runs exactly once, regardless of the number of dependents
+            Flux<Void> execution = Mono.whenDelayError(dependencyExecutions)
+                    .onErrorMap(throwable -> {
+                        listener.onSkip(operation);
+                        return new ApplyException("Skipped " + operation + " since a dependency failed");
+                    })
+                    .thenMany(operationExecution)
+                    .cache();
+            executions.put(operation, execution);
+        }
+        return new LinkedList<>(executions.values());
+    }
+
+    // Kahn's algorithm, keeps the order of insertion among independent operations
+    private List<ApplyOperation> sortTopologically() {
+        List<ApplyOperation> sorted = new LinkedList<>();
+        Set<ApplyOperation> scheduled = new HashSet<>();
+        Set<ApplyOperation> remaining = new LinkedHashSet<>(dependencies.keySet());
+
+        while (!remaining.isEmpty()) {
+            List<ApplyOperation> ready = remaining.stream()
+                    .filter(operation -> scheduled.containsAll(dependencies.get(operation)))
+                    .collect(Collectors.toList());
+            if (ready.isEmpty()) {
+                throw new ApplyException("Cyclic dependencies between the operations " + remaining);
+            }
+            sorted.addAll(ready);
+            scheduled.addAll(ready);
+            remaining.removeAll(ready);
+        }
+        return sorted;
+    }
+
+    private List<String> getUsedServices(ApplyOperation operation, Map<String, ApplicationBean> desiredApplications) {
+        if (operation.getType() == Type.BIND_SERVICE) {
+            return Collections.singletonList(operation.getTarget());
+        }
+        if (!SERVICE_CONSUMING_TYPES.contains(operation.getType())) {
+            return Collections.emptyList();
+        }
+
+        ApplicationBean application = desiredApplications.get(operation.getResourceName());
+        if (application == null || application.getManifest() == null
+                || application.getManifest().getServices() == null) {
+            return Collections.emptyList();
+        }
+        return application.getManifest().getServices();
+    }
+
+    private List<ApplyOperation> getOperations(Type type) {
+        return dependencies.keySet().stream()
+                .filter(operation -> operation.getType() == type)
+                .collect(Collectors.toList());
+    }
+
+    private List<ApplyOperation> getOperations(String resourceName, Set<Type> types) {
+        return dependencies.keySet().stream()
+                .filter(operation -> types.contains(operation.getType()))
+                .filter(operation -> operation.getResourceName().equals(resourceName))
+                .collect(Collectors.toList());
+    }
+
+}
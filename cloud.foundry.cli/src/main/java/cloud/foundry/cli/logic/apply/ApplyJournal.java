@@ -0,0 +1,226 @@
+package cloud.foundry.cli.logic.apply;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.exceptions.ApplyException;
+import cloud.foundry.cli.crosscutting.logging.Log;
+import cloud.foundry.cli.crosscutting.mapping.beans.PlanBean;
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
+import com.google.common.hash.Hashing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An append-only journal of the operations of a plan that is applied. Each line records the start, the success or
+ * the failure of an operation. If the apply process is interrupted or some operations fail, the journal allows for
+ * resuming the plan later on without repeating the operations that have already succeeded.
+ *
+ * The lines are written right away, but the journal is only synced to the storage device every few lines and when it
+ * is closed. Thus, a crash of the process loses nothing, while a crash of the machine loses at most the last few lines.
+ */
+public class ApplyJournal implements Closeable {
+
+    private static final Log log = Log.getLog(ApplyJournal.class);
+
+    private static final String PLAN_EVENT = "PLAN";
+    private static final String STARTED_EVENT = "STARTED";
+    private static final String SUCCEEDED_EVENT = "SUCCEEDED";
+    private static final String FAILED_EVENT = "FAILED";
+    private static final String SEPARATOR = "\t";
+
+    // the number of lines after which the journal is synced to the storage device
+    private static final int SYNC_BATCH_SIZE = 16;
+
+    private final FileChannel channel;
+    private final Set<String> completedOperations;
+    private final boolean resumed;
+
+    // guarded by this
+    private int unsyncedLines;
+
+    private ApplyJournal(FileChannel channel, Set<String> completedOperations, boolean resumed) {
+        this.channel = channel;
+        this.completedOperations = completedOperations;
+        this.resumed = resumed;
+    }
+
+    /**
+     * @return a journal that does not record anything
+     */
+    public static ApplyJournal none() {
+        return new ApplyJournal(null, Collections.emptySet(), false);
+    }
+
+    /**
+     * Starts a new journal for a plan. An existing journal at the path is replaced.
+     * @param path the path of the journal file
+     * @param plan the plan that is applied
+     * @return the journal
+     * @throws NullPointerException if any of the arguments is null
+     * @throws IOException if the journal file cannot be written
+     */
+    public static ApplyJournal create(Path path, PlanBean plan) throws IOException {
+        checkNotNull(path);
+        checkNotNull(plan);
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ApplyJournal journal = new ApplyJournal(channel, Collections.emptySet(), false);
+        journal.append(PLAN_EVENT, identify(plan));
+        journal.sync();
+        return journal;
+    }
+
+    /**
+     * Continues the journal of a plan that has been applied before. The operations that have succeeded according to
+     * the journal are available via {@link #getCompletedOperations()}.
+     * @param path the path of the journal file
+     * @param plan the plan that is applied
+     * @return the journal
+     * @throws NullPointerException if any of the arguments is null
+     * @throws IOException if the journal file cannot be read or written
+     * @throws ApplyException if the journal belongs to a different plan
+     */
+    public static ApplyJournal resume(Path path, PlanBean plan) throws IOException {
+        checkNotNull(path);
+        checkNotNull(plan);
+
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).equals(PLAN_EVENT + SEPARATOR + identify(plan))) {
+            throw new ApplyException("The journal " + path + " belongs to a different plan");
+        }
+
+        Set<String> completedOperations = new HashSet<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] parts = line.split(SEPARATOR, 2);
+            // a line may be incomplete if the machine crashed while writing it
+            if (parts.length == 2 && parts[0].equals(SUCCEEDED_EVENT)) {
+                completedOperations.add(parts[1]);
+            }
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new ApplyJournal(channel, Collections.unmodifiableSet(completedOperations), true);
+    }
+
+    /**
+     * @param plan a plan
+     * @return an identifier that differs between plans with different operations or live states
+     */
+    static String identify(PlanBean plan) {
+        String content = plan.getFingerprint() + "\n" + plan.getDeploymentStrategy() + "\n" + plan.getOperations();
+        return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * @return the descriptions of the operations that have succeeded before the journal was resumed
+     */
+    public Set<String> getCompletedOperations() {
+        return completedOperations;
+    }
+
+    /**
+     * A droplet switch needs the droplet that the staging produces in the same run, so a staging only counts as
+     * completed once the switch of its droplet has completed as well.
+     * @param graph the operations that are applied
+     * @return the descriptions of the operations of the graph that are skipped since they have succeeded before
+     */
+    public Set<String> getCompletedOperations(ApplyGraph graph) {
+        Set<String> completedOperations = new HashSet<>(this.completedOperations);
+        Set<String> pendingSwitches = graph.getOperations().stream()
+                .filter(operation -> operation.getType() == Type.SWITCH_APPLICATION_DROPLET)
+                .filter(operation -> !completedOperations.contains(operation.toString()))
+                .map(ApplyOperation::getResourceName)
+                .collect(Collectors.toSet());
+        graph.getOperations().stream()
+                .filter(operation -> operation.getType() == Type.STAGE_APPLICATION)
+                .filter(operation -> pendingSwitches.contains(operation.getResourceName()))
+                .forEach(operation -> completedOperations.remove(operation.toString()));
+        return completedOperations;
+    }
+
+    /**
+     * @return whether the journal continues a journal of a previous run
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    /**
+     * @param operation the operation that has started
+     */
+    public void recordStart(ApplyOperation operation) {
+        record(STARTED_EVENT, operation);
+    }
+
+    /**
+     * @param operation the operation that has succeeded
+     */
+    public void recordSuccess(ApplyOperation operation) {
+        record(SUCCEEDED_EVENT, operation);
+    }
+
+    /**
+     * @param operation the operation that has failed
+     */
+    public void recordFailure(ApplyOperation operation) {
+        record(FAILED_EVENT, operation);
+    }
+
+    private void record(String event, ApplyOperation operation) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            append(event, operation.toString());
+        } catch (IOException e) {
+            // the apply process goes on, only resuming it later might repeat the operation
+            log.warning("Failed to record", operation, "in the journal:", e.getMessage());
+        }
+    }
+
+    private synchronized void append(String event, String content) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((event + SEPARATOR + content + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        unsyncedLines++;
+        if (unsyncedLines >= SYNC_BATCH_SIZE) {
+            sync();
+        }
+    }
+
+    private synchronized void sync() throws IOException {
+        channel.force(false);
+        unsyncedLines = 0;
+    }
+
+    /**
+     * Syncs the remaining lines to the storage device and closes the journal file.
+     * @throws IOException if the journal file cannot be synced or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            return;
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+}
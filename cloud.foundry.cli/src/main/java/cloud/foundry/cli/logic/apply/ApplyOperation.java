@@ -0,0 +1,107 @@
+package cloud.foundry.cli.logic.apply;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * A single operation of the apply process, e.g. the creation of a service or the binding of a service to an
+ * application. An operation describes what it does and holds the prepared request that performs it.
+ */
+public class ApplyOperation {
+
+    /**
+     * The types of operations the apply process consists of.
+     */
+    public enum Type {
+        CREATE_SERVICE("create service %s"),
+        UPDATE_SERVICE("update service %s"),
+        REMOVE_SERVICE("remove service %s"),
+        RENAME_SERVICE("rename service %2$s to %1$s"),
+        CREATE_APPLICATION("create application %s"),
+        UPDATE_APPLICATION("update application %s"),
+        REMOVE_APPLICATION("remove application %s"),
+        RENAME_APPLICATION("rename application %2$s to %1$s"),
+        SCALE_APPLICATION("scale application %s"),
+        UPDATE_APPLICATION_META("update meta of application %s"),
+        UPDATE_APPLICATION_LIFECYCLE("update lifecycle of application %s"),
+        UPDATE_APPLICATION_PROCESS("update process of application %s"),
+        RESTART_APPLICATION("restart application %s"),
+        ROLLING_RESTART_APPLICATION("restart application %s instance by instance"),
+        RESTAGE_APPLICATION("restage application %s"),
+        ROLLING_RESTAGE_APPLICATION("restage application %s instance by instance"),
+        DEPLOY_APPLICATION("deploy application %s"),
+        STAGE_APPLICATION("stage application %s"),
+        SWITCH_APPLICATION_DROPLET("switch application %s to its new droplet"),
+        UPDATE_ENVIRONMENT_VARIABLES("update environment variables of application %s"),
+        BIND_SERVICE("bind service %2$s to application %1$s"),
+        UNBIND_SERVICE("unbind service %2$s from application %1$s"),
+        ADD_ROUTE("add route %2$s to application %1$s"),
+        REMOVE_ROUTE("remove route %2$s from application %1$s"),
+        AWAIT_APPLICATION_HEALTH("await health of application %s"),
+        ASSIGN_SPACE_DEVELOPER("assign space developer %s"),
+        REVOKE_SPACE_DEVELOPER("revoke space developer %s");
+
+        private final String descriptionFormat;
+
+        Type(String descriptionFormat) {
+            this.descriptionFormat = descriptionFormat;
+        }
+    }
+
+    private final Type type;
+    private final String resourceName;
+    private final String target;
+    private final Mono<Void> request;
+
+    /**
+     * @param type the type of the operation
+     * @param resourceName the name of the application, service or space developer the operation changes
+     * @param request the request that performs the operation
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public ApplyOperation(Type type, String resourceName, Mono<Void> request) {
+        this(type, resourceName, null, request);
+    }
+
+    /**
+     * @param type the type of the operation
+     * @param resourceName the name of the application, service or space developer the operation changes
+     * @param target the detail of the resource the operation changes, e.g. the route or the bound service, may be
+     *               null
+     * @param request the request that performs the operation
+     * @throws NullPointerException if the type, the resource name or the request is null
+     */
+    public ApplyOperation(Type type, String resourceName, String target, Mono<Void> request) {
+        checkNotNull(type);
+        checkNotNull(resourceName);
+        checkNotNull(request);
+
+        this.type = type;
+        this.resourceName = resourceName;
+        this.target = target;
+        this.request = request;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public Mono<Void> getRequest() {
+        return request;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(type.descriptionFormat, resourceName, target);
+    }
+
+}
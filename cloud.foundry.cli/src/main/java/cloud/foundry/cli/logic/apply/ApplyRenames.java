@@ -0,0 +1,313 @@
+package cloud.foundry.cli.logic.apply;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.logging.Log;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
+import cloud.foundry.cli.logic.apply.ApplyBulkheads.Kind;
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
+import cloud.foundry.cli.logic.diff.change.CfChange;
+import cloud.foundry.cli.logic.diff.change.ChangeType;
+import cloud.foundry.cli.logic.diff.change.container.CfContainerChange;
+import cloud.foundry.cli.logic.diff.change.container.CfContainerValueChanged;
+import cloud.foundry.cli.operations.ApplicationsOperations;
+import cloud.foundry.cli.operations.ServicesOperations;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Detects applications and services that have been renamed in the desired configuration. Without the detection, a
+ * renamed resource shows up as a removed and an added resource, so the apply process would delete the live resource
+ * and push or provision it again, losing its data and bindings.
+ *
+ * A live resource that is missing in the desired configuration is renamed to a new resource of the desired
+ * configuration if the new resource names it as its previous name. Otherwise, it is renamed if both resources are
+ * structurally the same, i.e. applications with the same bits or service instances of the same offering and plan,
+ * and neither of them matches any other missing or new resource. All other differences of the renamed resources are
+ * applied in place afterwards.
+ */
+public class ApplyRenames {
+
+    private static final Log log = Log.getLog(ApplyRenames.class);
+
+    private static final String SERVICES_FIELD_NAME = "services";
+
+    // the previous names by the new names
+    private final Map<String, String> applicationRenames;
+    private final Map<String, String> serviceRenames;
+
+    private ApplyRenames(Map<String, String> applicationRenames, Map<String, String> serviceRenames) {
+        this.applicationRenames = applicationRenames;
+        this.serviceRenames = serviceRenames;
+    }
+
+    /**
+     * @param liveConfigBean the live configuration
+     * @param desiredConfigBean the desired configuration
+     * @return the renames that turn the live configuration into the desired configuration
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public static ApplyRenames detect(ConfigBean liveConfigBean, ConfigBean desiredConfigBean) {
+        checkNotNull(liveConfigBean);
+        checkNotNull(desiredConfigBean);
+
+        SpecBean liveSpec = liveConfigBean.getSpec();
+        SpecBean desiredSpec = desiredConfigBean.getSpec();
+        Map<String, String> applicationRenames = detect("application",
+                liveSpec == null ? null : liveSpec.getApps(),
+                desiredSpec == null ? null : desiredSpec.getApps(),
+                ApplicationBean::getPreviousName,
+                // the bits identify an application, the rest of its configuration is changed in place
+                ApplicationBean::getPath);
+        Map<String, String> serviceRenames = detect("service",
+                liveSpec == null ? null : liveSpec.getServices(),
+                desiredSpec == null ? null : desiredSpec.getServices(),
+                ServiceBean::getPreviousName,
+                // an instance of a different offering or plan is more likely a replacement than a renamed instance
+                service -> service.getService() == null || service.getPlan() == null
+                        ? null
+                        : service.getService() + ":" + service.getPlan());
+        return new ApplyRenames(applicationRenames, serviceRenames);
+    }
+
+    private static <T> Map<String, String> detect(String kind,
+                                                  Map<String, T> liveResources,
+                                                  Map<String, T> desiredResources,
+                                                  Function<T, String> previousNameGetter,
+                                                  Function<T, String> identityGetter) {
+        Map<String, String> renames = new TreeMap<>();
+        if (liveResources == null || desiredResources == null) {
+            return renames;
+        }
+
+        Set<String> missingNames = new TreeSet<>(liveResources.keySet());
+        missingNames.removeAll(desiredResources.keySet());
+        Set<String> newNames = new TreeSet<>(desiredResources.keySet());
+        newNames.removeAll(liveResources.keySet());
+
+        for (String newName : new LinkedList<>(newNames)) {
+            T desiredResource = desiredResources.get(newName);
+            String previousName = desiredResource == null ? null : previousNameGetter.apply(desiredResource);
+            if (previousName == null) {
+                continue;
+            }
+            if (!missingNames.contains(previousName)) {
+                log.warning("Ignoring the previous name", previousName, "of", kind, newName,
+                        "since there is no such live", kind, "that is missing in the configuration");
+                continue;
+            }
+            log.verbose("Detected rename of", kind, previousName, "to", newName, "by its previous name");
+            renames.put(newName, previousName);
+            missingNames.remove(previousName);
+            newNames.remove(newName);
+        }
+
+        Map<String, List<String>> missingNamesByIdentity = groupByIdentity(missingNames, liveResources,
+                identityGetter);
+        Map<String, List<String>> newNamesByIdentity = groupByIdentity(newNames, desiredResources, identityGetter);
+        for (Map.Entry<String, List<String>> entry : newNamesByIdentity.entrySet()) {
+            List<String> candidates = missingNamesByIdentity.getOrDefault(entry.getKey(), Collections.emptyList());
+            // an ambiguous match is left to removal and creation instead of guessing
+            if (entry.getValue().size() == 1 && candidates.size() == 1) {
+                log.verbose("Detected rename of", kind, candidates.get(0), "to", entry.getValue().get(0),
+                        "by its structure");
+                renames.put(entry.getValue().get(0), candidates.get(0));
+            }
+        }
+        return renames;
+    }
+
+    private static <T> Map<String, List<String>> groupByIdentity(Set<String> names,
+                                                                 Map<String, T> resources,
+                                                                 Function<T, String> identityGetter) {
+        Map<String, List<String>> namesByIdentity = new HashMap<>();
+        for (String name : names) {
+            T resource = resources.get(name);
+            String identity = resource == null ? null : identityGetter.apply(resource);
+            if (identity != null) {
+                namesByIdentity.computeIfAbsent(identity, key -> new LinkedList<>()).add(name);
+            }
+        }
+        return namesByIdentity;
+    }
+
+    /**
+     * @return the previous names of the renamed applications by their new names
+     */
+    public Map<String, String> getApplicationRenames() {
+        return Collections.unmodifiableMap(applicationRenames);
+    }
+
+    /**
+     * @return the previous names of the renamed services by their new names
+     */
+    public Map<String, String> getServiceRenames() {
+        return Collections.unmodifiableMap(serviceRenames);
+    }
+
+    /**
+     * @return whether no application or service has been renamed
+     */
+    public boolean isEmpty() {
+        return applicationRenames.isEmpty() && serviceRenames.isEmpty();
+    }
+
+    /**
+     * Determines the live configuration as it will be after the renames. The renamed resources are listed under
+     * their new names, so that diffing the result against the desired configuration yields the remaining in-place
+     * changes only. The given configuration is not modified.
+     * @param liveConfigBean the live configuration
+     * @return the live configuration after the renames
+     * @throws NullPointerException if the argument is null
+     */
+    public ConfigBean applyTo(ConfigBean liveConfigBean) {
+        checkNotNull(liveConfigBean);
+
+        if (isEmpty() || liveConfigBean.getSpec() == null) {
+            return liveConfigBean;
+        }
+
+        SpecBean liveSpec = liveConfigBean.getSpec();
+        SpecBean renamedSpec = new SpecBean();
+        renamedSpec.setSpaceDevelopers(liveSpec.getSpaceDevelopers());
+        renamedSpec.setApps(rename(liveSpec.getApps(), applicationRenames));
+        renamedSpec.setServices(rename(liveSpec.getServices(), serviceRenames));
+
+        ConfigBean renamedConfigBean = new ConfigBean();
+        renamedConfigBean.setApiVersion(liveConfigBean.getApiVersion());
+        renamedConfigBean.setTarget(liveConfigBean.getTarget());
+        renamedConfigBean.setSpec(renamedSpec);
+        return renamedConfigBean;
+    }
+
+    private static <T> Map<String, T> rename(Map<String, T> resources, Map<String, String> renames) {
+        if (resources == null) {
+            return null;
+        }
+
+        Map<String, String> newNames = invert(renames);
+        Map<String, T> renamedResources = new LinkedHashMap<>();
+        for (Map.Entry<String, T> resource : resources.entrySet()) {
+            renamedResources.put(newNames.getOrDefault(resource.getKey(), resource.getKey()), resource.getValue());
+        }
+        return renamedResources;
+    }
+
+    /**
+     * Adjusts the binding changes of the applications to the renamed services. A service instance keeps its bindings
+     * when it is renamed, so the unbinding of its previous name together with the binding of its new name is dropped.
+     * Any other unbinding of its previous name addresses its new name instead, since it runs after the rename.
+     * @param applicationChanges the changes by the names of the applications
+     * @return the adjusted changes
+     * @throws NullPointerException if the argument is null
+     */
+    public Map<String, List<CfChange>> withRenamedBindings(Map<String, List<CfChange>> applicationChanges) {
+        checkNotNull(applicationChanges);
+
+        if (serviceRenames.isEmpty()) {
+            return applicationChanges;
+        }
+
+        Map<String, List<CfChange>> remainingChanges = new HashMap<>();
+        for (Map.Entry<String, List<CfChange>> entry : applicationChanges.entrySet()) {
+            List<CfChange> changes = new LinkedList<>();
+            for (CfChange change : entry.getValue()) {
+                if (change instanceof CfContainerChange && change.getPropertyName().equals(SERVICES_FIELD_NAME)) {
+                    withRenamedBindings((CfContainerChange) change).ifPresent(changes::add);
+                } else {
+                    changes.add(change);
+                }
+            }
+            if (!changes.isEmpty()) {
+                remainingChanges.put(entry.getKey(), changes);
+            }
+        }
+        return remainingChanges;
+    }
+
+    private Optional<CfChange> withRenamedBindings(CfContainerChange servicesChange) {
+        Set<String> removedServices = servicesChange.getValueChangesBy(ChangeType.REMOVED).stream()
+                .map(CfContainerValueChanged::getValue)
+                .collect(Collectors.toSet());
+        Set<String> addedServices = servicesChange.getValueChangesBy(ChangeType.ADDED).stream()
+                .map(CfContainerValueChanged::getValue)
+                .collect(Collectors.toSet());
+        Map<String, String> newNames = invert(serviceRenames);
+
+        List<CfContainerValueChanged> remainingValues = new LinkedList<>();
+        for (CfContainerValueChanged valueChanged : servicesChange.getChangedValues()) {
+            String service = valueChanged.getValue();
+            if (valueChanged.getChangeType() == ChangeType.ADDED && serviceRenames.containsKey(service)
+                    && removedServices.contains(serviceRenames.get(service))) {
+                continue;
+            }
+            if (valueChanged.getChangeType() == ChangeType.REMOVED && newNames.containsKey(service)) {
+                if (!addedServices.contains(newNames.get(service))) {
+                    remainingValues.add(new CfContainerValueChanged(newNames.get(service), ChangeType.REMOVED));
+                }
+                continue;
+            }
+            remainingValues.add(valueChanged);
+        }
+
+        if (remainingValues.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new CfContainerChange(servicesChange.getAffectedObject(),
+                servicesChange.getPropertyName(),
+                servicesChange.getPath(),
+                remainingValues));
+    }
+
+    private static Map<String, String> invert(Map<String, String> renames) {
+        return renames.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
+    }
+
+    /**
+     * Adds an operation per rename to the graph. The renames have to complete before any other operation of the
+     * renamed resources, see {@link ApplyGraph#addRenameDependencies()}.
+     * @param graph the graph to add the operations to
+     * @param applicationsOperations performs the renames of the applications
+     * @param servicesOperations performs the renames of the services
+     * @param bulkheads the bulkheads the renames run in
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public void addOperations(ApplyGraph graph,
+                              ApplicationsOperations applicationsOperations,
+                              ServicesOperations servicesOperations,
+                              ApplyBulkheads bulkheads) {
+        checkNotNull(graph);
+        checkNotNull(applicationsOperations);
+        checkNotNull(servicesOperations);
+        checkNotNull(bulkheads);
+
+        for (Map.Entry<String, String> rename : serviceRenames.entrySet()) {
+            log.debug("Requesting rename of service", rename.getValue(), "to", rename.getKey());
+            graph.addOperation(new ApplyOperation(Type.RENAME_SERVICE, rename.getKey(), rename.getValue(),
+                    bulkheads.limit(Kind.SERVICE_PROVISIONING,
+                            servicesOperations.rename(rename.getKey(), rename.getValue()))));
+        }
+        for (Map.Entry<String, String> rename : applicationRenames.entrySet()) {
+            log.debug("Requesting rename of application", rename.getValue(), "to", rename.getKey());
+            graph.addOperation(new ApplyOperation(Type.RENAME_APPLICATION, rename.getKey(), rename.getValue(),
+                    bulkheads.limit(Kind.APPLICATION_CHANGES,
+                            applicationsOperations.rename(rename.getKey(), rename.getValue()))));
+        }
+    }
+
+}
@@ -0,0 +1,282 @@
+package cloud.foundry.cli.logic.apply;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Limits an apply run to some of the apps and services of a space, e.g. to hotfix a single app without fetching and
+ * comparing all others. The resources are selected by their kind and a name that may contain the wildcards * and ?,
+ * e.g. "apps/billing-*,services/billing-db". Resources that are not selected are neither fetched nor compared, so
+ * they are not removed either. The space developers are only covered if all resources are selected.
+ */
+public class ApplySelection {
+
+    private static final String APPLICATIONS_PREFIX = "apps/";
+    private static final String SERVICES_PREFIX = "services/";
+    private static final String SEPARATOR = ",";
+
+    private final List<String> resources;
+    private final List<Pattern> applicationPatterns;
+    private final List<Pattern> servicePatterns;
+
+    private ApplySelection(List<String> resources, List<Pattern> applicationPatterns, List<Pattern> servicePatterns) {
+        this.resources = resources;
+        this.applicationPatterns = applicationPatterns;
+        this.servicePatterns = servicePatterns;
+    }
+
+    /**
+     * @return a selection of all resources
+     */
+    public static ApplySelection all() {
+        return new ApplySelection(Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * @param specification the selected resources separated by commas, each one is either "apps/" or "services/"
+     *                      followed by a name that may contain the wildcards * and ?, e.g. "apps/billing-*"
+     * @return the selection
+     * @throws NullPointerException if the argument is null
+     * @throws IllegalArgumentException if any resource is neither an app nor a service or has an empty name
+     */
+    public static ApplySelection parse(String specification) {
+        checkNotNull(specification);
+
+        List<String> resources = new ArrayList<>();
+        for (String resource : specification.split(SEPARATOR)) {
+            resources.add(resource.trim());
+        }
+        return create(resources, ApplySelection::toPattern);
+    }
+
+    /**
+     * @param resources the selected resources, each one is either "apps/" or "services/" followed by the exact name
+     *                  of the resource, wildcards are taken literally
+     * @return the selection, a selection of all resources if there are no resources
+     * @throws NullPointerException if the argument is null
+     * @throws IllegalArgumentException if any resource is neither an app nor a service or has an empty name
+     */
+    public static ApplySelection of(Collection<String> resources) {
+        checkNotNull(resources);
+
+        return create(new ArrayList<>(resources), (name, resource) -> {
+            checkArgument(!name.isEmpty(), "Invalid resource: " + resource);
+            return Pattern.compile(Pattern.quote(name));
+        });
+    }
+
+    private static ApplySelection create(List<String> resources, BiFunction<String, String, Pattern> toPattern) {
+        List<Pattern> applicationPatterns = new ArrayList<>();
+        List<Pattern> servicePatterns = new ArrayList<>();
+        for (String resource : resources) {
+            if (resource.startsWith(APPLICATIONS_PREFIX)) {
+                applicationPatterns.add(toPattern.apply(resource.substring(APPLICATIONS_PREFIX.length()), resource));
+            } else if (resource.startsWith(SERVICES_PREFIX)) {
+                servicePatterns.add(toPattern.apply(resource.substring(SERVICES_PREFIX.length()), resource));
+            } else {
+                throw new IllegalArgumentException("Invalid resource: " + resource
+                        + ", expected " + APPLICATIONS_PREFIX + "<name> or " + SERVICES_PREFIX + "<name>");
+            }
+        }
+        return new ApplySelection(Collections.unmodifiableList(resources),
+                Collections.unmodifiableList(applicationPatterns),
+                Collections.unmodifiableList(servicePatterns));
+    }
+
+    private static Pattern toPattern(String glob, String resource) {
+        checkArgument(!glob.isEmpty(), "Invalid resource: " + resource);
+
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char character : glob.toCharArray()) {
+            if (character == '*' || character == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(character == '*' ? ".*" : ".");
+            } else {
+                literal.append(character);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * @return whether all resources are selected
+     */
+    public boolean isAll() {
+        return resources.isEmpty();
+    }
+
+    /**
+     * @param name the name of an app
+     * @return whether the app is selected
+     */
+    public boolean includesApplication(String name) {
+        return isAll() || matches(applicationPatterns, name);
+    }
+
+    /**
+     * @param name the name of a service
+     * @return whether the service is selected
+     */
+    public boolean includesService(String name) {
+        return isAll() || matches(servicePatterns, name);
+    }
+
+    /**
+     * @return whether the space developers are selected
+     */
+    public boolean includesSpaceDevelopers() {
+        return isAll();
+    }
+
+    private static boolean matches(List<Pattern> patterns, String name) {
+        return patterns.stream().anyMatch(pattern -> pattern.matcher(name).matches());
+    }
+
+    /**
+     * @param applications any values by the names of apps
+     * @param <T> the type of the values
+     * @return the values of the selected apps
+     * @throws NullPointerException if the argument is null
+     */
+    public <T> Map<String, T> filterApplications(Map<String, T> applications) {
+        checkNotNull(applications);
+
+        Map<String, T> selectedApplications = new LinkedHashMap<>();
+        applications.forEach((name, value) -> {
+            if (includesApplication(name)) {
+                selectedApplications.put(name, value);
+            }
+        });
+        return selectedApplications;
+    }
+
+    /**
+     * @param services any values by the names of services
+     * @param <T> the type of the values
+     * @return the values of the selected services
+     * @throws NullPointerException if the argument is null
+     */
+    public <T> Map<String, T> filterServices(Map<String, T> services) {
+        checkNotNull(services);
+
+        Map<String, T> selectedServices = new LinkedHashMap<>();
+        services.forEach((name, value) -> {
+            if (includesService(name)) {
+                selectedServices.put(name, value);
+            }
+        });
+        return selectedServices;
+    }
+
+    /**
+     * @param configBean a configuration, may be null
+     * @return the configuration limited to the selected resources, the configuration itself if all resources are
+     * selected, null if the configuration is null. The given configuration is not modified.
+     */
+    public ConfigBean select(ConfigBean configBean) {
+        if (isAll() || configBean == null || configBean.getSpec() == null) {
+            return configBean;
+        }
+
+        SpecBean spec = configBean.getSpec();
+        SpecBean selectedSpec = new SpecBean();
+        selectedSpec.setApps(spec.getApps() == null ? null : filterApplications(spec.getApps()));
+        selectedSpec.setServices(spec.getServices() == null ? null : filterServices(spec.getServices()));
+
+        ConfigBean selectedConfigBean = new ConfigBean();
+        selectedConfigBean.setApiVersion(configBean.getApiVersion());
+        selectedConfigBean.setTarget(configBean.getTarget());
+        selectedConfigBean.setSpec(selectedSpec);
+        return selectedConfigBean;
+    }
+
+    /**
+     * Renamed apps and services are selected by their new names, whereas they exist by their previous names in the
+     * live configuration. Thus, the live configuration has to be limited to the selection extended by the previous
+     * names, otherwise the renamed resources would be created a second time.
+     * @param desiredConfigBean the desired configuration, may be null
+     * @return the selection extended by the previous names of the selected apps and services of the desired
+     * configuration, the selection itself if all resources are selected or none of the selected resources is renamed
+     */
+    public ApplySelection withPreviousNames(ConfigBean desiredConfigBean) {
+        ConfigBean selectedConfigBean = select(desiredConfigBean);
+        if (isAll() || selectedConfigBean == null || selectedConfigBean.getSpec() == null) {
+            return this;
+        }
+
+        List<String> previousResources = new ArrayList<>();
+        SpecBean spec = selectedConfigBean.getSpec();
+        if (spec.getApps() != null) {
+            spec.getApps().values().stream()
+                    .filter(app -> app != null && app.getPreviousName() != null)
+                    .map(ApplicationBean::getPreviousName)
+                    .filter(previousName -> !includesApplication(previousName))
+                    .forEach(previousName -> previousResources.add(APPLICATIONS_PREFIX + previousName));
+        }
+        if (spec.getServices() != null) {
+            spec.getServices().values().stream()
+                    .filter(service -> service != null && service.getPreviousName() != null)
+                    .map(ServiceBean::getPreviousName)
+                    .filter(previousName -> !includesService(previousName))
+                    .forEach(previousName -> previousResources.add(SERVICES_PREFIX + previousName));
+        }
+        if (previousResources.isEmpty()) {
+            return this;
+        }
+
+        ApplySelection previousSelection = of(previousResources);
+        List<String> extendedResources = new ArrayList<>(resources);
+        extendedResources.addAll(previousSelection.resources);
+        List<Pattern> extendedApplicationPatterns = new ArrayList<>(applicationPatterns);
+        extendedApplicationPatterns.addAll(previousSelection.applicationPatterns);
+        List<Pattern> extendedServicePatterns = new ArrayList<>(servicePatterns);
+        extendedServicePatterns.addAll(previousSelection.servicePatterns);
+        return new ApplySelection(Collections.unmodifiableList(extendedResources),
+                Collections.unmodifiableList(extendedApplicationPatterns),
+                Collections.unmodifiableList(extendedServicePatterns));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ApplySelection that = (ApplySelection) o;
+        return resources.equals(that.resources);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(resources);
+    }
+
+    /**
+     * @return the specification the selection can be parsed from, empty if all resources are selected
+     */
+    @Override
+    public String toString() {
+        return String.join(SEPARATOR, resources);
+    }
+
+}
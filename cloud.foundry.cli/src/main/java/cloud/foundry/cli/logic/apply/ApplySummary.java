@@ -0,0 +1,89 @@
+package cloud.foundry.cli.logic.apply;
+
+import cloud.foundry.cli.crosscutting.logging.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the outcome of the operations of an apply run. A failed operation only affects the operations that depend
+ * on it, so the summary lists the resources that have not reached their desired state, while all other resources
+ * have.
+ */
+public class ApplySummary {
+
+    private static final Log log = Log.getLog(ApplySummary.class);
+
+    // guarded by this
+    private int succeeded;
+    private int completedBefore;
+    private final List<ApplyOperation> failed = new ArrayList<>();
+    private final List<ApplyOperation> skipped = new ArrayList<>();
+
+    /**
+     * @param operation an operation that has succeeded in this run
+     */
+    public synchronized void addSucceeded(ApplyOperation operation) {
+        succeeded++;
+    }
+
+    /**
+     * @param operation an operation that has not been run, since it has succeeded in a previous run
+     */
+    public synchronized void addCompletedBefore(ApplyOperation operation) {
+        completedBefore++;
+    }
+
+    /**
+     * @param operation an operation that has failed
+     */
+    public synchronized void addFailed(ApplyOperation operation) {
+        failed.add(operation);
+    }
+
+    /**
+     * @param operation an operation that has been skipped, since an operation it depends on has failed
+     */
+    public synchronized void addSkipped(ApplyOperation operation) {
+        skipped.add(operation);
+    }
+
+    /**
+     * @return the failed and skipped operations, grouped by the name of the resource they affect
+     */
+    public synchronized Map<String, List<String>> getIncompleteResources() {
+        Map<String, List<String>> incompleteResources = new TreeMap<>();
+        for (ApplyOperation operation : failed) {
+            incompleteResources.computeIfAbsent(operation.getResourceName(), name -> new ArrayList<>())
+                    .add("failed: " + operation);
+        }
+        for (ApplyOperation operation : skipped) {
+            incompleteResources.computeIfAbsent(operation.getResourceName(), name -> new ArrayList<>())
+                    .add("skipped: " + operation);
+        }
+        return incompleteResources;
+    }
+
+    /**
+     * Logs the number of operations per outcome and the resources that have not reached their desired state.
+     */
+    public synchronized void log() {
+        log.info("Summary:", succeeded, "operations succeeded,", failed.size(), "failed,", skipped.size(),
+                "skipped");
+        if (completedBefore > 0) {
+            log.info(completedBefore, "operations had completed in a previous run");
+        }
+        for (Map.Entry<String, List<String>> resource : getIncompleteResources().entrySet()) {
+            log.warning("Resource", resource.getKey(), "is incomplete:", String.join(", ", resource.getValue()));
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return succeeded + " succeeded, " + failed.size() + " failed, " + skipped.size() + " skipped, "
+                + completedBefore + " completed before";
+    }
+
+}
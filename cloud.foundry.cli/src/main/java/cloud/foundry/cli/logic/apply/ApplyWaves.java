@@ -0,0 +1,124 @@
+package cloud.foundry.cli.logic.apply;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Splits the applications of an apply run into waves that are rolled out one after another, e.g. a single canary
+ * application, then ten percent of the applications and finally all remaining applications. Each wave has either a
+ * fixed number of applications or a percentage of all applications. The applications that do not fit into any of
+ * the specified waves form the last wave.
+ */
+public class ApplyWaves {
+
+    private static final String PERCENT = "%";
+    private static final String SEPARATOR = ",";
+
+    private final List<String> sizes;
+
+    private ApplyWaves(List<String> sizes) {
+        this.sizes = sizes;
+    }
+
+    /**
+     * @return waves that put all applications into a single wave
+     */
+    public static ApplyWaves none() {
+        return new ApplyWaves(Collections.emptyList());
+    }
+
+    /**
+     * @param specification the sizes of the waves separated by commas, each size is either a number of applications
+     *                      or a percentage of all applications, e.g. "1,10%"
+     * @return the waves
+     * @throws NullPointerException if the argument is null
+     * @throws IllegalArgumentException if any size is neither a positive number nor a percentage between 1 and 100
+     */
+    public static ApplyWaves parse(String specification) {
+        checkNotNull(specification);
+
+        List<String> sizes = new ArrayList<>();
+        for (String size : specification.split(SEPARATOR)) {
+            String trimmedSize = size.trim();
+            boolean isPercentage = trimmedSize.endsWith(PERCENT);
+            String number = isPercentage
+                    ? trimmedSize.substring(0, trimmedSize.length() - PERCENT.length())
+                    : trimmedSize;
+            checkArgument(number.matches("[0-9]+"), "Invalid size of wave: " + trimmedSize);
+
+            int value = Integer.parseInt(number);
+            checkArgument(value > 0, "Invalid size of wave: " + trimmedSize);
+            checkArgument(!isPercentage || value <= 100, "Invalid size of wave: " + trimmedSize);
+            sizes.add(trimmedSize);
+        }
+        return new ApplyWaves(Collections.unmodifiableList(sizes));
+    }
+
+    /**
+     * @return whether all applications are put into a single wave
+     */
+    public boolean isNone() {
+        return sizes.isEmpty();
+    }
+
+    /**
+     * Splits the applications into waves. Percentages are rounded up, so that every wave contains at least one
+     * application as long as there are applications left.
+     * @param applicationNames the names of the applications in the order they are rolled out
+     * @return the non-empty waves in the order they are rolled out
+     * @throws NullPointerException if the argument is null
+     */
+    public List<List<String>> partition(List<String> applicationNames) {
+        checkNotNull(applicationNames);
+
+        List<List<String>> waves = new ArrayList<>();
+        int start = 0;
+        for (String size : sizes) {
+            if (start >= applicationNames.size()) {
+                break;
+            }
+            int end = Math.min(start + getCount(size, applicationNames.size()), applicationNames.size());
+            waves.add(new ArrayList<>(applicationNames.subList(start, end)));
+            start = end;
+        }
+        if (start < applicationNames.size()) {
+            waves.add(new ArrayList<>(applicationNames.subList(start, applicationNames.size())));
+        }
+        return waves;
+    }
+
+    private static int getCount(String size, int total) {
+        if (size.endsWith(PERCENT)) {
+            int percentage = Integer.parseInt(size.substring(0, size.length() - PERCENT.length()));
+            return Math.max(1, (total * percentage + 99) / 100);
+        }
+        return Integer.parseInt(size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ApplyWaves that = (ApplyWaves) o;
+        return sizes.equals(that.sizes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sizes);
+    }
+
+    /**
+     * @return the specification the waves can be parsed from, empty if all applications are put into a single wave
+     */
+    @Override
+    public String toString() {
+        return String.join(SEPARATOR, sizes);
+    }
+
+}
@@ -0,0 +1,24 @@
+package cloud.foundry.cli.logic.apply;
+
+/**
+ * The strategies to roll out new bits of an application.
+ */
+public enum DeploymentStrategy {
+
+    /**
+     * Removes the application and pushes it again. The application is unavailable in between.
+     */
+    RECREATE,
+
+    /**
+     * Stages the new bits while the application keeps running and replaces its instances one by one afterwards.
+     */
+    ROLLING,
+
+    /**
+     * Stages the new bits of all applications while they keep running. Only once all new droplets are ready, the
+     * applications are switched to them and restarted, a few at a time.
+     */
+    STAGE_AHEAD
+
+}
@@ -0,0 +1,62 @@
+package cloud.foundry.cli.logic.apply;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.mapping.YamlMapper;
+import cloud.foundry.cli.crosscutting.mapping.beans.Bean;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Condenses the summaries of the live state of a space into a short fingerprint. Two fingerprints are equal if the
+ * summaries are equal, regardless of their order. Thus, comparing the fingerprint of a planned state with the
+ * fingerprint of the current state tells whether the space has been changed in the meantime, without fetching and
+ * diffing the complete configuration again.
+ *
+ * The fingerprint only covers what the summaries cover, e.g. the scaling of the applications and the plans of the
+ * services, but not the environment variables of the applications. Therefore, the complete configuration of each app
+ * and service the planned operations change is condensed into a fingerprint of its own, see
+ * {@link #createOfResource(Bean)}.
+ */
+public class LiveStateFingerprint {
+
+    private LiveStateFingerprint() {
+    }
+
+    /**
+     * @param spaceDevelopers the names of the space developers
+     * @param applicationSummaries the summaries of the applications by their names
+     * @param serviceSummaries the summaries of the services by their names
+     * @return the fingerprint as a hexadecimal string
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public static String create(List<String> spaceDevelopers,
+                                Map<String, String> applicationSummaries,
+                                Map<String, String> serviceSummaries) {
+        checkNotNull(spaceDevelopers);
+        checkNotNull(applicationSummaries);
+        checkNotNull(serviceSummaries);
+
+        String content = "spaceDevelopers=" + new TreeSet<>(spaceDevelopers) + "\n"
+                + "apps=" + new TreeMap<>(applicationSummaries) + "\n"
+                + "services=" + new TreeMap<>(serviceSummaries);
+        return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * @param resource the fetched configuration of an app or a service
+     * @return the fingerprint of the configuration as a hexadecimal string
+     * @throws NullPointerException if the argument is null
+     */
+    public static String createOfResource(Bean resource) {
+        checkNotNull(resource);
+
+        return Hashing.sha256().hashString(YamlMapper.dump(resource), StandardCharsets.UTF_8).toString();
+    }
+
+}
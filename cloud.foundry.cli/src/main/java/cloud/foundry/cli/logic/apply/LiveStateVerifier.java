@@ -0,0 +1,220 @@
+package cloud.foundry.cli.logic.apply;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.concurrency.Deadline;
+import cloud.foundry.cli.crosscutting.exceptions.ApplyException;
+import cloud.foundry.cli.crosscutting.logging.Log;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.Bean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
+import cloud.foundry.cli.operations.ApplicationsOperations;
+import cloud.foundry.cli.operations.ServicesOperations;
+import cloud.foundry.cli.operations.SpaceDevelopersOperations;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Verifies that the live state of a space still matches a plan before the plan is applied. Instead of fetching the
+ * whole live configuration again, the {@link LiveStateFingerprint} of the summaries is compared, and only the apps
+ * and services that the planned operations change are fetched completely. When a plan is resumed, it is verified
+ * that the operations completed in a previous run are still in effect.
+ */
+public class LiveStateVerifier {
+
+    private static final Log log = Log.getLog(LiveStateVerifier.class);
+
+    // the maximum duration of fetching the fingerprint of the live state
+    private static final Duration FINGERPRINT_REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+    private static final String APPLICATIONS_RESOURCE_PREFIX = "apps/";
+    private static final String SERVICES_RESOURCE_PREFIX = "services/";
+
+    private final SpaceDevelopersOperations spaceDevelopersOperations;
+    private final ApplicationsOperations applicationsOperations;
+    private final ServicesOperations servicesOperations;
+    private final Function<ApplySelection, ConfigBean> selectedConfigFetcher;
+    private final Deadline deadline;
+
+    /**
+     * @param spaceDevelopersOperations the operations that fetch the space developers
+     * @param applicationsOperations the operations that fetch the summaries of the apps
+     * @param servicesOperations the operations that fetch the summaries of the services
+     * @param selectedConfigFetcher fetches the complete live configuration of the selected resources
+     * @param deadline the deadline the requests have to meet
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public LiveStateVerifier(SpaceDevelopersOperations spaceDevelopersOperations,
+                             ApplicationsOperations applicationsOperations,
+                             ServicesOperations servicesOperations,
+                             Function<ApplySelection, ConfigBean> selectedConfigFetcher,
+                             Deadline deadline) {
+        checkNotNull(spaceDevelopersOperations);
+        checkNotNull(applicationsOperations);
+        checkNotNull(servicesOperations);
+        checkNotNull(selectedConfigFetcher);
+        checkNotNull(deadline);
+
+        this.spaceDevelopersOperations = spaceDevelopersOperations;
+        this.applicationsOperations = applicationsOperations;
+        this.servicesOperations = servicesOperations;
+        this.selectedConfigFetcher = selectedConfigFetcher;
+        this.deadline = deadline;
+    }
+
+    /**
+     * The summaries are fetched with a single list request each instead of the requests per app and service of a
+     * complete fetch. Changes of resources that are not selected do not affect the fingerprint.
+     * @param selection the selected resources
+     * @return the fingerprint of the live state of the selected resources
+     */
+    public String fetchFingerprint(ApplySelection selection) {
+        Mono<List<String>> spaceDevelopers = selection.includesSpaceDevelopers()
+                ? spaceDevelopersOperations.getAll()
+                : Mono.just(Collections.emptyList());
+        Mono<String> fingerprintRequest = deadline.limit(Mono.zip(
+                spaceDevelopers,
+                applicationsOperations.getSummaries().map(selection::filterApplications),
+                servicesOperations.getSummaries().map(selection::filterServices))
+                .map(summaries -> LiveStateFingerprint.create(summaries.getT1(), summaries.getT2(),
+                        summaries.getT3())),
+                FINGERPRINT_REQUEST_TIMEOUT);
+
+        return fingerprintRequest.block();
+    }
+
+    /**
+     * Only the changed resources are fetched completely, e.g. with their environment variables, which the summaries
+     * do not cover.
+     * @param resources the changed resources as returned by {@link #getChangedResources(ApplyGraph)}
+     * @return the fingerprints of the resources that exist by their names
+     */
+    public Map<String, String> fetchResourceFingerprints(Set<String> resources) {
+        if (resources.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        log.debug("Fetching the changed resources", resources);
+        return fingerprintResources(selectedConfigFetcher.apply(ApplySelection.of(resources)), resources);
+    }
+
+    /**
+     * @param graph the planned operations
+     * @return the resources the operations change, named like the resources of a selection, e.g. "apps/billing",
+     * renamed resources are covered by both of their names
+     */
+    public static Set<String> getChangedResources(ApplyGraph graph) {
+        Set<String> resources = new TreeSet<>();
+        for (ApplyOperation operation : graph.getOperations()) {
+            switch (operation.getType()) {
+                case ASSIGN_SPACE_DEVELOPER:
+                case REVOKE_SPACE_DEVELOPER:
+                    // the fingerprint of the summaries covers the space developers completely
+                    break;
+                case RENAME_SERVICE:
+                    resources.add(SERVICES_RESOURCE_PREFIX + operation.getTarget());
+                    resources.add(SERVICES_RESOURCE_PREFIX + operation.getResourceName());
+                    break;
+                case CREATE_SERVICE:
+                case UPDATE_SERVICE:
+                case REMOVE_SERVICE:
+                    resources.add(SERVICES_RESOURCE_PREFIX + operation.getResourceName());
+                    break;
+                case RENAME_APPLICATION:
+                    resources.add(APPLICATIONS_RESOURCE_PREFIX + operation.getTarget());
+                    resources.add(APPLICATIONS_RESOURCE_PREFIX + operation.getResourceName());
+                    break;
+                default:
+                    resources.add(APPLICATIONS_RESOURCE_PREFIX + operation.getResourceName());
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * Resources that do not exist have no fingerprint, the fingerprint of the summaries covers their absence.
+     * @param configBean the configuration that holds the resources
+     * @param resources the resources as returned by {@link #getChangedResources(ApplyGraph)}
+     * @return the fingerprints of the resources that exist by their names
+     */
+    public static Map<String, String> fingerprintResources(ConfigBean configBean, Set<String> resources) {
+        Map<String, ApplicationBean> apps = configBean.getSpec() == null || configBean.getSpec().getApps() == null
+                ? Collections.emptyMap()
+                : configBean.getSpec().getApps();
+        Map<String, ServiceBean> services = configBean.getSpec() == null
+                || configBean.getSpec().getServices() == null
+                ? Collections.emptyMap()
+                : configBean.getSpec().getServices();
+        Map<String, String> fingerprints = new TreeMap<>();
+        for (String resource : resources) {
+            Bean bean = resource.startsWith(APPLICATIONS_RESOURCE_PREFIX)
+                    ? apps.get(resource.substring(APPLICATIONS_RESOURCE_PREFIX.length()))
+                    : services.get(resource.substring(SERVICES_RESOURCE_PREFIX.length()));
+            if (bean != null) {
+                fingerprints.put(resource, LiveStateFingerprint.createOfResource(bean));
+            }
+        }
+        return fingerprints;
+    }
+
+    /**
+     * A cheap check that the operations completed in a previous run are still in effect, the live state is only
+     * fetched via a single list request for apps and services each.
+     * @param graph the planned operations
+     * @param completedOperations the descriptions of the operations completed in a previous run
+     * @throws ApplyException if the live state does not reflect a completed operation anymore
+     */
+    public void verifyCompletedOperations(ApplyGraph graph, Set<String> completedOperations) {
+        log.info("Verifying the operations completed in a previous run");
+        Mono<Tuple2<Map<String, String>, Map<String, String>>> summariesRequest = deadline.limit(Mono.zip(
+                applicationsOperations.getSummaries(),
+                servicesOperations.getSummaries()),
+                FINGERPRINT_REQUEST_TIMEOUT);
+        Tuple2<Map<String, String>, Map<String, String>> summaries = summariesRequest.block();
+
+        for (ApplyOperation operation : graph.getOperations()) {
+            if (!completedOperations.contains(operation.toString())) {
+                continue;
+            }
+            if (!isInEffect(operation, summaries.getT1(), summaries.getT2())) {
+                throw new ApplyException("The operation " + operation + " has completed in a previous run, but "
+                        + "the live state does not reflect it anymore, please create a new plan");
+            }
+        }
+        log.verbose("Verifying the operations completed in a previous run completed");
+    }
+
+    private static boolean isInEffect(ApplyOperation operation,
+                                      Map<String, String> appSummaries,
+                                      Map<String, String> serviceSummaries) {
+        switch (operation.getType()) {
+            case CREATE_APPLICATION:
+                return appSummaries.containsKey(operation.getResourceName());
+            case REMOVE_APPLICATION:
+                return !appSummaries.containsKey(operation.getResourceName());
+            case RENAME_APPLICATION:
+                return appSummaries.containsKey(operation.getResourceName())
+                        && !appSummaries.containsKey(operation.getTarget());
+            case CREATE_SERVICE:
+                return serviceSummaries.containsKey(operation.getResourceName());
+            case REMOVE_SERVICE:
+                return !serviceSummaries.containsKey(operation.getResourceName());
+            case RENAME_SERVICE:
+                return serviceSummaries.containsKey(operation.getResourceName())
+                        && !serviceSummaries.containsKey(operation.getTarget());
+            default:
+                // the other operations change details that the summaries do not reliably reflect
+                return true;
+        }
+    }
+
+}
@@ -5,15 +5,20 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import cloud.foundry.cli.crosscutting.exceptions.ApplyException;
 import cloud.foundry.cli.crosscutting.logging.Log;
 import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
+import cloud.foundry.cli.logic.apply.ApplyBulkheads.Kind;
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
 import cloud.foundry.cli.logic.diff.change.CfChange;
 import cloud.foundry.cli.logic.diff.change.container.CfContainerChange;
+import cloud.foundry.cli.logic.diff.change.map.CfMapChange;
 import cloud.foundry.cli.logic.diff.change.object.CfNewObject;
 import cloud.foundry.cli.logic.diff.change.object.CfObjectValueChanged;
 import cloud.foundry.cli.logic.diff.change.object.CfRemovedObject;
 import cloud.foundry.cli.operations.ServicesOperations;
 import reactor.core.publisher.Flux;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
 
@@ -25,11 +30,29 @@ public class ServiceRequestsPlanner {
 
     private static final Log log = Log.getLog(ServiceRequestsPlanner.class);
 
+    // a change of the offering can only be applied by creating the service instance again
+    private static final String SERVICE_FIELD_NAME = "service";
+    private static final String PLAN_FIELD_NAME = "plan";
+    private static final String PARAMS_FIELD_NAME = "params";
+    private static final String TAGS_FIELD_NAME = "tags";
+
     private final ServicesOperations servicesOperations;
-    private  String serviceName;
+    private final ApplyBulkheads bulkheads;
 
     public ServiceRequestsPlanner(ServicesOperations servicesOperations) {
+        this(servicesOperations, new ApplyBulkheads());
+    }
+
+    /**
+     * @param servicesOperations the operations used to apply the changes
+     * @param bulkheads the bulkheads the planned requests run in
+     * @throws NullPointerException if the bulkheads are null
+     */
+    public ServiceRequestsPlanner(ServicesOperations servicesOperations, ApplyBulkheads bulkheads) {
+        checkNotNull(bulkheads);
+
         this.servicesOperations = servicesOperations;
+        this.bulkheads = bulkheads;
     }
 
     /**
@@ -44,18 +67,37 @@ public class ServiceRequestsPlanner {
      * @return Flux of all requests that are required to apply the changes
      */
     public Flux<Void> createApplyRequests(String serviceName, List<CfChange> serviceChanges) {
+        ApplyGraph graph = new ApplyGraph();
+        addApplyOperations(graph, serviceName, serviceChanges);
+        return graph.execute();
+    }
+
+    /**
+     * Adds the operation for one service to the graph.
+     *
+     * @param graph              the graph to add the operation to
+     * @param serviceName        the name of the service
+     * @param serviceChanges     a list with all the Changes found during diff for
+     *                           that specific service
+     * @throws ApplyException       if an error during the apply logic occurs. May
+     *                              contain another exception inside with more details.
+     * @throws NullPointerException when any of the arguments is null
+     */
+    public void addApplyOperations(ApplyGraph graph, String serviceName, List<CfChange> serviceChanges) {
+        checkNotNull(graph);
         checkNotNull(serviceName);
         checkNotNull(serviceChanges);
 
         try {
-            this.serviceName = serviceName;
-            return doCreateApplyRequests(serviceChanges);
+            graph.addOperation(createApplyOperation(serviceName, serviceChanges));
         } catch (Exception exception) {
             throw new ApplyException(exception);
         }
     }
 
-    private Flux<Void> doCreateApplyRequests(List<CfChange> changes) {
+    // the service is passed along instead of being kept in a field, so that a planner can plan several services at
+    // the same time
+    private ApplyOperation createApplyOperation(String serviceName, List<CfChange> changes) {
 
         if (hasNewObject(changes)) {
             log.debug("Requesting creation of service", serviceName);
@@ -64,20 +106,36 @@ public class ServiceRequestsPlanner {
                 .get()
                 .getAffectedObject();
 
-            return Flux.merge(this.servicesOperations.create(this.serviceName, bean));
+            return new ApplyOperation(Type.CREATE_SERVICE, serviceName, bulkheads.limit(Kind.SERVICE_PROVISIONING,
+                    this.servicesOperations.create(serviceName, bean)));
         } else if (hasRemovedObject(changes)) {
             log.debug("Requesting removal of service", serviceName);
 
-            return Flux.merge(this.servicesOperations.remove(serviceName));
-        } else if (hasContainerChange(changes) || hasObjectValueChanged(changes)) {
+            return new ApplyOperation(Type.REMOVE_SERVICE, serviceName, bulkheads.limit(Kind.SERVICE_PROVISIONING,
+                    this.servicesOperations.remove(serviceName)));
+        } else if (hasField(changes, SERVICE_FIELD_NAME)) {
+            log.debug("Requesting recreation of service", serviceName);
+
+            ServiceBean bean = (ServiceBean) changes.get(0).getAffectedObject();
+
+            return new ApplyOperation(Type.UPDATE_SERVICE, serviceName, bulkheads.limit(Kind.SERVICE_PROVISIONING,
+                    this.servicesOperations.update(serviceName, bean)));
+        } else if (hasContainerChange(changes) || hasObjectValueChanged(changes) || hasMapChange(changes)) {
             log.debug("Requesting update of service", serviceName);
-            
-            ServiceBean bean = (ServiceBean) getChange(changes, 
-                 change -> change instanceof CfContainerChange || change instanceof CfObjectValueChanged)
-                .get()
-                .getAffectedObject();
 
-            return Flux.merge(this.servicesOperations.update(serviceName, bean));
+            ServiceBean bean = (ServiceBean) changes.get(0).getAffectedObject();
+
+            // only the changed settings are sent, so that the broker does not have to process the others
+            String plan = hasField(changes, PLAN_FIELD_NAME) ? bean.getPlan() : null;
+            Map<String, Object> params = hasField(changes, PARAMS_FIELD_NAME)
+                    ? Optional.ofNullable(bean.getParams()).orElse(Collections.emptyMap())
+                    : null;
+            List<String> tags = hasField(changes, TAGS_FIELD_NAME)
+                    ? Optional.ofNullable(bean.getTags()).orElse(Collections.emptyList())
+                    : null;
+
+            return new ApplyOperation(Type.UPDATE_SERVICE, serviceName, bulkheads.limit(Kind.SERVICE_PROVISIONING,
+                    this.servicesOperations.updateInstance(serviceName, plan, params, tags)));
         } else {
            
             throw new ApplyException("No request can be added for service: " + serviceName);
@@ -96,6 +154,14 @@ public class ServiceRequestsPlanner {
         return changes.stream().anyMatch(change -> change instanceof CfContainerChange);
     }
 
+    private boolean hasMapChange(List<CfChange> changes) {
+        return changes.stream().anyMatch(change -> change instanceof CfMapChange);
+    }
+
+    private boolean hasField(List<CfChange> changes, String fieldName) {
+        return changes.stream().anyMatch(change -> change.getPropertyName().equals(fieldName));
+    }
+
     private boolean hasObjectValueChanged(List<CfChange> changes) {
         return changes.stream().anyMatch(change -> change instanceof CfObjectValueChanged);
     }
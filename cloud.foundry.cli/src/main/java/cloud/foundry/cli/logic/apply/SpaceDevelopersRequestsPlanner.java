@@ -3,14 +3,12 @@ package cloud.foundry.cli.logic.apply;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import cloud.foundry.cli.crosscutting.logging.Log;
+import cloud.foundry.cli.logic.apply.ApplyBulkheads.Kind;
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
 import cloud.foundry.cli.logic.diff.change.ChangeType;
 import cloud.foundry.cli.logic.diff.change.container.CfContainerChange;
 import cloud.foundry.cli.operations.SpaceDevelopersOperations;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
-
-import java.util.LinkedList;
-import java.util.List;
 
 /**
  * This class is responsible to build the requests in the context of space developers according to the CfChanges.
@@ -29,25 +27,61 @@ public class SpaceDevelopersRequestsPlanner {
      */
     public static Flux<Void> createSpaceDevelopersRequests(SpaceDevelopersOperations spaceDevelopersOperations,
                                                            CfContainerChange spaceDevelopersChange) {
+        return createSpaceDevelopersRequests(spaceDevelopersOperations, spaceDevelopersChange, new ApplyBulkheads());
+    }
 
+    /**
+     * Creates the requests to assign/revoke space developer's permission.
+     *
+     * @param spaceDevelopersOperations operations instance that is used to manipulate the space developers
+     * @param spaceDevelopersChange a list with all the Changes found during diff for the specific space developers.
+     * @param bulkheads the bulkheads the requests run in
+     * @return Flux of all requests that are required to apply the changes.
+     * @throws NullPointerException if one of the argument is null.
+     */
+    public static Flux<Void> createSpaceDevelopersRequests(SpaceDevelopersOperations spaceDevelopersOperations,
+                                                           CfContainerChange spaceDevelopersChange,
+                                                           ApplyBulkheads bulkheads) {
+        ApplyGraph graph = new ApplyGraph();
+        addSpaceDevelopersOperations(graph, spaceDevelopersOperations, spaceDevelopersChange, bulkheads);
+        return graph.execute();
+    }
+
+    /**
+     * Adds the operations to assign/revoke space developer's permission to the graph.
+     *
+     * @param graph the graph to add the operations to
+     * @param spaceDevelopersOperations operations instance that is used to manipulate the space developers
+     * @param spaceDevelopersChange a list with all the Changes found during diff for the specific space developers.
+     * @param bulkheads the bulkheads the requests run in
+     * @throws NullPointerException if one of the argument is null.
+     */
+    public static void addSpaceDevelopersOperations(ApplyGraph graph,
+                                                    SpaceDevelopersOperations spaceDevelopersOperations,
+                                                    CfContainerChange spaceDevelopersChange,
+                                                    ApplyBulkheads bulkheads) {
+
+        checkNotNull(graph);
         checkNotNull(spaceDevelopersOperations);
         checkNotNull(spaceDevelopersChange);
+        checkNotNull(bulkheads);
 
         String spaceId = spaceDevelopersOperations.getSpaceId().block();
-        List<Mono<Void>> requests = new LinkedList<>();
         spaceDevelopersChange.getChangedValues().forEach(
                 changedValue -> {
                     if (changedValue.getChangeType() == ChangeType.ADDED) {
                         log.debug("Requesting assignment as space developer for", changedValue.getValue());
-                        requests.add(spaceDevelopersOperations.assign(changedValue.getValue(), spaceId));
+                        graph.addOperation(new ApplyOperation(Type.ASSIGN_SPACE_DEVELOPER, changedValue.getValue(),
+                                bulkheads.limit(Kind.ROLE_CHANGES,
+                                        spaceDevelopersOperations.assign(changedValue.getValue(), spaceId))));
                     } else if (changedValue.getChangeType() == ChangeType.REMOVED) {
                         log.debug("Requesting revocation as space developer for", changedValue.getValue());
-                        requests.add(spaceDevelopersOperations.remove(changedValue.getValue(), spaceId));
+                        graph.addOperation(new ApplyOperation(Type.REVOKE_SPACE_DEVELOPER, changedValue.getValue(),
+                                bulkheads.limit(Kind.ROLE_CHANGES,
+                                        spaceDevelopersOperations.remove(changedValue.getValue(), spaceId))));
                     }
                 }
         );
-
-        return Flux.merge(requests);
     }
 
 }
@@ -0,0 +1,218 @@
+package cloud.foundry.cli.logic.diff;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationManifestBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns the comparison of a live and a desired configuration into a three-way comparison by taking the configuration
+ * into account that has been applied last. The live configuration is adjusted before it is diffed:
+ * <ul>
+ *     <li>Apps, services and space developers that are the same in the desired and the last applied configuration
+ *     are not compared to the live configuration at all, they are considered to be in their desired state.</li>
+ *     <li>Settings of the other apps and services that neither the desired nor the last applied configuration
+ *     declare are dropped from the live configuration, so that values set by the platform or by hand are left
+ *     alone.</li>
+ *     <li>Settings the last applied configuration declares, but the desired configuration does not, are kept, so
+ *     that they are reset.</li>
+ * </ul>
+ */
+public class LastAppliedBaseline {
+
+    private LastAppliedBaseline() {
+    }
+
+    /**
+     * Adjusts the live configuration to the desired and the last applied configuration. The given configurations are
+     * not modified.
+     * @param liveConfigBean the configuration that is currently on the live system
+     * @param desiredConfigBean the configuration state that the live system should change to
+     * @param lastAppliedConfigBean the configuration that has been applied to the live system last
+     * @return the adjusted live configuration
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public static ConfigBean normalize(ConfigBean liveConfigBean,
+                                       ConfigBean desiredConfigBean,
+                                       ConfigBean lastAppliedConfigBean) {
+        checkNotNull(liveConfigBean);
+        checkNotNull(desiredConfigBean);
+        checkNotNull(lastAppliedConfigBean);
+
+        SpecBean liveSpec = liveConfigBean.getSpec();
+        SpecBean desiredSpec = desiredConfigBean.getSpec();
+        SpecBean lastAppliedSpec = lastAppliedConfigBean.getSpec();
+        if (liveSpec == null || desiredSpec == null || lastAppliedSpec == null) {
+            return liveConfigBean;
+        }
+
+        Differ differ = new Differ();
+        differ.ignoreSpecBeanMapChange();
+        DiffResult desiredChanges = new DiffResult(differ.createDiffTree(lastAppliedConfigBean, desiredConfigBean));
+        Set<String> changedApps = desiredChanges.getApplicationChanges().keySet();
+        Set<String> changedServices = desiredChanges.getServiceChanges().keySet();
+
+        SpecBean normalizedSpec = new SpecBean();
+        normalizedSpec.setSpaceDevelopers(desiredChanges.getSpaceDevelopersChange() == null
+                ? desiredSpec.getSpaceDevelopers()
+                : liveSpec.getSpaceDevelopers());
+        normalizedSpec.setApps(normalizeApps(liveSpec.getApps(), desiredSpec.getApps(), lastAppliedSpec.getApps(),
+                changedApps));
+        normalizedSpec.setServices(normalizeServices(liveSpec.getServices(), desiredSpec.getServices(),
+                lastAppliedSpec.getServices(), changedServices));
+
+        ConfigBean normalizedConfigBean = new ConfigBean();
+        normalizedConfigBean.setApiVersion(liveConfigBean.getApiVersion());
+        normalizedConfigBean.setTarget(liveConfigBean.getTarget());
+        normalizedConfigBean.setSpec(normalizedSpec);
+        return normalizedConfigBean;
+    }
+
+    private static Map<String, ApplicationBean> normalizeApps(Map<String, ApplicationBean> liveApps,
+                                                              Map<String, ApplicationBean> desiredApps,
+                                                              Map<String, ApplicationBean> lastAppliedApps,
+                                                              Set<String> changedApps) {
+        if (liveApps == null || desiredApps == null) {
+            return liveApps;
+        }
+
+        Map<String, ApplicationBean> normalizedApps = new LinkedHashMap<>();
+        for (Map.Entry<String, ApplicationBean> liveApp : liveApps.entrySet()) {
+            String name = liveApp.getKey();
+            ApplicationBean desiredApp = desiredApps.get(name);
+            ApplicationBean lastAppliedApp = lastAppliedApps == null ? null : lastAppliedApps.get(name);
+            if (desiredApp == null || liveApp.getValue() == null) {
+                normalizedApps.put(name, liveApp.getValue());
+            } else if (lastAppliedApp != null && !changedApps.contains(name)) {
+                normalizedApps.put(name, desiredApp);
+            } else {
+                normalizedApps.put(name, dropUndeclared(liveApp.getValue(), desiredApp, lastAppliedApp));
+            }
+        }
+        return normalizedApps;
+    }
+
+    private static ApplicationBean dropUndeclared(ApplicationBean liveApp,
+                                                  ApplicationBean desiredApp,
+                                                  ApplicationBean lastAppliedApp) {
+        if (liveApp.getManifest() == null) {
+            return liveApp;
+        }
+
+        ApplicationManifestBean live = liveApp.getManifest();
+        ApplicationManifestBean desired = desiredApp.getManifest() == null
+                ? new ApplicationManifestBean()
+                : desiredApp.getManifest();
+        ApplicationManifestBean lastApplied = lastAppliedApp == null || lastAppliedApp.getManifest() == null
+                ? new ApplicationManifestBean()
+                : lastAppliedApp.getManifest();
+
+        ApplicationManifestBean normalized = new ApplicationManifestBean(live);
+        if (isUndeclared(desired.getBuildpack(), lastApplied.getBuildpack())) {
+            normalized.setBuildpack(null);
+        }
+        if (isUndeclared(desired.getCommand(), lastApplied.getCommand())) {
+            normalized.setCommand(null);
+        }
+        if (isUndeclared(desired.getDisk(), lastApplied.getDisk())) {
+            normalized.setDisk(null);
+        }
+        if (isUndeclared(desired.getEnvironmentVariables(), lastApplied.getEnvironmentVariables())) {
+            normalized.setEnvironmentVariables(null);
+        }
+        if (isUndeclared(desired.getHealthCheckHttpEndpoint(), lastApplied.getHealthCheckHttpEndpoint())) {
+            normalized.setHealthCheckHttpEndpoint(null);
+        }
+        if (isUndeclared(desired.getHealthCheckType(), lastApplied.getHealthCheckType())) {
+            normalized.setHealthCheckType(null);
+        }
+        if (isUndeclared(desired.getInstances(), lastApplied.getInstances())) {
+            normalized.setInstances(null);
+        }
+        if (isUndeclared(desired.getMemory(), lastApplied.getMemory())) {
+            normalized.setMemory(null);
+        }
+        if (isUndeclared(desired.getNoRoute(), lastApplied.getNoRoute())) {
+            normalized.setNoRoute(null);
+        }
+        if (isUndeclared(desired.getRandomRoute(), lastApplied.getRandomRoute())) {
+            normalized.setRandomRoute(null);
+        }
+        if (isUndeclared(desired.getRoutes(), lastApplied.getRoutes())) {
+            normalized.setRoutes(null);
+        }
+        if (isUndeclared(desired.getServices(), lastApplied.getServices())) {
+            normalized.setServices(null);
+        }
+        if (isUndeclared(desired.getStack(), lastApplied.getStack())) {
+            normalized.setStack(null);
+        }
+        if (isUndeclared(desired.getTimeout(), lastApplied.getTimeout())) {
+            normalized.setTimeout(null);
+        }
+
+        if (normalized.equals(live)) {
+            return liveApp;
+        }
+        ApplicationBean normalizedApp = new ApplicationBean(liveApp);
+        normalizedApp.setManifest(normalized);
+        return normalizedApp;
+    }
+
+    private static Map<String, ServiceBean> normalizeServices(Map<String, ServiceBean> liveServices,
+                                                              Map<String, ServiceBean> desiredServices,
+                                                              Map<String, ServiceBean> lastAppliedServices,
+                                                              Set<String> changedServices) {
+        if (liveServices == null || desiredServices == null) {
+            return liveServices;
+        }
+
+        Map<String, ServiceBean> normalizedServices = new LinkedHashMap<>();
+        for (Map.Entry<String, ServiceBean> liveService : liveServices.entrySet()) {
+            String name = liveService.getKey();
+            ServiceBean desiredService = desiredServices.get(name);
+            ServiceBean lastAppliedService = lastAppliedServices == null ? null : lastAppliedServices.get(name);
+            if (desiredService == null || liveService.getValue() == null) {
+                normalizedServices.put(name, liveService.getValue());
+            } else if (lastAppliedService != null && !changedServices.contains(name)) {
+                normalizedServices.put(name, desiredService);
+            } else {
+                normalizedServices.put(name, dropUndeclared(liveService.getValue(), desiredService,
+                        lastAppliedService == null ? new ServiceBean() : lastAppliedService));
+            }
+        }
+        return normalizedServices;
+    }
+
+    private static ServiceBean dropUndeclared(ServiceBean liveService,
+                                              ServiceBean desiredService,
+                                              ServiceBean lastAppliedService) {
+        boolean dropTags = liveService.getTags() != null
+                && isUndeclared(desiredService.getTags(), lastAppliedService.getTags());
+        boolean dropParams = liveService.getParams() != null
+                && isUndeclared(desiredService.getParams(), lastAppliedService.getParams());
+        if (!dropTags && !dropParams) {
+            return liveService;
+        }
+
+        ServiceBean normalizedService = new ServiceBean();
+        normalizedService.setService(liveService.getService());
+        normalizedService.setPlan(liveService.getPlan());
+        normalizedService.setTags(dropTags ? null : liveService.getTags());
+        normalizedService.setParams(dropParams ? null : liveService.getParams());
+        normalizedService.setPreviousName(liveService.getPreviousName());
+        return normalizedService;
+    }
+
+    private static boolean isUndeclared(Object desiredValue, Object lastAppliedValue) {
+        return desiredValue == null && lastAppliedValue == null;
+    }
+
+}
@@ -0,0 +1,115 @@
+package cloud.foundry.cli.logic.diff;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationManifestBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
+import org.cloudfoundry.operations.applications.ApplicationHealthCheck;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Removes the defaults of cloud foundry from the manifests of a live configuration. The manifests of live apps
+ * contain values like the number of instances or the memory limit even if they have never been specified. Since the
+ * desired configuration usually omits them, they would show up as changes and cause needless redeployments. A live
+ * value is therefore dropped if the desired manifest omits it and it equals the default of cloud foundry. The stack
+ * is chosen by the foundation when omitted, so the live stack is dropped whenever the desired manifest omits it.
+ */
+public class ManifestDefaults {
+
+    public static final int DEFAULT_DISK = 1024;
+    public static final ApplicationHealthCheck DEFAULT_HEALTH_CHECK_TYPE = ApplicationHealthCheck.PORT;
+    public static final int DEFAULT_INSTANCES = 1;
+    public static final int DEFAULT_MEMORY = 1024;
+    static final int DEFAULT_TIMEOUT = 60;
+
+    private ManifestDefaults() {
+    }
+
+    /**
+     * Removes the defaults of cloud foundry from the manifests of the live apps that the desired configuration
+     * contains as well. The given configurations are not modified.
+     * @param liveConfigBean the configuration that is currently on the live system
+     * @param desiredConfigBean the configuration state that the live system should change to
+     * @return the live configuration without the defaults the desired configuration omits, the live configuration
+     * itself if there are none
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public static ConfigBean normalize(ConfigBean liveConfigBean, ConfigBean desiredConfigBean) {
+        checkNotNull(liveConfigBean);
+        checkNotNull(desiredConfigBean);
+
+        SpecBean liveSpec = liveConfigBean.getSpec();
+        SpecBean desiredSpec = desiredConfigBean.getSpec();
+        if (liveSpec == null || liveSpec.getApps() == null || desiredSpec == null || desiredSpec.getApps() == null) {
+            return liveConfigBean;
+        }
+
+        boolean isNormalized = false;
+        Map<String, ApplicationBean> normalizedApps = new LinkedHashMap<>();
+        for (Map.Entry<String, ApplicationBean> liveApp : liveSpec.getApps().entrySet()) {
+            ApplicationBean desiredApp = desiredSpec.getApps().get(liveApp.getKey());
+            ApplicationBean normalizedApp = normalize(liveApp.getValue(), desiredApp);
+            isNormalized |= normalizedApp != liveApp.getValue();
+            normalizedApps.put(liveApp.getKey(), normalizedApp);
+        }
+        if (!isNormalized) {
+            return liveConfigBean;
+        }
+
+        SpecBean normalizedSpec = new SpecBean();
+        normalizedSpec.setSpaceDevelopers(liveSpec.getSpaceDevelopers());
+        normalizedSpec.setApps(normalizedApps);
+        normalizedSpec.setServices(liveSpec.getServices());
+
+        ConfigBean normalizedConfigBean = new ConfigBean();
+        normalizedConfigBean.setApiVersion(liveConfigBean.getApiVersion());
+        normalizedConfigBean.setTarget(liveConfigBean.getTarget());
+        normalizedConfigBean.setSpec(normalizedSpec);
+        return normalizedConfigBean;
+    }
+
+    private static ApplicationBean normalize(ApplicationBean liveApp, ApplicationBean desiredApp) {
+        if (liveApp == null || liveApp.getManifest() == null || desiredApp == null) {
+            return liveApp;
+        }
+
+        ApplicationManifestBean liveManifest = liveApp.getManifest();
+        ApplicationManifestBean desiredManifest = desiredApp.getManifest() != null
+                ? desiredApp.getManifest()
+                : new ApplicationManifestBean();
+
+        ApplicationManifestBean normalizedManifest = new ApplicationManifestBean(liveManifest);
+        if (desiredManifest.getDisk() == null && Objects.equals(liveManifest.getDisk(), DEFAULT_DISK)) {
+            normalizedManifest.setDisk(null);
+        }
+        if (desiredManifest.getHealthCheckType() == null
+                && liveManifest.getHealthCheckType() == DEFAULT_HEALTH_CHECK_TYPE) {
+            normalizedManifest.setHealthCheckType(null);
+        }
+        if (desiredManifest.getInstances() == null && Objects.equals(liveManifest.getInstances(), DEFAULT_INSTANCES)) {
+            normalizedManifest.setInstances(null);
+        }
+        if (desiredManifest.getMemory() == null && Objects.equals(liveManifest.getMemory(), DEFAULT_MEMORY)) {
+            normalizedManifest.setMemory(null);
+        }
+        if (desiredManifest.getStack() == null) {
+            normalizedManifest.setStack(null);
+        }
+        if (desiredManifest.getTimeout() == null && Objects.equals(liveManifest.getTimeout(), DEFAULT_TIMEOUT)) {
+            normalizedManifest.setTimeout(null);
+        }
+
+        if (normalizedManifest.equals(liveManifest)) {
+            return liveApp;
+        }
+        ApplicationBean normalizedApp = new ApplicationBean(liveApp);
+        normalizedApp.setManifest(normalizedManifest);
+        return normalizedApp;
+    }
+
+}
@@ -13,8 +13,35 @@ public abstract class AbstractOperations<T  extends CloudFoundryOperations> {
 
     protected T cloudFoundryOperations;
 
+    // shares identical read requests, possibly with the operations objects of other resource types
+    protected RequestCoalescer requestCoalescer;
+
+    // awaits asynchronous operations, possibly together with the operations of other resource types
+    protected AsyncOperationPoller asyncOperationPoller;
+
     public AbstractOperations(T cloudFoundryOperations) {
+        this(cloudFoundryOperations, new RequestCoalescer());
+    }
+
+    /**
+     * @param cloudFoundryOperations the cloud foundry operations instance
+     * @param requestCoalescer the coalescer that is used to share identical read requests
+     */
+    public AbstractOperations(T cloudFoundryOperations, RequestCoalescer requestCoalescer) {
+        this(cloudFoundryOperations, requestCoalescer, new AsyncOperationPoller());
+    }
+
+    /**
+     * @param cloudFoundryOperations the cloud foundry operations instance
+     * @param requestCoalescer the coalescer that is used to share identical read requests
+     * @param asyncOperationPoller the poller that is used to await asynchronous operations
+     */
+    public AbstractOperations(T cloudFoundryOperations,
+                              RequestCoalescer requestCoalescer,
+                              AsyncOperationPoller asyncOperationPoller) {
         this.cloudFoundryOperations = cloudFoundryOperations;
+        this.requestCoalescer = requestCoalescer;
+        this.asyncOperationPoller = asyncOperationPoller;
     }
 
     //TODO: find common methods at a later time and create a common interface for all operation classes
@@ -6,27 +6,64 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import cloud.foundry.cli.crosscutting.logging.Log;
 import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.concurrency.ConcurrencyLimiter;
 import cloud.foundry.cli.crosscutting.exceptions.CreationException;
 import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationManifestBean;
+import cloud.foundry.cli.operations.GuidIndex.Kind;
 import org.cloudfoundry.client.v3.*;
 import org.cloudfoundry.client.v3.applications.*;
 
 import org.cloudfoundry.client.v3.applications.GetApplicationRequest;
+import org.cloudfoundry.client.v3.applications.ScaleApplicationRequest;
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.applications.AssociateApplicationRouteRequest;
+import org.cloudfoundry.client.v2.applications.RemoveApplicationRouteRequest;
+import org.cloudfoundry.client.v2.servicebindings.CreateServiceBindingRequest;
+import org.cloudfoundry.client.v2.servicebindings.DeleteServiceBindingRequest;
+import org.cloudfoundry.client.v2.servicebindings.ListServiceBindingsRequest;
+import org.cloudfoundry.client.v2.servicebindings.ListServiceBindingsResponse;
+import org.cloudfoundry.client.v2.servicebindings.ServiceBindingsV2;
+import org.cloudfoundry.client.v3.builds.BuildState;
+import org.cloudfoundry.client.v3.builds.CreateBuildRequest;
+import org.cloudfoundry.client.v3.builds.GetBuildRequest;
+import org.cloudfoundry.client.v3.deployments.CreateDeploymentRequest;
+import org.cloudfoundry.client.v3.deployments.DeploymentRelationships;
+import org.cloudfoundry.client.v3.deployments.DeploymentStatusReason;
+import org.cloudfoundry.client.v3.deployments.DeploymentStatusValue;
+import org.cloudfoundry.client.v3.deployments.GetDeploymentRequest;
+import org.cloudfoundry.client.v3.deployments.Status;
+import org.cloudfoundry.client.v3.jobs.GetJobRequest;
+import org.cloudfoundry.client.v3.jobs.JobState;
+import org.cloudfoundry.client.v3.packages.CreatePackageRequest;
+import org.cloudfoundry.client.v3.packages.GetPackageRequest;
+import org.cloudfoundry.client.v3.packages.PackageRelationships;
+import org.cloudfoundry.client.v3.packages.PackageState;
+import org.cloudfoundry.client.v3.packages.PackageType;
+import org.cloudfoundry.client.v3.packages.UploadPackageRequest;
+import org.cloudfoundry.client.v3.processes.Data;
+import org.cloudfoundry.client.v3.processes.HealthCheck;
+import org.cloudfoundry.client.v3.processes.HealthCheckType;
+import org.cloudfoundry.client.v3.processes.ProcessState;
+import org.cloudfoundry.client.v3.processes.ProcessStatisticsResource;
+import org.cloudfoundry.client.v3.processes.UpdateProcessRequest;
 import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
 
 import org.cloudfoundry.operations.applications.*;
-import org.cloudfoundry.operations.applications.DeleteApplicationRequest;
+import org.cloudfoundry.operations.applications.RestageApplicationRequest;
+import org.cloudfoundry.operations.applications.RestartApplicationRequest;
 import org.cloudfoundry.operations.applications.Route;
-import org.cloudfoundry.operations.applications.ScaleApplicationRequest;
 import org.cloudfoundry.operations.domains.Domain;
 import org.cloudfoundry.operations.routes.*;
 import org.cloudfoundry.operations.services.BindServiceInstanceRequest;
 import org.cloudfoundry.operations.services.UnbindServiceInstanceRequest;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -42,6 +79,19 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
 
     private static final Log log = Log.getLog(ApplicationsOperations.class);
 
+    // request types of the reads that are shared via the request coalescer
+    private static final String LIST_APPLICATIONS_REQUEST = "applications.list";
+    private static final String LIST_DOMAINS_REQUEST = "domains.list";
+
+    /**
+     * The command that resets the start command of an app to the one detected during staging when passed to
+     * {@link #updateProcess(String, String, ApplicationHealthCheck, String)}.
+     */
+    public static final String DETECTED_COMMAND = "";
+
+    private static final String WEB_PROCESS_TYPE = "web";
+    private static final String STARTED_STATE = "STARTED";
+
     private boolean autoStart;
 
     /**
@@ -57,7 +107,31 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
      * @param autoStart sets whether app should be started when deployed
      */
     public ApplicationsOperations(DefaultCloudFoundryOperations cloudFoundryOperations, boolean autoStart) {
-        super(cloudFoundryOperations);
+        this(cloudFoundryOperations, autoStart, new RequestCoalescer());
+    }
+
+    /**
+     * @param cloudFoundryOperations the cloud foundry operations instance
+     * @param autoStart sets whether app should be started when deployed
+     * @param requestCoalescer the coalescer that is used to share identical read requests
+     */
+    public ApplicationsOperations(DefaultCloudFoundryOperations cloudFoundryOperations,
+                                  boolean autoStart,
+                                  RequestCoalescer requestCoalescer) {
+        this(cloudFoundryOperations, autoStart, requestCoalescer, new AsyncOperationPoller());
+    }
+
+    /**
+     * @param cloudFoundryOperations the cloud foundry operations instance
+     * @param autoStart sets whether app should be started when deployed
+     * @param requestCoalescer the coalescer that is used to share identical read requests
+     * @param asyncOperationPoller the poller that is used to await uploads, stagings and deployments
+     */
+    public ApplicationsOperations(DefaultCloudFoundryOperations cloudFoundryOperations,
+                                  boolean autoStart,
+                                  RequestCoalescer requestCoalescer,
+                                  AsyncOperationPoller asyncOperationPoller) {
+        super(cloudFoundryOperations, requestCoalescer, asyncOperationPoller);
         this.autoStart = autoStart;
     }
 
@@ -69,18 +143,106 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
      *         key and the ApplicationBeans as value
      */
     public Mono<Map<String, ApplicationBean>> getAll() {
-        return this.cloudFoundryOperations
-            .applications()
-            .list()
+        return getAll(ConcurrencyLimiter.unlimited("applications"));
+    }
+
+    /**
+     * Prepares a request for fetching applications data from the cloud foundry
+     * instance. The data of the single applications is fetched with at most as
+     * many concurrent requests as the limiter permits.
+     *
+     * @param limiter limits the concurrent requests for the data of the single applications
+     * @throws NullPointerException when the limiter is null
+     * @return mono object of all applications as map of the application names as
+     *         key and the ApplicationBeans as value
+     */
+    public Mono<Map<String, ApplicationBean>> getAll(ConcurrencyLimiter limiter) {
+        return getAll(limiter, applicationName -> true);
+    }
+
+    /**
+     * Prepares a request for fetching the data of some applications from the cloud foundry instance. Only the
+     * data of the applications whose names pass the filter is fetched, with at most as many concurrent requests as
+     * the limiter permits.
+     *
+     * @param limiter limits the concurrent requests for the data of the single applications
+     * @param nameFilter decides by the name of an application whether its data is fetched
+     * @throws NullPointerException when any of the arguments is null
+     * @return mono object of the applications as map of the application names as
+     *         key and the ApplicationBeans as value
+     */
+    public Mono<Map<String, ApplicationBean>> getAll(ConcurrencyLimiter limiter, Predicate<String> nameFilter) {
+        return getEach(limiter, nameFilter)
+            .collectMap(Tuple2::getT1, Tuple2::getT2)
+                .doOnSubscribe(subscription -> log.info("Querying all applications"))
+                .doOnSuccess(stringApplicationBeanMap -> log.verbose("Querying all applications completed"));
+    }
+
+    /**
+     * Prepares a request for fetching the data of some applications one by one. Instead of collecting the data of
+     * all applications, the data of each application is emitted as soon as it has been fetched, so that it can be
+     * processed while the data of the other applications is still being fetched. The applications are listed with
+     * a single request. The resulting flux will not perform any logging by default.
+     *
+     * @param limiter limits the concurrent requests for the data of the single applications
+     * @param nameFilter decides by the name of an application whether its data is fetched
+     * @throws NullPointerException when any of the arguments is null
+     * @return flux of the names of the applications together with their ApplicationBeans
+     */
+    public Flux<Tuple2<String, ApplicationBean>> getEach(ConcurrencyLimiter limiter, Predicate<String> nameFilter) {
+        checkNotNull(limiter);
+        checkNotNull(nameFilter);
+
+        return listApplications()
+            .filter(applicationSummary -> nameFilter.test(applicationSummary.getName()))
             // group the application and the metadata in pairs
-            .flatMap(applicationSummary -> Flux.zip(
+            .flatMap(applicationSummary -> limiter.limit(Mono.zip(
                 getApplicationManifest(applicationSummary),
-                getMetadata(applicationSummary)))
+                getMetadata(applicationSummary))))
             // T1 is the ApplicationManifest and T2 is the metadata of the application
-            .collectMap(tuple -> tuple.getT1().getName(),
-                tuple -> new ApplicationBean(tuple.getT1(), tuple.getT2()))
-                .doOnSubscribe(subscription -> log.info("Querying all applications"))
-                .doOnSuccess(stringApplicationBeanMap -> log.verbose("Querying all applications completed"));
+            .map(tuple -> Tuples.of(tuple.getT1().getName(), new ApplicationBean(tuple.getT1(), tuple.getT2())));
+    }
+
+    /**
+     * Prepares a request for fetching a short summary of each application, e.g. its state and its scaling. The
+     * summaries are cheap to fetch compared to the complete data of the applications and allow for noticing changes
+     * of the applications. The resulting mono will not perform any logging by default.
+     *
+     * @return mono object of the summaries as map of the application names as key and the summaries as value
+     */
+    public Mono<Map<String, String>> getSummaries() {
+        return listApplications()
+                .collectMap(ApplicationSummary::getName, this::summarize);
+    }
+
+    private String summarize(ApplicationSummary applicationSummary) {
+        return "id=" + applicationSummary.getId()
+                + " state=" + applicationSummary.getRequestedState()
+                + " instances=" + applicationSummary.getInstances()
+                + " memory=" + applicationSummary.getMemoryLimit()
+                + " disk=" + applicationSummary.getDiskQuota()
+                + " urls=" + new TreeSet<>(applicationSummary.getUrls());
+    }
+
+    private Flux<ApplicationSummary> listApplications() {
+        return requestCoalescer.coalesceMany(RequestCoalescer.key(LIST_APPLICATIONS_REQUEST),
+                () -> this.cloudFoundryOperations.applications().list()
+                        .doOnNext(applicationSummary -> requestCoalescer.getGuidIndex().put(Kind.APPLICATION,
+                                applicationSummary.getName(), applicationSummary.getId())));
+    }
+
+    private Mono<DomainIndex> getDomainIndex() {
+        return requestCoalescer.coalesce(RequestCoalescer.key(LIST_DOMAINS_REQUEST),
+                () -> this.cloudFoundryOperations.domains().list()
+                        .map(this::createDomainSummary)
+                        .collectList()
+                        .map(DomainIndex::new));
+    }
+
+    private void invalidateApplications() {
+        requestCoalescer.invalidate(RequestCoalescer.key(LIST_APPLICATIONS_REQUEST));
+        // service instances refer to the names of their bound applications
+        requestCoalescer.invalidateAll(ServicesOperations.GET_INSTANCE_REQUEST);
     }
 
     private Mono<ApplicationManifest> getApplicationManifest(ApplicationSummary applicationSummary) {
@@ -104,8 +266,9 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
 
     /**
      * Prepares a request for deleting a specific application associated with the
-     * provided name. The resulting mono is preconfigured such that it will perform
-     * logging.
+     * provided name. The cloud controller removes the app asynchronously, the resulting
+     * mono completes once the removal has finished. The resulting mono is preconfigured
+     * such that it will perform logging.
      *
      * @param applicationName applicationName Name of an application.
      * @throws NullPointerException when the applicationName is null
@@ -115,23 +278,43 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
     public Mono<Void> remove(String applicationName) {
         checkNotNull(applicationName);
 
-        DeleteApplicationRequest request = DeleteApplicationRequest
-            .builder()
-            .name(applicationName)
-            .build();
-
-        return this.cloudFoundryOperations.applications()
-            .delete(request)
+        return getAppId(applicationName)
+            .flatMap(appId -> deleteApplication(applicationName, appId))
             .doOnSubscribe(aVoid -> log.info("Removing application", applicationName))
-            .doOnSuccess(aVoid -> log.verbose("Removing application", applicationName, "completed"))
+            .doOnSuccess(aVoid -> {
+                requestCoalescer.getGuidIndex().remove(Kind.APPLICATION, applicationName);
+                log.verbose("Removing application", applicationName, "completed");
+            })
+            .doOnTerminate(this::invalidateApplications)
             .onErrorStop();
     }
 
+    // the app is removed by a job of the cloud controller, the job is awaited by the shared poller
+    private Mono<Void> deleteApplication(String appName, String appId) {
+        CloudFoundryClient client = this.cloudFoundryOperations.getCloudFoundryClient();
+
+        return client.applicationsV3()
+                .delete(org.cloudfoundry.client.v3.applications.DeleteApplicationRequest.builder()
+                        .applicationId(appId)
+                        .build())
+                .flatMap(jobId -> asyncOperationPoller.await("removal of application " + appName,
+                        () -> client.jobsV3().get(GetJobRequest.builder().jobId(jobId).build()),
+                        job -> {
+                            if (job.getState() == JobState.FAILED) {
+                                throw new IllegalStateException("Removal of application " + appName + " failed: "
+                                        + job.getErrors());
+                            }
+                            return job.getState() == JobState.COMPLETE;
+                        }))
+                .then();
+    }
+
     /**
      * Prepares a request for updating the app to the cloud foundry instance specified
      * within the cloud foundry operations instance. The resulting mono is
      * preconfigured such that it will perform logging.
-     * Currently implemented by removing the app and afterwards newly creating it.
+     * Implemented by removing the app and afterwards newly creating it, so the app is unavailable in between. See
+     * {@link #deploy(String, ApplicationBean)} for an update without downtime.
      *
      * @param appName     name of the application
      * @param bean        application bean that holds the configuration settings to
@@ -153,6 +336,200 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
     }
 
 
+    /**
+     * Prepares a request for deploying new bits of an app without downtime. The bits are uploaded as a new package
+     * and staged into a new droplet. A running app is then rolled over to the new droplet instance by instance via a
+     * deployment, a stopped app just gets the new droplet assigned. The resulting mono is preconfigured such that it
+     * will perform logging.
+     *
+     * Only the bits of the app are changed, changes to other settings have to be applied separately beforehand, so
+     * that the staging and the deployment pick them up.
+     *
+     * @param appName     name of the application
+     * @param bean        application bean that holds the path of the bits to deploy
+     * @throws NullPointerException     when bean or app name is null
+     * @throws IllegalArgumentException when app name empty
+     * @return mono which can be subscribed on to trigger the deployment of the app
+     */
+    public Mono<Void> deploy(String appName, ApplicationBean bean) {
+        checkNotNull(appName, "Application name cannot be null");
+        checkArgument(!appName.isEmpty(), "Application name cannot be empty");
+        checkNotNull(bean, "Application contents cannot be null");
+
+        return getAppId(appName)
+                .flatMap(appId -> uploadPackage(appName, appId, bean)
+                        .flatMap(packageId -> stageBuild(appName, packageId))
+                        .flatMap(dropletId -> rollOut(appName, appId, dropletId)))
+                .doOnSubscribe(subscription -> log.info("Deploying application", appName))
+                .doOnSuccess(aVoid -> log.verbose("Deploying application", appName, "completed"));
+    }
+
+    /**
+     * Prepares a request for staging new bits of an app into a new droplet, while the app keeps running with its
+     * current droplet. The bits are uploaded as a new package. The resulting mono is preconfigured such that it will
+     * perform logging.
+     *
+     * @param appName     name of the application
+     * @param bean        application bean that holds the path of the bits to stage
+     * @throws NullPointerException     when bean or app name is null
+     * @throws IllegalArgumentException when app name empty
+     * @return mono which can be subscribed on to trigger the staging, the mono emits the id of the new droplet
+     */
+    public Mono<String> stage(String appName, ApplicationBean bean) {
+        checkNotNull(appName, "Application name cannot be null");
+        checkArgument(!appName.isEmpty(), "Application name cannot be empty");
+        checkNotNull(bean, "Application contents cannot be null");
+
+        return getAppId(appName)
+                .flatMap(appId -> uploadPackage(appName, appId, bean))
+                .flatMap(packageId -> stageBuild(appName, packageId))
+                .doOnSubscribe(subscription -> log.info("Staging new bits of application", appName))
+                .doOnSuccess(dropletId -> log.verbose("Staging new bits of application", appName, "completed"));
+    }
+
+    /**
+     * Prepares a request for switching an app to a droplet that has been staged before. A running app is restarted,
+     * so that it runs the new droplet afterwards. A stopped app picks up the new droplet with its next start. The
+     * resulting mono is preconfigured such that it will perform logging.
+     *
+     * @param appName     name of the application
+     * @param dropletId   id of the droplet to switch to
+     * @throws NullPointerException when any of the arguments is null
+     * @return mono which can be subscribed on to trigger the switch
+     */
+    public Mono<Void> switchDroplet(String appName, String dropletId) {
+        checkNotNull(appName);
+        checkNotNull(dropletId);
+
+        return getAppId(appName)
+                .flatMap(appId -> assignDroplet(appName, appId, dropletId))
+                .then(restart(appName))
+                .doOnSubscribe(subscription -> log.info("Switching application", appName, "to its new droplet"))
+                .doOnSuccess(aVoid -> log.verbose("Switching application", appName, "to its new droplet completed"));
+    }
+
+    private Mono<String> uploadPackage(String appName, String appId, ApplicationBean bean) {
+        CloudFoundryClient client = this.cloudFoundryOperations.getCloudFoundryClient();
+
+        return client.packages()
+                .create(CreatePackageRequest.builder()
+                        .type(PackageType.BITS)
+                        .relationships(PackageRelationships.builder()
+                                .application(ToOneRelationship.builder()
+                                        .data(Relationship.builder().id(appId).build())
+                                        .build())
+                                .build())
+                        .build())
+                .flatMap(createdPackage -> client.packages()
+                        .upload(UploadPackageRequest.builder()
+                                .packageId(createdPackage.getId())
+                                .bits(bean.getPath() != null ? Paths.get(bean.getPath()) : Paths.get(""))
+                                .build()))
+                .flatMap(uploadedPackage -> asyncOperationPoller.await("upload of application " + appName,
+                        () -> client.packages().get(GetPackageRequest.builder()
+                                .packageId(uploadedPackage.getId())
+                                .build()),
+                        receivedPackage -> {
+                            if (receivedPackage.getState() == PackageState.FAILED
+                                    || receivedPackage.getState() == PackageState.EXPIRED) {
+                                throw new IllegalStateException("Upload of the bits of application " + appName
+                                        + " failed");
+                            }
+                            return receivedPackage.getState() == PackageState.READY;
+                        }))
+                .map(readyPackage -> readyPackage.getId())
+                .doOnSubscribe(subscription -> log.verbose("Uploading bits of application", appName))
+                .doOnSuccess(packageId -> log.debug("Uploading bits of application", appName, "completed"));
+    }
+
+    private Mono<String> stageBuild(String appName, String packageId) {
+        CloudFoundryClient client = this.cloudFoundryOperations.getCloudFoundryClient();
+
+        return client.builds()
+                .create(CreateBuildRequest.builder()
+                        .getPackage(Relationship.builder().id(packageId).build())
+                        .build())
+                .flatMap(createdBuild -> asyncOperationPoller.await("staging of application " + appName,
+                        () -> client.builds().get(GetBuildRequest.builder().buildId(createdBuild.getId()).build()),
+                        build -> {
+                            if (build.getState() == BuildState.FAILED) {
+                                throw new IllegalStateException("Staging of application " + appName + " failed: "
+                                        + build.getError());
+                            }
+                            return build.getState() == BuildState.STAGED;
+                        }))
+                .map(stagedBuild -> stagedBuild.getDroplet().getId())
+                .doOnSubscribe(subscription -> log.verbose("Staging application", appName))
+                .doOnSuccess(dropletId -> log.debug("Staging application", appName, "completed"));
+    }
+
+    private Mono<Void> rollOut(String appName, String appId, String dropletId) {
+        Mono<Void> deployment = Mono.defer(() -> createDeployment(appName, appId, dropletId))
+                .doOnSubscribe(subscription -> log.verbose("Rolling out new droplet of application", appName))
+                .doOnSuccess(aVoid -> log.debug("Rolling out new droplet of application", appName, "completed"));
+
+        // a deployment requires a running app, a stopped app picks up the new droplet with its next start
+        return listApplications()
+                .filter(applicationSummary -> applicationSummary.getName().equals(appName))
+                .next()
+                .flatMap(applicationSummary -> STARTED_STATE.equals(applicationSummary.getRequestedState())
+                        ? deployment
+                        : assignDroplet(appName, appId, dropletId));
+    }
+
+    // without a droplet, the deployment replaces the instances by new ones running the current droplet
+    private Mono<Void> createDeployment(String appName, String appId, String dropletId) {
+        CloudFoundryClient client = this.cloudFoundryOperations.getCloudFoundryClient();
+
+        CreateDeploymentRequest.Builder request = CreateDeploymentRequest.builder()
+                .relationships(DeploymentRelationships.builder()
+                        .app(ToOneRelationship.builder()
+                                .data(Relationship.builder().id(appId).build())
+                                .build())
+                        .build());
+        if (dropletId != null) {
+            request.droplet(Relationship.builder().id(dropletId).build());
+        }
+
+        return client.deploymentsV3()
+                .create(request.build())
+                .flatMap(createdDeployment -> asyncOperationPoller.await("deployment of application " + appName,
+                        () -> client.deploymentsV3().get(GetDeploymentRequest.builder()
+                                .deploymentId(createdDeployment.getId())
+                                .build()),
+                        receivedDeployment -> isDeployed(appName, receivedDeployment.getStatus())))
+                .then();
+    }
+
+    // a finalized deployment has either been deployed or failed, canceled or superseded by another deployment
+    private static boolean isDeployed(String appName, Status status) {
+        if (status == null || status.getValue() == null) {
+            throw new IllegalStateException("Deployment of application " + appName + " has no status");
+        }
+        if (status.getValue() == DeploymentStatusValue.CANCELING) {
+            throw new IllegalStateException("Deployment of application " + appName + " is being canceled");
+        }
+        if (status.getValue() != DeploymentStatusValue.FINALIZED) {
+            return false;
+        }
+        if (status.getReason() != DeploymentStatusReason.DEPLOYED) {
+            throw new IllegalStateException("Deployment of application " + appName + " did not complete: "
+                    + status.getReason());
+        }
+        return true;
+    }
+
+    private Mono<Void> assignDroplet(String appName, String appId, String dropletId) {
+        return Mono.defer(() -> this.cloudFoundryOperations.getCloudFoundryClient()
+                .applicationsV3()
+                .setCurrentDroplet(SetApplicationCurrentDropletRequest.builder()
+                        .applicationId(appId)
+                        .data(Relationship.builder().id(dropletId).build())
+                        .build())
+                .then()
+                .doOnSubscribe(subscription -> log.verbose("Assigning new droplet to application", appName)));
+    }
+
     /**
      * Prepares a request for pushing an app to the cloud foundry instance specified
      * within the cloud foundry operations instance. The resulting mono is
@@ -192,6 +569,8 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
                         .build())
                 .doOnSubscribe(subscription -> log.verbose("Pushing manifest for application", appName))
                 .doOnSuccess(aVoid -> log.debug("Pushing manifest for application", appName, "completed"))
+                // the pushed app is not part of any application list that was fetched before
+                .doOnTerminate(this::invalidateApplications)
                 .then(getAppId(appName).flatMap(appId -> updateAppMeta(appName, appId, bean)))
                 .onErrorResume(throwable -> !whenAppNotExists(throwable), throwable -> {
                     log.warning(throwable);
@@ -219,15 +598,16 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
     }
 
     private Mono<String> getAppId(String appName) {
-        return this.cloudFoundryOperations
-                .applications()
-                .list()
-                .filter(applicationSummary -> applicationSummary.getName().equals(appName))
-                .switchIfEmpty(Mono.error(
-                    new IllegalStateException("Error when trying to get application id: App does not exist")))
-                .map(ApplicationSummary::getId)
-                .collectList()
-                .map(strings -> strings.get(0));
+        // the applications are only listed again if the id has not been seen during the run
+        return Mono.defer(() -> requestCoalescer.getGuidIndex().get(Kind.APPLICATION, appName)
+                .map(Mono::just)
+                .orElseGet(() -> listApplications()
+                        .filter(applicationSummary -> applicationSummary.getName().equals(appName))
+                        .switchIfEmpty(Mono.error(new IllegalStateException(
+                                "Error when trying to get application id: App does not exist")))
+                        .map(ApplicationSummary::getId)
+                        .collectList()
+                        .map(strings -> strings.get(0))));
     }
 
     private Mono<Void> updateAppMeta(String appName, String appId, ApplicationBean bean) {
@@ -307,31 +687,39 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
 
         return this.cloudFoundryOperations.applications().rename(renameApplicationRequest)
                 .doOnSubscribe(aVoid -> log.info("Renaming application", currentName, "to", newName))
-                .doOnSuccess(aVoid -> log.verbose("Renaming of application", currentName, "to", newName, "completed"));
+                .doOnSuccess(aVoid -> {
+                    requestCoalescer.getGuidIndex().rename(Kind.APPLICATION, currentName, newName);
+                    log.verbose("Renaming of application", currentName, "to", newName, "completed");
+                })
+                .doOnTerminate(this::invalidateApplications);
     }
 
     /**
-     * Prepares a request for scaling properties of an application instance.
+     * Prepares a request for scaling the web process of an application. The running instances are not restarted, so
+     * new disk and memory limits only take effect once the application is restarted, whereas instances are started or
+     * stopped right away.
      * The resulting mono is preconfigured such that it will perform logging.
      *
      * @param applicationName the name of the application to scale
-     * @param diskLimit the new disk limit
-     * @param memoryLimit the new memory limit
-     * @param instances the new number of instances
+     * @param diskLimit the new disk limit, remains unchanged if null
+     * @param memoryLimit the new memory limit, remains unchanged if null
+     * @param instances the new number of instances, remains unchanged if null
      * @return mono which can be subscribed on to trigger the scale request to the cf instance
      * @throws NullPointerException if the provided application name is null
      */
     public Mono<Void> scale(String applicationName, Integer diskLimit, Integer memoryLimit, Integer instances) {
         checkNotNull(applicationName);
 
-        ScaleApplicationRequest scaleRequest = ScaleApplicationRequest.builder()
-                .name(applicationName)
-                .diskLimit(diskLimit)
-                .memoryLimit(memoryLimit)
-                .instances(instances)
-                .build();
-
-        return cloudFoundryOperations.applications().scale(scaleRequest)
+        return getAppId(applicationName)
+                .flatMap(appId -> this.cloudFoundryOperations.getCloudFoundryClient()
+                        .applicationsV3()
+                        .scale(ScaleApplicationRequest.builder()
+                                .applicationId(appId)
+                                .type(WEB_PROCESS_TYPE)
+                                .diskInMb(diskLimit)
+                                .memoryInMb(memoryLimit)
+                                .instances(instances)
+                                .build()))
                 .doOnSubscribe(aVoid -> {
                     log.info("Scaling application", applicationName);
                     if (diskLimit != null) log.debug("New disk limit:", diskLimit);
@@ -343,73 +731,34 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
     }
 
     /**
-     * Prepares a request for adding an environment variable to an application instance.
+     * Prepares a single request that adds, changes and removes environment variables of an application instance. The
+     * environment variables that are not mentioned stay untouched.
      * The resulting mono is preconfigured such that it will perform logging.
      *
-     * @param applicationName the name of the application to add the environment variable for
-     * @param variableName the name of the environment variable to add
-     * @param variableValue the value of the environment variable to add
-     * @return mono which can be subscribed on to trigger the environment variable request to the cf instance
+     * @param applicationName the name of the application to update the environment variables of
+     * @param variables the new values of the environment variables by their names, a null value removes the variable
+     * @return mono which can be subscribed on to trigger the environment variables request to the cf instance
      * @throws NullPointerException if any of the arguments are null
      */
-    public Mono<Void> addEnvironmentVariable(String applicationName, String variableName, String variableValue) {
+    public Mono<Void> updateEnvironmentVariables(String applicationName, Map<String, String> variables) {
         checkNotNull(applicationName);
-        checkNotNull(variableName);
-        checkNotNull(variableValue);
-
-        SetEnvironmentVariableApplicationRequest addEnvVarRequest = SetEnvironmentVariableApplicationRequest.builder()
-                .name(applicationName)
-                .variableName(variableName)
-                .variableValue(variableValue)
-                .build();
+        checkNotNull(variables);
 
-        return cloudFoundryOperations.applications().setEnvironmentVariable(addEnvVarRequest)
+        return getAppId(applicationName)
+                .flatMap(appId -> this.cloudFoundryOperations.getCloudFoundryClient()
+                        .applicationsV3()
+                        .updateEnvironmentVariables(UpdateApplicationEnvironmentVariablesRequest.builder()
+                                .applicationId(appId)
+                                .vars(variables)
+                                .build()))
                 .doOnSubscribe(aVoid -> {
-                    log.info("Adding environment variable",
-                            variableName,
-                            "with value",
-                            variableValue,
-                            "to app",
-                            applicationName);
-                }).doOnSuccess(aVoid -> log.verbose("Adding environment variable",
-                        variableName,
-                        "with value",
-                        variableValue ,
-                        "to app",
-                        applicationName,
-                        "completed")
-                );
-    }
-
-    /**
-     * Prepares a request for removing an environment variable from an application instance.
-     * The resulting mono is preconfigured such that it will perform logging.
-     *
-     * @param applicationName the name of the application to remove the environment variable of
-     * @param variableName the name of the environment variable to remove
-     * @return mono which can be subscribed on to trigger the environment variable request to the cf instance
-     * @throws NullPointerException if any of the arguments are null
-     */
-    public Mono<Void> removeEnvironmentVariable(String applicationName, String variableName) {
-        checkNotNull(applicationName);
-        checkNotNull(variableName);
-
-        UnsetEnvironmentVariableApplicationRequest removeEnvVarRequest = UnsetEnvironmentVariableApplicationRequest
-                .builder()
-                .name(applicationName)
-                .variableName(variableName)
-                .build();
-
-        return cloudFoundryOperations.applications().unsetEnvironmentVariable(removeEnvVarRequest)
-                .doOnSubscribe(aVoid -> log.info("Removing environment variable",
-                        variableName,
-                        "from app",
-                        applicationName))
-                .doOnSuccess(aVoid -> log.verbose("Removing environment variable",
-                        variableName,
-                        "from app",
-                        applicationName,
-                        "completed"));
+                    log.info("Updating environment variables of application", applicationName);
+                    variables.forEach((name, value) -> log.debug(value == null
+                            ? "Removing environment variable " + name
+                            : "Setting environment variable " + name + " to value " + value)); })
+                .doOnSuccess(aVoid -> log.verbose("Updating environment variables of application", applicationName,
+                        "completed"))
+                .then();
     }
 
     /**
@@ -436,6 +785,301 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
                 .doOnSuccess(aVoid -> log.verbose("Setting health check type for app", applicationName, "completed"));
     }
 
+    /**
+     * Prepares a request for updating the command and the health check of the web process of an application instance.
+     * The changes take effect with the next restart of the application.
+     * The resulting mono is preconfigured such that it will perform logging.
+     *
+     * @param applicationName the name of the application to update the process of
+     * @param command the new start command, remains unchanged if null, reset to the one detected during staging if
+     *                {@link #DETECTED_COMMAND}
+     * @param healthCheckType the new health check type, remains unchanged if null
+     * @param healthCheckHttpEndpoint the new endpoint of the http health check, only used with a health check type
+     * @return mono which can be subscribed on to trigger the process update request to the cf instance
+     * @throws NullPointerException if the application name is null
+     */
+    public Mono<Void> updateProcess(String applicationName,
+                                    String command,
+                                    ApplicationHealthCheck healthCheckType,
+                                    String healthCheckHttpEndpoint) {
+        checkNotNull(applicationName);
+
+        boolean resetsCommand = DETECTED_COMMAND.equals(command);
+        boolean updatesProcess = (command != null && !resetsCommand) || healthCheckType != null;
+
+        return getAppId(applicationName)
+                .flatMap(appId -> resetCommand(appId, resetsCommand)
+                        .then(updatesProcess
+                                ? this.cloudFoundryOperations.getCloudFoundryClient()
+                                        .applicationsV3()
+                                        .getProcess(GetApplicationProcessRequest.builder()
+                                                .applicationId(appId)
+                                                .type(WEB_PROCESS_TYPE)
+                                                .build())
+                                : Mono.empty()))
+                .flatMap(process -> {
+                    UpdateProcessRequest.Builder requestBuilder = UpdateProcessRequest.builder()
+                            .processId(process.getId());
+                    if (command != null && !resetsCommand) {
+                        requestBuilder.command(command);
+                    }
+                    if (healthCheckType != null) {
+                        requestBuilder.healthCheck(buildHealthCheck(healthCheckType, healthCheckHttpEndpoint));
+                    }
+                    return this.cloudFoundryOperations.getCloudFoundryClient()
+                            .processes()
+                            .update(requestBuilder.build());
+                })
+                .doOnSubscribe(aVoid -> {
+                    log.info("Updating process of application", applicationName);
+                    if (resetsCommand) log.debug("Resetting command to the detected one");
+                    else if (command != null) log.debug("New command:", command);
+                    if (healthCheckType != null) log.debug("New health check type:", healthCheckType);
+                    if (healthCheckHttpEndpoint != null) log.debug("New health check endpoint:",
+                            healthCheckHttpEndpoint); })
+                .doOnSuccess(aVoid -> log.verbose("Updating process of application", applicationName, "completed"))
+                .then();
+    }
+
+    // the processes api rejects empty commands and the client omits null values, so the command is reset via the
+    // apps api of v2, which treats an empty command as unset
+    private Mono<Void> resetCommand(String appId, boolean resetsCommand) {
+        if (!resetsCommand) {
+            return Mono.empty();
+        }
+        return this.cloudFoundryOperations.getCloudFoundryClient()
+                .applicationsV2()
+                .update(org.cloudfoundry.client.v2.applications.UpdateApplicationRequest.builder()
+                        .applicationId(appId)
+                        .command(DETECTED_COMMAND)
+                        .build())
+                .then();
+    }
+
+    private HealthCheck buildHealthCheck(ApplicationHealthCheck healthCheckType, String healthCheckHttpEndpoint) {
+        HealthCheck.Builder healthCheckBuilder = HealthCheck.builder()
+                .type(HealthCheckType.from(healthCheckType.getValue()));
+        if (healthCheckType == ApplicationHealthCheck.HTTP && healthCheckHttpEndpoint != null) {
+            healthCheckBuilder.data(Data.builder().endpoint(healthCheckHttpEndpoint).build());
+        }
+        return healthCheckBuilder.build();
+    }
+
+    /**
+     * Prepares a request for updating the buildpack and the stack of an application instance. The changes take effect
+     * with the next staging of the application.
+     * The resulting mono is preconfigured such that it will perform logging.
+     *
+     * @param applicationName the name of the application to update the lifecycle of
+     * @param buildpack the new buildpack, the buildpack is detected automatically if null
+     * @param stack the new stack, the default stack is used if null
+     * @return mono which can be subscribed on to trigger the lifecycle update request to the cf instance
+     * @throws NullPointerException if the application name is null
+     */
+    public Mono<Void> updateLifecycle(String applicationName, String buildpack, String stack) {
+        checkNotNull(applicationName);
+
+        BuildpackData.Builder dataBuilder = BuildpackData.builder();
+        if (buildpack != null) {
+            dataBuilder.buildpack(buildpack);
+        }
+        if (stack != null) {
+            dataBuilder.stack(stack);
+        }
+        Lifecycle lifecycle = Lifecycle.builder()
+                .type(LifecycleType.BUILDPACK)
+                .data(dataBuilder.build())
+                .build();
+
+        return getAppId(applicationName)
+                .flatMap(appId -> this.cloudFoundryOperations.getCloudFoundryClient()
+                        .applicationsV3()
+                        .update(UpdateApplicationRequest.builder()
+                                .applicationId(appId)
+                                .lifecycle(lifecycle)
+                                .build()))
+                .doOnSubscribe(aVoid -> {
+                    log.info("Updating lifecycle of application", applicationName);
+                    if (buildpack != null) log.debug("New buildpack:", buildpack);
+                    if (stack != null) log.debug("New stack:", stack); })
+                .doOnSuccess(aVoid -> log.verbose("Updating lifecycle of application", applicationName, "completed"))
+                .then();
+    }
+
+    /**
+     * Prepares a request for updating the annotations of an application instance that hold the path and the meta
+     * information of the application.
+     * The resulting mono is preconfigured such that it will perform logging.
+     *
+     * @param applicationName the name of the application to update the annotations of
+     * @param bean the application bean that holds the desired path and meta information
+     * @return mono which can be subscribed on to trigger the metadata update request to the cf instance
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public Mono<Void> updateMeta(String applicationName, ApplicationBean bean) {
+        checkNotNull(applicationName);
+        checkNotNull(bean);
+
+        return getAppId(applicationName)
+                .flatMap(appId -> updateAppMeta(applicationName, appId, bean))
+                .doOnSubscribe(aVoid -> log.info("Updating meta of application", applicationName))
+                .doOnSuccess(aVoid -> log.verbose("Updating meta of application", applicationName, "completed"));
+    }
+
+    /**
+     * Prepares a request for restarting an application instance, so that changes to its process take effect. A
+     * stopped application is not started, it picks up the changes with its next start.
+     * The resulting mono is preconfigured such that it will perform logging.
+     *
+     * @param applicationName the name of the application to restart
+     * @return mono which can be subscribed on to trigger the restart request to the cf instance
+     * @throws NullPointerException if the argument is null
+     */
+    public Mono<Void> restart(String applicationName) {
+        checkNotNull(applicationName);
+
+        RestartApplicationRequest restartRequest = RestartApplicationRequest.builder()
+                .name(applicationName)
+                .build();
+
+        return listApplications()
+                .filter(applicationSummary -> applicationSummary.getName().equals(applicationName))
+                .filter(applicationSummary -> STARTED_STATE.equals(applicationSummary.getRequestedState()))
+                .next()
+                .flatMap(applicationSummary -> this.cloudFoundryOperations.applications().restart(restartRequest)
+                        .doOnSubscribe(aVoid -> log.info("Restarting application", applicationName))
+                        .doOnSuccess(aVoid -> log.verbose("Restarting application", applicationName, "completed")));
+    }
+
+    /**
+     * Prepares a request for restarting an application instance by instance, so that changes to its process,
+     * environment variables or service bindings take effect while the application keeps serving requests. New
+     * instances running the current droplet are started and the old ones are only stopped once the new ones are
+     * healthy. A stopped application is not started, it picks up the changes with its next start.
+     * The resulting mono is preconfigured such that it will perform logging.
+     *
+     * @param applicationName the name of the application to restart
+     * @return mono which can be subscribed on to trigger the rolling restart on the cf instance
+     * @throws NullPointerException if the argument is null
+     */
+    public Mono<Void> rollingRestart(String applicationName) {
+        checkNotNull(applicationName);
+
+        return listApplications()
+                .filter(applicationSummary -> applicationSummary.getName().equals(applicationName))
+                .filter(applicationSummary -> STARTED_STATE.equals(applicationSummary.getRequestedState()))
+                .next()
+                .flatMap(applicationSummary -> createDeployment(applicationName, applicationSummary.getId(), null)
+                        .doOnSubscribe(aVoid -> log.info("Restarting application", applicationName,
+                                "instance by instance"))
+                        .doOnSuccess(aVoid -> log.verbose("Restarting application", applicationName,
+                                "instance by instance completed")));
+    }
+
+    /**
+     * Prepares a request for staging an application instance again, so that changes to its lifecycle take effect.
+     * The application is restarted with the new droplet afterwards.
+     * The resulting mono is preconfigured such that it will perform logging.
+     *
+     * @param applicationName the name of the application to restage
+     * @return mono which can be subscribed on to trigger the restage request to the cf instance
+     * @throws NullPointerException if the argument is null
+     */
+    public Mono<Void> restage(String applicationName) {
+        checkNotNull(applicationName);
+
+        RestageApplicationRequest restageRequest = RestageApplicationRequest.builder()
+                .name(applicationName)
+                .build();
+
+        return this.cloudFoundryOperations.applications().restage(restageRequest)
+                .doOnSubscribe(aVoid -> log.info("Restaging application", applicationName))
+                .doOnSuccess(aVoid -> log.verbose("Restaging application", applicationName, "completed"));
+    }
+
+    /**
+     * Prepares a request for staging an application instance again without downtime, so that changes to its
+     * lifecycle take effect. The most recent package of the application is staged into a new droplet, while the
+     * application keeps running with its current droplet. A running application is then rolled over to the new
+     * droplet instance by instance via a deployment, a stopped application just gets the new droplet assigned.
+     * The resulting mono is preconfigured such that it will perform logging.
+     *
+     * @param applicationName the name of the application to restage
+     * @return mono which can be subscribed on to trigger the rolling restage on the cf instance
+     * @throws NullPointerException if the argument is null
+     */
+    public Mono<Void> rollingRestage(String applicationName) {
+        checkNotNull(applicationName);
+
+        return getAppId(applicationName)
+                .flatMap(appId -> getLatestPackageId(applicationName, appId)
+                        .flatMap(packageId -> stageBuild(applicationName, packageId))
+                        .flatMap(dropletId -> rollOut(applicationName, appId, dropletId)))
+                .doOnSubscribe(subscription -> log.info("Restaging application", applicationName,
+                        "instance by instance"))
+                .doOnSuccess(aVoid -> log.verbose("Restaging application", applicationName,
+                        "instance by instance completed"));
+    }
+
+    private Mono<String> getLatestPackageId(String appName, String appId) {
+        return this.cloudFoundryOperations.getCloudFoundryClient()
+                .applicationsV3()
+                .listPackages(ListApplicationPackagesRequest.builder()
+                        .applicationId(appId)
+                        .state(PackageState.READY)
+                        .orderBy("-created_at")
+                        .perPage(1)
+                        .build())
+                .flatMapIterable(ListApplicationPackagesResponse::getResources)
+                .next()
+                .map(packageResource -> packageResource.getId())
+                .switchIfEmpty(Mono.error(new IllegalStateException(
+                        "Application " + appName + " has no package that could be staged again")));
+    }
+
+    /**
+     * Prepares a request for awaiting the instances of the web process of an application until all of them are
+     * running, i.e. have passed their health check. An application that is stopped when the request is subscribed to
+     * is not awaited.
+     * The resulting mono is preconfigured such that it will perform logging.
+     *
+     * @param applicationName the name of the application to await
+     * @return mono which can be subscribed on to await the application, fails as soon as an instance has crashed
+     * @throws NullPointerException if the argument is null
+     */
+    public Mono<Void> awaitHealthy(String applicationName) {
+        checkNotNull(applicationName);
+
+        CloudFoundryClient client = this.cloudFoundryOperations.getCloudFoundryClient();
+
+        // the requested state is fetched again, since the listed applications may predate the operations of the
+        // application, e.g. its start
+        return getAppId(applicationName)
+                .flatMap(appId -> client.applicationsV3().get(GetApplicationRequest.builder()
+                        .applicationId(appId)
+                        .build()))
+                .filter(application -> application.getState() == ApplicationState.STARTED)
+                .flatMap(application -> asyncOperationPoller.await("health of application " + applicationName,
+                        () -> client.applicationsV3().getProcessStatistics(
+                                GetApplicationProcessStatisticsRequest.builder()
+                                        .applicationId(application.getId())
+                                        .type(WEB_PROCESS_TYPE)
+                                        .build()),
+                        statistics -> {
+                            List<ProcessStatisticsResource> instances = statistics.getResources();
+                            if (instances.stream().anyMatch(instance -> instance.getState() == ProcessState.CRASHED)) {
+                                throw new IllegalStateException("An instance of application " + applicationName
+                                        + " crashed");
+                            }
+                            return !instances.isEmpty() && instances.stream()
+                                    .allMatch(instance -> instance.getState() == ProcessState.RUNNING);
+                        })
+                        .then()
+                        .doOnSubscribe(aVoid -> log.info("Awaiting health of application", applicationName))
+                        .doOnSuccess(aVoid -> log.verbose("Awaiting health of application", applicationName,
+                                "completed")));
+    }
+
     /**
      * Prepares a request for binding an app to a service.
      * The resulting mono is preconfigured such that it will perform logging.
@@ -454,10 +1098,17 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
                 .serviceInstanceName(serviceName)
                 .build();
 
-        return cloudFoundryOperations.services().bind(bindServiceRequest)
+        Mono<Void> bindByName = cloudFoundryOperations.services().bind(bindServiceRequest);
+
+        // with the ids of both at hand, the binding is created directly instead of looking up the space, the app and
+        // the service instance by their names first
+        return Mono.defer(() -> getIndexedIds(applicationName, serviceName)
+                .map(ids -> createServiceBinding(ids.getT1(), ids.getT2()))
+                .orElse(bindByName))
                 .doOnSubscribe(aVoid -> log.info("Binding application", applicationName, "to service", serviceName))
                 .doOnSuccess(aVoid -> log.verbose(
-                        "Binding application", applicationName, "to service", serviceName, "completed"));
+                        "Binding application", applicationName, "to service", serviceName, "completed"))
+                .doOnTerminate(() -> requestCoalescer.invalidate(ServicesOperations.serviceInstanceKey(serviceName)));
     }
 
     /**
@@ -478,16 +1129,60 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
                 .serviceInstanceName(serviceName)
                 .build();
 
-        return cloudFoundryOperations.services().unbind(unbindServiceRequest)
+        Mono<Void> unbindByName = cloudFoundryOperations.services().unbind(unbindServiceRequest);
+
+        return Mono.defer(() -> getIndexedIds(applicationName, serviceName)
+                .map(ids -> deleteServiceBindings(applicationName, ids.getT1(), serviceName, ids.getT2()))
+                .orElse(unbindByName))
                 .doOnSubscribe(aVoid -> log.info("Unbinding app", applicationName, "from service", serviceName))
                 .doOnSuccess(aVoid -> log.verbose(
                         "Unbinding app", applicationName, "from service", serviceName, "completed"))
+                .doOnTerminate(() -> requestCoalescer.invalidate(ServicesOperations.serviceInstanceKey(serviceName)))
                 .onErrorResume(this::whenServiceNotFound, (throwable) -> {
                             log.warning("Could not unbind from service", serviceName + ":", throwable.getMessage());
                             return Mono.empty();
                         });
     }
 
+    // the ids of an application and a service instance, empty unless both have been seen during the run
+    private Optional<Tuple2<String, String>> getIndexedIds(String applicationName, String serviceName) {
+        GuidIndex guidIndex = requestCoalescer.getGuidIndex();
+        return guidIndex.get(Kind.APPLICATION, applicationName)
+                .flatMap(applicationId -> guidIndex.get(Kind.SERVICE_INSTANCE, serviceName)
+                        .map(serviceInstanceId -> Tuples.of(applicationId, serviceInstanceId)));
+    }
+
+    private Mono<Void> createServiceBinding(String applicationId, String serviceInstanceId) {
+        return this.cloudFoundryOperations.getCloudFoundryClient()
+                .serviceBindingsV2()
+                .create(CreateServiceBindingRequest.builder()
+                        .applicationId(applicationId)
+                        .serviceInstanceId(serviceInstanceId)
+                        .build())
+                .then();
+    }
+
+    private Mono<Void> deleteServiceBindings(String applicationName,
+                                             String applicationId,
+                                             String serviceName,
+                                             String serviceInstanceId) {
+        ServiceBindingsV2 serviceBindings = this.cloudFoundryOperations.getCloudFoundryClient().serviceBindingsV2();
+        return serviceBindings
+                .list(ListServiceBindingsRequest.builder()
+                        .applicationId(applicationId)
+                        .serviceInstanceId(serviceInstanceId)
+                        .build())
+                .flatMapIterable(ListServiceBindingsResponse::getResources)
+                // fails like unbinding by name does
+                .switchIfEmpty(Mono.error(new IllegalStateException(String.format(
+                        "Service instance %s is not bound to application %s", serviceName, applicationName))))
+                .flatMap(serviceBinding -> serviceBindings.delete(DeleteServiceBindingRequest.builder()
+                        .serviceBindingId(serviceBinding.getMetadata().getId())
+                        .async(false)
+                        .build()))
+                .then();
+    }
+
     /**
      * Prepares a request for adding a route to an app.
      * This process will create the route.
@@ -502,21 +1197,22 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
         checkNotNull(applicationName);
         checkNotNull(route);
 
-        return this.cloudFoundryOperations
-                .domains()
-                .list()
-                .map(this::createDomainSummary)
-                .collectList()
-                .flatMap(domainSummaries -> decomposeRoute(domainSummaries, route, route))
-                .flatMap(decomposedRoute -> cloudFoundryOperations.routes().map(MapRouteRequest.builder()
-                        .applicationName(applicationName)
-                        .domain(decomposedRoute.getDomain())
-                        .host(decomposedRoute.getHost())
-                        .path(decomposedRoute.getPath())
-                        .build())
+        return getDomainIndex()
+                .flatMap(domainIndex -> decomposeRoute(domainIndex, route, route))
+                // a route that has not been seen during the run may not exist yet and is created when mapped by name
+                .flatMap(decomposedRoute -> getIndexedRouteIds(applicationName, decomposedRoute)
+                        .map(ids -> associateRoute(ids.getT1(), ids.getT2()))
+                        .orElseGet(() -> cloudFoundryOperations.routes().map(MapRouteRequest.builder()
+                                .applicationName(applicationName)
+                                .domain(decomposedRoute.getDomain())
+                                .host(decomposedRoute.getHost())
+                                .path(decomposedRoute.getPath())
+                                .build())
+                                .then())
                         .doOnSubscribe(aVoid -> log.info("Adding route", route, "to app", applicationName))
                         .doOnSuccess(aVoid -> log.verbose(
-                                "Adding route", route, "to app", applicationName, "completed")))
+                                "Adding route", route, "to app", applicationName, "completed"))
+                        .doOnTerminate(() -> requestCoalescer.invalidate(ServicesOperations.routesKey())))
                 .onErrorStop()
                 .then();
     }
@@ -535,21 +1231,66 @@ public class ApplicationsOperations extends AbstractOperations<DefaultCloudFound
         checkNotNull(applicationName);
         checkNotNull(route);
 
-        return this.cloudFoundryOperations
-                .domains()
-                .list()
-                .map(this::createDomainSummary)
-                .collectList()
-                .flatMap(domainSummaries -> decomposeRoute(domainSummaries, route, route))
-                .flatMap(decomposedRoute -> cloudFoundryOperations.routes().unmap(UnmapRouteRequest.builder()
-                        .applicationName(applicationName)
-                        .domain(decomposedRoute.getDomain())
-                        .path(decomposedRoute.getPath())
-                        .host(decomposedRoute.getHost())
-                        .build())
+        return getDomainIndex()
+                .flatMap(domainIndex -> decomposeRoute(domainIndex, route, route))
+                .flatMap(decomposedRoute -> listRoutesUnlessIndexed(applicationName, decomposedRoute)
+                        .then(Mono.defer(() -> getIndexedRouteIds(applicationName, decomposedRoute)
+                                .map(ids -> removeApplicationRoute(ids.getT1(), ids.getT2()))
+                                .orElseGet(() -> cloudFoundryOperations.routes().unmap(UnmapRouteRequest.builder()
+                                        .applicationName(applicationName)
+                                        .domain(decomposedRoute.getDomain())
+                                        .path(decomposedRoute.getPath())
+                                        .host(decomposedRoute.getHost())
+                                        .build()))))
                         .doOnSubscribe(aVoid -> log.info("Removing route", route, "from app", applicationName))
                         .doOnSuccess(aVoid -> log.verbose(
-                                "Removing route", route, "from app", applicationName, "completed")));
+                                "Removing route", route, "from app", applicationName, "completed"))
+                        .doOnTerminate(() -> requestCoalescer.invalidate(ServicesOperations.routesKey())));
+    }
+
+    // the ids of an application and a route, empty unless both have been seen during the run
+    private Optional<Tuple2<String, String>> getIndexedRouteIds(String applicationName, DecomposedRoute route) {
+        GuidIndex guidIndex = requestCoalescer.getGuidIndex();
+        return guidIndex.get(Kind.APPLICATION, applicationName)
+                .flatMap(applicationId -> guidIndex.get(Kind.ROUTE, getRouteName(route))
+                        .map(routeId -> Tuples.of(applicationId, routeId)));
+    }
+
+    // a route to be removed exists, so the routes of the space are listed once to find its id, unless the id of the
+    // application is unknown anyway
+    private Mono<Void> listRoutesUnlessIndexed(String applicationName, DecomposedRoute route) {
+        GuidIndex guidIndex = requestCoalescer.getGuidIndex();
+        if (!guidIndex.get(Kind.APPLICATION, applicationName).isPresent()
+                || guidIndex.get(Kind.ROUTE, getRouteName(route)).isPresent()) {
+            return Mono.empty();
+        }
+        return ServicesOperations.listRoutes(cloudFoundryOperations, requestCoalescer).then();
+    }
+
+    private static String getRouteName(DecomposedRoute route) {
+        return RouteUtils.getRouteName(route.getHost(),
+                route.getDomain(),
+                route.getPort() == null ? null : String.valueOf(route.getPort()),
+                route.getPath());
+    }
+
+    private Mono<Void> associateRoute(String applicationId, String routeId) {
+        return this.cloudFoundryOperations.getCloudFoundryClient()
+                .applicationsV2()
+                .associateRoute(AssociateApplicationRouteRequest.builder()
+                        .applicationId(applicationId)
+                        .routeId(routeId)
+                        .build())
+                .then();
+    }
+
+    private Mono<Void> removeApplicationRoute(String applicationId, String routeId) {
+        return this.cloudFoundryOperations.getCloudFoundryClient()
+                .applicationsV2()
+                .removeRoute(RemoveApplicationRouteRequest.builder()
+                        .applicationId(applicationId)
+                        .routeId(routeId)
+                        .build());
     }
 
     private DomainSummary createDomainSummary(Domain domain) {
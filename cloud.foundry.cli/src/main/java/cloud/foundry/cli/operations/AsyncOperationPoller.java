@@ -0,0 +1,182 @@
+package cloud.foundry.cli.operations;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.logging.Log;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Awaits asynchronous operations on the cloud foundry instance, e.g. stagings, deployments or the removal of service
+ * instances by their brokers.
+ *
+ * Instead of running an own polling loop per operation, all outstanding operations are polled together in rounds. The
+ * interval between the rounds starts short and grows exponentially while no operation completes, so that short
+ * operations are noticed early while a lot of long operations do not flood the cloud foundry instance with requests.
+ * As soon as an operation completes, the interval is reset.
+ *
+ * One instance is meant to be shared among all operations objects of a single run.
+ */
+public class AsyncOperationPoller {
+
+    private static final Log log = Log.getLog(AsyncOperationPoller.class);
+
+    private static final Duration DEFAULT_MIN_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration DEFAULT_MAX_INTERVAL = Duration.ofSeconds(15);
+    private static final int DEFAULT_MAX_CONCURRENT_POLLS = 16;
+
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final int maxConcurrentPolls;
+
+    private final Set<PendingOperation<?>> outstanding;
+
+    // guarded by this
+    private boolean polling;
+    private Duration interval;
+
+    public AsyncOperationPoller() {
+        this(DEFAULT_MIN_INTERVAL, DEFAULT_MAX_INTERVAL, DEFAULT_MAX_CONCURRENT_POLLS);
+    }
+
+    /**
+     * @param minInterval the interval between two rounds after an operation has completed
+     * @param maxInterval the upper bound of the interval between two rounds
+     * @param maxConcurrentPolls the maximum number of status requests that run concurrently within a round
+     * @throws NullPointerException if any of the intervals is null
+     * @throws IllegalArgumentException if the minimum interval exceeds the maximum interval or the maximum number of
+     * concurrent polls is not positive
+     */
+    public AsyncOperationPoller(Duration minInterval, Duration maxInterval, int maxConcurrentPolls) {
+        checkNotNull(minInterval);
+        checkNotNull(maxInterval);
+        checkArgument(minInterval.compareTo(maxInterval) <= 0, "The minimum interval exceeds the maximum interval");
+        checkArgument(maxConcurrentPolls > 0, "The maximum number of concurrent polls has to be positive");
+
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.maxConcurrentPolls = maxConcurrentPolls;
+        this.outstanding = ConcurrentHashMap.newKeySet();
+        this.interval = minInterval;
+    }
+
+    /**
+     * Prepares awaiting an asynchronous operation. The operation is tracked from the subscription on until its status
+     * is final or the subscription is cancelled.
+     * @param description describes the operation, used for logging
+     * @param statusRequest supplies the request that fetches the current status of the operation
+     * @param isDone tells whether the status is final, may throw an exception if the status tells about a failure
+     * @param <T> the type of the status
+     * @return mono of the final status, fails if the status request or the check of the status fails
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public <T> Mono<T> await(String description, Supplier<Mono<T>> statusRequest, Predicate<T> isDone) {
+        checkNotNull(description);
+        checkNotNull(statusRequest);
+        checkNotNull(isDone);
+
+        return Mono.create(sink -> {
+            PendingOperation<T> operation = new PendingOperation<>(description, statusRequest, isDone, sink);
+            sink.onDispose(() -> outstanding.remove(operation));
+            outstanding.add(operation);
+            log.debug("Awaiting", description);
+            startPolling();
+        });
+    }
+
+    /**
+     * @return the number of operations that are currently awaited
+     */
+    public int getOutstandingCount() {
+        return outstanding.size();
+    }
+
+    /**
+     * @param interval the current interval between two rounds
+     * @param anyCompleted whether any operation has completed in the last round
+     * @return the interval until the next round
+     */
+    Duration getNextInterval(Duration interval, boolean anyCompleted) {
+        if (anyCompleted) {
+            return minInterval;
+        }
+        Duration doubled = interval.multipliedBy(2);
+        return doubled.compareTo(maxInterval) < 0 ? doubled : maxInterval;
+    }
+
+    private synchronized void startPolling() {
+        if (!polling) {
+            polling = true;
+            interval = minInterval;
+            scheduleRound(Duration.ZERO);
+        }
+    }
+
+    private void scheduleRound(Duration delay) {
+        Mono.delay(delay)
+                .then(pollOutstanding())
+                .subscribe(this::finishRound);
+    }
+
+    private Mono<Boolean> pollOutstanding() {
+        return Mono.defer(() -> Flux.fromIterable(new ArrayList<>(outstanding))
+                .flatMap(this::poll, maxConcurrentPolls)
+                .reduce(false, (anyCompleted, completed) -> anyCompleted || completed));
+    }
+
+    // emits whether the operation has completed, a failure of the operation counts as completion
+    private <T> Mono<Boolean> poll(PendingOperation<T> operation) {
+        return Mono.defer(operation.statusRequest)
+                .map(status -> {
+                    if (!operation.isDone.test(status)) {
+                        return false;
+                    }
+                    log.debug("Awaiting", operation.description, "completed");
+                    // removed before completing, so that the operation is not outstanding for its subscribers
+                    outstanding.remove(operation);
+                    operation.sink.success(status);
+                    return true;
+                })
+                .defaultIfEmpty(false)
+                .onErrorResume(throwable -> {
+                    outstanding.remove(operation);
+                    operation.sink.error(throwable);
+                    return Mono.just(true);
+                });
+    }
+
+    private synchronized void finishRound(boolean anyCompleted) {
+        if (outstanding.isEmpty()) {
+            polling = false;
+            return;
+        }
+        interval = getNextInterval(interval, anyCompleted);
+        scheduleRound(interval);
+    }
+
+    private static class PendingOperation<T> {
+
+        private final String description;
+        private final Supplier<Mono<T>> statusRequest;
+        private final Predicate<T> isDone;
+        private final MonoSink<T> sink;
+
+        PendingOperation(String description, Supplier<Mono<T>> statusRequest, Predicate<T> isDone,
+                         MonoSink<T> sink) {
+            this.description = description;
+            this.statusRequest = statusRequest;
+            this.isDone = isDone;
+            this.sink = sink;
+        }
+    }
+
+}
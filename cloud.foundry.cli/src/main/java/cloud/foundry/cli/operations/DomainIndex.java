@@ -0,0 +1,85 @@
+package cloud.foundry.cli.operations;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.cloudfoundry.operations.applications.DomainSummary;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the domain of a route among all domains of the cloud foundry instance. The domains are kept in a trie of their
+ * labels in reverse order, e.g. "apps.example.com" is stored as "com", "example", "apps". A lookup walks the labels of
+ * the route from right to left once, instead of comparing the route with every single domain, and the deepest domain
+ * on the way is the longest one the route ends with.
+ *
+ * The index is built once per run from the listed domains and shared by all route operations.
+ */
+final class DomainIndex {
+
+    private static final char LABEL_SEPARATOR = '.';
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private String domain;
+    }
+
+    private final Node root;
+    private final int size;
+
+    /**
+     * @param domains all domains that exist on the cloud foundry instance
+     * @throws NullPointerException if the argument is null
+     */
+    DomainIndex(List<DomainSummary> domains) {
+        checkNotNull(domains);
+
+        this.root = new Node();
+        for (DomainSummary domain : domains) {
+            Node node = root;
+            String name = domain.getName();
+            int end = name.length();
+            while (end >= 0) {
+                int start = name.lastIndexOf(LABEL_SEPARATOR, end - 1);
+                node = node.children.computeIfAbsent(name.substring(start + 1, end), label -> new Node());
+                end = start;
+            }
+            node.domain = name;
+        }
+        this.size = domains.size();
+    }
+
+    /**
+     * @return whether there are no domains at all
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param hostName a host name without path and port, e.g. "myapp.apps.example.com"
+     * @return the longest domain the host name equals or ends with, e.g. "apps.example.com", null if there is none
+     * @throws NullPointerException if the argument is null
+     */
+    String findDomain(String hostName) {
+        checkNotNull(hostName);
+
+        String domain = null;
+        Node node = root;
+        int end = hostName.length();
+        while (end >= 0) {
+            int start = hostName.lastIndexOf(LABEL_SEPARATOR, end - 1);
+            node = node.children.get(hostName.substring(start + 1, end));
+            if (node == null) {
+                break;
+            }
+            if (node.domain != null) {
+                domain = node.domain;
+            }
+            end = start;
+        }
+        return domain;
+    }
+
+}
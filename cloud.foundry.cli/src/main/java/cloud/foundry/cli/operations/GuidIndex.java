@@ -0,0 +1,97 @@
+package cloud.foundry.cli.operations;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the GUIDs of the resources of the target space by their names for the rest of a run.
+ *
+ * Most operations of the cloud foundry operations API are name based and resolve the GUIDs of the involved resources
+ * with additional list requests on every call. The GUIDs are known anyway once the resources have been listed, e.g.
+ * while fetching the live configuration, so operations that know them can call the cloud foundry client directly.
+ * The index is filled by the requests that list resources and kept up to date by the operations that rename or
+ * remove resources. A GUID that is not in the index has to be resolved by name as before.
+ *
+ * One instance is meant to be shared among all operations objects of a single run.
+ */
+public class GuidIndex {
+
+    public enum Kind {
+        APPLICATION,
+        SERVICE_INSTANCE,
+        // routes are named by their canonical form, see RouteUtils#getRouteName
+        ROUTE
+    }
+
+    private final Map<Kind, Map<String, String>> guids;
+
+    public GuidIndex() {
+        this.guids = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            guids.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * @param kind the kind of the resource
+     * @param name the name of the resource
+     * @param guid the GUID of the resource
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public void put(Kind kind, String name, String guid) {
+        checkNotNull(kind);
+        checkNotNull(name);
+        checkNotNull(guid);
+
+        guids.get(kind).put(name, guid);
+    }
+
+    /**
+     * @param kind the kind of the resource
+     * @param name the name of the resource
+     * @return the GUID of the resource, empty if it is unknown
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public Optional<String> get(Kind kind, String name) {
+        checkNotNull(kind);
+        checkNotNull(name);
+
+        return Optional.ofNullable(guids.get(kind).get(name));
+    }
+
+    /**
+     * Keeps the GUID of a renamed resource under its new name.
+     * @param kind the kind of the resource
+     * @param currentName the name of the resource before the renaming
+     * @param newName the name of the resource after the renaming
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public void rename(Kind kind, String currentName, String newName) {
+        checkNotNull(kind);
+        checkNotNull(currentName);
+        checkNotNull(newName);
+
+        String guid = guids.get(kind).remove(currentName);
+        if (guid != null) {
+            guids.get(kind).put(newName, guid);
+        }
+    }
+
+    /**
+     * Forgets the GUID of a resource, e.g. because it has been removed.
+     * @param kind the kind of the resource
+     * @param name the name of the resource
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public void remove(Kind kind, String name) {
+        checkNotNull(kind);
+        checkNotNull(name);
+
+        guids.get(kind).remove(name);
+    }
+
+}
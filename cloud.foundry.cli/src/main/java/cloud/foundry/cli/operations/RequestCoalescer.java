@@ -0,0 +1,124 @@
+package cloud.foundry.cli.operations;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloud.foundry.cli.crosscutting.logging.Log;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares the results of identical read requests to the cloud foundry instance among all of their subscribers.
+ *
+ * The first subscriber of a request triggers the actual call. Every subscriber that asks for the same request while
+ * the call is still in flight, or after it has completed, receives the very same result. Failed requests are not
+ * memoized, so that a later subscriber triggers a new call. Results stay valid for the rest of the run unless an
+ * operation that changes the underlying resource {@link #invalidate(List) invalidates} them.
+ *
+ * One instance is meant to be shared among all operations objects of a single run. The GUIDs that the shared requests
+ * reveal are kept in the {@link GuidIndex} of the coalescer, so that they are shared as well.
+ */
+public class RequestCoalescer {
+
+    private static final Log log = Log.getLog(RequestCoalescer.class);
+
+    private final Map<List<Object>, Mono<?>> memo;
+    private final GuidIndex guidIndex;
+
+    public RequestCoalescer() {
+        this.memo = new ConcurrentHashMap<>();
+        this.guidIndex = new GuidIndex();
+    }
+
+    /**
+     * @return the index of the GUIDs of the resources that have been listed during the run
+     */
+    public GuidIndex getGuidIndex() {
+        return guidIndex;
+    }
+
+    /**
+     * Creates the key that identifies a request by its type and its parameters.
+     * @param requestType a name that describes the kind of request, e.g. "services.getInstance"
+     * @param parameters all parameters that distinguish the request from other requests of the same type
+     * @return the key of the request
+     * @throws NullPointerException if the request type is null
+     */
+    public static List<Object> key(String requestType, Object... parameters) {
+        checkNotNull(requestType);
+
+        Object[] keyParts = new Object[parameters.length + 1];
+        keyParts[0] = requestType;
+        System.arraycopy(parameters, 0, keyParts, 1, parameters.length);
+        return Collections.unmodifiableList(Arrays.asList(keyParts));
+    }
+
+    /**
+     * Prepares a request whose result is shared with all identical requests.
+     * @param key the key of the request, see {@link #key(String, Object...)}
+     * @param request supplies the actual request, only invoked if no result is in flight or memoized for the key
+     * @param <T> the type of the result
+     * @return mono which yields the shared result upon subscription
+     * @throws NullPointerException if any of the arguments is null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(List<Object> key, Supplier<Mono<T>> request) {
+        checkNotNull(key);
+        checkNotNull(request);
+
+        return Mono.defer(() -> {
+            Mono<T> sharedRequest = (Mono<T>) memo.computeIfAbsent(key, k -> request.get().cache());
+            return sharedRequest
+                    .doOnSubscribe(subscription -> log.debug("Subscribing to shared request", key))
+                    // a failed request must not be memoized, only the failing instance is removed though
+                    .doOnError(throwable -> memo.remove(key, sharedRequest));
+        });
+    }
+
+    /**
+     * Prepares a request with multiple results which are shared with all identical requests.
+     * @param key the key of the request, see {@link #key(String, Object...)}
+     * @param request supplies the actual request, only invoked if no result is in flight or memoized for the key
+     * @param <T> the type of the results
+     * @return flux which yields the shared results upon subscription
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public <T> Flux<T> coalesceMany(List<Object> key, Supplier<Flux<T>> request) {
+        checkNotNull(request);
+
+        return coalesce(key, () -> request.get().collectList())
+                .flatMapIterable(results -> results);
+    }
+
+    /**
+     * Discards the memoized result of a request. Has to be called once an operation changed the resources that the
+     * request reads, so that subsequent subscribers trigger a new call.
+     * @param key the key of the request, see {@link #key(String, Object...)}
+     * @throws NullPointerException if the argument is null
+     */
+    public void invalidate(List<Object> key) {
+        checkNotNull(key);
+
+        if (memo.remove(key) != null) {
+            log.debug("Invalidated shared request", key);
+        }
+    }
+
+    /**
+     * Discards the memoized results of all requests of a certain type, regardless of their parameters.
+     * @param requestType the type of the requests, see {@link #key(String, Object...)}
+     * @throws NullPointerException if the argument is null
+     */
+    public void invalidateAll(String requestType) {
+        checkNotNull(requestType);
+
+        memo.keySet().removeIf(key -> key.get(0).equals(requestType));
+    }
+
+}
@@ -43,16 +43,12 @@
 
 package cloud.foundry.cli.operations;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Strings;
 import org.cloudfoundry.operations.applications.DecomposedRoute;
-import org.cloudfoundry.operations.applications.DomainSummary;
 import reactor.core.publisher.Mono;
 
-import java.util.Comparator;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-
 /**
  * Utility class for processing cloud foundry routes
  */
@@ -63,27 +59,21 @@ final class RouteUtils {
 
     /**
      * Decomposes a route into its component parts host, domain, path and port.
-     * @param availableDomains all domains that exist on the cloud foundry instance
+     * @param domainIndex the index of all domains that exist on the cloud foundry instance
      * @param route the route that should be decomposed
      * @param routePath the path of the route
      * @return a DecomposedRoute object
      */
-    static Mono<DecomposedRoute> decomposeRoute(List<DomainSummary> availableDomains, String route, String routePath) {
-        String domain = null;
+    static Mono<DecomposedRoute> decomposeRoute(DomainIndex domainIndex, String route, String routePath) {
         String host = null;
         String path = null;
         Integer port = null;
         String routeWithoutSuffix = route;
 
-        if (availableDomains.size() == 0) {
+        if (domainIndex.isEmpty()) {
             throw new IllegalArgumentException(String.format("The route %s did not match any existing domains", route));
         }
 
-        List<DomainSummary> sortedDomains = availableDomains.stream()
-                .sorted(Comparator.<DomainSummary>comparingInt(
-                        domainSummary -> domainSummary.getName().length()).reversed())
-                .collect(Collectors.toList());
-
         if (route.contains("/")) {
             int index = route.indexOf("/");
             path = routePath != null ? routePath : route.substring(index);
@@ -93,20 +83,14 @@ final class RouteUtils {
             routeWithoutSuffix = route.substring(0, route.indexOf(":"));
         }
 
-        for (DomainSummary item : sortedDomains) {
-            if (isDomainMatch(routeWithoutSuffix, item.getName())) {
-                domain = item.getName();
-                if (domain.length() < routeWithoutSuffix.length()) {
-                    host = routeWithoutSuffix.substring(0, routeWithoutSuffix.lastIndexOf(domain) - 1);
-                }
-                break;
-            }
-        }
-
+        String domain = domainIndex.findDomain(routeWithoutSuffix);
         if (domain == null) {
             throw new IllegalArgumentException(
                     String.format("The route %s did not match any existing domains", route));
         }
+        if (domain.length() < routeWithoutSuffix.length()) {
+            host = routeWithoutSuffix.substring(0, routeWithoutSuffix.length() - domain.length() - 1);
+        }
 
         if ((host != null || path != null) && port != null) {
             throw new IllegalArgumentException(
@@ -121,24 +105,49 @@ final class RouteUtils {
                 .build());
     }
 
-    private static Integer getPort(String route) {
-        Pattern pattern = Pattern.compile(":\\d+$");
-        Matcher matcher = pattern.matcher(route);
+    /**
+     * Names a route in the same form as the routes of the application manifests, e.g. "host.example.com/path" or
+     * "tcp.example.com:1024", so that routes listed by their parts can be found by the name of a manifest route.
+     * @param host the host of the route, may be null or empty
+     * @param domain the domain of the route
+     * @param port the port of the route, may be null or empty
+     * @param path the path of the route including its leading slash, may be null or empty
+     * @return the name of the route
+     * @throws NullPointerException if the domain is null
+     */
+    static String getRouteName(String host, String domain, String port, String path) {
+        checkNotNull(domain);
 
-        matcher.find();
-        return Integer.valueOf(route.substring(matcher.start() + 1, matcher.end()));
+        StringBuilder routeName = new StringBuilder();
+        if (!Strings.isNullOrEmpty(host)) {
+            routeName.append(host).append('.');
+        }
+        routeName.append(domain);
+        if (!Strings.isNullOrEmpty(port)) {
+            routeName.append(':').append(port);
+        }
+        return routeName.append(Strings.nullToEmpty(path)).toString();
     }
 
-    private static Boolean hasPort(String route) {
-        Pattern pattern = Pattern.compile("^.+?:\\d+$");
-        Matcher matcher = pattern.matcher(route);
-
-        return matcher.matches();
+    private static Integer getPort(String route) {
+        return Integer.valueOf(route.substring(route.lastIndexOf(':') + 1));
     }
 
-    private static boolean isDomainMatch(String route, String domain) {
-        return route.equals(domain) || route.endsWith(domain)
-                && route.charAt(route.length() - domain.length() - 1) == '.';
+    /**
+     * @return whether the route ends with a colon that follows at least one character and is followed by digits only
+     */
+    private static boolean hasPort(String route) {
+        int colonIndex = route.lastIndexOf(':');
+        if (colonIndex <= 0 || colonIndex == route.length() - 1) {
+            return false;
+        }
+        for (int index = colonIndex + 1; index < route.length(); index++) {
+            char character = route.charAt(index);
+            if (character < '0' || character > '9') {
+                return false;
+            }
+        }
+        return true;
     }
 
 }
@@ -2,14 +2,24 @@ package cloud.foundry.cli.operations;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import cloud.foundry.cli.crosscutting.concurrency.ConcurrencyLimiter;
 import cloud.foundry.cli.crosscutting.exceptions.UpdateException;
 import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
 import cloud.foundry.cli.crosscutting.logging.Log;
-
+import cloud.foundry.cli.operations.GuidIndex.Kind;
+
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.ClientV2Exception;
+import org.cloudfoundry.client.v2.serviceinstances.LastOperation;
+import org.cloudfoundry.client.v2.serviceinstances.ServiceInstances;
+import org.cloudfoundry.client.v2.serviceplans.ListServicePlansRequest;
+import org.cloudfoundry.client.v2.spaces.ListSpaceServicesRequest;
+import org.cloudfoundry.operations.CloudFoundryOperations;
 import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
 import org.cloudfoundry.operations.routes.ListRoutesRequest;
 import org.cloudfoundry.operations.routes.Route;
 import org.cloudfoundry.operations.services.*;
+import org.cloudfoundry.util.PaginationUtils;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -17,6 +27,10 @@ import reactor.core.publisher.Mono;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Handles the operations for querying and manipulating services on a cloud foundry instance.
@@ -32,10 +46,57 @@ public class ServicesOperations extends AbstractOperations<DefaultCloudFoundryOp
 
     private static final String USER_PROVIDED_SERVICE_INSTANCE = "user_provided_service_instance";
 
+    // states of the last operation of a service instance, as reported by the broker
+    private static final String LAST_OPERATION_IN_PROGRESS = "in progress";
+    private static final String LAST_OPERATION_SUCCEEDED = "succeeded";
+    private static final String LAST_OPERATION_FAILED = "failed";
+    private static final int SERVICE_INSTANCE_NOT_FOUND_CODE = 60004;
+
+    // request types of the reads that are shared via the request coalescer
+    static final String GET_INSTANCE_REQUEST = "services.getInstance";
+    private static final String GET_SERVICE_PLAN_ID_REQUEST = "services.getServicePlanId";
+    private static final String LIST_SERVICE_KEYS_REQUEST = "services.listServiceKeys";
+    private static final String LIST_ROUTES_REQUEST = "routes.list";
+
     public ServicesOperations(DefaultCloudFoundryOperations cloudFoundryOperations) {
         super(cloudFoundryOperations);
     }
 
+    /**
+     * @param cloudFoundryOperations the cloud foundry operations instance
+     * @param requestCoalescer the coalescer that is used to share identical read requests
+     */
+    public ServicesOperations(DefaultCloudFoundryOperations cloudFoundryOperations,
+                              RequestCoalescer requestCoalescer) {
+        super(cloudFoundryOperations, requestCoalescer);
+    }
+
+    /**
+     * @param cloudFoundryOperations the cloud foundry operations instance
+     * @param requestCoalescer the coalescer that is used to share identical read requests
+     * @param asyncOperationPoller the poller that is used to await the asynchronous operations of brokers
+     */
+    public ServicesOperations(DefaultCloudFoundryOperations cloudFoundryOperations,
+                              RequestCoalescer requestCoalescer,
+                              AsyncOperationPoller asyncOperationPoller) {
+        super(cloudFoundryOperations, requestCoalescer, asyncOperationPoller);
+    }
+
+    /**
+     * @param serviceInstanceName the name of the service instance
+     * @return the key of the shared request that fetches the service instance
+     */
+    static List<Object> serviceInstanceKey(String serviceInstanceName) {
+        return RequestCoalescer.key(GET_INSTANCE_REQUEST, serviceInstanceName);
+    }
+
+    /**
+     * @return the key of the shared request that lists all routes of the space
+     */
+    static List<Object> routesKey() {
+        return RequestCoalescer.key(LIST_ROUTES_REQUEST);
+    }
+
     /**
      * Prepares a request for fetching services data from the cloud foundry instance
      * The resulting mono will not perform any logging by default.
@@ -43,18 +104,114 @@ public class ServicesOperations extends AbstractOperations<DefaultCloudFoundryOp
      * @return mono object of all services as map of the service names as key and ServiceBeans as value
      */
     public Mono<Map<String, ServiceBean>> getAll() {
-        return  this.cloudFoundryOperations.services()
-                .listInstances()
-                .flatMap(serviceInstanceSummary -> getServiceInstance(serviceInstanceSummary.getName()))
+        return getAll(ConcurrencyLimiter.unlimited("services"));
+    }
+
+    /**
+     * Prepares a request for fetching services data from the cloud foundry instance. The data of the single services
+     * is fetched with at most as many concurrent requests as the limiter permits.
+     * The resulting mono will not perform any logging by default.
+     *
+     * @param limiter limits the concurrent requests for the data of the single services
+     * @return mono object of all services as map of the service names as key and ServiceBeans as value
+     * @throws NullPointerException when the limiter is null
+     */
+    public Mono<Map<String, ServiceBean>> getAll(ConcurrencyLimiter limiter) {
+        return getAll(limiter, serviceName -> true);
+    }
+
+    /**
+     * Prepares a request for fetching the data of some services from the cloud foundry instance. Only the data of
+     * the services whose names pass the filter is fetched, with at most as many concurrent requests as the limiter
+     * permits. The resulting mono will not perform any logging by default.
+     *
+     * @param limiter limits the concurrent requests for the data of the single services
+     * @param nameFilter decides by the name of a service whether its data is fetched
+     * @return mono object of the services as map of the service names as key and ServiceBeans as value
+     * @throws NullPointerException when any of the arguments is null
+     */
+    public Mono<Map<String, ServiceBean>> getAll(ConcurrencyLimiter limiter, Predicate<String> nameFilter) {
+        checkNotNull(limiter);
+        checkNotNull(nameFilter);
+
+        return  listInstances()
+                .filter(serviceInstanceSummary -> nameFilter.test(serviceInstanceSummary.getName()))
+                .flatMap(serviceInstanceSummary -> limiter.limit(
+                        getServiceInstance(serviceInstanceSummary.getName())))
                 .collectMap(ServiceInstance::getName, ServiceBean::new)
                 .doOnSubscribe(subscription -> log.info("Querying all services"))
                 .doOnSuccess(stringApplicationBeanMap -> log.verbose("Querying all services completed"));
     }
 
+    /**
+     * Prepares a request for fetching a short summary of each service instance, e.g. its plan and its bound
+     * applications. The summaries are cheap to fetch compared to the complete data of the service instances and
+     * allow for noticing changes of the service instances. The resulting mono will not perform any logging by
+     * default.
+     *
+     * @return mono object of the summaries as map of the service names as key and the summaries as value
+     */
+    public Mono<Map<String, String>> getSummaries() {
+        return listInstances()
+                .collectMap(ServiceInstanceSummary::getName, this::summarize);
+    }
+
+    private String summarize(ServiceInstanceSummary serviceInstanceSummary) {
+        return "id=" + serviceInstanceSummary.getId()
+                + " service=" + serviceInstanceSummary.getService()
+                + " plan=" + serviceInstanceSummary.getPlan()
+                + " tags=" + new TreeSet<>(serviceInstanceSummary.getTags())
+                + " applications=" + new TreeSet<>(serviceInstanceSummary.getApplications())
+                + " lastOperation=" + serviceInstanceSummary.getLastOperation();
+    }
+
+    private Flux<ServiceInstanceSummary> listInstances() {
+        return this.cloudFoundryOperations.services()
+                .listInstances()
+                .doOnNext(serviceInstanceSummary -> requestCoalescer.getGuidIndex().put(Kind.SERVICE_INSTANCE,
+                        serviceInstanceSummary.getName(), serviceInstanceSummary.getId()));
+    }
+
     private Mono<ServiceInstance> getServiceInstance(String serviceName) {
-        return this.cloudFoundryOperations
+        return requestCoalescer.coalesce(serviceInstanceKey(serviceName), () -> this.cloudFoundryOperations
             .services()
-            .getInstance(createGetServiceInstanceRequest(serviceName));
+            .getInstance(createGetServiceInstanceRequest(serviceName))
+            .doOnNext(serviceInstance -> requestCoalescer.getGuidIndex().put(Kind.SERVICE_INSTANCE,
+                    serviceInstance.getName(), serviceInstance.getId())));
+    }
+
+    private Flux<Route> listRoutes() {
+        return listRoutes(cloudFoundryOperations, requestCoalescer);
+    }
+
+    /**
+     * Lists all routes of the space with a request that is shared by all operations objects of the coalescer. The GUIDs
+     * of the listed routes are remembered in the GUID index of the coalescer.
+     * @param cloudFoundryOperations the cloud foundry operations instance
+     * @param requestCoalescer the coalescer that is used to share the request
+     * @return flux of all routes of the space
+     */
+    static Flux<Route> listRoutes(CloudFoundryOperations cloudFoundryOperations, RequestCoalescer requestCoalescer) {
+        return requestCoalescer.coalesceMany(routesKey(), () -> cloudFoundryOperations
+                .routes()
+                .list(ListRoutesRequest.builder().build())
+                .doOnNext(route -> requestCoalescer.getGuidIndex().put(Kind.ROUTE,
+                        RouteUtils.getRouteName(route.getHost(), route.getDomain(), route.getPort(), route.getPath()),
+                        route.getId())));
+    }
+
+    private Flux<ServiceKey> listServiceKeys(String serviceInstanceName) {
+        return requestCoalescer.coalesceMany(
+                RequestCoalescer.key(LIST_SERVICE_KEYS_REQUEST, serviceInstanceName),
+                () -> cloudFoundryOperations
+                        .services()
+                        .listServiceKeys(createListServiceKeysRequest(serviceInstanceName)));
+    }
+
+    private void invalidateServiceInstance(String serviceInstanceName) {
+        requestCoalescer.invalidate(serviceInstanceKey(serviceInstanceName));
+        requestCoalescer.invalidate(RequestCoalescer.key(LIST_SERVICE_KEYS_REQUEST, serviceInstanceName));
+        requestCoalescer.invalidate(routesKey());
     }
 
     private GetServiceInstanceRequest createGetServiceInstanceRequest(String serviceName) {
@@ -66,8 +223,9 @@ public class ServicesOperations extends AbstractOperations<DefaultCloudFoundryOp
 
     /**
      * Prepares a request for creating a new service with specific tags, plan and
-     * parameters in the space. The resulting mono is preconfigured such that it
-     * will perform logging.
+     * parameters in the space. Brokers may create the service instance asynchronously,
+     * in that case the resulting mono completes once the broker has finished the creation.
+     * The resulting mono is preconfigured such that it will perform logging.
      *
      * @param serviceBean serves as template for the service to create
      * @return mono which can be subscribed on to trigger the creation request to the cf instance
@@ -76,23 +234,60 @@ public class ServicesOperations extends AbstractOperations<DefaultCloudFoundryOp
     public Mono<Void> create(String serviceInstanceName, ServiceBean serviceBean) {
         checkNotNull(serviceInstanceName);
         checkNotNull(serviceBean);
-        CreateServiceInstanceRequest createServiceRequest = CreateServiceInstanceRequest.builder()
-            .serviceName(serviceBean.getService())
-            .serviceInstanceName(serviceInstanceName)
-            .planName(serviceBean.getPlan())
-            .tags(serviceBean.getTags())
-            .parameters(serviceBean.getParams())
-            .build();
-
-        return this.cloudFoundryOperations.services().createInstance(createServiceRequest)
-            .doOnSubscribe(aVoid -> {
+        ServiceInstances serviceInstances = this.cloudFoundryOperations.getCloudFoundryClient().serviceInstances();
+
+        return Mono.zip(this.cloudFoundryOperations.getSpaceId(),
+                        getServicePlanId(serviceBean.getService(), serviceBean.getPlan()))
+                .flatMap(ids -> serviceInstances
+                        .create(org.cloudfoundry.client.v2.serviceinstances.CreateServiceInstanceRequest.builder()
+                                .name(serviceInstanceName)
+                                .spaceId(ids.getT1())
+                                .servicePlanId(ids.getT2())
+                                .tags(serviceBean.getTags())
+                                .parameters(serviceBean.getParams())
+                                .acceptsIncomplete(true)
+                                .build()))
+                .map(response -> response.getMetadata().getId())
+                .doOnNext(serviceInstanceId -> requestCoalescer.getGuidIndex().put(Kind.SERVICE_INSTANCE,
+                        serviceInstanceName, serviceInstanceId))
+                .flatMap(serviceInstanceId -> awaitLastOperation("creation of service " + serviceInstanceName,
+                        () -> getLastOperation(serviceInstances, serviceInstanceId)))
+                .doOnSubscribe(aVoid -> {
                     log.info("Creating service", serviceInstanceName);
                     log.debug("Service bean:", serviceBean);
                 })
                 .doOnSuccess(aVoid -> log.verbose("Creating service", serviceInstanceName, "completed"))
+                .doOnTerminate(() -> invalidateServiceInstance(serviceInstanceName))
                 .onErrorStop();
     }
 
+    // the plans of a service offering do not change during a run, so each plan id is only looked up once
+    private Mono<String> getServicePlanId(String serviceLabel, String planName) {
+        CloudFoundryClient client = this.cloudFoundryOperations.getCloudFoundryClient();
+
+        return requestCoalescer.coalesce(RequestCoalescer.key(GET_SERVICE_PLAN_ID_REQUEST, serviceLabel, planName),
+                () -> this.cloudFoundryOperations.getSpaceId()
+                        .flatMapMany(spaceId -> PaginationUtils.requestClientV2Resources(page -> client.spaces()
+                                .listServices(ListSpaceServicesRequest.builder()
+                                        .spaceId(spaceId)
+                                        .label(serviceLabel)
+                                        .page(page)
+                                        .build())))
+                        .next()
+                        .switchIfEmpty(Mono.error(new IllegalArgumentException(
+                                "Service " + serviceLabel + " does not exist")))
+                        .flatMapMany(service -> PaginationUtils.requestClientV2Resources(page -> client.servicePlans()
+                                .list(ListServicePlansRequest.builder()
+                                        .serviceId(service.getMetadata().getId())
+                                        .page(page)
+                                        .build())))
+                        .filter(servicePlan -> servicePlan.getEntity().getName().equals(planName))
+                        .next()
+                        .map(servicePlan -> servicePlan.getMetadata().getId())
+                        .switchIfEmpty(Mono.error(new IllegalArgumentException(
+                                "Service plan " + planName + " of service " + serviceLabel + " does not exist"))));
+    }
+
     /**
      * Prepares a request for renaming a service instance. The resulting mono is
      * preconfigured such that it will perform logging.
@@ -114,12 +309,77 @@ public class ServicesOperations extends AbstractOperations<DefaultCloudFoundryOp
         return this.cloudFoundryOperations.services()
             .renameInstance(renameServiceInstanceRequest)
                 .doOnSubscribe(aVoid -> log.info("Renaming service", currentName, "to", newName))
-                .doOnSuccess(aVoid -> log.verbose("Renaming service", currentName, "to", newName, "completed"))
+                .doOnSuccess(aVoid -> {
+                    requestCoalescer.getGuidIndex().rename(Kind.SERVICE_INSTANCE, currentName, newName);
+                    log.verbose("Renaming service", currentName, "to", newName, "completed");
+                })
+                .doOnTerminate(() -> {
+                    invalidateServiceInstance(currentName);
+                    invalidateServiceInstance(newName);
+                })
                 .onErrorStop();
     }
 
     /**
-     * Prepares a request for updating tags and the plan of a service instance The
+     * Prepares a request for updating the plan, the parameters and the tags of a service instance in place. The
+     * service instance keeps its bindings, routes and keys. Brokers may perform the update asynchronously, in that
+     * case the resulting mono completes once the broker has finished the update. The resulting mono is preconfigured
+     * such that it will perform logging.
+     *
+     * @param serviceInstanceName name of a service instance
+     * @param planName            the new plan, the plan is not changed if null
+     * @param parameters          the new parameters, the parameters are not changed if null
+     * @param tags                the new tags, the tags are not changed if null
+     * @return mono which can be subscribed on to trigger the update request to the cf instance
+     * @throws NullPointerException when the service instance name was null
+     */
+    public Mono<Void> updateInstance(String serviceInstanceName,
+                                     String planName,
+                                     Map<String, Object> parameters,
+                                     List<String> tags) {
+        checkNotNull(serviceInstanceName);
+
+        ServiceInstances serviceInstances = this.cloudFoundryOperations.getCloudFoundryClient().serviceInstances();
+
+        return getServiceInstance(serviceInstanceName)
+                .flatMap(serviceInstance -> (planName == null
+                        ? Mono.just(Optional.<String>empty())
+                        : getServicePlanId(serviceInstance.getService(), planName).map(Optional::of))
+                        .flatMap(servicePlanId -> serviceInstances.update(createUpdateServiceInstanceRequest(
+                                serviceInstance.getId(), servicePlanId.orElse(null), parameters, tags)))
+                        .then(awaitLastOperation("update of service " + serviceInstanceName,
+                                () -> getLastOperation(serviceInstances, serviceInstance.getId()))))
+                .doOnSubscribe(aVoid -> {
+                    log.info("Updating service", serviceInstanceName, "in place");
+                    if (planName != null) log.debug("New plan:", planName);
+                    if (parameters != null) log.debug("New parameters:", parameters);
+                    if (tags != null) log.debug("New tags:", tags); })
+                .doOnSuccess(aVoid -> log.verbose("Updating service", serviceInstanceName, "in place completed"))
+                .doOnTerminate(() -> invalidateServiceInstance(serviceInstanceName))
+                .onErrorStop();
+    }
+
+    private org.cloudfoundry.client.v2.serviceinstances.UpdateServiceInstanceRequest createUpdateServiceInstanceRequest(
+            String serviceInstanceId, String servicePlanId, Map<String, Object> parameters, List<String> tags) {
+        org.cloudfoundry.client.v2.serviceinstances.UpdateServiceInstanceRequest.Builder requestBuilder =
+                org.cloudfoundry.client.v2.serviceinstances.UpdateServiceInstanceRequest.builder()
+                        .serviceInstanceId(serviceInstanceId)
+                        .acceptsIncomplete(true);
+        if (servicePlanId != null) {
+            requestBuilder.servicePlanId(servicePlanId);
+        }
+        if (parameters != null) {
+            requestBuilder.parameters(parameters);
+        }
+        if (tags != null) {
+            requestBuilder.tags(tags);
+        }
+        return requestBuilder.build();
+    }
+
+    /**
+     * Prepares a request for replacing a service instance, e.g. when its service offering changes. The service
+     * instance is removed and created again, afterwards the previous routes, apps and keys are bound to it again. The
      * resulting mono is preconfigured such that it will perform logging.
      *
      * @param serviceInstanceName name of a service instance
@@ -145,27 +405,22 @@ public class ServicesOperations extends AbstractOperations<DefaultCloudFoundryOp
                                         .and(bindKeys(serviceInstanceName, o.getT3()))))
                 .then()
                 .doOnSubscribe(aVoid -> log.info("Updating service", serviceInstanceName))
-                .doOnSuccess(aVoid -> log.verbose("Updating service", serviceInstanceName, "completed"));
+                .doOnSuccess(aVoid -> log.verbose("Updating service", serviceInstanceName, "completed"))
+                .doOnTerminate(() -> invalidateServiceInstance(serviceInstanceName));
     }
 
     private Flux<Route> getRoutes(String serviceInstanceName) {
-        return cloudFoundryOperations
-                .routes()
-                .list(ListRoutesRequest.builder().build())
+        return listRoutes()
                 .filter(route -> route.getService() != null && route.getService().equals(serviceInstanceName));
     }
 
     private Flux<String> getApps(String serviceInstanceName) {
-        return cloudFoundryOperations
-                .services()
-                .getInstance(GetServiceInstanceRequest.builder().name(serviceInstanceName).build())
+        return getServiceInstance(serviceInstanceName)
                 .flatMapMany(serviceInstance -> Flux.fromIterable(serviceInstance.getApplications()));
     }
 
     private Flux<ServiceKey> getKeys(String serviceInstanceName) {
-        return cloudFoundryOperations
-                .services()
-                .listServiceKeys(ListServiceKeysRequest.builder().serviceInstanceName(serviceInstanceName).build());
+        return listServiceKeys(serviceInstanceName);
     }
 
     private Mono<Void> bindKeys(String serviceInstanceName, List<ServiceKey> serviceKeys) {
@@ -222,25 +477,74 @@ public class ServicesOperations extends AbstractOperations<DefaultCloudFoundryOp
     public Mono<Void> remove(String serviceInstanceName) {
         checkNotNull(serviceInstanceName);
         try {
-            return unbindApps(serviceInstanceName)
+            // the shared reads are only invalidated once the whole removal is done, so that unbinding the apps,
+            // deleting the keys and unbinding the routes can share the same service instance and route data
+            return doUnbindApps(serviceInstanceName)
                 // and unbind keys
-                .mergeWith(deleteKeys(serviceInstanceName))
+                .mergeWith(doDeleteKeys(serviceInstanceName))
                 // also unbind routes
-                .mergeWith(unbindRoutes(serviceInstanceName))
+                .mergeWith(doUnbindRoutes(serviceInstanceName))
                 // after previous operations are done delete the actual service
-                .then(deleteServiceInstance(serviceInstanceName));
+                .then(deleteServiceInstance(serviceInstanceName))
+                .doOnSuccess(aVoid -> requestCoalescer.getGuidIndex().remove(Kind.SERVICE_INSTANCE,
+                        serviceInstanceName))
+                .doOnTerminate(() -> invalidateServiceInstance(serviceInstanceName));
         } catch (RuntimeException e) {
             throw new UpdateException(e);
         }
     }
 
     private Mono<Void> deleteServiceInstance(String serviceInstanceName) {
-        return this.cloudFoundryOperations.services()
-                .deleteInstance(createDeleteServiceInstanceRequest(serviceInstanceName))
+        return getServiceInstance(serviceInstanceName)
+                .flatMap(serviceInstance -> serviceInstance.getType() == ServiceInstanceType.USER_PROVIDED
+                        ? this.cloudFoundryOperations.services()
+                                .deleteInstance(createDeleteServiceInstanceRequest(serviceInstanceName))
+                        : deleteManagedServiceInstance(serviceInstanceName, serviceInstance.getId()))
                 .doOnSubscribe(aVoid -> log.info("Removing service", serviceInstanceName))
                 .doOnSuccess(aVoid -> log.verbose("Removing service", serviceInstanceName, "completed"));
     }
 
+    // the broker may remove the service instance asynchronously, the removal is awaited by the shared poller
+    private Mono<Void> deleteManagedServiceInstance(String serviceInstanceName, String serviceInstanceId) {
+        ServiceInstances serviceInstances = this.cloudFoundryOperations.getCloudFoundryClient().serviceInstances();
+
+        return serviceInstances
+                .delete(org.cloudfoundry.client.v2.serviceinstances.DeleteServiceInstanceRequest.builder()
+                        .serviceInstanceId(serviceInstanceId)
+                        .acceptsIncomplete(true)
+                        .build())
+                .then(awaitLastOperation("removal of service " + serviceInstanceName,
+                        () -> getLastOperation(serviceInstances, serviceInstanceId)
+                                // once the service instance is gone, its removal has succeeded
+                                .onErrorResume(throwable -> throwable instanceof ClientV2Exception
+                                        && ((ClientV2Exception) throwable).getCode() == SERVICE_INSTANCE_NOT_FOUND_CODE,
+                                        throwable -> Mono.just(LastOperation.builder()
+                                                .state(LAST_OPERATION_SUCCEEDED)
+                                                .build()))));
+    }
+
+    // the broker may perform the operation asynchronously, the shared poller awaits its last operation
+    private Mono<Void> awaitLastOperation(String description, Supplier<Mono<LastOperation>> lastOperationRequest) {
+        return asyncOperationPoller.await(description, lastOperationRequest,
+                lastOperation -> {
+                    if (LAST_OPERATION_FAILED.equals(lastOperation.getState())) {
+                        throw new IllegalStateException(Character.toUpperCase(description.charAt(0))
+                                + description.substring(1) + " failed: " + lastOperation.getDescription());
+                    }
+                    return LAST_OPERATION_SUCCEEDED.equals(lastOperation.getState());
+                })
+                .then();
+    }
+
+    private Mono<LastOperation> getLastOperation(ServiceInstances serviceInstances, String serviceInstanceId) {
+        return serviceInstances
+                .get(org.cloudfoundry.client.v2.serviceinstances.GetServiceInstanceRequest.builder()
+                        .serviceInstanceId(serviceInstanceId)
+                        .build())
+                .map(response -> Optional.ofNullable(response.getEntity().getLastOperation())
+                        .orElse(LastOperation.builder().state(LAST_OPERATION_IN_PROGRESS).build()));
+    }
+
     private DeleteServiceInstanceRequest createDeleteServiceInstanceRequest(String serviceInstanceName) {
         return DeleteServiceInstanceRequest
             .builder()
@@ -259,15 +563,18 @@ public class ServicesOperations extends AbstractOperations<DefaultCloudFoundryOp
     public Flux<Void> deleteKeys(String serviceInstanceName) {
         checkNotNull(serviceInstanceName);
 
+        return doDeleteKeys(serviceInstanceName)
+                .doOnTerminate(() -> invalidateServiceInstance(serviceInstanceName));
+    }
+
+    private Flux<Void> doDeleteKeys(String serviceInstanceName) {
         return getServiceInstance(serviceInstanceName)
                 .filter( serviceInstance -> !serviceInstance.getType()
                         .getValue()
                         .equals(USER_PROVIDED_SERVICE_INSTANCE))
                 .hasElement()
                 .flatMapMany(aBoolean -> aBoolean
-                        ? cloudFoundryOperations
-                                .services()
-                                .listServiceKeys(createListServiceKeysRequest(serviceInstanceName))
+                        ? listServiceKeys(serviceInstanceName)
                                 .doOnSubscribe(aVoid -> log.info(
                                         "Deleting all keys of service instance", serviceInstanceName))
                                 .doOnComplete(() -> log.verbose(
@@ -311,6 +618,11 @@ public class ServicesOperations extends AbstractOperations<DefaultCloudFoundryOp
     public Flux<Void> unbindApps(String serviceInstanceName) {
         checkNotNull(serviceInstanceName);
 
+        return doUnbindApps(serviceInstanceName)
+                .doOnTerminate(() -> invalidateServiceInstance(serviceInstanceName));
+    }
+
+    private Flux<Void> doUnbindApps(String serviceInstanceName) {
         return getServiceInstance(serviceInstanceName)
                 .flatMapIterable(serviceInstance -> {
                     if (serviceInstance.getApplications() == null || serviceInstance.getApplications().isEmpty()) {
@@ -320,7 +632,7 @@ public class ServicesOperations extends AbstractOperations<DefaultCloudFoundryOp
                         return serviceInstance.getApplications();
                     }
                 })
-                .flatMap(appName -> unbindApp(serviceInstanceName, appName))
+                .flatMap(appName -> doUnbindApp(serviceInstanceName, appName))
                 .doOnSubscribe(aVoid -> log.info(
                         "Unbinding all applications from service instance", serviceInstanceName))
                 .doOnComplete(() -> log.verbose(
@@ -339,6 +651,11 @@ public class ServicesOperations extends AbstractOperations<DefaultCloudFoundryOp
         checkNotNull(serviceInstanceName);
         checkNotNull(applicationName);
 
+        return doUnbindApp(serviceInstanceName, applicationName)
+                .doOnTerminate(() -> invalidateServiceInstance(serviceInstanceName));
+    }
+
+    private Mono<Void> doUnbindApp(String serviceInstanceName, String applicationName) {
         return this.cloudFoundryOperations
                 .services()
                 .unbind(createUnbindServiceInstanceRequest(serviceInstanceName, applicationName))
@@ -368,8 +685,12 @@ public class ServicesOperations extends AbstractOperations<DefaultCloudFoundryOp
     public Flux<Void> unbindRoutes(String serviceInstanceName) {
         checkNotNull(serviceInstanceName);
 
-        return this.cloudFoundryOperations.routes()
-                .list(ListRoutesRequest.builder().build())
+        return doUnbindRoutes(serviceInstanceName)
+                .doOnTerminate(() -> invalidateServiceInstance(serviceInstanceName));
+    }
+
+    private Flux<Void> doUnbindRoutes(String serviceInstanceName) {
+        return listRoutes()
                 .filter(route -> route.getService() != null && route.getService().equals(serviceInstanceName))
                 .flatMap(this::doUnbindRoute)
                 .doOnSubscribe(aVoid -> log.info("Unbinding all routes from service instance", serviceInstanceName))
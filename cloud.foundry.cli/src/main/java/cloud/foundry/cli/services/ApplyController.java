@@ -1,17 +1,27 @@
 package cloud.foundry.cli.services;
 
+import static picocli.CommandLine.ArgGroup;
 import static picocli.CommandLine.Command;
 import static picocli.CommandLine.Mixin;
 import static picocli.CommandLine.Option;
 
+import cloud.foundry.cli.crosscutting.concurrency.Deadline;
+import cloud.foundry.cli.crosscutting.concurrency.GracefulShutdown;
 import cloud.foundry.cli.crosscutting.logging.Log;
 import cloud.foundry.cli.crosscutting.mapping.CfOperationsCreator;
 import cloud.foundry.cli.crosscutting.mapping.YamlMapper;
 import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.PlanBean;
 import cloud.foundry.cli.logic.ApplyLogic;
+import cloud.foundry.cli.logic.apply.ApplyJournal;
+import cloud.foundry.cli.logic.apply.ApplySelection;
+import cloud.foundry.cli.logic.apply.DeploymentStrategy;
+import cloud.foundry.cli.operations.TargetOperations;
 import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.concurrent.Callable;
 
 /**
@@ -27,34 +37,159 @@ public class ApplyController implements Callable<Integer> {
 
     private static final Log log = Log.getLog(ApplyController.class);
 
+    private static final String JOURNAL_SUFFIX = ".journal";
+
     @Mixin
     private OptionalLoginCommandOptions loginOptions;
 
+    private static class InputOptions {
+        @Option(names = {"-y", "--yaml"}, description = "The path to the yaml file.")
+        private String yamlFilePath;
+
+        @ArgGroup(exclusive = false)
+        private PlanOptions planOptions;
+    }
+
+    private static class PlanOptions {
+        @Option(names = {"--plan"}, required = true, paramLabel = "<planFile>",
+                description = "The path to a plan file created by the plan command. Applies the planned operations "
+                        + "if the live state has not changed since the plan was created.")
+        private String planFilePath;
+
+        @Option(names = {"--journal"}, paramLabel = "<journalFile>",
+                description = "The path to the journal that records the progress of the planned operations. "
+                        + "Defaults to the path of the plan file with the suffix .journal.")
+        private String journalFilePath;
+
+        @Option(names = {"--resume"},
+                description = "Resumes a plan that has been applied before, skipping the operations that have "
+                        + "succeeded according to the journal.")
+        private boolean resume;
+
+        private Path getJournalPath() {
+            return Paths.get(journalFilePath != null ? journalFilePath : planFilePath + JOURNAL_SUFFIX);
+        }
+    }
+
+    @ArgGroup(exclusive = true, multiplicity = "1")
+    private InputOptions inputOptions;
+
+    @Mixin
+    private TimeoutCommandOptions timeoutOptions;
+
+    @Mixin
+    private GracePeriodCommandOptions gracePeriodOptions;
+
     @Mixin
-    private YamlCommandOptions yamlCommandOptions;
+    private WavesCommandOptions wavesOptions;
+
+    @Mixin
+    private SelectionCommandOptions selectionOptions;
 
     @Option(names = { "-ns", "--no-auto-start" }, required = false,
             description = "Deployed apps won't get started automatically.")
     private boolean noAutoStart;
 
+    @Option(names = { "--strategy" }, required = false, paramLabel = "<strategy>",
+            description = "Strategy to roll out new bits of apps. Valid values: ${COMPLETION-CANDIDATES}. "
+                    + "Defaults to ${DEFAULT-VALUE}. Ignored when applying a plan, which uses the strategy it was "
+                    + "created with.")
+    private DeploymentStrategy deploymentStrategy = DeploymentStrategy.ROLLING;
+
+    @Option(names = { "--streaming" }, required = false,
+            description = "Fetches, compares and changes the apps one by one instead of fetching and comparing all of "
+                    + "them first, so that large spaces are changed sooner with less memory. Renamed apps are "
+                    + "recreated. Cannot be combined with waves or the strategy STAGE_AHEAD. Ignored when applying a "
+                    + "plan.")
+    private boolean streaming;
+
     @Override
     public Integer call() throws IOException {
+        Deadline deadline = timeoutOptions.getDeadline();
+
+        if (inputOptions.planOptions != null) {
+            return applyPlan(inputOptions.planOptions, deadline);
+        }
+
         log.info("Interpreting YAML file");
-        ConfigBean desiredConfigBean = YamlMapper.loadBeanFromFile(yamlCommandOptions.getYamlFilePath(),
-                ConfigBean.class);
+        ConfigBean desiredConfigBean = YamlMapper.loadBeanFromFile(inputOptions.yamlFilePath, ConfigBean.class);
         log.verbose("Interpreting YAML file completed");
 
-
         DefaultCloudFoundryOperations cfOperations = CfOperationsCreator.createCfOperations(
                                                             desiredConfigBean.getTarget(),
                                                             loginOptions);
+        TargetOperations targetOperations = new TargetOperations(cfOperations);
 
-        log.verbose("Auto starting apps:", !noAutoStart);
-        ApplyLogic applyLogic = new ApplyLogic(cfOperations, !noAutoStart);
+        ApplyLogic applyLogic = createApplyLogic(cfOperations, deadline);
+        applyLogic.setLastAppliedConfig(LastAppliedConfigFile.load(targetOperations));
+        log.verbose("Deployment strategy:", deploymentStrategy);
+        applyLogic.setDeploymentStrategy(deploymentStrategy);
+        log.verbose("Waves:", wavesOptions.getWaves());
+        applyLogic.setWaves(wavesOptions.getWaves());
+        ApplySelection selection = selectionOptions.getSelection();
+        log.verbose("Selected resources:", selection.isAll() ? "all" : selection);
+        applyLogic.setSelection(selection);
+        log.verbose("Streaming:", streaming);
+
+        log.info("Apply process started");
+        try {
+            if (streaming) {
+                applyLogic.applyStreaming(desiredConfigBean);
+            } else {
+                applyLogic.apply(desiredConfigBean);
+            }
+            // the resources that are not selected have not been applied
+            if (selection.isAll()) {
+                LastAppliedConfigFile.save(targetOperations, desiredConfigBean);
+            }
+        } finally {
+            OperationTimingsFile.save(applyLogic.getCostModel());
+        }
+        log.info("Apply process completed");
+        return 0;
+    }
+
+    private Integer applyPlan(PlanOptions planOptions, Deadline deadline) throws IOException {
+        log.info("Interpreting plan file");
+        PlanBean plan = YamlMapper.loadBeanFromFile(planOptions.planFilePath, PlanBean.class);
+        log.verbose("Interpreting plan file completed");
+
+        DefaultCloudFoundryOperations cfOperations = CfOperationsCreator.createCfOperations(
+                                                            plan.getDesired().getTarget(),
+                                                            loginOptions);
+
+        ApplyLogic applyLogic = createApplyLogic(cfOperations, deadline);
+        log.verbose("Deployment strategy of the plan:", plan.getDeploymentStrategy());
+        log.verbose("Waves of the plan:", plan.getWaves());
+        log.verbose("Selected resources of the plan:", plan.getOnly() == null ? "all" : plan.getOnly());
+
+        Path journalPath = planOptions.getJournalPath();
+        log.verbose("Journal:", journalPath);
 
         log.info("Apply process started");
-        applyLogic.apply(desiredConfigBean);
+        try (ApplyJournal journal = planOptions.resume
+                ? ApplyJournal.resume(journalPath, plan)
+                : ApplyJournal.create(journalPath, plan)) {
+            if (journal.isResumed()) {
+                log.info("Resuming the plan,", journal.getCompletedOperations().size(),
+                        "operations have completed before");
+            }
+            applyLogic.applyPlan(plan, journal);
+            if (plan.getOnly() == null) {
+                LastAppliedConfigFile.save(new TargetOperations(cfOperations), plan.getDesired());
+            }
+        } finally {
+            OperationTimingsFile.save(applyLogic.getCostModel());
+        }
         log.info("Apply process completed");
         return 0;
     }
+
+    private ApplyLogic createApplyLogic(DefaultCloudFoundryOperations cfOperations, Deadline deadline) {
+        log.verbose("Auto starting apps:", !noAutoStart);
+        ApplyLogic applyLogic = new ApplyLogic(cfOperations, !noAutoStart, deadline);
+        applyLogic.setGracefulShutdown(new GracefulShutdown(gracePeriodOptions.getGracePeriod()));
+        applyLogic.setCostModel(OperationTimingsFile.load());
+        return applyLogic;
+    }
 }
@@ -24,6 +24,7 @@ import java.util.logging.FileHandler;
         subcommands = {
                 GetController.class,
                 DiffController.class,
+                PlanController.class,
                 ApplyController.class,
                 RenameController.class,
                 DumpController.class})
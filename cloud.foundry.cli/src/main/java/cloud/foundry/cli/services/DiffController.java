@@ -2,13 +2,16 @@ package cloud.foundry.cli.services;
 
 import static picocli.CommandLine.Command;
 import static picocli.CommandLine.Mixin;
+import static picocli.CommandLine.Option;
 
 import cloud.foundry.cli.crosscutting.logging.Log;
 import cloud.foundry.cli.crosscutting.mapping.CfOperationsCreator;
 import cloud.foundry.cli.crosscutting.mapping.YamlMapper;
 import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.logic.ApplyLogic;
 import cloud.foundry.cli.logic.DiffLogic;
 import cloud.foundry.cli.logic.GetLogic;
+import cloud.foundry.cli.logic.apply.DeploymentStrategy;
 import cloud.foundry.cli.operations.*;
 import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
 
@@ -35,6 +38,18 @@ public class DiffController implements Callable<Integer> {
     @Mixin
     private YamlCommandOptions yamlCommandOptions;
 
+    @Mixin
+    private TimeoutCommandOptions timeoutOptions;
+
+    @Option(names = { "--explain" }, required = false,
+            description = "Print the operations the apply command would perform and their estimated cost.")
+    private boolean explain;
+
+    @Option(names = { "--strategy" }, required = false, paramLabel = "<strategy>",
+            description = "Strategy to roll out new bits of apps that is assumed for the explanation. Valid values: "
+                    + "${COMPLETION-CANDIDATES}. Defaults to ${DEFAULT-VALUE}.")
+    private DeploymentStrategy deploymentStrategy = DeploymentStrategy.ROLLING;
+
     @Override
     public Integer call() throws IOException {
         ConfigBean desiredConfigBean = YamlMapper.loadBeanFromFile(yamlCommandOptions.getYamlFilePath(),
@@ -47,11 +62,13 @@ public class DiffController implements Callable<Integer> {
         log.debug("Desired config:", desiredConfigBean);
 
         SpaceDevelopersOperations spaceDevelopersOperations = new SpaceDevelopersOperations(cfOperations);
-        ServicesOperations servicesOperations = new ServicesOperations(cfOperations);
-        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperations);
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        ServicesOperations servicesOperations = new ServicesOperations(cfOperations, requestCoalescer);
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperations, true,
+                requestCoalescer);
         TargetOperations targetOperations = new TargetOperations(cfOperations);
 
-        GetLogic getLogic = new GetLogic();
+        GetLogic getLogic = new GetLogic(timeoutOptions.getDeadline());
 
         log.info("Fetching all information for target space");
         ConfigBean currentConfigBean = getLogic.getAll(spaceDevelopersOperations, servicesOperations,
@@ -74,6 +91,16 @@ public class DiffController implements Callable<Integer> {
             System.out.println(output);
         }
 
+        if (explain) {
+            ApplyLogic applyLogic = new ApplyLogic(cfOperations, true, timeoutOptions.getDeadline());
+            applyLogic.setDeploymentStrategy(deploymentStrategy);
+            applyLogic.setCostModel(OperationTimingsFile.load());
+
+            log.info("Planning operations");
+            System.out.println(applyLogic.explain(currentConfigBean, desiredConfigBean));
+            log.verbose("Planning operations completed");
+        }
+
         return 0;
     }
 
@@ -25,16 +25,21 @@ public class GetController implements Callable<Integer> {
     @Mixin
     private static RequiredLoginCommandOptions requiredLoginCommandOptions;
 
+    @Mixin
+    private TimeoutCommandOptions timeoutOptions;
+
     @Override
     public Integer call() {
         DefaultCloudFoundryOperations cfOperations = CfOperationsCreator.createCfOperations(
                 null,
                 requiredLoginCommandOptions);
-        GetLogic getLogic = new GetLogic();
+        GetLogic getLogic = new GetLogic(timeoutOptions.getDeadline());
 
         SpaceDevelopersOperations spaceDevelopersOperations = new SpaceDevelopersOperations(cfOperations);
-        ServicesOperations servicesOperations = new ServicesOperations(cfOperations);
-        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperations);
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        ServicesOperations servicesOperations = new ServicesOperations(cfOperations, requestCoalescer);
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperations, true,
+                requestCoalescer);
         TargetOperations targetOperations = new TargetOperations(cfOperations);
 
         log.info("Fetching all information for target space");
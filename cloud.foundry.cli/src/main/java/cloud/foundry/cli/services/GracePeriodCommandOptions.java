@@ -0,0 +1,41 @@
+package cloud.foundry.cli.services;
+
+import cloud.foundry.cli.crosscutting.concurrency.GracefulShutdown;
+import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.TypeConversionException;
+
+import java.time.Duration;
+
+/**
+ * Options that control the graceful shutdown of commands which change the cf instance.
+ */
+public class GracePeriodCommandOptions {
+
+    @Option(names = { "--grace-period" }, required = false, paramLabel = "<seconds>",
+        converter = GracePeriodConverter.class,
+        description = "On interruption, wait at most the given number of seconds for requests in flight to complete.")
+    Long gracePeriodSeconds;
+
+    /**
+     * @return the grace period according to the option, the default grace period if the option is absent
+     */
+    public Duration getGracePeriod() {
+        if (gracePeriodSeconds == null) {
+            return GracefulShutdown.DEFAULT_GRACE_PERIOD;
+        }
+        return Duration.ofSeconds(gracePeriodSeconds);
+    }
+
+    private static class GracePeriodConverter implements ITypeConverter<Long> {
+
+        @Override
+        public Long convert(String value) {
+            long seconds = Long.parseLong(value);
+            if (seconds < 0) {
+                throw new TypeConversionException("The grace period must not be negative");
+            }
+            return seconds;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package cloud.foundry.cli.services;
+
+import cloud.foundry.cli.crosscutting.logging.Log;
+import cloud.foundry.cli.crosscutting.mapping.YamlMapper;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.operations.TargetOperations;
+import com.google.common.hash.Hashing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Keeps the configuration that has been applied successfully last in the home directory of the user, one file per
+ * target space, so that later runs can compare the live configuration three-way. A missing or unreadable file is not
+ * an error, the live and the desired configuration are then compared two-way.
+ */
+class LastAppliedConfigFile {
+
+    private static final Log log = Log.getLog(LastAppliedConfigFile.class);
+
+    private static final Path DIRECTORY = Paths.get(System.getProperty("user.home"), ".cf-control", "last-applied");
+
+    private LastAppliedConfigFile() {
+    }
+
+    /**
+     * @param targetOperations the operations of the target space
+     * @return the configuration that has been applied to the target space last, null if it is unknown
+     */
+    static ConfigBean load(TargetOperations targetOperations) {
+        Path path = getPath(targetOperations);
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try {
+            return YamlMapper.loadBeanFromFile(path.toString(), ConfigBean.class);
+        } catch (IOException | RuntimeException e) {
+            log.warning("Ignoring the last applied configuration in", path + ":", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores the configuration that has been applied to the target space successfully.
+     * @param targetOperations the operations of the target space
+     * @param appliedConfigBean the applied configuration
+     */
+    static void save(TargetOperations targetOperations, ConfigBean appliedConfigBean) {
+        Path path = getPath(targetOperations);
+        try {
+            Files.createDirectories(path.getParent());
+            Files.write(path, YamlMapper.dump(appliedConfigBean).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warning("Failed to store the applied configuration in", path + ":", e.getMessage());
+        }
+    }
+
+    private static Path getPath(TargetOperations targetOperations) {
+        String target = targetOperations.getApiHost() + "/" + targetOperations.getOrganization() + "/"
+                + targetOperations.getSpace();
+        return DIRECTORY.resolve(Hashing.sha256().hashString(target, StandardCharsets.UTF_8) + ".yml");
+    }
+
+}
@@ -0,0 +1,75 @@
+package cloud.foundry.cli.services;
+
+import cloud.foundry.cli.crosscutting.logging.Log;
+import cloud.foundry.cli.crosscutting.mapping.YamlMapper;
+import cloud.foundry.cli.crosscutting.mapping.beans.OperationTimingsBean;
+import cloud.foundry.cli.logic.apply.ApplyCostModel;
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the durations of the operations of previous apply runs in the home directory of the user, so that the cost
+ * of the operations of later runs can be estimated by them. A missing or unreadable file is not an error, the cost
+ * model then falls back to its default durations.
+ */
+class OperationTimingsFile {
+
+    private static final Log log = Log.getLog(OperationTimingsFile.class);
+
+    private static final Path PATH = Paths.get(System.getProperty("user.home"), ".cf-control", "timings.yml");
+
+    private OperationTimingsFile() {
+    }
+
+    /**
+     * @return a cost model holding the durations recorded in the file
+     */
+    static ApplyCostModel load() {
+        if (!Files.exists(PATH)) {
+            return new ApplyCostModel();
+        }
+
+        Map<Type, Duration> recordedDurations = new EnumMap<>(Type.class);
+        try {
+            OperationTimingsBean timings = YamlMapper.loadBeanFromFile(PATH.toString(), OperationTimingsBean.class);
+            if (timings != null && timings.getAverageDurations() != null) {
+                for (Map.Entry<String, Long> entry : timings.getAverageDurations().entrySet()) {
+                    recordedDurations.put(Type.valueOf(entry.getKey()), Duration.ofMillis(entry.getValue()));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warning("Ignoring the durations of previous runs in", PATH + ":", e.getMessage());
+            return new ApplyCostModel();
+        }
+        return new ApplyCostModel(recordedDurations);
+    }
+
+    /**
+     * Stores the durations recorded by the cost model in the file.
+     * @param costModel the cost model
+     */
+    static void save(ApplyCostModel costModel) {
+        Map<String, Long> averageDurations = new TreeMap<>();
+        for (Map.Entry<Type, Duration> entry : costModel.getRecordedDurations().entrySet()) {
+            averageDurations.put(entry.getKey().name(), entry.getValue().toMillis());
+        }
+
+        try {
+            Files.createDirectories(PATH.getParent());
+            Files.write(PATH, YamlMapper.dump(new OperationTimingsBean(averageDurations))
+                    .getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warning("Failed to store the durations of the operations in", PATH + ":", e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package cloud.foundry.cli.services;
+
+import static picocli.CommandLine.Command;
+import static picocli.CommandLine.Mixin;
+import static picocli.CommandLine.Option;
+
+import cloud.foundry.cli.crosscutting.logging.Log;
+import cloud.foundry.cli.crosscutting.mapping.CfOperationsCreator;
+import cloud.foundry.cli.crosscutting.mapping.YamlMapper;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.PlanBean;
+import cloud.foundry.cli.logic.ApplyLogic;
+import cloud.foundry.cli.logic.apply.ApplySelection;
+import cloud.foundry.cli.logic.apply.DeploymentStrategy;
+import cloud.foundry.cli.operations.TargetOperations;
+import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * This class realizes the functionality that is needed for the plan command. It determines the operations that
+ * would apply a provided configuration file to a cloud foundry instance, without performing them. The resulting plan
+ * can be applied later on by the apply command.
+ */
+@Command(name = "plan",
+        header = "%n@|green Plan the application of the configuration from a given yaml file to your cf instance "
+                + "and print the plan to the console.|@",
+        mixinStandardHelpOptions = true)
+public class PlanController implements Callable<Integer> {
+
+    private static final Log log = Log.getLog(PlanController.class);
+
+    @Mixin
+    private OptionalLoginCommandOptions loginOptions;
+
+    @Mixin
+    private YamlCommandOptions yamlCommandOptions;
+
+    @Mixin
+    private TimeoutCommandOptions timeoutOptions;
+
+    @Mixin
+    private WavesCommandOptions wavesOptions;
+
+    @Mixin
+    private SelectionCommandOptions selectionOptions;
+
+    @Option(names = { "--strategy" }, required = false, paramLabel = "<strategy>",
+            description = "Strategy to roll out new bits of apps. Valid values: ${COMPLETION-CANDIDATES}. "
+                    + "Defaults to ${DEFAULT-VALUE}.")
+    private DeploymentStrategy deploymentStrategy = DeploymentStrategy.ROLLING;
+
+    @Override
+    public Integer call() throws IOException {
+        log.info("Interpreting YAML file");
+        ConfigBean desiredConfigBean = YamlMapper.loadBeanFromFile(yamlCommandOptions.getYamlFilePath(),
+                ConfigBean.class);
+        log.verbose("Interpreting YAML file completed");
+
+        DefaultCloudFoundryOperations cfOperations = CfOperationsCreator.createCfOperations(
+                                                            desiredConfigBean.getTarget(),
+                                                            loginOptions);
+
+        ApplyLogic applyLogic = new ApplyLogic(cfOperations, true, timeoutOptions.getDeadline());
+        log.verbose("Deployment strategy:", deploymentStrategy);
+        applyLogic.setDeploymentStrategy(deploymentStrategy);
+        log.verbose("Waves:", wavesOptions.getWaves());
+        applyLogic.setWaves(wavesOptions.getWaves());
+        ApplySelection selection = selectionOptions.getSelection();
+        log.verbose("Selected resources:", selection.isAll() ? "all" : selection);
+        applyLogic.setSelection(selection);
+        applyLogic.setCostModel(OperationTimingsFile.load());
+        applyLogic.setLastAppliedConfig(LastAppliedConfigFile.load(new TargetOperations(cfOperations)));
+
+        log.info("Plan process started");
+        PlanBean plan = applyLogic.plan(desiredConfigBean);
+        log.info("Plan process completed");
+
+        System.out.println(YamlMapper.dump(plan));
+        return 0;
+    }
+}
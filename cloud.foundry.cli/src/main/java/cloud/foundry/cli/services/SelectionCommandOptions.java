@@ -0,0 +1,35 @@
+package cloud.foundry.cli.services;
+
+import cloud.foundry.cli.logic.apply.ApplySelection;
+import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.Option;
+
+/**
+ * Options that limit the apply process to some of the apps and services instead of the whole space.
+ */
+public class SelectionCommandOptions {
+
+    @Option(names = { "--only" }, required = false, paramLabel = "<resources>", converter = SelectionConverter.class,
+        description = "Limit the process to the given comma-separated apps and services, e.g. "
+                + "apps/billing,services/billing-*. Names may contain the wildcards * and ?. Other resources are "
+                + "neither fetched nor compared nor removed.")
+    ApplySelection selection;
+
+    /**
+     * @return the selection according to the option, all resources if the option is absent
+     */
+    public ApplySelection getSelection() {
+        if (selection == null) {
+            return ApplySelection.all();
+        }
+        return selection;
+    }
+
+    private static class SelectionConverter implements ITypeConverter<ApplySelection> {
+
+        @Override
+        public ApplySelection convert(String value) {
+            return ApplySelection.parse(value);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package cloud.foundry.cli.services;
+
+import cloud.foundry.cli.crosscutting.concurrency.Deadline;
+import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.TypeConversionException;
+
+import java.time.Duration;
+
+/**
+ * Options that bound the duration of commands which communicate with the cf instance.
+ */
+public class TimeoutCommandOptions {
+
+    @Option(names = { "--timeout" }, required = false, paramLabel = "<seconds>", converter = TimeoutConverter.class,
+        description = "Abort the command if it does not complete within the given number of seconds.")
+    Long timeoutSeconds;
+
+    /**
+     * @return a deadline according to the timeout option, a deadline that is never reached if the option is absent
+     */
+    public Deadline getDeadline() {
+        if (timeoutSeconds == null) {
+            return Deadline.none();
+        }
+        return Deadline.after(Duration.ofSeconds(timeoutSeconds));
+    }
+
+    private static class TimeoutConverter implements ITypeConverter<Long> {
+
+        @Override
+        public Long convert(String value) {
+            long seconds = Long.parseLong(value);
+            if (seconds <= 0) {
+                throw new TypeConversionException("The timeout must be a positive number of seconds");
+            }
+            return seconds;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package cloud.foundry.cli.services;
+
+import cloud.foundry.cli.logic.apply.ApplyWaves;
+import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.Option;
+
+/**
+ * Options that roll out the applications in waves instead of all at once.
+ */
+public class WavesCommandOptions {
+
+    @Option(names = { "--waves" }, required = false, paramLabel = "<sizes>", converter = WavesConverter.class,
+        description = "Roll out the apps in waves of the given comma-separated sizes, e.g. 1,10% for a single app, "
+                + "then ten percent of the apps and then the rest. Each wave waits until the apps of the previous "
+                + "wave are running, a failure aborts the remaining waves.")
+    ApplyWaves waves;
+
+    /**
+     * @return the waves according to the option, a single wave if the option is absent
+     */
+    public ApplyWaves getWaves() {
+        if (waves == null) {
+            return ApplyWaves.none();
+        }
+        return waves;
+    }
+
+    private static class WavesConverter implements ITypeConverter<ApplyWaves> {
+
+        @Override
+        public ApplyWaves convert(String value) {
+            return ApplyWaves.parse(value);
+        }
+    }
+}
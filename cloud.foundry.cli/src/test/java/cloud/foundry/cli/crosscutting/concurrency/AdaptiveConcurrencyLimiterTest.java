@@ -0,0 +1,142 @@
+package cloud.foundry.cli.crosscutting.concurrency;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test for {@link AdaptiveConcurrencyLimiter}
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void testSuccessfulRequestsIncreaseLimit() {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 2, 10, clock::get);
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            runRound(limiter, clock, limiter.getLimit());
+        }
+
+        // then
+        assertThat(limiter.getLimit(), is(4));
+    }
+
+    @Test
+    public void testLimitDoesNotExceedMaximum() {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 2, 3, clock::get);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            runRound(limiter, clock, limiter.getLimit());
+        }
+
+        // then
+        assertThat(limiter.getLimit(), is(3));
+    }
+
+    @Test
+    public void testIdleLimitDoesNotIncrease() {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 8, 10, clock::get);
+
+        // when
+        for (int i = 0; i < 20; i++) {
+            limiter.limit(Mono.just("result")).block();
+        }
+
+        // then
+        assertThat(limiter.getLimit(), is(8));
+    }
+
+    @Test
+    public void testFailedRequestHalvesLimitOncePerCongestion() {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 8, 10, clock::get);
+        List<MonoProcessor<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            MonoProcessor<String> response = MonoProcessor.create();
+            limiter.limit(response).onErrorResume(throwable -> Mono.empty()).subscribe();
+            responses.add(response);
+        }
+        clock.addAndGet(10);
+
+        // when
+        // all requests were in flight when the first one failed, so only the first failure counts
+        responses.forEach(response -> response.onError(new IllegalStateException()));
+
+        // then
+        assertThat(limiter.getLimit(), is(4));
+    }
+
+    @Test
+    public void testSlowRequestDecreasesLimit() {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 8, 10, clock::get);
+        runSingleRequest(limiter, clock, 10);
+
+        // when
+        runSingleRequest(limiter, clock, 100);
+
+        // then
+        assertThat(limiter.getLimit(), is(4));
+    }
+
+    @Test
+    public void testLimitDoesNotFallBelowMinimum() {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 4, 10, clock::get);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            clock.incrementAndGet();
+            assertThrows(IllegalStateException.class,
+                    () -> limiter.limit(Mono.error(new IllegalStateException())).block());
+        }
+
+        // then
+        assertThat(limiter.getLimit(), is(2));
+    }
+
+    @Test
+    public void testConstructorWithUnorderedBoundsThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter("test", 4, 2, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter("test", 1, 12, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter("test", 0, 2, 10));
+    }
+
+    // runs as many concurrent requests as given, all of them complete after the same latency
+    private void runRound(ConcurrencyLimiter limiter, AtomicLong clock, int requests) {
+        List<MonoProcessor<String>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            MonoProcessor<String> response = MonoProcessor.create();
+            limiter.limit(response).subscribe();
+            responses.add(response);
+        }
+        clock.addAndGet(10);
+        responses.forEach(response -> response.onNext("result"));
+    }
+
+    private void runSingleRequest(ConcurrencyLimiter limiter, AtomicLong clock, long latency) {
+        MonoProcessor<String> response = MonoProcessor.create();
+        limiter.limit(response).subscribe();
+        clock.addAndGet(latency);
+        response.onNext("result");
+    }
+}
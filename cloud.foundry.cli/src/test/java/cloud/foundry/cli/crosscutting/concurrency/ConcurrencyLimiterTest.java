@@ -0,0 +1,167 @@
+package cloud.foundry.cli.crosscutting.concurrency;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test for {@link ConcurrencyLimiter}
+ */
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void testLimitDelaysRequestsExceedingTheLimit() {
+        // given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1);
+        MonoProcessor<String> firstResponse = MonoProcessor.create();
+        AtomicBoolean secondSubscribed = new AtomicBoolean(false);
+        Mono<String> secondRequest = Mono.just("second").doOnSubscribe(subscription -> secondSubscribed.set(true));
+
+        // when
+        limiter.limit(firstResponse).subscribe();
+        limiter.limit(secondRequest).subscribe();
+
+        // then
+        assertThat(secondSubscribed.get(), is(false));
+        assertThat(limiter.getInFlight(), is(1));
+        assertThat(limiter.getWaiting(), is(1));
+
+        firstResponse.onNext("first");
+
+        assertThat(secondSubscribed.get(), is(true));
+        assertThat(limiter.getInFlight(), is(0));
+        assertThat(limiter.getWaiting(), is(0));
+    }
+
+    @Test
+    public void testLimitReleasesPermitOnError() {
+        // given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1);
+
+        // when
+        assertThrows(IllegalStateException.class,
+                () -> limiter.limit(Mono.error(new IllegalStateException())).block());
+        String result = limiter.limit(Mono.just("result")).block();
+
+        // then
+        assertThat(result, is("result"));
+        assertThat(limiter.getInFlight(), is(0));
+    }
+
+    @Test
+    public void testLimitReleasesPermitOnCancel() {
+        // given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1);
+        Disposable runningRequest = limiter.limit(Mono.never()).subscribe();
+        Disposable waitingRequest = limiter.limit(Mono.never()).subscribe();
+
+        // when
+        waitingRequest.dispose();
+        runningRequest.dispose();
+
+        // then
+        assertThat(limiter.getInFlight(), is(0));
+        assertThat(limiter.getWaiting(), is(0));
+    }
+
+    @Test
+    public void testLimitDoesNotAdjustLimitOnCancel() {
+        // given
+        AtomicInteger adjustments = new AtomicInteger(0);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1) {
+            @Override
+            protected int adjustLimit(int currentLimit, long latency, boolean success, long acquiredAt) {
+                adjustments.incrementAndGet();
+                return currentLimit + 1;
+            }
+        };
+        Disposable runningMonoRequest = limiter.limit(Mono.never()).subscribe();
+        Disposable waitingFluxRequest = limiter.limit(Flux.never()).subscribe();
+
+        // when
+        runningMonoRequest.dispose();
+        waitingFluxRequest.dispose();
+
+        // then
+        assertThat(adjustments.get(), is(0));
+        assertThat(limiter.getLimit(), is(1));
+        assertThat(limiter.getInFlight(), is(0));
+    }
+
+    @Test
+    public void testLimitOnFluxKeepsPermitUntilCompletion() {
+        // given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 2);
+
+        // when
+        List<String> results = Flux.merge(
+                limiter.limit(Flux.just("a", "b")),
+                limiter.limit(Flux.just("c")),
+                limiter.limit(Flux.just("d")))
+                .collectList()
+                .block();
+
+        // then
+        assertThat(results, contains("a", "b", "c", "d"));
+        assertThat(limiter.getInFlight(), is(0));
+    }
+
+    @Test
+    public void testLimitGrantsPermitsToHigherPrioritiesFirst() {
+        // given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1);
+        MonoProcessor<String> runningResponse = MonoProcessor.create();
+        List<String> subscriptionOrder = new LinkedList<>();
+
+        limiter.limit(runningResponse).subscribe();
+        for (String name : Arrays.asList("batch-1", "critical", "batch-2")) {
+            Flux<String> request = limiter.limit(Flux.just(name)
+                    .doOnSubscribe(subscription -> subscriptionOrder.add(name)));
+            ConcurrencyLimiter.withPriority(request, name.equals("critical") ? 10 : 0).subscribe();
+        }
+
+        // when
+        runningResponse.onNext("running");
+
+        // then
+        assertThat(subscriptionOrder, contains("critical", "batch-1", "batch-2"));
+    }
+
+    @Test
+    public void testUnlimitedNeverDelaysRequests() {
+        // given
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.unlimited("test");
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            limiter.limit(Mono.never()).subscribe();
+        }
+
+        // then
+        assertThat(limiter.getInFlight(), is(100));
+        assertThat(limiter.getWaiting(), is(0));
+    }
+
+    @Test
+    public void testConstructorWithInvalidLimitThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter("test", 0));
+    }
+
+    @Test
+    public void testConstructorWithNullNameThrowsException() {
+        assertThrows(NullPointerException.class, () -> new ConcurrencyLimiter(null, 1));
+    }
+}
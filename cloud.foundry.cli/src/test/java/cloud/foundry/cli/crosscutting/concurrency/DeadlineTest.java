@@ -0,0 +1,115 @@
+package cloud.foundry.cli.crosscutting.concurrency;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test for {@link Deadline}
+ */
+public class DeadlineTest {
+
+    @Test
+    public void testLimitPassesResultThrough() {
+        // given
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+
+        // when
+        Mono<String> request = deadline.limit(Mono.just("result"), Duration.ofMinutes(1));
+
+        // then
+        StepVerifier.create(request)
+                .expectNext("result")
+                .verifyComplete();
+    }
+
+    @Test
+    public void testLimitFailsWhenOperationTimeoutElapses() {
+        // given
+        Deadline deadline = Deadline.none();
+
+        // when
+        Mono<String> request = deadline.limit(Mono.never(), Duration.ofMillis(50));
+
+        // then
+        StepVerifier.create(request)
+                .expectErrorMatches(throwable -> throwable instanceof TimeoutException
+                        && throwable.getMessage().startsWith("Operation did not complete"))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testLimitFailsWhenDeadlineIsReachedBeforeOperationTimeout() {
+        // given
+        Deadline deadline = Deadline.after(Duration.ofMillis(50));
+
+        // when
+        Flux<String> request = deadline.limit(Flux.never(), Duration.ofHours(1));
+
+        // then
+        StepVerifier.create(request)
+                .expectErrorMatches(throwable -> throwable instanceof TimeoutException
+                        && throwable.getMessage().startsWith("Deadline of"))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testLimitOnExpiredDeadlineFailsRightAway() {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        Deadline deadline = Deadline.after(Duration.ofSeconds(10), clock::get);
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        // when
+        Mono<String> request = deadline.limit(Mono.never(), Duration.ofHours(1));
+
+        // then
+        assertThat(deadline.isExpired(), is(true));
+        assertThat(deadline.getRemaining(), is(Duration.ZERO));
+        StepVerifier.create(request)
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testLimitWholeFluxFailsWhenDeadlineIsReached() {
+        // given
+        Deadline deadline = Deadline.after(Duration.ofMillis(100));
+
+        // when
+        // every single result arrives in time, the flux as a whole does not
+        Flux<Long> request = deadline.limit(Flux.interval(Duration.ofMillis(30)));
+
+        // then
+        StepVerifier.create(request)
+                .thenConsumeWhile(result -> true)
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testNoneIsNeverReached() {
+        // given
+        Deadline deadline = Deadline.none();
+
+        // then
+        assertThat(deadline.isExpired(), is(false));
+        assertThat(deadline.getRemaining(), is(nullValue()));
+    }
+
+    @Test
+    public void testAfterWithNonPositiveTimeoutThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> Deadline.after(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> Deadline.after(Duration.ofSeconds(-1)));
+    }
+}
@@ -0,0 +1,147 @@
+package cloud.foundry.cli.crosscutting.concurrency;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test for {@link GracefulShutdown}
+ */
+public class GracefulShutdownTest {
+
+    @Test
+    public void testTrackRecordsOutcomes() {
+        // given
+        GracefulShutdown gracefulShutdown = new GracefulShutdown(Duration.ZERO);
+
+        // when
+        gracefulShutdown.track("first", Flux.empty()).blockLast();
+        assertThrows(IllegalStateException.class,
+                () -> gracefulShutdown.track("second", Flux.error(new IllegalStateException())).blockLast());
+
+        // then
+        assertThat(gracefulShutdown.getCompleted(), contains("first"));
+        assertThat(gracefulShutdown.getFailed(), contains("second"));
+        assertThat(gracefulShutdown.getInFlight(), is(empty()));
+    }
+
+    @Test
+    public void testTrackAfterShutdownDoesNotStartRequest() {
+        // given
+        GracefulShutdown gracefulShutdown = new GracefulShutdown(Duration.ZERO);
+        AtomicBoolean subscribed = new AtomicBoolean(false);
+        gracefulShutdown.shutDown();
+
+        // when
+        Flux<Object> request = gracefulShutdown.track("request",
+                Flux.empty().doOnSubscribe(subscription -> subscribed.set(true)));
+
+        // then
+        assertThrows(CancellationException.class, request::blockLast);
+        assertThat(subscribed.get(), is(false));
+        assertThat(gracefulShutdown.getSkipped(), contains("request"));
+    }
+
+    @Test
+    public void testTrackQueuedDoesNotStartRequestThatGetsItsPermitAfterShutdown() {
+        // given
+        GracefulShutdown gracefulShutdown = new GracefulShutdown(Duration.ofSeconds(10));
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1);
+        AtomicBoolean subscribed = new AtomicBoolean(false);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Disposable blockingRequest = limiter.limit(Mono.never()).subscribe();
+        gracefulShutdown.trackQueued("queued", limiter.limit(GracefulShutdown.admit(Mono.empty()
+                .doOnSubscribe(subscription -> subscribed.set(true)))).flux())
+                .subscribe(result -> { }, throwable -> cancelled.set(throwable instanceof CancellationException));
+        assertThat(gracefulShutdown.getQueued(), contains("queued"));
+        assertThat(gracefulShutdown.getInFlight(), is(empty()));
+
+        // when
+        gracefulShutdown.shutDown();
+        blockingRequest.dispose();
+
+        // then
+        assertThat(subscribed.get(), is(false));
+        assertThat(cancelled.get(), is(true));
+        assertThat(gracefulShutdown.getSkipped(), contains("queued"));
+        assertThat(gracefulShutdown.getInFlight(), is(empty()));
+    }
+
+    @Test
+    public void testTrackQueuedRequestIsInFlightOnceAdmitted() {
+        // given
+        GracefulShutdown gracefulShutdown = new GracefulShutdown(Duration.ZERO);
+
+        // when
+        gracefulShutdown.trackQueued("request", GracefulShutdown.admit(Flux.never())).subscribe();
+
+        // then
+        assertThat(gracefulShutdown.getQueued(), is(empty()));
+        assertThat(gracefulShutdown.getInFlight(), contains("request"));
+    }
+
+    @Test
+    public void testTrackQueuedNotifiesOnceRequestGetsItsPermit() {
+        // given
+        GracefulShutdown gracefulShutdown = new GracefulShutdown(Duration.ZERO);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1);
+        AtomicInteger admissions = new AtomicInteger(0);
+        Disposable blockingRequest = limiter.limit(Mono.never()).subscribe();
+        gracefulShutdown.trackQueued("queued", limiter.limit(GracefulShutdown.admit(Mono.never())).flux(),
+                admissions::incrementAndGet).subscribe();
+        assertThat(admissions.get(), is(0));
+
+        // when
+        blockingRequest.dispose();
+
+        // then
+        assertThat(admissions.get(), is(1));
+        assertThat(gracefulShutdown.getInFlight(), contains("queued"));
+    }
+
+    @Test
+    public void testShutDownWaitsForRequestsInFlight() {
+        // given
+        GracefulShutdown gracefulShutdown = new GracefulShutdown(Duration.ofSeconds(10));
+        gracefulShutdown.track("request", Mono.delay(Duration.ofMillis(100)).flux()).subscribe();
+
+        // when
+        gracefulShutdown.shutDown();
+
+        // then
+        assertThat(gracefulShutdown.isShuttingDown(), is(true));
+        assertThat(gracefulShutdown.getCompleted(), contains("request"));
+        assertThat(gracefulShutdown.getInFlight(), is(empty()));
+    }
+
+    @Test
+    public void testShutDownGivesUpAfterGracePeriod() {
+        // given
+        GracefulShutdown gracefulShutdown = new GracefulShutdown(Duration.ofMillis(50));
+        gracefulShutdown.track("request", Flux.never()).subscribe();
+
+        // when
+        gracefulShutdown.shutDown();
+
+        // then
+        assertThat(gracefulShutdown.getInFlight(), contains("request"));
+        assertThat(gracefulShutdown.getCompleted(), is(empty()));
+    }
+
+    @Test
+    public void testConstructorWithNegativeGracePeriodThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new GracefulShutdown(Duration.ofSeconds(-1)));
+    }
+}
@@ -2,6 +2,13 @@ package cloud.foundry.cli.logic;
 
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -9,15 +16,33 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 
+import cloud.foundry.cli.crosscutting.exceptions.ApplyException;
+import cloud.foundry.cli.crosscutting.mapping.YamlMapper;
 import cloud.foundry.cli.crosscutting.mapping.beans.*;
+import cloud.foundry.cli.logic.apply.ApplyJournal;
+import cloud.foundry.cli.logic.apply.ApplyOperation;
+import cloud.foundry.cli.logic.apply.ApplySelection;
+import cloud.foundry.cli.logic.apply.ApplyWaves;
+import cloud.foundry.cli.logic.apply.DeploymentStrategy;
+import cloud.foundry.cli.logic.apply.LiveStateFingerprint;
 
 import cloud.foundry.cli.operations.*;
 
 import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
+import org.cloudfoundry.operations.applications.ApplicationHealthCheck;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.publisher.PublisherProbe;
+import reactor.util.function.Tuples;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Test for {@link ApplyLogic}
@@ -207,5 +232,732 @@ public class ApplyLogicTest {
         verify(servicesOperations, times(1)).create(eq("service"), any(ServiceBean.class));
     }
 
+    @Test
+    public void testPlanRecordsOperationsWithoutApplyingThem() {
+        // given
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.setTarget(new TargetBean());
+
+        GetLogic getLogicMock = mock(GetLogic.class);
+        when(getLogicMock.getAll(any(), any(), any(), any())).thenReturn(liveConfigBean);
+
+        PublisherProbe<Void> assignProbe = PublisherProbe.empty();
+        PublisherProbe<Void> createApplicationProbe = PublisherProbe.empty();
+        PublisherProbe<Void> createServiceProbe = PublisherProbe.empty();
+
+        SpaceDevelopersOperations spaceDevelopersOperations = mock(SpaceDevelopersOperations.class);
+        when(spaceDevelopersOperations.getAll()).thenReturn(Mono.just(Collections.emptyList()));
+        when(spaceDevelopersOperations.getSpaceId()).thenReturn(Mono.just("spaceId"));
+        when(spaceDevelopersOperations.assign(anyString(), anyString())).thenReturn(assignProbe.mono());
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+        when(applicationsOperations.create(anyString(), any())).thenReturn(createApplicationProbe.mono());
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+        when(servicesOperations.create(anyString(), any())).thenReturn(createServiceProbe.mono());
+
+        ApplyLogic applyLogic = createApplyLogic(getLogicMock, spaceDevelopersOperations, applicationsOperations,
+                servicesOperations);
+
+        // when
+        PlanBean plan = applyLogic.plan(createDesiredConfigBean());
+
+        // then
+        assertThat(plan.getFingerprint(), is(LiveStateFingerprint.create(Collections.emptyList(),
+                Collections.emptyMap(), Collections.emptyMap())));
+        assertThat(plan.getDeploymentStrategy(), is("ROLLING"));
+        assertThat(plan.getLive(), is(liveConfigBean));
+        assertThat(plan.getOperations().keySet(), contains("assign space developer spaceDeveloper1",
+                "create service service", "create application app"));
+        assertThat(plan.getOperations().get("create application app"), contains("create service service"));
+        assignProbe.assertWasNotSubscribed();
+        createApplicationProbe.assertWasNotSubscribed();
+        createServiceProbe.assertWasNotSubscribed();
+    }
+
+    @Test
+    public void testApplyPlanWithoutFetchingLiveConfiguration() {
+        // given
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.setTarget(new TargetBean());
+
+        GetLogic getLogicMock = mock(GetLogic.class);
+        when(getLogicMock.getAll(any(), any(), any(), any())).thenReturn(liveConfigBean);
+
+        PublisherProbe<Void> assignProbe = PublisherProbe.empty();
+        PublisherProbe<Void> createApplicationProbe = PublisherProbe.empty();
+        PublisherProbe<Void> createServiceProbe = PublisherProbe.empty();
+
+        SpaceDevelopersOperations spaceDevelopersOperations = mock(SpaceDevelopersOperations.class);
+        when(spaceDevelopersOperations.getAll()).thenReturn(Mono.just(Collections.emptyList()));
+        when(spaceDevelopersOperations.getSpaceId()).thenReturn(Mono.just("spaceId"));
+        when(spaceDevelopersOperations.assign(anyString(), anyString())).thenReturn(assignProbe.mono());
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+        when(applicationsOperations.create(anyString(), any())).thenReturn(createApplicationProbe.mono());
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+        when(servicesOperations.create(anyString(), any())).thenReturn(createServiceProbe.mono());
+
+        ApplyLogic applyLogic = createApplyLogic(getLogicMock, spaceDevelopersOperations, applicationsOperations,
+                servicesOperations);
+        // the plan is stored in a file in between
+        PlanBean plan = YamlMapper.loadBeanFromString(YamlMapper.dump(applyLogic.plan(createDesiredConfigBean())),
+                PlanBean.class);
+
+        // when
+        applyLogic.applyPlan(plan);
+
+        // then
+        // only the plan process fetches the live configuration
+        verify(getLogicMock, times(1)).getAll(any(), any(), any(), any());
+        verify(spaceDevelopersOperations, atLeastOnce()).assign("spaceDeveloper1", "spaceId");
+        verify(applicationsOperations, atLeastOnce()).create(eq("app"), any(ApplicationBean.class));
+        verify(servicesOperations, atLeastOnce()).create(eq("service"), any(ServiceBean.class));
+        assertThat(assignProbe.subscribeCount(), is(1L));
+        assertThat(createApplicationProbe.subscribeCount(), is(1L));
+        assertThat(createServiceProbe.subscribeCount(), is(1L));
+    }
+
+    @Test
+    public void testPlanAndApplyPlanWithSelectionOnlyCoverSelectedResources() {
+        // given
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.getSpec().setApps(singletonMap("other-app", new ApplicationBean()));
+        liveConfigBean.setTarget(new TargetBean());
+
+        GetLogic getLogicMock = mock(GetLogic.class);
+        when(getLogicMock.getSelected(any(), any(), any(), any(), any())).thenReturn(liveConfigBean);
+
+        PublisherProbe<Void> createApplicationProbe = PublisherProbe.empty();
+
+        SpaceDevelopersOperations spaceDevelopersOperations = mock(SpaceDevelopersOperations.class);
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        // the app that is not selected changes between planning and applying
+        when(applicationsOperations.getSummaries()).thenReturn(
+                Mono.just(singletonMap("other-app", "instances=1")),
+                Mono.just(singletonMap("other-app", "instances=2")));
+        when(applicationsOperations.create(anyString(), any())).thenReturn(createApplicationProbe.mono());
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+
+        ApplyLogic applyLogic = createApplyLogic(getLogicMock, spaceDevelopersOperations, applicationsOperations,
+                servicesOperations);
+        applyLogic.setSelection(ApplySelection.parse("apps/app"));
+
+        // when
+        PlanBean plan = YamlMapper.loadBeanFromString(YamlMapper.dump(applyLogic.plan(createDesiredConfigBean())),
+                PlanBean.class);
+        createApplyLogic(getLogicMock, spaceDevelopersOperations, applicationsOperations, servicesOperations)
+                .applyPlan(plan);
+
+        // then
+        assertThat(plan.getOnly(), is("apps/app"));
+        // neither the service nor the space developer are selected, the other app is not removed
+        assertThat(plan.getOperations().keySet(), contains("create application app"));
+        verify(getLogicMock, never()).getAll(any(), any(), any(), any());
+        verify(spaceDevelopersOperations, never()).getAll();
+        verify(applicationsOperations, never()).remove(anyString());
+        assertThat(createApplicationProbe.subscribeCount(), is(1L));
+    }
+
+    @Test
+    public void testPlanWithSelectionOfRenamedApplicationRenamesItInsteadOfCreatingItAgain() {
+        // given
+        ApplicationBean liveApplicationBean = new ApplicationBean();
+        liveApplicationBean.setPath("some/path");
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.getSpec().setApps(singletonMap("app", liveApplicationBean));
+        liveConfigBean.setTarget(new TargetBean());
+
+        GetLogic getLogicMock = mock(GetLogic.class);
+        when(getLogicMock.getSelected(any(), any(), any(), any(), any())).thenReturn(liveConfigBean);
+
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.getSummaries()).thenReturn(Mono.just(singletonMap("app", "instances=1")));
+        when(applicationsOperations.rename(anyString(), anyString())).thenReturn(Mono.empty());
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+
+        ApplicationBean desiredApplicationBean = new ApplicationBean();
+        desiredApplicationBean.setPath("some/path");
+        desiredApplicationBean.setPreviousName("app");
+        ConfigBean desiredConfigBean = createDesiredConfigBean();
+        desiredConfigBean.getSpec().setApps(singletonMap("renamed-app", desiredApplicationBean));
+
+        ApplyLogic applyLogic = createApplyLogic(getLogicMock, mock(SpaceDevelopersOperations.class),
+                applicationsOperations, servicesOperations);
+        applyLogic.setSelection(ApplySelection.parse("apps/renamed-app"));
+
+        // when
+        PlanBean plan = applyLogic.plan(desiredConfigBean);
+
+        // then
+        assertThat(plan.getOnly(), is("apps/renamed-app"));
+        assertThat(plan.getOperations().keySet(), contains("rename application app to renamed-app"));
+        // the app is fetched by its previous name as well
+        verify(getLogicMock).getSelected(any(), any(), any(), any(),
+                argThat(selection -> selection.includesApplication("app")
+                        && selection.includesApplication("renamed-app")));
+        verify(applicationsOperations, never()).create(anyString(), any());
+    }
+
+    @Test
+    public void testApplyPlanFailsIfLiveStateHasChanged() {
+        // given
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.setTarget(new TargetBean());
+
+        GetLogic getLogicMock = mock(GetLogic.class);
+        when(getLogicMock.getAll(any(), any(), any(), any())).thenReturn(liveConfigBean);
+
+        PublisherProbe<Void> assignProbe = PublisherProbe.empty();
+        PublisherProbe<Void> createApplicationProbe = PublisherProbe.empty();
+        PublisherProbe<Void> createServiceProbe = PublisherProbe.empty();
+
+        SpaceDevelopersOperations spaceDevelopersOperations = mock(SpaceDevelopersOperations.class);
+        when(spaceDevelopersOperations.getAll()).thenReturn(Mono.just(Collections.emptyList()));
+        when(spaceDevelopersOperations.getSpaceId()).thenReturn(Mono.just("spaceId"));
+        when(spaceDevelopersOperations.assign(anyString(), anyString())).thenReturn(assignProbe.mono());
+        // another application appears between planning and applying
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.getSummaries())
+                .thenReturn(Mono.just(Collections.emptyMap()))
+                .thenReturn(Mono.just(singletonMap("otherApp", "id=otherAppId state=STARTED")));
+        when(applicationsOperations.create(anyString(), any())).thenReturn(createApplicationProbe.mono());
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+        when(servicesOperations.create(anyString(), any())).thenReturn(createServiceProbe.mono());
+
+        ApplyLogic applyLogic = createApplyLogic(getLogicMock, spaceDevelopersOperations, applicationsOperations,
+                servicesOperations);
+        PlanBean plan = applyLogic.plan(createDesiredConfigBean());
+
+        // when
+        ApplyException exception = assertThrows(ApplyException.class, () -> applyLogic.applyPlan(plan));
+
+        // then
+        assertThat(exception.getMessage(), containsString("has changed since the plan was created"));
+        verify(getLogicMock, times(1)).getAll(any(), any(), any(), any());
+        assignProbe.assertWasNotSubscribed();
+        createApplicationProbe.assertWasNotSubscribed();
+        createServiceProbe.assertWasNotSubscribed();
+    }
+
+    @Test
+    public void testApplyPlanFailsIfChangedServiceHasChangedBeyondItsSummary() {
+        // given
+        ServiceBean liveServiceBean = new ServiceBean();
+        liveServiceBean.setService("sqlservice");
+        liveServiceBean.setPlan("small");
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.getSpec().setServices(singletonMap("service", liveServiceBean));
+        liveConfigBean.setTarget(new TargetBean());
+
+        // the tags of the service change between planning and applying, which its summary does not cover
+        ServiceBean changedServiceBean = new ServiceBean();
+        changedServiceBean.setService("sqlservice");
+        changedServiceBean.setPlan("small");
+        changedServiceBean.setTags(singletonList("tag"));
+        ConfigBean changedConfigBean = new ConfigBean();
+        changedConfigBean.setSpec(new SpecBean());
+        changedConfigBean.getSpec().setServices(singletonMap("service", changedServiceBean));
+
+        GetLogic getLogicMock = mock(GetLogic.class);
+        when(getLogicMock.getSelected(any(), any(), any(), any(), any()))
+                .thenReturn(liveConfigBean)
+                .thenReturn(changedConfigBean);
+
+        PublisherProbe<Void> updateServiceProbe = PublisherProbe.empty();
+
+        SpaceDevelopersOperations spaceDevelopersOperations = mock(SpaceDevelopersOperations.class);
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.getSummaries()).thenReturn(Mono.just(singletonMap("service", "plan=small")));
+        when(servicesOperations.updateInstance(anyString(), any(), any(), any()))
+                .thenReturn(updateServiceProbe.mono());
+
+        ServiceBean desiredServiceBean = new ServiceBean();
+        desiredServiceBean.setService("sqlservice");
+        desiredServiceBean.setPlan("large");
+        ConfigBean desiredConfigBean = createDesiredConfigBean();
+        desiredConfigBean.getSpec().setServices(singletonMap("service", desiredServiceBean));
+
+        ApplyLogic applyLogic = createApplyLogic(getLogicMock, spaceDevelopersOperations, applicationsOperations,
+                servicesOperations);
+        applyLogic.setSelection(ApplySelection.parse("services/service"));
+        PlanBean plan = YamlMapper.loadBeanFromString(YamlMapper.dump(applyLogic.plan(desiredConfigBean)),
+                PlanBean.class);
+
+        // when
+        ApplyException exception = assertThrows(ApplyException.class, () -> applyLogic.applyPlan(plan));
+
+        // then
+        assertThat(plan.getResourceFingerprints().keySet(), contains("services/service"));
+        assertThat(exception.getMessage(), containsString("has changed since the plan was created"));
+        // the selection of the plan and the changed resources happen to be the same
+        verify(getLogicMock, times(2)).getSelected(any(), any(), any(), any(),
+                eq(ApplySelection.of(singletonList("services/service"))));
+        updateServiceProbe.assertWasNotSubscribed();
+    }
+
+    @Test
+    public void testApplyPlanKeepsAlternativeChosenWhenPlanning() {
+        // given
+        ConfigBean liveConfigBean = createHealthCheckConfigBean(ApplicationHealthCheck.PORT);
+        GetLogic getLogicMock = mock(GetLogic.class);
+        when(getLogicMock.getAll(any(), any(), any(), any())).thenReturn(liveConfigBean);
+        when(getLogicMock.getSelected(any(), any(), any(), any(), any())).thenReturn(liveConfigBean);
+
+        PublisherProbe<Void> restartProbe = PublisherProbe.empty();
+        PublisherProbe<Void> updateProbe = PublisherProbe.empty();
+
+        SpaceDevelopersOperations spaceDevelopersOperations = mock(SpaceDevelopersOperations.class);
+        when(spaceDevelopersOperations.getAll()).thenReturn(Mono.just(Collections.emptyList()));
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.getSummaries()).thenReturn(Mono.just(singletonMap("app", "instances=1")));
+        when(applicationsOperations.updateProcess(anyString(), any(), any(), any())).thenReturn(Mono.empty());
+        when(applicationsOperations.restart(anyString())).thenReturn(restartProbe.mono());
+        when(applicationsOperations.update(anyString(), any())).thenReturn(updateProbe.mono());
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+
+        ApplyLogic applyLogic = createApplyLogic(getLogicMock, spaceDevelopersOperations, applicationsOperations,
+                servicesOperations);
+        applyLogic.setDeploymentStrategy(DeploymentStrategy.RECREATE);
+        applyLogic.getCostModel().record(ApplyOperation.Type.RESTART_APPLICATION, Duration.ofSeconds(30));
+        PlanBean plan = YamlMapper.loadBeanFromString(YamlMapper.dump(
+                applyLogic.plan(createHealthCheckConfigBean(ApplicationHealthCheck.HTTP))), PlanBean.class);
+        // another run records a restart that makes the recreation of the app cheaper than its update in place
+        applyLogic.getCostModel().record(ApplyOperation.Type.RESTART_APPLICATION, Duration.ofHours(1));
+
+        // when
+        applyLogic.applyPlan(plan);
+
+        // then
+        assertThat(plan.getOperations().keySet(), contains("update process of application app",
+                "restart application app"));
+        assertThat(restartProbe.subscribeCount(), is(1L));
+        updateProbe.assertWasNotSubscribed();
+    }
+
+    @Test
+    public void testApplyPlanResumesWithoutRepeatingCompletedOperations(@TempDir Path tempDir) throws IOException {
+        // given
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.setTarget(new TargetBean());
+
+        GetLogic getLogicMock = mock(GetLogic.class);
+        when(getLogicMock.getAll(any(), any(), any(), any())).thenReturn(liveConfigBean);
+
+        // the creation of the application only fails in the first run
+        AtomicInteger createApplicationAttempts = new AtomicInteger();
+        PublisherProbe<Void> assignProbe = PublisherProbe.empty();
+        PublisherProbe<Void> createApplicationProbe = PublisherProbe.of(Mono.defer(() ->
+                createApplicationAttempts.getAndIncrement() == 0
+                        ? Mono.error(new RuntimeException("staging failed"))
+                        : Mono.empty()));
+        PublisherProbe<Void> createServiceProbe = PublisherProbe.empty();
+
+        SpaceDevelopersOperations spaceDevelopersOperations = mock(SpaceDevelopersOperations.class);
+        when(spaceDevelopersOperations.getAll()).thenReturn(Mono.just(Collections.emptyList()));
+        when(spaceDevelopersOperations.getSpaceId()).thenReturn(Mono.just("spaceId"));
+        when(spaceDevelopersOperations.assign(anyString(), anyString())).thenReturn(assignProbe.mono());
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+        when(applicationsOperations.create(anyString(), any())).thenReturn(createApplicationProbe.mono());
+        // the service exists after the first run, which compares the fingerprint when planning and applying
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.getSummaries())
+                .thenReturn(Mono.just(Collections.emptyMap()))
+                .thenReturn(Mono.just(Collections.emptyMap()))
+                .thenReturn(Mono.just(singletonMap("service", "id=serviceId service=sqlservice")));
+        when(servicesOperations.create(anyString(), any())).thenReturn(createServiceProbe.mono());
+
+        ApplyLogic applyLogic = createApplyLogic(getLogicMock, spaceDevelopersOperations, applicationsOperations,
+                servicesOperations);
+        PlanBean plan = applyLogic.plan(createDesiredConfigBean());
+        Path journalPath = tempDir.resolve("plan.yml.journal");
+        try (ApplyJournal journal = ApplyJournal.create(journalPath, plan)) {
+            assertThrows(ApplyException.class, () -> applyLogic.applyPlan(plan, journal));
+        }
+
+        // when
+        try (ApplyJournal journal = ApplyJournal.resume(journalPath, plan)) {
+            applyLogic.applyPlan(plan, journal);
+        }
+
+        // then
+        assertThat(assignProbe.subscribeCount(), is(1L));
+        assertThat(createServiceProbe.subscribeCount(), is(1L));
+        assertThat(createApplicationProbe.subscribeCount(), is(2L));
+        try (ApplyJournal journal = ApplyJournal.resume(journalPath, plan)) {
+            assertThat(journal.getCompletedOperations(), containsInAnyOrder("assign space developer spaceDeveloper1",
+                    "create service service", "create application app"));
+        }
+    }
+
+    @Test
+    public void testApplyPlanResumeStagesAgainIfTheDropletSwitchFailed(@TempDir Path tempDir) throws IOException {
+        // given
+        ConfigBean liveConfigBean = createHealthCheckConfigBean(ApplicationHealthCheck.PORT);
+        GetLogic getLogicMock = mock(GetLogic.class);
+        when(getLogicMock.getAll(any(), any(), any(), any())).thenReturn(liveConfigBean);
+        when(getLogicMock.getSelected(any(), any(), any(), any(), any())).thenReturn(liveConfigBean);
+
+        // the switch of the droplet only fails in the first run
+        AtomicInteger switchAttempts = new AtomicInteger();
+        PublisherProbe<String> stageProbe = PublisherProbe.of(Mono.just("dropletId"));
+        PublisherProbe<Void> switchProbe = PublisherProbe.of(Mono.defer(() ->
+                switchAttempts.getAndIncrement() == 0
+                        ? Mono.error(new RuntimeException("switch failed"))
+                        : Mono.empty()));
+
+        SpaceDevelopersOperations spaceDevelopersOperations = mock(SpaceDevelopersOperations.class);
+        when(spaceDevelopersOperations.getAll()).thenReturn(Mono.just(Collections.emptyList()));
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.getSummaries()).thenReturn(Mono.just(singletonMap("app", "instances=1")));
+        when(applicationsOperations.updateMeta(anyString(), any())).thenReturn(Mono.empty());
+        when(applicationsOperations.stage(anyString(), any())).thenReturn(stageProbe.mono());
+        when(applicationsOperations.switchDroplet(anyString(), anyString())).thenReturn(switchProbe.mono());
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+
+        ApplyLogic applyLogic = createApplyLogic(getLogicMock, spaceDevelopersOperations, applicationsOperations,
+                servicesOperations);
+        applyLogic.setDeploymentStrategy(DeploymentStrategy.STAGE_AHEAD);
+        ConfigBean desiredConfigBean = createHealthCheckConfigBean(ApplicationHealthCheck.PORT);
+        desiredConfigBean.getSpec().getApps().get("app").setPath("other/path");
+        PlanBean plan = applyLogic.plan(desiredConfigBean);
+        Path journalPath = tempDir.resolve("plan.yml.journal");
+        try (ApplyJournal journal = ApplyJournal.create(journalPath, plan)) {
+            assertThrows(ApplyException.class, () -> applyLogic.applyPlan(plan, journal));
+        }
+
+        // when
+        try (ApplyJournal journal = ApplyJournal.resume(journalPath, plan)) {
+            applyLogic.applyPlan(plan, journal);
+        }
+
+        // then
+        assertThat(stageProbe.subscribeCount(), is(2L));
+        assertThat(switchProbe.subscribeCount(), is(2L));
+        // the staging is repeated by its own operation instead of as part of the switch
+        assertThat(Files.readAllLines(journalPath).stream()
+                .filter(line -> line.equals("STARTED\tstage application app"))
+                .count(), is(2L));
+        try (ApplyJournal journal = ApplyJournal.resume(journalPath, plan)) {
+            assertThat(journal.getCompletedOperations(), hasItems("stage application app",
+                    "switch application app to its new droplet"));
+        }
+    }
+
+    @Test
+    public void testApplyPlanResumeFailsIfCompletedOperationIsNotInEffect(@TempDir Path tempDir) throws IOException {
+        // given
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.setTarget(new TargetBean());
+
+        GetLogic getLogicMock = mock(GetLogic.class);
+        when(getLogicMock.getAll(any(), any(), any(), any())).thenReturn(liveConfigBean);
+
+        PublisherProbe<Void> assignProbe = PublisherProbe.empty();
+        PublisherProbe<Void> createApplicationProbe = PublisherProbe.of(
+                Mono.error(new RuntimeException("staging failed")));
+        PublisherProbe<Void> createServiceProbe = PublisherProbe.empty();
+
+        SpaceDevelopersOperations spaceDevelopersOperations = mock(SpaceDevelopersOperations.class);
+        when(spaceDevelopersOperations.getAll()).thenReturn(Mono.just(Collections.emptyList()));
+        when(spaceDevelopersOperations.getSpaceId()).thenReturn(Mono.just("spaceId"));
+        when(spaceDevelopersOperations.assign(anyString(), anyString())).thenReturn(assignProbe.mono());
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+        when(applicationsOperations.create(anyString(), any())).thenReturn(createApplicationProbe.mono());
+        // the created service has been removed by someone else in between
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+        when(servicesOperations.create(anyString(), any())).thenReturn(createServiceProbe.mono());
+
+        ApplyLogic applyLogic = createApplyLogic(getLogicMock, spaceDevelopersOperations, applicationsOperations,
+                servicesOperations);
+        PlanBean plan = applyLogic.plan(createDesiredConfigBean());
+        Path journalPath = tempDir.resolve("plan.yml.journal");
+        try (ApplyJournal journal = ApplyJournal.create(journalPath, plan)) {
+            assertThrows(ApplyException.class, () -> applyLogic.applyPlan(plan, journal));
+        }
+
+        // when
+        ApplyException exception;
+        try (ApplyJournal journal = ApplyJournal.resume(journalPath, plan)) {
+            exception = assertThrows(ApplyException.class, () -> applyLogic.applyPlan(plan, journal));
+        }
+
+        // then
+        assertThat(exception.getMessage(), containsString("the live state does not reflect it anymore"));
+        assertThat(createServiceProbe.subscribeCount(), is(1L));
+        assertThat(createApplicationProbe.subscribeCount(), is(1L));
+    }
+
+    @Test
+    public void testExplainListsOperationsWithEstimatedCost() {
+        // given
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.setTarget(new TargetBean());
+
+        SpaceDevelopersOperations spaceDevelopersOperations = mock(SpaceDevelopersOperations.class);
+        when(spaceDevelopersOperations.getSpaceId()).thenReturn(Mono.just("spaceId"));
+        when(spaceDevelopersOperations.assign(anyString(), anyString())).thenReturn(Mono.empty());
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.create(anyString(), any())).thenReturn(Mono.empty());
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.create(anyString(), any())).thenReturn(Mono.empty());
+
+        ApplyLogic applyLogic = createApplyLogic(mock(GetLogic.class), spaceDevelopersOperations,
+                applicationsOperations, servicesOperations);
+
+        // when
+        String explanation = applyLogic.explain(liveConfigBean, createDesiredConfigBean());
+
+        // then
+        String[] lines = explanation.split(System.lineSeparator());
+        assertThat(lines.length, is(4));
+        assertThat(lines[0], startsWith("assign space developer spaceDeveloper1"));
+        assertThat(lines[1], startsWith("create service service"));
+        assertThat(lines[2], startsWith("create application app"));
+        // the application is created after the service
+        assertThat(lines[3], is("Estimated total: 15 API calls, ~180s, 0s downtime"));
+    }
+
+    @Test
+    public void testExplainPlansManyApplicationsInParallel() {
+        // given
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.setTarget(new TargetBean());
+
+        Map<String, ApplicationBean> desiredApplicationBeans = new LinkedHashMap<>();
+        for (int index = 0; index < 100; index++) {
+            ApplicationBean desiredApplicationBean = new ApplicationBean();
+            desiredApplicationBean.setPath("some/path");
+            desiredApplicationBeans.put(String.format("app%03d", index), desiredApplicationBean);
+        }
+        ConfigBean desiredConfigBean = createDesiredConfigBean();
+        desiredConfigBean.getSpec().setSpaceDevelopers(null);
+        desiredConfigBean.getSpec().setServices(null);
+        desiredConfigBean.getSpec().setApps(desiredApplicationBeans);
+
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.create(anyString(), any())).thenReturn(Mono.empty());
+
+        ApplyLogic applyLogic = createApplyLogic(mock(GetLogic.class), mock(SpaceDevelopersOperations.class),
+                applicationsOperations, mock(ServicesOperations.class));
+
+        // when
+        String explanation = applyLogic.explain(liveConfigBean, desiredConfigBean);
+
+        // then
+        String[] lines = explanation.split(System.lineSeparator());
+        assertThat(lines.length, is(101));
+        Set<String> createdApplications = new HashSet<>();
+        for (int index = 0; index < 100; index++) {
+            assertThat(lines[index], startsWith("create application app"));
+            createdApplications.add(lines[index].split("\\s+")[2]);
+        }
+        assertThat(createdApplications, is(desiredApplicationBeans.keySet()));
+    }
+
+    @Test
+    public void testExplainRenamesRenamedApplicationAndServiceInsteadOfRecreatingThem() {
+        // given
+        ConfigBean liveConfigBean = createDesiredConfigBean();
+        liveConfigBean.getSpec().setSpaceDevelopers(null);
+        liveConfigBean.getSpec().getServices().get("service").setPlan("small");
+
+        ServiceBean desiredServiceBean = new ServiceBean();
+        desiredServiceBean.setService("sqlservice");
+        desiredServiceBean.setPlan("small");
+        desiredServiceBean.setPreviousName("service");
+        ApplicationBean desiredApplicationBean = new ApplicationBean();
+        desiredApplicationBean.setPath("some/path");
+        ApplicationManifestBean desiredManifestBean = new ApplicationManifestBean();
+        desiredManifestBean.setServices(singletonList("renamed-service"));
+        desiredManifestBean.setInstances(2);
+        desiredApplicationBean.setManifest(desiredManifestBean);
+        ConfigBean desiredConfigBean = createDesiredConfigBean();
+        desiredConfigBean.getSpec().setSpaceDevelopers(null);
+        desiredConfigBean.getSpec().setServices(singletonMap("renamed-service", desiredServiceBean));
+        desiredConfigBean.getSpec().setApps(singletonMap("renamed-app", desiredApplicationBean));
+
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.rename(anyString(), anyString())).thenReturn(Mono.empty());
+        when(applicationsOperations.scale(anyString(), any(), any(), any())).thenReturn(Mono.empty());
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.rename(anyString(), anyString())).thenReturn(Mono.empty());
+
+        ApplyLogic applyLogic = createApplyLogic(mock(GetLogic.class), mock(SpaceDevelopersOperations.class),
+                applicationsOperations, servicesOperations);
+
+        // when
+        String explanation = applyLogic.explain(liveConfigBean, desiredConfigBean);
+
+        // then
+        String[] lines = explanation.split(System.lineSeparator());
+        assertThat(lines.length, is(4));
+        assertThat(lines[0], startsWith("rename service service to renamed-service"));
+        assertThat(lines[1], startsWith("rename application app to renamed-app"));
+        // the binding is kept by the rename, only the scaling remains
+        assertThat(lines[2], startsWith("scale application renamed-app"));
+        verify(applicationsOperations, never()).bindToService(anyString(), anyString());
+        verify(applicationsOperations, never()).remove(anyString());
+    }
+
+    @Test
+    public void testExplainWithLastAppliedConfigurationOnlyResetsSettingsThatHaveBeenRemovedSince() {
+        // given
+        ConfigBean liveConfigBean = createDesiredConfigBean();
+        // changed by hand, but the space developers have not changed since the last apply
+        liveConfigBean.getSpec().setSpaceDevelopers(Arrays.asList("spaceDeveloper1", "spaceDeveloper2"));
+        // never declared, but set by the platform
+        liveConfigBean.getSpec().getApps().get("app").getManifest().setStack("cflinuxfs3");
+        liveConfigBean.getSpec().getServices().get("service").setTags(singletonList("sql"));
+        liveConfigBean.getSpec().getApps().get("app").getManifest().setInstances(3);
+
+        ConfigBean lastAppliedConfigBean = createDesiredConfigBean();
+        lastAppliedConfigBean.getSpec().getApps().get("app").getManifest().setInstances(3);
+
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.scale(anyString(), any(), any(), any())).thenReturn(Mono.empty());
+
+        ApplyLogic applyLogic = createApplyLogic(mock(GetLogic.class), mock(SpaceDevelopersOperations.class),
+                applicationsOperations, mock(ServicesOperations.class));
+        applyLogic.setLastAppliedConfig(lastAppliedConfigBean);
+
+        // when
+        String explanation = applyLogic.explain(liveConfigBean, createDesiredConfigBean());
+
+        // then
+        String[] lines = explanation.split(System.lineSeparator());
+        assertThat(lines.length, is(2));
+        // the instances have been removed from the desired configuration since the last apply, so they are reset
+        assertThat(lines[0], startsWith("scale application app"));
+    }
+
+    @Test
+    public void testApplyStreamingChangesEachApplicationWithoutFetchingAllOfThem() {
+        // given
+        ServiceBean liveServiceBean = new ServiceBean();
+        liveServiceBean.setService("sqlservice");
+        ApplicationBean obsoleteApplicationBean = new ApplicationBean();
+        obsoleteApplicationBean.setPath("other/path");
+
+        GetLogic getLogicMock = mock(GetLogic.class);
+        when(getLogicMock.getSpaceDevelopers(any())).thenReturn(singletonList("spaceDeveloper1"));
+        when(getLogicMock.getServices(any())).thenReturn(singletonMap("service", liveServiceBean));
+
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.getSummaries()).thenReturn(Mono.just(singletonMap("obsolete", "started")));
+        when(applicationsOperations.getEach(any(), any()))
+                .thenReturn(Flux.just(Tuples.of("obsolete", obsoleteApplicationBean)));
+        when(applicationsOperations.create(anyString(), any())).thenReturn(Mono.empty());
+        when(applicationsOperations.remove(anyString())).thenReturn(Mono.empty());
+
+        SpaceDevelopersOperations spaceDevelopersOperations = mock(SpaceDevelopersOperations.class);
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        ApplyLogic applyLogic = createApplyLogic(getLogicMock, spaceDevelopersOperations, applicationsOperations,
+                servicesOperations);
+
+        // when
+        applyLogic.applyStreaming(createDesiredConfigBean());
+
+        // then
+        verify(getLogicMock, never()).getAll(any(), any(), any(), any());
+        verify(applicationsOperations, never()).getAll(any(), any());
+        verify(applicationsOperations, times(1)).create(eq("app"), any(ApplicationBean.class));
+        verify(applicationsOperations, times(1)).remove("obsolete");
+        verify(servicesOperations, never()).create(anyString(), any());
+        verify(spaceDevelopersOperations, never()).assign(anyString(), anyString());
+    }
+
+    @Test
+    public void testApplyStreamingWithWavesThrowsException() {
+        // given
+        ApplyLogic applyLogic = createApplyLogic(mock(GetLogic.class), mock(SpaceDevelopersOperations.class),
+                mock(ApplicationsOperations.class), mock(ServicesOperations.class));
+        applyLogic.setWaves(ApplyWaves.parse("1,50%"));
+
+        // when and then
+        assertThrows(ApplyException.class, () -> applyLogic.applyStreaming(createDesiredConfigBean()));
+    }
+
+    private ConfigBean createDesiredConfigBean() {
+        SpecBean desiredSpecBean = new SpecBean();
+        desiredSpecBean.setSpaceDevelopers(singletonList("spaceDeveloper1"));
+
+        ServiceBean desiredServiceBean = new ServiceBean();
+        desiredServiceBean.setService("sqlservice");
+        desiredSpecBean.setServices(singletonMap("service", desiredServiceBean));
+
+        ApplicationBean desiredApplicationBean = new ApplicationBean();
+        desiredApplicationBean.setPath("some/path");
+        ApplicationManifestBean desiredManifestBean = new ApplicationManifestBean();
+        desiredManifestBean.setServices(singletonList("service"));
+        desiredApplicationBean.setManifest(desiredManifestBean);
+        desiredSpecBean.setApps(singletonMap("app", desiredApplicationBean));
+
+        TargetBean desiredTargetBean = new TargetBean();
+        desiredTargetBean.setSpace("space");
+
+        ConfigBean desiredConfigBean = new ConfigBean();
+        desiredConfigBean.setSpec(desiredSpecBean);
+        desiredConfigBean.setTarget(desiredTargetBean);
+        return desiredConfigBean;
+    }
+
+    private ConfigBean createHealthCheckConfigBean(ApplicationHealthCheck healthCheckType) {
+        ApplicationManifestBean manifestBean = new ApplicationManifestBean();
+        manifestBean.setHealthCheckType(healthCheckType);
+        ApplicationBean applicationBean = new ApplicationBean();
+        applicationBean.setPath("some/path");
+        applicationBean.setManifest(manifestBean);
+
+        TargetBean targetBean = new TargetBean();
+        targetBean.setSpace("space");
+
+        ConfigBean configBean = new ConfigBean();
+        configBean.setSpec(new SpecBean());
+        configBean.getSpec().setApps(singletonMap("app", applicationBean));
+        configBean.setTarget(targetBean);
+        return configBean;
+    }
+
+    private ApplyLogic createApplyLogic(GetLogic getLogic,
+                                        SpaceDevelopersOperations spaceDevelopersOperations,
+                                        ApplicationsOperations applicationsOperations,
+                                        ServicesOperations servicesOperations) {
+        SpaceOperations spaceOperationsMock = mock(SpaceOperations.class);
+        when(spaceOperationsMock.getAll()).thenReturn(Mono.just(Collections.singletonList("space")));
+
+        TargetOperations targetOperationsMock = mock(TargetOperations.class);
+        when(targetOperationsMock.getSpace()).thenReturn("space");
+
+        ApplyLogic applyLogic = new ApplyLogic(mock(DefaultCloudFoundryOperations.class));
+        applyLogic.setGetLogic(getLogic);
+        applyLogic.setSpaceDevelopersOperations(spaceDevelopersOperations);
+        applyLogic.setApplicationsOperations(applicationsOperations);
+        applyLogic.setServicesOperations(servicesOperations);
+        applyLogic.setSpaceOperations(spaceOperationsMock);
+        applyLogic.setTargetOperations(targetOperationsMock);
+        return applyLogic;
+    }
 
 }
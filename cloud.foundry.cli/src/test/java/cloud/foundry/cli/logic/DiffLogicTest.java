@@ -1,11 +1,19 @@
 package cloud.foundry.cli.logic;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationManifestBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
+import cloud.foundry.cli.logic.diff.DiffResult;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+
 /**
  * Test for {@link DiffLogic}
  */
@@ -34,4 +42,120 @@ public class DiffLogicTest {
         assertThrows(IllegalArgumentException.class,
                 () -> new DiffLogic().createDiffOutput(new SpecBean(), new ConfigBean()));
     }
+
+    @Test
+    public void testCreateDiffResultIgnoresPriorityOfApplications() {
+        // given
+        ApplicationBean liveApplicationBean = new ApplicationBean();
+        liveApplicationBean.setPath("some/path");
+        ApplicationBean desiredApplicationBean = new ApplicationBean();
+        desiredApplicationBean.setPath("some/path");
+        desiredApplicationBean.setPriority(10);
+
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.getSpec().setApps(Collections.singletonMap("app", liveApplicationBean));
+        ConfigBean desiredConfigBean = new ConfigBean();
+        desiredConfigBean.setSpec(new SpecBean());
+        desiredConfigBean.getSpec().setApps(Collections.singletonMap("app", desiredApplicationBean));
+
+        // when
+        DiffResult diffResult = new DiffLogic().createDiffResult(liveConfigBean, desiredConfigBean);
+
+        // then
+        assertThat(diffResult.getApplicationChanges().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testCreateDiffResultIgnoresPreviousNamesOfApplicationsAndServices() {
+        // given
+        ApplicationBean liveApplicationBean = new ApplicationBean();
+        liveApplicationBean.setPath("some/path");
+        ApplicationBean desiredApplicationBean = new ApplicationBean();
+        desiredApplicationBean.setPath("some/path");
+        desiredApplicationBean.setPreviousName("old-app");
+        ServiceBean liveServiceBean = new ServiceBean();
+        liveServiceBean.setService("sqlservice");
+        ServiceBean desiredServiceBean = new ServiceBean();
+        desiredServiceBean.setService("sqlservice");
+        desiredServiceBean.setPreviousName("old-service");
+
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.getSpec().setApps(Collections.singletonMap("app", liveApplicationBean));
+        liveConfigBean.getSpec().setServices(Collections.singletonMap("service", liveServiceBean));
+        ConfigBean desiredConfigBean = new ConfigBean();
+        desiredConfigBean.setSpec(new SpecBean());
+        desiredConfigBean.getSpec().setApps(Collections.singletonMap("app", desiredApplicationBean));
+        desiredConfigBean.getSpec().setServices(Collections.singletonMap("service", desiredServiceBean));
+
+        // when
+        DiffResult diffResult = new DiffLogic().createDiffResult(liveConfigBean, desiredConfigBean);
+
+        // then
+        assertThat(diffResult.getApplicationChanges().isEmpty(), is(true));
+        assertThat(diffResult.getServiceChanges().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testCreateDiffResultIgnoresDefaultsOfLiveApplicationsTheDesiredConfigurationOmits() {
+        // given
+        ApplicationManifestBean liveManifest = new ApplicationManifestBean();
+        liveManifest.setInstances(1);
+        liveManifest.setMemory(1024);
+        liveManifest.setStack("cflinuxfs3");
+        ApplicationBean liveApplicationBean = new ApplicationBean();
+        liveApplicationBean.setPath("some/path");
+        liveApplicationBean.setManifest(liveManifest);
+        ApplicationManifestBean desiredManifest = new ApplicationManifestBean();
+        desiredManifest.setInstances(1);
+        ApplicationBean desiredApplicationBean = new ApplicationBean();
+        desiredApplicationBean.setPath("some/path");
+        desiredApplicationBean.setManifest(desiredManifest);
+
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.getSpec().setApps(Collections.singletonMap("app", liveApplicationBean));
+        ConfigBean desiredConfigBean = new ConfigBean();
+        desiredConfigBean.setSpec(new SpecBean());
+        desiredConfigBean.getSpec().setApps(Collections.singletonMap("app", desiredApplicationBean));
+
+        // when
+        DiffResult diffResult = new DiffLogic().createDiffResult(liveConfigBean, desiredConfigBean);
+
+        // then
+        assertThat(diffResult.getApplicationChanges().isEmpty(), is(true));
+        assertThat(liveManifest.getMemory(), is(1024));
+    }
+
+    @Test
+    public void testCreateDiffResultWithLastAppliedConfigurationIgnoresApplicationsUnchangedSince() {
+        // given
+        ApplicationManifestBean liveManifest = new ApplicationManifestBean();
+        liveManifest.setMemory(2048);
+        ApplicationBean liveApplicationBean = new ApplicationBean();
+        liveApplicationBean.setPath("some/path");
+        liveApplicationBean.setManifest(liveManifest);
+        ApplicationManifestBean desiredManifest = new ApplicationManifestBean();
+        desiredManifest.setMemory(512);
+        ApplicationBean desiredApplicationBean = new ApplicationBean();
+        desiredApplicationBean.setPath("some/path");
+        desiredApplicationBean.setManifest(desiredManifest);
+
+        ConfigBean liveConfigBean = new ConfigBean();
+        liveConfigBean.setSpec(new SpecBean());
+        liveConfigBean.getSpec().setApps(Collections.singletonMap("app", liveApplicationBean));
+        ConfigBean desiredConfigBean = new ConfigBean();
+        desiredConfigBean.setSpec(new SpecBean());
+        desiredConfigBean.getSpec().setApps(Collections.singletonMap("app", desiredApplicationBean));
+
+        // when
+        DiffResult threeWayDiffResult = new DiffLogic().createDiffResult(liveConfigBean, desiredConfigBean,
+                desiredConfigBean);
+        DiffResult twoWayDiffResult = new DiffLogic().createDiffResult(liveConfigBean, desiredConfigBean, null);
+
+        // then
+        assertThat(threeWayDiffResult.getApplicationChanges().isEmpty(), is(true));
+        assertThat(twoWayDiffResult.getApplicationChanges().keySet().contains("app"), is(true));
+    }
 }
@@ -4,9 +4,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import cloud.foundry.cli.crosscutting.exceptions.GetException;
@@ -15,6 +19,7 @@ import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationManifestBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
 
 import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
+import cloud.foundry.cli.logic.apply.ApplySelection;
 import cloud.foundry.cli.operations.*;
 import org.cloudfoundry.client.v3.Metadata;
 import org.cloudfoundry.operations.applications.ApplicationHealthCheck;
@@ -22,12 +27,14 @@ import org.cloudfoundry.operations.applications.ApplicationManifest;
 import org.cloudfoundry.operations.services.ServiceInstance;
 import org.cloudfoundry.operations.services.ServiceInstanceType;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import reactor.core.publisher.Mono;
 
 import java.nio.file.Paths;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Test for {@link GetLogic}
@@ -45,12 +52,12 @@ public class GetLogicTest {
         Mono monoServices = Mono.just(new HashMap<Object, ServiceBean>() {
         });
         ServicesOperations mockServices = mock(ServicesOperations.class);
-        when(mockServices.getAll()).thenReturn(monoServices);
+        when(mockServices.getAll(any())).thenReturn(monoServices);
 
         Mono monoApplications = Mono.just(new HashMap<Object, ApplicationBean>() {
         });
         ApplicationsOperations mockApplications = mock(ApplicationsOperations.class);
-        when(mockApplications.getAll()).thenReturn(monoApplications);
+        when(mockApplications.getAll(any())).thenReturn(monoApplications);
 
         TargetOperations mockTargetOperations = mockTargetOperations();
 
@@ -112,6 +119,36 @@ public class GetLogicTest {
         assertThat(appManifest.getServices().get(0), is("appdynamics"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetSelectedOnlyFetchesSelectedApplicationsAndServices() {
+        // given
+        SpaceDevelopersOperations mockSpaceDevelopers = mock(SpaceDevelopersOperations.class);
+        ServicesOperations mockServices = mock(ServicesOperations.class);
+        when(mockServices.getAll(any(), any())).thenReturn(Mono.just(Collections.emptyMap()));
+        ApplicationsOperations mockApplications = mock(ApplicationsOperations.class);
+        when(mockApplications.getAll(any(), any())).thenReturn(Mono.just(Collections.emptyMap()));
+        ApplySelection selection = ApplySelection.parse("apps/billing-*");
+
+        GetLogic getLogic = new GetLogic();
+
+        // when
+        ConfigBean configBean = getLogic.getSelected(mockSpaceDevelopers, mockServices, mockApplications,
+                mockTargetOperations(), selection);
+
+        // then
+        ArgumentCaptor<Predicate> applicationFilter = ArgumentCaptor.forClass(Predicate.class);
+        verify(mockApplications).getAll(any(), applicationFilter.capture());
+        assertThat(applicationFilter.getValue().test("billing-api"), is(true));
+        assertThat(applicationFilter.getValue().test("shop"), is(false));
+        ArgumentCaptor<Predicate> serviceFilter = ArgumentCaptor.forClass(Predicate.class);
+        verify(mockServices).getAll(any(), serviceFilter.capture());
+        assertThat(serviceFilter.getValue().test("billing-db"), is(false));
+        verify(mockSpaceDevelopers, never()).getAll();
+        assertThat(configBean.getSpec().getSpaceDevelopers(), is(nullValue()));
+        assertThat(configBean.getTarget().getSpace(), is("development"));
+    }
+
     @Test
     public void testGetSpaceDevelopers() {
         // given
@@ -132,10 +169,9 @@ public class GetLogicTest {
         // given
         SpaceDevelopersOperations spaceDevelopersMock = mock(SpaceDevelopersOperations.class);
 
-        Mono spaceDevelopersMonoMock = mock(Mono.class);
         RuntimeException thrownException = new RuntimeException();
-        when(spaceDevelopersMonoMock.block()).thenThrow(thrownException);
-        when(spaceDevelopersMock.getAll()).thenReturn(spaceDevelopersMonoMock);
+        Mono failingSpaceDevelopersRequest = Mono.error(thrownException);
+        when(spaceDevelopersMock.getAll()).thenReturn(failingSpaceDevelopersRequest);
 
         GetLogic getLogic = new GetLogic();
 
@@ -167,10 +203,9 @@ public class GetLogicTest {
         // given
         ServicesOperations servicesMock = mock(ServicesOperations.class);
 
-        Mono servicesMonoMock = mock(Mono.class);
         RuntimeException thrownException = new RuntimeException();
-        when(servicesMonoMock.block()).thenThrow(thrownException);
-        when(servicesMock.getAll()).thenReturn(servicesMonoMock);
+        Mono failingServicesRequest = Mono.error(thrownException);
+        when(servicesMock.getAll(any())).thenReturn(failingServicesRequest);
 
         GetLogic getLogic = new GetLogic();
 
@@ -213,10 +248,9 @@ public class GetLogicTest {
         // given
         ApplicationsOperations applicationsMock = mock(ApplicationsOperations.class);
 
-        Mono applicationsMonoMock = mock(Mono.class);
         RuntimeException thrownException = new RuntimeException();
-        when(applicationsMonoMock.block()).thenThrow(thrownException);
-        when(applicationsMock.getAll()).thenReturn(applicationsMonoMock);
+        Mono failingApplicationsRequest = Mono.error(thrownException);
+        when(applicationsMock.getAll(any())).thenReturn(failingApplicationsRequest);
 
         GetLogic getLogic = new GetLogic();
 
@@ -251,7 +285,7 @@ public class GetLogicTest {
         Mono mono = Mono.just(map);
 
         ServicesOperations mockServices = mock(ServicesOperations.class);
-        when(mockServices.getAll()).thenReturn(mono);
+        when(mockServices.getAll(any())).thenReturn(mono);
 
         return mockServices;
     }
@@ -283,7 +317,7 @@ public class GetLogicTest {
         Mono mono = Mono.just(map);
 
         ApplicationsOperations mockApplications = mock(ApplicationsOperations.class);
-        when(mockApplications.getAll()).thenReturn(mono);
+        when(mockApplications.getAll(any())).thenReturn(mono);
 
         return mockApplications;
     }
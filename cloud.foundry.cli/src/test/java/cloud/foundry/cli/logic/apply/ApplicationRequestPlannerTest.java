@@ -1,6 +1,10 @@
 package cloud.foundry.cli.logic.apply;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
@@ -13,6 +17,7 @@ import cloud.foundry.cli.crosscutting.exceptions.CreationException;
 import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationManifestBean;
 import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
 import cloud.foundry.cli.logic.diff.change.CfChange;
 import cloud.foundry.cli.logic.diff.change.ChangeType;
 import cloud.foundry.cli.logic.diff.change.container.CfContainerChange;
@@ -23,13 +28,21 @@ import cloud.foundry.cli.logic.diff.change.object.CfNewObject;
 import cloud.foundry.cli.logic.diff.change.object.CfObjectValueChanged;
 import cloud.foundry.cli.logic.diff.change.object.CfRemovedObject;
 import cloud.foundry.cli.operations.ApplicationsOperations;
+import org.cloudfoundry.operations.applications.ApplicationHealthCheck;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 class ApplicationRequestPlannerTest {
 
@@ -203,15 +216,13 @@ class ApplicationRequestPlannerTest {
     }
 
     @Test
-    void applyTest_OnlyEnvironmentVariables() {
+    void applyTest_OnlyEnvironmentVariablesRestartsTheAppInstanceByInstance() {
         // given
         ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
-        Void voidMockAdded = mock(Void.class);
-        when(appOperations.addEnvironmentVariable(any(), any(), any()))
-                .thenReturn(Mono.just(voidMockAdded));
-        Void voidMockRemoved = mock(Void.class);
-        when(appOperations.removeEnvironmentVariable(any(), any()))
-                .thenReturn(Mono.just(voidMockRemoved));
+        Void voidMock = mock(Void.class);
+        when(appOperations.updateEnvironmentVariables(any(), any()))
+                .thenReturn(Mono.just(voidMock));
+        when(appOperations.rollingRestart(anyString())).thenReturn(Mono.empty());
 
         String appName = "testApp";
         LinkedList<CfChange> cfChanges = new LinkedList<>();
@@ -244,23 +255,27 @@ class ApplicationRequestPlannerTest {
 
         // then
         assertThat(requests, notNullValue());
-        verify(appOperations, times(1)).addEnvironmentVariable("testApp", "addedKey", "added");
-        verify(appOperations, times(1)).addEnvironmentVariable("testApp", "changedKey", "changed");
-        verify(appOperations, times(1)).removeEnvironmentVariable("testApp", "removedKey");
+        Map<String, String> expectedVariables = new HashMap<>();
+        expectedVariables.put("addedKey", "added");
+        expectedVariables.put("removedKey", null);
+        expectedVariables.put("changedKey", "changed");
+        verify(appOperations, times(1)).updateEnvironmentVariables("testApp", expectedVariables);
+        verify(appOperations, times(1)).rollingRestart("testApp");
         verifyNoMoreInteractions(appOperations);
         StepVerifier.create(requests)
-                .expectNext(voidMockAdded)
-                .expectNext(voidMockRemoved)
-                .expectNext(voidMockAdded)
+                .expectNext(voidMock)
                 .expectComplete()
                 .verify();
     }
 
 
     @Test
-    void applyTest_OnlyServices() {
+    void applyTest_OnlyServicesRestartsTheAppOnceAfterAllBindings() {
         // given
         ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        List<String> executed = new LinkedList<>();
+        when(appOperations.rollingRestart(anyString()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("restart")));
 
         Void voidMockAdded = mock(Void.class);
         when(appOperations.bindToService(anyString(), anyString()))
@@ -294,12 +309,14 @@ class ApplicationRequestPlannerTest {
         assertThat(requests, notNullValue());
         verify(appOperations, times(1)).bindToService("testApp", "serviceAdded");
         verify(appOperations, times(1)).unbindFromService("testApp", "serviceRemoved");
+        verify(appOperations, times(1)).rollingRestart("testApp");
         verifyNoMoreInteractions(appOperations);
         StepVerifier.create(requests)
                 .expectNext(voidMockAdded)
                 .expectNext(voidMockRemoved)
                 .expectComplete()
                 .verify();
+        assertThat(executed, contains("restart"));
     }
 
     @Test
@@ -349,7 +366,7 @@ class ApplicationRequestPlannerTest {
 
 
     @Test
-    void applyTest_OnFieldThatRequiresRestartUpdatesTheApp() {
+    void applyTest_OnFieldThatRequiresPushWithRecreateStrategyUpdatesTheApp() {
         // given
         ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
         Void voidMock = mock(Void.class);
@@ -360,54 +377,52 @@ class ApplicationRequestPlannerTest {
         LinkedList<CfChange> cfChanges = new LinkedList<>();
         ApplicationBean applicationBean = new ApplicationBean();
 
-        CfObjectValueChanged healthCheckTypeChange = new CfObjectValueChanged(applicationBean,
-                "healthCheckType",
+        CfObjectValueChanged pathChange = new CfObjectValueChanged(applicationBean,
+                "path",
                 Arrays.asList("path"),
-                "PORT",
-                "HTTP");
+                "old/path",
+                "new/path");
 
-        cfChanges.add(healthCheckTypeChange);
+        cfChanges.add(pathChange);
 
-        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations);
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations,
+                new ApplyBulkheads(), DeploymentStrategy.RECREATE);
 
         // when
         Flux<Void> requests = requestsPlanner.createApplyRequests(appName, cfChanges);
 
         // then
         assertThat(requests, notNullValue());
-        verify(appOperations, times(1)).update("testApp", applicationBean);
-        verifyNoMoreInteractions(appOperations);
         StepVerifier.create(requests)
                 .expectNext(voidMock)
                 .expectComplete()
                 .verify();
+        verify(appOperations, times(1)).update("testApp", applicationBean);
+        verifyNoMoreInteractions(appOperations);
     }
 
     @Test
-    void applyTest_FieldThatRequiresRestartAndFieldThatDoesNotRequireRestart() {
+    void applyTest_FieldThatRequiresPushAndFieldThatDoesNotRequirePushWithRecreateStrategy() {
         // given
         ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
         Void voidUpdateMock = mock(Void.class);
         when(appOperations.update(anyString(), any()))
                 .thenReturn(Mono.just(voidUpdateMock));
-        Void voidAddEnvVarMock = mock(Void.class);
-        when(appOperations.addEnvironmentVariable(anyString(), anyString(),anyString()))
-                .thenReturn(Mono.just(voidAddEnvVarMock));
-        Void voidRemoveEnvVarMock = mock(Void.class);
-        when(appOperations.addEnvironmentVariable(anyString(), anyString(),anyString()))
-                .thenReturn(Mono.just(voidRemoveEnvVarMock));
+        Void voidEnvVarsMock = mock(Void.class);
+        when(appOperations.updateEnvironmentVariables(anyString(), any()))
+                .thenReturn(Mono.just(voidEnvVarsMock));
 
         String appName = "testApp";
         LinkedList<CfChange> cfChanges = new LinkedList<>();
         ApplicationBean applicationBean = new ApplicationBean();
 
-        CfObjectValueChanged healthCheckTypeChange = new CfObjectValueChanged(applicationBean,
-                "healthCheckType",
+        CfObjectValueChanged pathChange = new CfObjectValueChanged(applicationBean,
+                "path",
                 Arrays.asList("path"),
-                "PORT",
-                "HTTP");
+                "old/path",
+                "new/path");
 
-        cfChanges.add(healthCheckTypeChange);
+        cfChanges.add(pathChange);
 
         CfMapValueChanged mapValueAdded = new CfMapValueChanged("addedKey",
                 "",
@@ -429,6 +444,285 @@ class ApplicationRequestPlannerTest {
 
         cfChanges.add(envVarsChange);
 
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations,
+                new ApplyBulkheads(), DeploymentStrategy.RECREATE);
+
+        // when
+        Flux<Void> requests = requestsPlanner.createApplyRequests(appName, cfChanges);
+
+        // then
+        assertThat(requests, notNullValue());
+        StepVerifier.create(requests)
+                .expectNext(voidUpdateMock)
+                .expectComplete()
+                .verify();
+        verify(appOperations, times(1)).update("testApp", applicationBean);
+        verifyNoMoreInteractions(appOperations);
+    }
+
+    @Test
+    void applyTest_OnFieldThatRequiresPushDeploysTheAppAfterEnvironmentChanges() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        List<String> executed = new LinkedList<>();
+        when(appOperations.updateMeta(anyString(), any()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("updateMeta")));
+        when(appOperations.updateEnvironmentVariables(anyString(), any()))
+                .thenReturn(Mono.<Void>empty()
+                        .doOnSubscribe(subscription -> executed.add("updateEnvironmentVariables")));
+        when(appOperations.deploy(anyString(), any()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("deploy")));
+
+        String appName = "testApp";
+        LinkedList<CfChange> cfChanges = new LinkedList<>();
+        ApplicationBean applicationBean = new ApplicationBean();
+
+        CfObjectValueChanged pathChange = new CfObjectValueChanged(applicationBean,
+                "path",
+                Arrays.asList("path"),
+                "old/path",
+                "new/path");
+        CfMapChange envVarsChange = new CfMapChange(applicationBean,
+                "environmentVariables",
+                Arrays.asList("path"),
+                Arrays.asList(new CfMapValueChanged("addedKey", "", "added", ChangeType.ADDED)));
+
+        cfChanges.add(pathChange);
+        cfChanges.add(envVarsChange);
+
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations);
+
+        // when
+        Flux<Void> requests = requestsPlanner.createApplyRequests(appName, cfChanges);
+
+        // then
+        assertThat(requests, notNullValue());
+        verify(appOperations, times(1)).updateMeta("testApp", applicationBean);
+        verify(appOperations, times(1)).updateEnvironmentVariables("testApp",
+                Collections.singletonMap("addedKey", "added"));
+        verify(appOperations, times(1)).deploy("testApp", applicationBean);
+        verifyNoMoreInteractions(appOperations);
+        StepVerifier.create(requests)
+                .expectComplete()
+                .verify();
+        assertThat(executed, hasSize(3));
+        assertThat(executed.indexOf("deploy"), greaterThan(executed.indexOf("updateEnvironmentVariables")));
+    }
+
+    @Test
+    void applyTest_OnFieldThatRequiresPushStagesTheAppBeforeSwitchingItsDroplet() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        List<String> executed = new LinkedList<>();
+        when(appOperations.updateMeta(anyString(), any()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("updateMeta")));
+        when(appOperations.stage(anyString(), any()))
+                .thenReturn(Mono.just("dropletId").doOnSubscribe(subscription -> executed.add("stage")));
+        when(appOperations.switchDroplet(anyString(), anyString()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("switchDroplet")));
+
+        String appName = "testApp";
+        LinkedList<CfChange> cfChanges = new LinkedList<>();
+        ApplicationBean applicationBean = new ApplicationBean();
+
+        CfObjectValueChanged pathChange = new CfObjectValueChanged(applicationBean,
+                "path",
+                Arrays.asList("path"),
+                "old/path",
+                "new/path");
+
+        cfChanges.add(pathChange);
+
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations,
+                new ApplyBulkheads(), DeploymentStrategy.STAGE_AHEAD);
+
+        // when
+        Flux<Void> requests = requestsPlanner.createApplyRequests(appName, cfChanges);
+
+        // then
+        assertThat(requests, notNullValue());
+        verify(appOperations, times(1)).updateMeta("testApp", applicationBean);
+        verify(appOperations, times(1)).stage("testApp", applicationBean);
+        verifyNoMoreInteractions(appOperations);
+        StepVerifier.create(requests)
+                .expectComplete()
+                .verify();
+        verify(appOperations, times(1)).switchDroplet("testApp", "dropletId");
+        assertThat(executed, hasSize(3));
+        assertThat(executed.indexOf("switchDroplet"), greaterThan(executed.indexOf("stage")));
+    }
+
+    @Test
+    void applyTest_OnMemoryChangeScalesAndRestartsTheApp() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        Void voidMock = mock(Void.class);
+        when(appOperations.scale(anyString(), any(), any(), any()))
+                .thenReturn(Mono.just(voidMock));
+        when(appOperations.rollingRestart(anyString())).thenReturn(Mono.empty());
+
+        String appName = "testApp";
+        LinkedList<CfChange> cfChanges = new LinkedList<>();
+        ApplicationBean applicationBean = new ApplicationBean();
+        ApplicationManifestBean manifestBean = new ApplicationManifestBean();
+        manifestBean.setMemory(1024);
+        manifestBean.setDisk(2048);
+        applicationBean.setManifest(manifestBean);
+
+        CfObjectValueChanged memoryChange = new CfObjectValueChanged(applicationBean,
+                "memory",
+                Arrays.asList("path"),
+                "512",
+                "1024");
+
+        cfChanges.add(memoryChange);
+
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations);
+
+        // when
+        Flux<Void> requests = requestsPlanner.createApplyRequests(appName, cfChanges);
+
+        // then
+        assertThat(requests, notNullValue());
+        verify(appOperations, times(1)).scale("testApp", null, 1024, null);
+        // the new memory limit only takes effect once the app is restarted
+        verify(appOperations, times(1)).rollingRestart("testApp");
+        verifyNoMoreInteractions(appOperations);
+        StepVerifier.create(requests)
+                .expectNext(voidMock)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void applyTest_OnMemoryAndEnvironmentChangeRestartsTheAppOnceAfterScalingIt() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        List<String> executed = Collections.synchronizedList(new LinkedList<>());
+        when(appOperations.scale(anyString(), any(), any(), any()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("scale")));
+        when(appOperations.updateEnvironmentVariables(anyString(), any()))
+                .thenReturn(Mono.<Void>empty()
+                        .doOnSubscribe(subscription -> executed.add("updateEnvironmentVariables")));
+        when(appOperations.rollingRestart(anyString()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("rollingRestart")));
+
+        String appName = "testApp";
+        LinkedList<CfChange> cfChanges = new LinkedList<>();
+        ApplicationBean applicationBean = new ApplicationBean();
+        ApplicationManifestBean manifestBean = new ApplicationManifestBean();
+        manifestBean.setMemory(1024);
+        applicationBean.setManifest(manifestBean);
+
+        cfChanges.add(new CfObjectValueChanged(applicationBean,
+                "memory",
+                Arrays.asList("path"),
+                "512",
+                "1024"));
+        cfChanges.add(new CfMapChange(applicationBean,
+                "environmentVariables",
+                Arrays.asList("path"),
+                Collections.singletonList(new CfMapValueChanged("key", "before", "after", ChangeType.CHANGED))));
+
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations);
+        ApplyGraph graph = new ApplyGraph();
+
+        // when
+        requestsPlanner.addApplyOperations(graph, appName, cfChanges);
+        graph.execute().blockLast();
+
+        // then
+        assertThat(graph.getOperations().stream().map(ApplyOperation::getType).collect(Collectors.toList()),
+                containsInAnyOrder(Type.SCALE_APPLICATION, Type.UPDATE_ENVIRONMENT_VARIABLES,
+                        Type.ROLLING_RESTART_APPLICATION));
+        assertThat(executed, hasSize(3));
+        assertThat(executed.indexOf("rollingRestart"), is(2));
+        verify(appOperations, times(1)).scale("testApp", null, 1024, null);
+        verify(appOperations, times(1)).rollingRestart("testApp");
+    }
+
+    @Test
+    void applyTest_OnRemovedMemoryResetsItToTheDefaultAndRestartsTheApp() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        when(appOperations.scale(anyString(), any(), any(), any())).thenReturn(Mono.empty());
+        when(appOperations.rollingRestart(anyString())).thenReturn(Mono.empty());
+        List<CfChange> cfChanges = createRemovedFieldChanges("memory", "2048");
+
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations);
+
+        // when
+        requestsPlanner.createApplyRequests("testApp", cfChanges).blockLast();
+
+        // then
+        verify(appOperations, times(1)).scale("testApp", null, 1024, null);
+        verify(appOperations, times(1)).rollingRestart("testApp");
+        verifyNoMoreInteractions(appOperations);
+    }
+
+    @Test
+    void applyTest_OnRemovedDiskResetsItToTheDefaultAndRestartsTheApp() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        when(appOperations.scale(anyString(), any(), any(), any())).thenReturn(Mono.empty());
+        when(appOperations.rollingRestart(anyString())).thenReturn(Mono.empty());
+        List<CfChange> cfChanges = createRemovedFieldChanges("disk", "2048");
+
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations);
+
+        // when
+        requestsPlanner.createApplyRequests("testApp", cfChanges).blockLast();
+
+        // then
+        verify(appOperations, times(1)).scale("testApp", 1024, null, null);
+        verify(appOperations, times(1)).rollingRestart("testApp");
+        verifyNoMoreInteractions(appOperations);
+    }
+
+    @Test
+    void applyTest_OnRemovedInstancesResetsThemToTheDefaultWithoutRestartingTheApp() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        when(appOperations.scale(anyString(), any(), any(), any())).thenReturn(Mono.empty());
+        List<CfChange> cfChanges = createRemovedFieldChanges("instances", "3");
+
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations);
+
+        // when
+        requestsPlanner.createApplyRequests("testApp", cfChanges).blockLast();
+
+        // then
+        verify(appOperations, times(1)).scale("testApp", null, null, 1);
+        verifyNoMoreInteractions(appOperations);
+    }
+
+    @Test
+    void applyTest_OnHealthCheckChangeUpdatesTheProcessAndRestartsTheApp() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        List<String> executed = new LinkedList<>();
+        when(appOperations.updateProcess(anyString(), any(), any(), any()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("updateProcess")));
+        when(appOperations.rollingRestart(anyString()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("restart")));
+
+        String appName = "testApp";
+        LinkedList<CfChange> cfChanges = new LinkedList<>();
+        ApplicationBean applicationBean = new ApplicationBean();
+        ApplicationManifestBean manifestBean = new ApplicationManifestBean();
+        manifestBean.setCommand("start.sh");
+        manifestBean.setHealthCheckType(ApplicationHealthCheck.HTTP);
+        manifestBean.setHealthCheckHttpEndpoint("/health");
+        applicationBean.setManifest(manifestBean);
+
+        CfObjectValueChanged healthCheckTypeChange = new CfObjectValueChanged(applicationBean,
+                "healthCheckType",
+                Arrays.asList("path"),
+                "PORT",
+                "HTTP");
+
+        cfChanges.add(healthCheckTypeChange);
+
         ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations);
 
         // when
@@ -436,8 +730,234 @@ class ApplicationRequestPlannerTest {
 
         // then
         assertThat(requests, notNullValue());
+        verify(appOperations, times(1))
+                .updateProcess("testApp", "start.sh", ApplicationHealthCheck.HTTP, "/health");
+        verify(appOperations, times(1)).rollingRestart("testApp");
+        verifyNoMoreInteractions(appOperations);
+        StepVerifier.create(requests)
+                .expectComplete()
+                .verify();
+        assertThat(executed, contains("updateProcess", "restart"));
+    }
+
+    @Test
+    void applyTest_OnRemovedCommandAndHealthCheckResetsThemInTheProcess() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        when(appOperations.updateProcess(anyString(), any(), any(), any())).thenReturn(Mono.empty());
+        when(appOperations.rollingRestart(anyString())).thenReturn(Mono.empty());
+
+        String appName = "testApp";
+        LinkedList<CfChange> cfChanges = new LinkedList<>();
+        ApplicationBean applicationBean = new ApplicationBean();
+        applicationBean.setManifest(new ApplicationManifestBean());
+
+        cfChanges.add(new CfObjectValueChanged(applicationBean,
+                "command",
+                Arrays.asList("path"),
+                "start.sh",
+                null));
+        cfChanges.add(new CfObjectValueChanged(applicationBean,
+                "healthCheckType",
+                Arrays.asList("path"),
+                "HTTP",
+                null));
+
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations);
+
+        // when
+        Flux<Void> requests = requestsPlanner.createApplyRequests(appName, cfChanges);
+
+        // then
+        StepVerifier.create(requests)
+                .expectComplete()
+                .verify();
+        verify(appOperations, times(1)).updateProcess("testApp", ApplicationsOperations.DETECTED_COMMAND,
+                ApplicationHealthCheck.PORT, null);
+        verify(appOperations, times(1)).rollingRestart("testApp");
+    }
+
+    @Test
+    void applyTest_OnHealthCheckChangeRecreatesTheAppIfRestartsTookLongerInPreviousRuns() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        when(appOperations.updateProcess(anyString(), any(), any(), any())).thenReturn(Mono.empty());
+        when(appOperations.restart(anyString())).thenReturn(Mono.empty());
+        when(appOperations.update(anyString(), any())).thenReturn(Mono.empty());
+
+        String appName = "testApp";
+        LinkedList<CfChange> cfChanges = new LinkedList<>();
+        ApplicationBean applicationBean = new ApplicationBean();
+        ApplicationManifestBean manifestBean = new ApplicationManifestBean();
+        manifestBean.setHealthCheckType(ApplicationHealthCheck.HTTP);
+        applicationBean.setManifest(manifestBean);
+
+        cfChanges.add(new CfObjectValueChanged(applicationBean,
+                "healthCheckType",
+                Arrays.asList("path"),
+                "PORT",
+                "HTTP"));
+
+        ApplyCostModel costModel = new ApplyCostModel(
+                Collections.singletonMap(Type.RESTART_APPLICATION, Duration.ofMinutes(10)));
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations,
+                new ApplyBulkheads(), DeploymentStrategy.RECREATE, costModel);
+        ApplyGraph graph = new ApplyGraph();
+
+        // when
+        requestsPlanner.addApplyOperations(graph, appName, cfChanges);
+
+        // then
+        assertThat(graph.getOperations().stream().map(ApplyOperation::getType).collect(Collectors.toList()),
+                contains(Type.UPDATE_APPLICATION));
+        StepVerifier.create(graph.execute())
+                .expectComplete()
+                .verify();
         verify(appOperations, times(1)).update("testApp", applicationBean);
+    }
+
+    @Test
+    void applyTest_OnStackChangeUpdatesTheLifecycleAndRestagesTheAppInstanceByInstanceAfterEnvironmentChanges() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        List<String> executed = new LinkedList<>();
+        when(appOperations.updateLifecycle(anyString(), any(), any()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("updateLifecycle")));
+        when(appOperations.updateEnvironmentVariables(anyString(), any()))
+                .thenReturn(Mono.<Void>empty()
+                        .doOnSubscribe(subscription -> executed.add("updateEnvironmentVariables")));
+        when(appOperations.rollingRestage(anyString()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("rollingRestage")));
+
+        String appName = "testApp";
+        LinkedList<CfChange> cfChanges = new LinkedList<>();
+        ApplicationBean applicationBean = new ApplicationBean();
+        ApplicationManifestBean manifestBean = new ApplicationManifestBean();
+        manifestBean.setBuildpack("java_buildpack");
+        manifestBean.setStack("cflinuxfs3");
+        applicationBean.setManifest(manifestBean);
+
+        CfObjectValueChanged stackChange = new CfObjectValueChanged(applicationBean,
+                "stack",
+                Arrays.asList("path"),
+                "cflinuxfs2",
+                "cflinuxfs3");
+        CfMapChange envVarsChange = new CfMapChange(applicationBean,
+                "environmentVariables",
+                Arrays.asList("path"),
+                Arrays.asList(new CfMapValueChanged("addedKey", "", "added", ChangeType.ADDED)));
+
+        cfChanges.add(stackChange);
+        cfChanges.add(envVarsChange);
+
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations);
+
+        // when
+        Flux<Void> requests = requestsPlanner.createApplyRequests(appName, cfChanges);
+
+        // then
+        assertThat(requests, notNullValue());
+        verify(appOperations, times(1)).updateLifecycle("testApp", "java_buildpack", "cflinuxfs3");
+        verify(appOperations, times(1)).updateEnvironmentVariables("testApp",
+                Collections.singletonMap("addedKey", "added"));
+        verify(appOperations, times(1)).rollingRestage("testApp");
         verifyNoMoreInteractions(appOperations);
+        StepVerifier.create(requests)
+                .expectComplete()
+                .verify();
+        assertThat(executed, hasSize(3));
+        assertThat(executed.get(2), is("rollingRestage"));
+    }
+
+    @Test
+    void applyTest_OnBuildpackChangeRestagesTheAppWithRecreateStrategy() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        when(appOperations.updateLifecycle(anyString(), any(), any())).thenReturn(Mono.empty());
+        when(appOperations.restage(anyString())).thenReturn(Mono.empty());
+
+        ApplicationBean applicationBean = new ApplicationBean();
+        ApplicationManifestBean manifestBean = new ApplicationManifestBean();
+        manifestBean.setBuildpack("java_buildpack");
+        applicationBean.setManifest(manifestBean);
+        List<CfChange> cfChanges = Collections.singletonList(new CfObjectValueChanged(applicationBean,
+                "buildpack",
+                Arrays.asList("path"),
+                "go_buildpack",
+                "java_buildpack"));
+
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations,
+                new ApplyBulkheads(), DeploymentStrategy.RECREATE);
+        ApplyGraph graph = new ApplyGraph();
+
+        // when
+        requestsPlanner.addApplyOperations(graph, "testApp", cfChanges);
+        graph.execute().blockLast();
+
+        // then
+        assertThat(graph.getOperations().stream().map(ApplyOperation::getType).collect(Collectors.toList()),
+                contains(Type.UPDATE_APPLICATION_LIFECYCLE, Type.RESTAGE_APPLICATION));
+        verify(appOperations, times(1)).restage("testApp");
+        verify(appOperations, never()).rollingRestage(anyString());
+    }
+
+    @Test
+    void applyTest_OnProcessEnvironmentAndServiceChangesRestartsTheAppOnceWithRecreateStrategy() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        List<String> executed = new LinkedList<>();
+        when(appOperations.updateProcess(anyString(), any(), any(), any()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("updateProcess")));
+        when(appOperations.updateEnvironmentVariables(anyString(), any()))
+                .thenReturn(Mono.<Void>empty()
+                        .doOnSubscribe(subscription -> executed.add("updateEnvironmentVariables")));
+        when(appOperations.bindToService(anyString(), anyString()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("bindToService")));
+        when(appOperations.restart(anyString()))
+                .thenReturn(Mono.<Void>empty().doOnSubscribe(subscription -> executed.add("restart")));
+
+        String appName = "testApp";
+        LinkedList<CfChange> cfChanges = new LinkedList<>();
+        ApplicationBean applicationBean = new ApplicationBean();
+        ApplicationManifestBean manifestBean = new ApplicationManifestBean();
+        manifestBean.setCommand("start.sh");
+        applicationBean.setManifest(manifestBean);
+
+        cfChanges.add(new CfObjectValueChanged(applicationBean,
+                "command",
+                Arrays.asList("path"),
+                "run.sh",
+                "start.sh"));
+        cfChanges.add(new CfMapChange(applicationBean,
+                "environmentVariables",
+                Arrays.asList("path"),
+                Arrays.asList(new CfMapValueChanged("addedKey", "", "added", ChangeType.ADDED))));
+        cfChanges.add(new CfContainerChange(applicationBean,
+                "services",
+                Arrays.asList("path"),
+                Arrays.asList(new CfContainerValueChanged("serviceAdded", ChangeType.ADDED))));
+
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations,
+                new ApplyBulkheads(), DeploymentStrategy.RECREATE);
+        ApplyGraph graph = new ApplyGraph();
+
+        // when
+        requestsPlanner.addApplyOperations(graph, appName, cfChanges);
+
+        // then
+        List<Type> types = graph.getOperations().stream()
+                .map(ApplyOperation::getType)
+                .collect(Collectors.toList());
+        assertThat(types, contains(Type.UPDATE_APPLICATION_PROCESS, Type.UPDATE_ENVIRONMENT_VARIABLES,
+                Type.BIND_SERVICE, Type.RESTART_APPLICATION));
+        StepVerifier.create(graph.execute())
+                .expectComplete()
+                .verify();
+        verify(appOperations, times(1)).restart("testApp");
+        verify(appOperations, never()).rollingRestart(anyString());
+        verify(appOperations, never()).restage(anyString());
+        assertThat(executed, hasSize(4));
+        assertThat(executed.get(3), is("restart"));
     }
 
     @Test
@@ -462,6 +982,39 @@ class ApplicationRequestPlannerTest {
         assertThat(requests.count().block(), is(0L));
     }
 
+    @Test
+    void addApplyOperations_ForManyApplicationsInParallel_PlansEachApplicationOnItsOwn() {
+        // given
+        ApplicationsOperations appOperations = mock(ApplicationsOperations.class);
+        when(appOperations.create(anyString(), any())).thenReturn(Mono.empty());
+        ApplicationRequestsPlanner requestsPlanner = new ApplicationRequestsPlanner(appOperations);
+
+        // when
+        Map<String, ApplyGraph> graphs = IntStream.range(0, 200)
+                .parallel()
+                .mapToObj(index -> "app" + index)
+                .collect(Collectors.toConcurrentMap(appName -> appName, appName -> {
+                    ApplyGraph graph = new ApplyGraph();
+                    CfNewObject newObject = new CfNewObject(new ApplicationBean(), "", Arrays.asList("path"));
+                    requestsPlanner.addApplyOperations(graph, appName, Collections.singletonList(newObject));
+                    return graph;
+                }));
 
+        // then
+        assertThat(graphs.size(), is(200));
+        graphs.forEach((appName, graph) -> assertThat(graph.getOperations().stream()
+                .map(ApplyOperation::getResourceName)
+                .collect(Collectors.toList()), contains(appName)));
+    }
 
+    // the changes of an app whose manifest no longer specifies the field
+    private List<CfChange> createRemovedFieldChanges(String fieldName, String liveValue) {
+        ApplicationBean applicationBean = new ApplicationBean();
+        applicationBean.setManifest(new ApplicationManifestBean());
+        return Collections.singletonList(new CfObjectValueChanged(applicationBean,
+                fieldName,
+                Arrays.asList("path"),
+                liveValue,
+                null));
+    }
 }
@@ -0,0 +1,94 @@
+package cloud.foundry.cli.logic.apply;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import cloud.foundry.cli.crosscutting.concurrency.ConcurrencyLimiter;
+import cloud.foundry.cli.crosscutting.concurrency.Deadline;
+import cloud.foundry.cli.logic.apply.ApplyBulkheads.Kind;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Test for {@link ApplyBulkheads}
+ */
+public class ApplyBulkheadsTest {
+
+    @Test
+    public void testFullBulkheadDoesNotBlockOtherKinds() {
+        // given
+        ApplyBulkheads bulkheads = new ApplyBulkheads(ConcurrencyLimiter.unlimited("test"),
+                Collections.singletonMap(Kind.APPLICATION_PUSHES, 1));
+        AtomicBoolean secondPushSubscribed = new AtomicBoolean(false);
+        AtomicBoolean environmentChangeSubscribed = new AtomicBoolean(false);
+
+        // when
+        bulkheads.limit(Kind.APPLICATION_PUSHES, Mono.never()).subscribe();
+        bulkheads.limit(Kind.APPLICATION_PUSHES, Mono.empty()
+                .doOnSubscribe(subscription -> secondPushSubscribed.set(true))).subscribe();
+        bulkheads.limit(Kind.APPLICATION_CHANGES, Mono.empty()
+                .doOnSubscribe(subscription -> environmentChangeSubscribed.set(true))).subscribe();
+
+        // then
+        assertThat(secondPushSubscribed.get(), is(false));
+        assertThat(environmentChangeSubscribed.get(), is(true));
+        assertThat(bulkheads.getBulkhead(Kind.APPLICATION_PUSHES).getWaiting(), is(1));
+    }
+
+    @Test
+    public void testWaitingRequestsHoldNoSharedPermit() {
+        // given
+        ConcurrencyLimiter sharedLimiter = new ConcurrencyLimiter("test", 2);
+        ApplyBulkheads bulkheads = new ApplyBulkheads(sharedLimiter,
+                Collections.singletonMap(Kind.SERVICE_PROVISIONING, 1));
+
+        // when
+        bulkheads.limit(Kind.SERVICE_PROVISIONING, Mono.never()).subscribe();
+        bulkheads.limit(Kind.SERVICE_PROVISIONING, Mono.never()).subscribe();
+        bulkheads.limit(Kind.SERVICE_PROVISIONING, Mono.never()).subscribe();
+
+        // then
+        assertThat(sharedLimiter.getInFlight(), is(1));
+        assertThat(sharedLimiter.getWaiting(), is(0));
+    }
+
+    @Test
+    public void testDefaultLimitsAreUsed() {
+        // given
+        ApplyBulkheads bulkheads = new ApplyBulkheads();
+
+        // then
+        for (Kind kind : Kind.values()) {
+            assertThat(bulkheads.getBulkhead(kind).getLimit(), is(kind.getDefaultLimit()));
+        }
+    }
+
+    @Test
+    public void testAdaptiveBulkheadsAdjustTheirLimitsIndependently() {
+        // given
+        ApplyBulkheads bulkheads = ApplyBulkheads.adaptive(Deadline.none());
+        int initialChangesLimit = bulkheads.getBulkhead(Kind.APPLICATION_CHANGES).getLimit();
+        int initialPushesLimit = bulkheads.getBulkhead(Kind.APPLICATION_PUSHES).getLimit();
+
+        // when
+        bulkheads.limit(Kind.APPLICATION_PUSHES, Mono.error(new RuntimeException()))
+                .subscribe(result -> { }, throwable -> { });
+
+        // then
+        assertThat(bulkheads.getBulkhead(Kind.APPLICATION_PUSHES).getLimit(), is(initialPushesLimit / 2));
+        assertThat(bulkheads.getBulkhead(Kind.APPLICATION_CHANGES).getLimit(), is(initialChangesLimit));
+        for (Kind kind : Kind.values()) {
+            assertThat(bulkheads.getBulkhead(kind).getLimit() <= kind.getDefaultLimit(), is(true));
+        }
+    }
+
+    @Test
+    public void testConstructorWithInvalidLimitThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new ApplyBulkheads(ConcurrencyLimiter.unlimited("test"),
+                Collections.singletonMap(Kind.ROUTE_MAPPINGS, 0)));
+    }
+}
@@ -0,0 +1,101 @@
+package cloud.foundry.cli.logic.apply;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * Test for {@link ApplyCostModel}
+ */
+public class ApplyCostModelTest {
+
+    @Test
+    public void testEstimateOfEveryTypeWithoutRecordedDurations() {
+        // given
+        ApplyCostModel costModel = new ApplyCostModel();
+
+        for (Type type : Type.values()) {
+            // when
+            ApplyCost cost = costModel.estimate(new ApplyOperation(type, "resource", Mono.empty()));
+
+            // then
+            assertThat(cost.getApiCalls() > 0, is(true));
+            assertThat(cost.getDuration().isZero(), is(false));
+        }
+    }
+
+    @Test
+    public void testEstimateCountsDurationOfRestartAsDowntime() {
+        // given
+        ApplyCostModel costModel = new ApplyCostModel(
+                Collections.singletonMap(Type.RESTART_APPLICATION, Duration.ofSeconds(40)));
+
+        // when
+        ApplyCost restartCost = costModel.estimate(
+                new ApplyOperation(Type.RESTART_APPLICATION, "app", Mono.empty()));
+        ApplyCost scaleCost = costModel.estimate(new ApplyOperation(Type.SCALE_APPLICATION, "app", Mono.empty()));
+
+        // then
+        assertThat(restartCost.getDuration(), is(Duration.ofSeconds(40)));
+        assertThat(restartCost.getDowntime(), is(Duration.ofSeconds(40)));
+        assertThat(scaleCost.getDowntime(), is(Duration.ZERO));
+    }
+
+    @Test
+    public void testRecordMovesEstimateTowardsRecordedDuration() {
+        // given
+        ApplyCostModel costModel = new ApplyCostModel();
+        ApplyOperation operation = new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.empty());
+
+        // when
+        costModel.record(Type.CREATE_SERVICE, Duration.ofSeconds(100));
+        costModel.record(Type.CREATE_SERVICE, Duration.ofSeconds(20));
+
+        // then
+        assertThat(costModel.estimate(operation).getDuration(), is(Duration.ofSeconds(80)));
+        assertThat(costModel.getRecordedDurations(),
+                is(Collections.singletonMap(Type.CREATE_SERVICE, Duration.ofSeconds(80))));
+    }
+
+    @Test
+    public void testEstimateOfGraphTakesLongestChainOfDependentOperations() {
+        // given
+        ApplyCostModel costModel = new ApplyCostModel();
+        ApplyGraph graph = new ApplyGraph();
+        ApplyOperation createService = new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.empty());
+        ApplyOperation bindService = new ApplyOperation(Type.BIND_SERVICE, "app", "service", Mono.empty());
+        ApplyOperation scaleApp = new ApplyOperation(Type.SCALE_APPLICATION, "app", Mono.empty());
+        graph.addOperation(createService);
+        graph.addOperation(bindService);
+        graph.addOperation(scaleApp);
+        graph.addDependency(bindService, createService);
+
+        // when
+        ApplyCost cost = costModel.estimate(graph);
+
+        // then
+        assertThat(cost.getApiCalls(), is(8));
+        assertThat(cost.getDuration(), is(Duration.ofSeconds(65)));
+        assertThat(cost.getDowntime(), is(Duration.ZERO));
+    }
+
+    @Test
+    public void testCheapestFirstPrefersLessDowntime() {
+        // given
+        ApplyCost fastWithDowntime = new ApplyCost(1, Duration.ofSeconds(10), Duration.ofSeconds(10));
+        ApplyCost slowWithoutDowntime = new ApplyCost(10, Duration.ofSeconds(100), Duration.ZERO);
+
+        // when
+        int comparison = ApplyCost.CHEAPEST_FIRST.compare(slowWithoutDowntime, fastWithDowntime);
+
+        // then
+        assertThat(comparison < 0, is(true));
+    }
+
+}
@@ -0,0 +1,392 @@
+package cloud.foundry.cli.logic.apply;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import cloud.foundry.cli.crosscutting.exceptions.ApplyException;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationManifestBean;
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test for {@link ApplyGraph}
+ */
+public class ApplyGraphTest {
+
+    @Test
+    public void testDependentOperationWaitsForItsDependency() {
+        // given
+        MonoProcessor<Void> serviceCreation = MonoProcessor.create();
+        List<String> started = new LinkedList<>();
+        ApplyOperation createService = new ApplyOperation(Type.CREATE_SERVICE, "service", serviceCreation
+                .doOnSubscribe(subscription -> started.add("service")));
+        ApplyOperation bindService = new ApplyOperation(Type.BIND_SERVICE, "app", "service", Mono.<Void>empty()
+                .doOnSubscribe(subscription -> started.add("binding")));
+
+        ApplyGraph graph = new ApplyGraph();
+        graph.addOperation(bindService);
+        graph.addOperation(createService);
+        graph.addDependency(bindService, createService);
+
+        // when
+        graph.execute().subscribe();
+
+        // then
+        assertThat(started, contains("service"));
+
+        // when
+        serviceCreation.onComplete();
+
+        // then
+        assertThat(started, contains("service", "binding"));
+    }
+
+    @Test
+    public void testIndependentOperationIsNotBlocked() {
+        // given
+        List<String> started = new LinkedList<>();
+        ApplyOperation createService = new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.<Void>never()
+                .doOnSubscribe(subscription -> started.add("service")));
+        ApplyOperation createApplication = new ApplyOperation(Type.CREATE_APPLICATION, "app", Mono.<Void>empty()
+                .doOnSubscribe(subscription -> started.add("app")));
+
+        ApplyGraph graph = new ApplyGraph();
+        graph.addOperation(createService);
+        graph.addOperation(createApplication);
+
+        // when
+        graph.execute().subscribe();
+
+        // then
+        assertThat(started, containsInAnyOrder("service", "app"));
+    }
+
+    @Test
+    public void testFailingOperationSkipsOnlyItsDependents() {
+        // given
+        ApplyOperation createService = new ApplyOperation(Type.CREATE_SERVICE, "service",
+                Mono.error(new RuntimeException("broker unavailable")));
+        ApplyOperation bindService = new ApplyOperation(Type.BIND_SERVICE, "app", "service", Mono.empty());
+        ApplyOperation addRoute = new ApplyOperation(Type.ADD_ROUTE, "app", "app.example.com", Mono.empty());
+
+        ApplyGraph graph = new ApplyGraph();
+        graph.addOperation(createService);
+        graph.addOperation(bindService);
+        graph.addOperation(addRoute);
+        graph.addDependency(bindService, createService);
+
+        List<ApplyOperation> succeeded = new LinkedList<>();
+        List<ApplyOperation> failed = new LinkedList<>();
+        List<ApplyOperation> skipped = new LinkedList<>();
+        ApplyGraph.Listener listener = new ApplyGraph.Listener() {
+            @Override
+            public void onSuccess(ApplyOperation operation) {
+                succeeded.add(operation);
+            }
+
+            @Override
+            public void onFailure(ApplyOperation operation, Throwable throwable) {
+                failed.add(operation);
+            }
+
+            @Override
+            public void onSkip(ApplyOperation operation) {
+                skipped.add(operation);
+            }
+        };
+
+        // when
+        StepVerifier.create(graph.execute(operation -> operation.getRequest().flux(), listener))
+                .verifyComplete();
+
+        // then
+        assertThat(succeeded, contains(addRoute));
+        assertThat(failed, contains(createService));
+        assertThat(skipped, contains(bindService));
+    }
+
+    @Test
+    public void testExecuteFailsOnFailingOperation() {
+        // given
+        ApplyGraph graph = new ApplyGraph();
+        graph.addOperation(new ApplyOperation(Type.REMOVE_APPLICATION, "app",
+                Mono.error(new RuntimeException("not found"))));
+
+        // when + then
+        StepVerifier.create(graph.execute())
+                .expectErrorMessage("not found")
+                .verify();
+    }
+
+    @Test
+    public void testCyclicDependenciesThrowException() {
+        // given
+        ApplyOperation first = new ApplyOperation(Type.ADD_ROUTE, "app", "first.example.com", Mono.empty());
+        ApplyOperation second = new ApplyOperation(Type.ADD_ROUTE, "app", "second.example.com", Mono.empty());
+
+        ApplyGraph graph = new ApplyGraph();
+        graph.addOperation(first);
+        graph.addOperation(second);
+        graph.addDependency(first, second);
+        graph.addDependency(second, first);
+
+        // when + then
+        assertThrows(ApplyException.class, graph::execute);
+    }
+
+    @Test
+    public void testAddDependencyOnUnknownOperationThrowsException() {
+        // given
+        ApplyOperation known = new ApplyOperation(Type.SCALE_APPLICATION, "app", Mono.empty());
+        ApplyOperation unknown = new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.empty());
+
+        ApplyGraph graph = new ApplyGraph();
+        graph.addOperation(known);
+
+        // when + then
+        assertThrows(IllegalArgumentException.class, () -> graph.addDependency(known, unknown));
+    }
+
+    @Test
+    public void testAddServiceDependencies() {
+        // given
+        ApplyOperation createService = new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.empty());
+        ApplyOperation removeService = new ApplyOperation(Type.REMOVE_SERVICE, "old-service", Mono.empty());
+        ApplyOperation createApplication = new ApplyOperation(Type.CREATE_APPLICATION, "app", Mono.empty());
+        ApplyOperation unbindService = new ApplyOperation(Type.UNBIND_SERVICE, "other-app", "old-service",
+                Mono.empty());
+        ApplyOperation bindService = new ApplyOperation(Type.BIND_SERVICE, "other-app", "service", Mono.empty());
+        ApplyOperation createUnrelatedApplication = new ApplyOperation(Type.CREATE_APPLICATION, "unrelated-app",
+                Mono.empty());
+
+        ApplyGraph graph = new ApplyGraph();
+        Arrays.asList(createService, removeService, createApplication, unbindService, bindService,
+                createUnrelatedApplication).forEach(graph::addOperation);
+
+        ApplicationManifestBean manifest = new ApplicationManifestBean();
+        manifest.setServices(Collections.singletonList("service"));
+        ApplicationBean application = new ApplicationBean();
+        application.setManifest(manifest);
+
+        // when
+        graph.addServiceDependencies(Collections.singletonMap("app", application));
+
+        // then
+        assertThat(graph.getDependencies(createApplication), contains(createService));
+        assertThat(graph.getDependencies(bindService), contains(createService));
+        assertThat(graph.getDependencies(removeService), contains(unbindService));
+        assertThat(graph.getDependencies(createUnrelatedApplication), is(empty()));
+        assertThat(graph.getDependencies(createService), is(empty()));
+    }
+
+    @Test
+    public void testAddRenameDependencies() {
+        // given
+        ApplyOperation renameService = new ApplyOperation(Type.RENAME_SERVICE, "service", "old-service",
+                Mono.empty());
+        ApplyOperation updateService = new ApplyOperation(Type.UPDATE_SERVICE, "service", Mono.empty());
+        ApplyOperation renameApplication = new ApplyOperation(Type.RENAME_APPLICATION, "app", "old-app",
+                Mono.empty());
+        ApplyOperation scaleApplication = new ApplyOperation(Type.SCALE_APPLICATION, "app", Mono.empty());
+        ApplyOperation unbindService = new ApplyOperation(Type.UNBIND_SERVICE, "other-app", "service",
+                Mono.empty());
+        ApplyOperation scaleOtherApplication = new ApplyOperation(Type.SCALE_APPLICATION, "other-app",
+                Mono.empty());
+
+        ApplyGraph graph = new ApplyGraph();
+        Arrays.asList(renameService, updateService, renameApplication, scaleApplication, unbindService,
+                scaleOtherApplication).forEach(graph::addOperation);
+
+        // when
+        graph.addRenameDependencies();
+
+        // then
+        assertThat(graph.getDependencies(updateService), contains(renameService));
+        assertThat(graph.getDependencies(scaleApplication), contains(renameApplication));
+        assertThat(graph.getDependencies(unbindService), contains(renameService));
+        assertThat(graph.getDependencies(scaleOtherApplication), is(empty()));
+        assertThat(graph.getDependencies(renameService), is(empty()));
+        assertThat(graph.getDependencies(renameApplication), is(empty()));
+    }
+
+    @Test
+    public void testAddAllKeepsDependencies() {
+        // given
+        ApplyOperation existing = new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.empty());
+        ApplyOperation updateProcess = new ApplyOperation(Type.UPDATE_APPLICATION_PROCESS, "app", Mono.empty());
+        ApplyOperation restart = new ApplyOperation(Type.RESTART_APPLICATION, "app", Mono.empty());
+
+        ApplyGraph graph = new ApplyGraph();
+        graph.addOperation(existing);
+        ApplyGraph other = new ApplyGraph();
+        other.addOperation(updateProcess);
+        other.addOperation(restart);
+        other.addDependency(restart, updateProcess);
+
+        // when
+        graph.addAll(other);
+
+        // then
+        assertThat(graph.getOperations(), contains(existing, updateProcess, restart));
+        assertThat(graph.getDependencies(restart), contains(updateProcess));
+        assertThat(graph.getDependencies(updateProcess), is(empty()));
+    }
+
+    @Test
+    public void testAddPhaseDependencies() {
+        // given
+        ApplyOperation stageFirst = new ApplyOperation(Type.STAGE_APPLICATION, "first-app", Mono.empty());
+        ApplyOperation stageSecond = new ApplyOperation(Type.STAGE_APPLICATION, "second-app", Mono.empty());
+        ApplyOperation switchFirst = new ApplyOperation(Type.SWITCH_APPLICATION_DROPLET, "first-app", Mono.empty());
+        ApplyOperation switchSecond = new ApplyOperation(Type.SWITCH_APPLICATION_DROPLET, "second-app",
+                Mono.empty());
+        ApplyOperation scaleApplication = new ApplyOperation(Type.SCALE_APPLICATION, "first-app", Mono.empty());
+
+        ApplyGraph graph = new ApplyGraph();
+        Arrays.asList(stageFirst, stageSecond, switchFirst, switchSecond, scaleApplication)
+                .forEach(graph::addOperation);
+
+        // when
+        graph.addPhaseDependencies(Type.STAGE_APPLICATION, Type.SWITCH_APPLICATION_DROPLET);
+
+        // then
+        assertThat(graph.getDependencies(switchFirst), contains(stageFirst, stageSecond));
+        assertThat(graph.getDependencies(switchSecond), contains(stageFirst, stageSecond));
+        assertThat(graph.getDependencies(stageFirst), is(empty()));
+        assertThat(graph.getDependencies(scaleApplication), is(empty()));
+    }
+
+    @Test
+    public void testFailingOperationOfEarlierPhaseSkipsAllOperationsOfLaterPhase() {
+        // given
+        ApplyOperation stageFirst = new ApplyOperation(Type.STAGE_APPLICATION, "first-app",
+                Mono.error(new RuntimeException("staging failed")));
+        ApplyOperation stageSecond = new ApplyOperation(Type.STAGE_APPLICATION, "second-app", Mono.empty());
+        ApplyOperation switchSecond = new ApplyOperation(Type.SWITCH_APPLICATION_DROPLET, "second-app",
+                Mono.empty());
+
+        ApplyGraph graph = new ApplyGraph();
+        Arrays.asList(stageFirst, stageSecond, switchSecond).forEach(graph::addOperation);
+        graph.addDependency(switchSecond, stageSecond);
+        graph.addPhaseDependencies(Type.STAGE_APPLICATION, Type.SWITCH_APPLICATION_DROPLET);
+
+        List<ApplyOperation> skipped = new LinkedList<>();
+        ApplyGraph.Listener listener = new ApplyGraph.Listener() {
+            @Override
+            public void onSkip(ApplyOperation operation) {
+                skipped.add(operation);
+            }
+        };
+
+        // when
+        StepVerifier.create(graph.execute(operation -> operation.getRequest().flux(), listener))
+                .verifyComplete();
+
+        // then
+        assertThat(skipped, contains(switchSecond));
+    }
+
+    @Test
+    public void testAddWavesLetsEachWaveWaitForHealthOfPreviousWave() {
+        // given
+        ApplyOperation createService = new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.empty());
+        ApplyOperation updateFirst = new ApplyOperation(Type.UPDATE_APPLICATION, "first-app", Mono.empty());
+        ApplyOperation removeSecond = new ApplyOperation(Type.REMOVE_APPLICATION, "second-app", Mono.empty());
+        ApplyOperation restartThird = new ApplyOperation(Type.RESTART_APPLICATION, "third-app", Mono.empty());
+
+        ApplyGraph graph = new ApplyGraph();
+        Arrays.asList(createService, restartThird, removeSecond, updateFirst).forEach(graph::addOperation);
+
+        // when
+        graph.addWaves(ApplyWaves.parse("1,1"), applicationName ->
+                new ApplyOperation(Type.AWAIT_APPLICATION_HEALTH, applicationName, Mono.empty()));
+
+        // then
+        ApplyOperation awaitFirst = findOperation(graph, "await health of application first-app");
+        ApplyOperation awaitThird = findOperation(graph, "await health of application third-app");
+        assertThat(graph.getOperations().size(), is(6));
+        assertThat(graph.getDependencies(awaitFirst), contains(updateFirst));
+        assertThat(graph.getDependencies(updateFirst), is(empty()));
+        assertThat(graph.getDependencies(removeSecond), contains(awaitFirst));
+        assertThat(graph.getDependencies(restartThird), contains(removeSecond));
+        assertThat(graph.getDependencies(awaitThird), contains(restartThird));
+        assertThat(graph.getDependencies(createService), is(empty()));
+    }
+
+    @Test
+    public void testUnhealthyApplicationSkipsLaterWaves() {
+        // given
+        ApplyOperation updateFirst = new ApplyOperation(Type.UPDATE_APPLICATION, "first-app", Mono.empty());
+        ApplyOperation updateSecond = new ApplyOperation(Type.UPDATE_APPLICATION, "second-app", Mono.empty());
+
+        ApplyGraph graph = new ApplyGraph();
+        Arrays.asList(updateFirst, updateSecond).forEach(graph::addOperation);
+        graph.addWaves(ApplyWaves.parse("1"), applicationName ->
+                new ApplyOperation(Type.AWAIT_APPLICATION_HEALTH, applicationName,
+                        Mono.error(new IllegalStateException("An instance crashed"))));
+
+        List<ApplyOperation> skipped = new LinkedList<>();
+        ApplyGraph.Listener listener = new ApplyGraph.Listener() {
+            @Override
+            public void onSkip(ApplyOperation operation) {
+                skipped.add(operation);
+            }
+        };
+
+        // when
+        StepVerifier.create(graph.execute(operation -> operation.getRequest().flux(), listener))
+                .verifyComplete();
+
+        // then
+        assertThat(skipped, contains(updateSecond, findOperation(graph, "await health of application second-app")));
+    }
+
+    @Test
+    public void testGetPrioritiesPassesPrioritiesOnToDependencies() {
+        // given
+        ApplyOperation createService = new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.empty());
+        ApplyOperation createOtherService = new ApplyOperation(Type.CREATE_SERVICE, "other-service", Mono.empty());
+        ApplyOperation createGateway = new ApplyOperation(Type.CREATE_APPLICATION, "gateway", Mono.empty());
+        ApplyOperation restartWorker = new ApplyOperation(Type.RESTART_APPLICATION, "worker", Mono.empty());
+        ApplyOperation bindWorker = new ApplyOperation(Type.BIND_SERVICE, "worker", "service", Mono.empty());
+
+        ApplyGraph graph = new ApplyGraph();
+        Arrays.asList(createService, createOtherService, createGateway, restartWorker, bindWorker)
+                .forEach(graph::addOperation);
+        graph.addDependency(createGateway, createService);
+        graph.addDependency(bindWorker, createService);
+        graph.addDependency(restartWorker, bindWorker);
+
+        // when
+        Map<ApplyOperation, Integer> priorities = graph.getPriorities(Collections.singletonMap("gateway", 10));
+
+        // then
+        assertThat(priorities.get(createGateway), is(10));
+        assertThat(priorities.get(createService), is(10));
+        assertThat(priorities.get(createOtherService), is(0));
+        assertThat(priorities.get(restartWorker), is(0));
+        assertThat(priorities.get(bindWorker), is(0));
+    }
+
+    private ApplyOperation findOperation(ApplyGraph graph, String description) {
+        return graph.getOperations().stream()
+                .filter(operation -> operation.toString().equals(description))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Missing operation " + description));
+    }
+
+}
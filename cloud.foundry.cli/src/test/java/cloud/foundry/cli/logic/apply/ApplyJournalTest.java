@@ -0,0 +1,181 @@
+package cloud.foundry.cli.logic.apply;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import cloud.foundry.cli.crosscutting.exceptions.ApplyException;
+import cloud.foundry.cli.crosscutting.mapping.beans.PlanBean;
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+/**
+ * Test for {@link ApplyJournal}
+ */
+public class ApplyJournalTest {
+
+    @Test
+    public void testResumeReturnsSucceededOperations(@TempDir Path tempDir) throws IOException {
+        // given
+        Path path = tempDir.resolve("journal");
+        PlanBean plan = createPlan("fingerprint");
+        ApplyOperation createService = new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.empty());
+        ApplyOperation createApp = new ApplyOperation(Type.CREATE_APPLICATION, "app", Mono.empty());
+        ApplyOperation removeApp = new ApplyOperation(Type.REMOVE_APPLICATION, "otherApp", Mono.empty());
+
+        try (ApplyJournal journal = ApplyJournal.create(path, plan)) {
+            journal.recordStart(createService);
+            journal.recordStart(createApp);
+            journal.recordStart(removeApp);
+            journal.recordSuccess(createService);
+            journal.recordFailure(createApp);
+        }
+
+        // when
+        ApplyJournal journal = ApplyJournal.resume(path, plan);
+        journal.close();
+
+        // then
+        assertThat(journal.isResumed(), is(true));
+        assertThat(journal.getCompletedOperations(), is(Collections.singleton("create service service")));
+    }
+
+    @Test
+    public void testResumeAppendsToJournal(@TempDir Path tempDir) throws IOException {
+        // given
+        Path path = tempDir.resolve("journal");
+        PlanBean plan = createPlan("fingerprint");
+        ApplyOperation createService = new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.empty());
+        ApplyOperation createApp = new ApplyOperation(Type.CREATE_APPLICATION, "app", Mono.empty());
+        ApplyJournal.create(path, plan).close();
+
+        try (ApplyJournal journal = ApplyJournal.resume(path, plan)) {
+            journal.recordSuccess(createService);
+        }
+        try (ApplyJournal journal = ApplyJournal.resume(path, plan)) {
+            journal.recordSuccess(createApp);
+        }
+
+        // when
+        ApplyJournal journal = ApplyJournal.resume(path, plan);
+        journal.close();
+
+        // then
+        assertThat(journal.getCompletedOperations().size(), is(2));
+    }
+
+    @Test
+    public void testResumeIgnoresIncompleteLastLine(@TempDir Path tempDir) throws IOException {
+        // given
+        Path path = tempDir.resolve("journal");
+        PlanBean plan = createPlan("fingerprint");
+        ApplyJournal.create(path, plan).close();
+        Files.write(path, "SUCCEEDED".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        // when
+        ApplyJournal journal = ApplyJournal.resume(path, plan);
+        journal.close();
+
+        // then
+        assertThat(journal.getCompletedOperations(), is(empty()));
+    }
+
+    @Test
+    public void testResumeOfJournalOfOtherPlanThrowsException(@TempDir Path tempDir) throws IOException {
+        // given
+        Path path = tempDir.resolve("journal");
+        ApplyJournal.create(path, createPlan("fingerprint")).close();
+
+        // when
+        ApplyException exception = assertThrows(ApplyException.class,
+                () -> ApplyJournal.resume(path, createPlan("otherFingerprint")));
+
+        // then
+        assertThat(exception.getMessage(), containsString("belongs to a different plan"));
+    }
+
+    @Test
+    public void testCreateReplacesExistingJournal(@TempDir Path tempDir) throws IOException {
+        // given
+        Path path = tempDir.resolve("journal");
+        PlanBean plan = createPlan("fingerprint");
+        try (ApplyJournal journal = ApplyJournal.create(path, plan)) {
+            journal.recordSuccess(new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.empty()));
+        }
+
+        // when
+        ApplyJournal.create(path, plan).close();
+
+        // then
+        ApplyJournal journal = ApplyJournal.resume(path, plan);
+        journal.close();
+        assertThat(journal.getCompletedOperations(), is(empty()));
+    }
+
+    @Test
+    public void testNoneRecordsNothing() throws IOException {
+        // given
+        ApplyJournal journal = ApplyJournal.none();
+
+        // when
+        journal.recordSuccess(new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.empty()));
+        journal.close();
+
+        // then
+        assertThat(journal.isResumed(), is(false));
+        assertThat(journal.getCompletedOperations(), is(empty()));
+    }
+
+    @Test
+    public void testStagingOnlyCountsAsCompletedOnceItsDropletIsSwitched(@TempDir Path tempDir) throws IOException {
+        // given
+        Path path = tempDir.resolve("journal");
+        PlanBean plan = createPlan("fingerprint");
+        ApplyOperation stageApp = new ApplyOperation(Type.STAGE_APPLICATION, "app", Mono.empty());
+        ApplyOperation switchApp = new ApplyOperation(Type.SWITCH_APPLICATION_DROPLET, "app", Mono.empty());
+        ApplyOperation stageOtherApp = new ApplyOperation(Type.STAGE_APPLICATION, "otherApp", Mono.empty());
+        ApplyOperation switchOtherApp = new ApplyOperation(Type.SWITCH_APPLICATION_DROPLET, "otherApp",
+                Mono.empty());
+        ApplyGraph graph = new ApplyGraph();
+        graph.addOperation(stageApp);
+        graph.addOperation(switchApp);
+        graph.addOperation(stageOtherApp);
+        graph.addOperation(switchOtherApp);
+
+        try (ApplyJournal journal = ApplyJournal.create(path, plan)) {
+            journal.recordSuccess(stageApp);
+            journal.recordSuccess(stageOtherApp);
+            journal.recordSuccess(switchOtherApp);
+            journal.recordFailure(switchApp);
+        }
+
+        // when
+        ApplyJournal journal = ApplyJournal.resume(path, plan);
+        journal.close();
+
+        // then
+        assertThat(journal.getCompletedOperations(graph), containsInAnyOrder("stage application otherApp",
+                "switch application otherApp to its new droplet"));
+    }
+
+    private PlanBean createPlan(String fingerprint) {
+        PlanBean plan = new PlanBean();
+        plan.setFingerprint(fingerprint);
+        plan.setDeploymentStrategy("ROLLING");
+        plan.setOperations(Collections.singletonMap("create service service", Collections.emptyList()));
+        return plan;
+    }
+
+}
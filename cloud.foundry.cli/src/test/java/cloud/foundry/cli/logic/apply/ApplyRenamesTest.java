@@ -0,0 +1,167 @@
+package cloud.foundry.cli.logic.apply;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
+import cloud.foundry.cli.logic.diff.change.CfChange;
+import cloud.foundry.cli.logic.diff.change.ChangeType;
+import cloud.foundry.cli.logic.diff.change.container.CfContainerChange;
+import cloud.foundry.cli.logic.diff.change.container.CfContainerValueChanged;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Test for {@link ApplyRenames}
+ */
+public class ApplyRenamesTest {
+
+    @Test
+    public void testDetectRenameByPreviousName() {
+        // given
+        ConfigBean liveConfigBean = createConfigBean(createApps("old-app", createApplication("old/path")),
+                Collections.emptyMap());
+        ApplicationBean desiredApplication = createApplication("new/path");
+        desiredApplication.setPreviousName("old-app");
+        ConfigBean desiredConfigBean = createConfigBean(createApps("new-app", desiredApplication),
+                Collections.emptyMap());
+
+        // when
+        ApplyRenames renames = ApplyRenames.detect(liveConfigBean, desiredConfigBean);
+
+        // then
+        assertThat(renames.getApplicationRenames(), is(Collections.singletonMap("new-app", "old-app")));
+        assertThat(renames.getServiceRenames(), is(anEmptyMap()));
+    }
+
+    @Test
+    public void testDetectRenameByStructure() {
+        // given
+        ConfigBean liveConfigBean = createConfigBean(createApps("old-app", createApplication("some/path")),
+                Collections.singletonMap("old-db", createService("sqlservice", "small")));
+        ConfigBean desiredConfigBean = createConfigBean(createApps("new-app", createApplication("some/path")),
+                Collections.singletonMap("new-db", createService("sqlservice", "small")));
+
+        // when
+        ApplyRenames renames = ApplyRenames.detect(liveConfigBean, desiredConfigBean);
+
+        // then
+        assertThat(renames.getApplicationRenames(), is(Collections.singletonMap("new-app", "old-app")));
+        assertThat(renames.getServiceRenames(), is(Collections.singletonMap("new-db", "old-db")));
+    }
+
+    @Test
+    public void testDetectIgnoresAmbiguousAndDifferentResources() {
+        // given
+        ConfigBean liveConfigBean = createConfigBean(
+                createApps("old-app", createApplication("some/path"), "other-old-app", createApplication("some/path")),
+                Collections.singletonMap("old-db", createService("sqlservice", "small")));
+        ConfigBean desiredConfigBean = createConfigBean(createApps("new-app", createApplication("some/path")),
+                Collections.singletonMap("new-db", createService("sqlservice", "large")));
+
+        // when
+        ApplyRenames renames = ApplyRenames.detect(liveConfigBean, desiredConfigBean);
+
+        // then
+        assertThat(renames.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testApplyToListsRenamedResourcesByNewNameWithoutModifyingLiveConfiguration() {
+        // given
+        ApplicationBean liveApplication = createApplication("some/path");
+        ConfigBean liveConfigBean = createConfigBean(createApps("old-app", liveApplication,
+                "unchanged-app", createApplication("other/path")), Collections.emptyMap());
+        ConfigBean desiredConfigBean = createConfigBean(createApps("new-app", createApplication("some/path"),
+                "unchanged-app", createApplication("other/path")), Collections.emptyMap());
+        ApplyRenames renames = ApplyRenames.detect(liveConfigBean, desiredConfigBean);
+
+        // when
+        ConfigBean renamedConfigBean = renames.applyTo(liveConfigBean);
+
+        // then
+        assertThat(renamedConfigBean.getSpec().getApps().keySet(), containsInAnyOrder("new-app", "unchanged-app"));
+        assertThat(renamedConfigBean.getSpec().getApps().get("new-app"), is(sameInstance(liveApplication)));
+        assertThat(liveConfigBean.getSpec().getApps().keySet(), containsInAnyOrder("old-app", "unchanged-app"));
+    }
+
+    @Test
+    public void testWithRenamedBindingsKeepsBindingsOfRenamedService() {
+        // given
+        ConfigBean liveConfigBean = createConfigBean(Collections.emptyMap(),
+                Collections.singletonMap("old-db", createService("sqlservice", "small")));
+        ConfigBean desiredConfigBean = createConfigBean(Collections.emptyMap(),
+                Collections.singletonMap("new-db", createService("sqlservice", "small")));
+        ApplyRenames renames = ApplyRenames.detect(liveConfigBean, desiredConfigBean);
+
+        ApplicationBean application = new ApplicationBean();
+        CfContainerChange keptBinding = new CfContainerChange(application, "services", Arrays.asList("path"),
+                Arrays.asList(new CfContainerValueChanged("old-db", ChangeType.REMOVED),
+                        new CfContainerValueChanged("new-db", ChangeType.ADDED),
+                        new CfContainerValueChanged("cache", ChangeType.ADDED)));
+        CfContainerChange removedBinding = new CfContainerChange(application, "services", Arrays.asList("path"),
+                Collections.singletonList(new CfContainerValueChanged("old-db", ChangeType.REMOVED)));
+        Map<String, List<CfChange>> applicationChanges = new HashMap<>();
+        applicationChanges.put("app", Collections.singletonList(keptBinding));
+        applicationChanges.put("other-app", Collections.singletonList(removedBinding));
+
+        // when
+        Map<String, List<CfChange>> adjustedChanges = renames.withRenamedBindings(applicationChanges);
+
+        // then
+        assertThat(describe(adjustedChanges.get("app")), contains("ADDED cache"));
+        // the unbinding runs after the rename, so it addresses the new name
+        assertThat(describe(adjustedChanges.get("other-app")), contains("REMOVED new-db"));
+    }
+
+    private List<String> describe(List<CfChange> changes) {
+        return changes.stream()
+                .flatMap(change -> ((CfContainerChange) change).getChangedValues().stream())
+                .map(valueChanged -> valueChanged.getChangeType() + " " + valueChanged.getValue())
+                .collect(Collectors.toList());
+    }
+
+    private ConfigBean createConfigBean(Map<String, ApplicationBean> apps, Map<String, ServiceBean> services) {
+        SpecBean spec = new SpecBean();
+        spec.setApps(apps);
+        spec.setServices(services);
+        ConfigBean configBean = new ConfigBean();
+        configBean.setSpec(spec);
+        return configBean;
+    }
+
+    private Map<String, ApplicationBean> createApps(Object... namesAndApplications) {
+        Map<String, ApplicationBean> apps = new HashMap<>();
+        for (int i = 0; i < namesAndApplications.length; i += 2) {
+            apps.put((String) namesAndApplications[i], (ApplicationBean) namesAndApplications[i + 1]);
+        }
+        return apps;
+    }
+
+    private ApplicationBean createApplication(String path) {
+        ApplicationBean application = new ApplicationBean();
+        application.setPath(path);
+        return application;
+    }
+
+    private ServiceBean createService(String service, String plan) {
+        ServiceBean serviceBean = new ServiceBean();
+        serviceBean.setService(service);
+        serviceBean.setPlan(plan);
+        return serviceBean;
+    }
+
+}
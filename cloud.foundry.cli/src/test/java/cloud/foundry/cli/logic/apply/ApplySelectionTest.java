@@ -0,0 +1,162 @@
+package cloud.foundry.cli.logic.apply;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Test for {@link ApplySelection}
+ */
+public class ApplySelectionTest {
+
+    @Test
+    public void testIncludesResourcesMatchingNamesAndWildcards() {
+        // given
+        ApplySelection selection = ApplySelection.parse("apps/billing-*, services/billing-db,apps/a?i");
+
+        // then
+        assertThat(selection.isAll(), is(false));
+        assertThat(selection.includesApplication("billing-api"), is(true));
+        assertThat(selection.includesApplication("api"), is(true));
+        assertThat(selection.includesApplication("billing"), is(false));
+        assertThat(selection.includesApplication("billing-db"), is(true));
+        assertThat(selection.includesService("billing-db"), is(true));
+        assertThat(selection.includesService("billing-api"), is(false));
+        assertThat(selection.includesSpaceDevelopers(), is(false));
+    }
+
+    @Test
+    public void testNamesAreNoRegularExpressions() {
+        // given
+        ApplySelection selection = ApplySelection.parse("apps/billing.v1");
+
+        // then
+        assertThat(selection.includesApplication("billing.v1"), is(true));
+        assertThat(selection.includesApplication("billing-v1"), is(false));
+    }
+
+    @Test
+    public void testAllIncludesEveryResource() {
+        // given
+        ApplySelection selection = ApplySelection.all();
+        ConfigBean configBean = createConfigBean();
+
+        // then
+        assertThat(selection.isAll(), is(true));
+        assertThat(selection.includesApplication("any"), is(true));
+        assertThat(selection.includesService("any"), is(true));
+        assertThat(selection.includesSpaceDevelopers(), is(true));
+        assertThat(selection.select(configBean), is(sameInstance(configBean)));
+    }
+
+    @Test
+    public void testSelectLimitsConfigurationToSelectedResources() {
+        // given
+        ApplySelection selection = ApplySelection.parse("apps/billing,services/billing-*");
+        ConfigBean configBean = createConfigBean();
+
+        // when
+        ConfigBean selectedConfigBean = selection.select(configBean);
+
+        // then
+        assertThat(selectedConfigBean.getSpec().getApps().keySet(), contains("billing"));
+        assertThat(selectedConfigBean.getSpec().getServices().keySet(), contains("billing-db"));
+        assertThat(selectedConfigBean.getSpec().getSpaceDevelopers(), is(nullValue()));
+        assertThat(configBean.getSpec().getApps().size(), is(2));
+        assertThat(selection.select(null), is(nullValue()));
+    }
+
+    @Test
+    public void testToStringCanBeParsedAgain() {
+        // given
+        ApplySelection selection = ApplySelection.parse("apps/billing, services/billing-*");
+
+        // when
+        String specification = selection.toString();
+
+        // then
+        assertThat(specification, is("apps/billing,services/billing-*"));
+        assertThat(ApplySelection.parse(specification), is(selection));
+    }
+
+    @Test
+    public void testParseOfInvalidResourcesThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> ApplySelection.parse("billing"));
+        assertThrows(IllegalArgumentException.class, () -> ApplySelection.parse("apps/"));
+        assertThrows(IllegalArgumentException.class, () -> ApplySelection.parse("apps/billing,,services/db"));
+        assertThrows(IllegalArgumentException.class, () -> ApplySelection.parse("routes/billing"));
+    }
+
+    @Test
+    public void testOfTakesWildcardsLiterally() {
+        // when
+        ApplySelection selection = ApplySelection.of(Arrays.asList("apps/billing*", "services/shop-db"));
+
+        // then
+        assertThat(selection.includesApplication("billing*"), is(true));
+        assertThat(selection.includesApplication("billing"), is(false));
+        assertThat(selection.includesService("shop-db"), is(true));
+        assertThat(selection.includesService("billing-db"), is(false));
+        assertThat(selection.toString(), is("apps/billing*,services/shop-db"));
+    }
+
+    @Test
+    public void testWithPreviousNamesSelectsRenamedResourcesByTheirPreviousNames() {
+        // given
+        ApplicationBean renamedApplication = new ApplicationBean();
+        renamedApplication.setPreviousName("old-billing");
+        ServiceBean renamedService = new ServiceBean();
+        renamedService.setPreviousName("old-shop-db");
+        ServiceBean unselectedRenamedService = new ServiceBean();
+        unselectedRenamedService.setPreviousName("old-billing-db");
+        ConfigBean desiredConfigBean = createConfigBean();
+        desiredConfigBean.getSpec().getApps().put("billing", renamedApplication);
+        desiredConfigBean.getSpec().getServices().put("shop-db", renamedService);
+        desiredConfigBean.getSpec().getServices().put("billing-db", unselectedRenamedService);
+        ApplySelection selection = ApplySelection.parse("apps/billing,services/shop-*");
+
+        // when
+        ApplySelection liveSelection = selection.withPreviousNames(desiredConfigBean);
+
+        // then
+        assertThat(liveSelection.includesApplication("billing"), is(true));
+        assertThat(liveSelection.includesApplication("old-billing"), is(true));
+        assertThat(liveSelection.includesService("shop-db"), is(true));
+        assertThat(liveSelection.includesService("old-shop-db"), is(true));
+        assertThat(liveSelection.includesService("old-billing-db"), is(false));
+        assertThat(liveSelection.withPreviousNames(desiredConfigBean), is(liveSelection));
+        assertThat(ApplySelection.all().withPreviousNames(desiredConfigBean).isAll(), is(true));
+    }
+
+    private ConfigBean createConfigBean() {
+        Map<String, ApplicationBean> apps = new LinkedHashMap<>();
+        apps.put("billing", new ApplicationBean());
+        apps.put("shop", new ApplicationBean());
+        Map<String, ServiceBean> services = new LinkedHashMap<>();
+        services.put("billing-db", new ServiceBean());
+        services.put("shop-db", new ServiceBean());
+
+        SpecBean spec = new SpecBean();
+        spec.setApps(apps);
+        spec.setServices(services);
+        spec.setSpaceDevelopers(Collections.singletonList("developer"));
+        ConfigBean configBean = new ConfigBean();
+        configBean.setSpec(spec);
+        return configBean;
+    }
+
+}
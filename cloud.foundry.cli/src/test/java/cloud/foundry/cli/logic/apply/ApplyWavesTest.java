@@ -0,0 +1,86 @@
+package cloud.foundry.cli.logic.apply;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test for {@link ApplyWaves}
+ */
+public class ApplyWavesTest {
+
+    private static final List<String> APPLICATION_NAMES = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h",
+            "i", "j", "k", "l");
+
+    @Test
+    public void testPartitionIntoCanaryPercentageAndRest() {
+        // given
+        ApplyWaves waves = ApplyWaves.parse("1,10%");
+
+        // when
+        List<List<String>> partition = waves.partition(APPLICATION_NAMES);
+
+        // then
+        // ten percent of twelve applications are rounded up to two applications
+        assertThat(partition, contains(
+                Collections.singletonList("a"),
+                Arrays.asList("b", "c"),
+                Arrays.asList("d", "e", "f", "g", "h", "i", "j", "k", "l")));
+    }
+
+    @Test
+    public void testPartitionOmitsEmptyWaves() {
+        // given
+        ApplyWaves waves = ApplyWaves.parse("2, 100%, 5");
+
+        // when
+        List<List<String>> partition = waves.partition(Arrays.asList("a", "b", "c"));
+
+        // then
+        assertThat(partition, contains(Arrays.asList("a", "b"), Collections.singletonList("c")));
+    }
+
+    @Test
+    public void testNonePutsAllApplicationsIntoSingleWave() {
+        // given
+        ApplyWaves waves = ApplyWaves.none();
+
+        // when
+        List<List<String>> partition = waves.partition(APPLICATION_NAMES);
+
+        // then
+        assertThat(waves.isNone(), is(true));
+        assertThat(partition, contains(APPLICATION_NAMES));
+        assertThat(waves.partition(Collections.emptyList()).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testToStringCanBeParsedAgain() {
+        // given
+        ApplyWaves waves = ApplyWaves.parse("1, 10%,25%");
+
+        // when
+        String specification = waves.toString();
+
+        // then
+        assertThat(specification, is("1,10%,25%"));
+        assertThat(ApplyWaves.parse(specification), is(waves));
+    }
+
+    @Test
+    public void testParseOfInvalidSizesThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> ApplyWaves.parse("0"));
+        assertThrows(IllegalArgumentException.class, () -> ApplyWaves.parse("101%"));
+        assertThrows(IllegalArgumentException.class, () -> ApplyWaves.parse("1,,2"));
+        assertThrows(IllegalArgumentException.class, () -> ApplyWaves.parse("-1"));
+        assertThrows(IllegalArgumentException.class, () -> ApplyWaves.parse("half"));
+    }
+
+}
@@ -0,0 +1,93 @@
+package cloud.foundry.cli.logic.apply;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationManifestBean;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Test for {@link LiveStateFingerprint}
+ */
+public class LiveStateFingerprintTest {
+
+    @Test
+    public void testFingerprintIsIndependentOfOrder() {
+        // given
+        Map<String, String> applicationSummaries = new LinkedHashMap<>();
+        applicationSummaries.put("app1", "id=1 state=STARTED");
+        applicationSummaries.put("app2", "id=2 state=STOPPED");
+        Map<String, String> reorderedApplicationSummaries = new LinkedHashMap<>();
+        reorderedApplicationSummaries.put("app2", "id=2 state=STOPPED");
+        reorderedApplicationSummaries.put("app1", "id=1 state=STARTED");
+
+        // when
+        String fingerprint = LiveStateFingerprint.create(Arrays.asList("dev1", "dev2"), applicationSummaries,
+                Collections.emptyMap());
+        String reorderedFingerprint = LiveStateFingerprint.create(Arrays.asList("dev2", "dev1"),
+                reorderedApplicationSummaries, Collections.emptyMap());
+
+        // then
+        assertThat(fingerprint, is(reorderedFingerprint));
+    }
+
+    @Test
+    public void testFingerprintChangesWithSummary() {
+        // given
+        Map<String, String> serviceSummaries = Collections.singletonMap("service", "id=1 plan=small");
+        Map<String, String> changedServiceSummaries = Collections.singletonMap("service", "id=1 plan=large");
+
+        // when
+        String fingerprint = LiveStateFingerprint.create(Collections.emptyList(), Collections.emptyMap(),
+                serviceSummaries);
+        String changedFingerprint = LiveStateFingerprint.create(Collections.emptyList(), Collections.emptyMap(),
+                changedServiceSummaries);
+
+        // then
+        assertThat(fingerprint, is(not(changedFingerprint)));
+    }
+
+    @Test
+    public void testFingerprintDistinguishesApplicationsFromServices() {
+        // given
+        Map<String, String> summaries = Collections.singletonMap("name", "id=1");
+
+        // when
+        String applicationFingerprint = LiveStateFingerprint.create(Collections.emptyList(), summaries,
+                Collections.emptyMap());
+        String serviceFingerprint = LiveStateFingerprint.create(Collections.emptyList(), Collections.emptyMap(),
+                summaries);
+
+        // then
+        assertThat(applicationFingerprint, is(not(serviceFingerprint)));
+    }
+
+    @Test
+    public void testResourceFingerprintChangesWithEnvironmentVariables() {
+        // given
+        ApplicationManifestBean manifest = new ApplicationManifestBean();
+        manifest.setEnvironmentVariables(Collections.<String, Object>singletonMap("KEY", "value"));
+        ApplicationBean application = new ApplicationBean();
+        application.setManifest(manifest);
+        ApplicationManifestBean changedManifest = new ApplicationManifestBean();
+        changedManifest.setEnvironmentVariables(Collections.<String, Object>singletonMap("KEY", "changed value"));
+        ApplicationBean changedApplication = new ApplicationBean();
+        changedApplication.setManifest(changedManifest);
+
+        // when
+        String fingerprint = LiveStateFingerprint.createOfResource(application);
+        String changedFingerprint = LiveStateFingerprint.createOfResource(changedApplication);
+
+        // then
+        assertThat(fingerprint, is(not(changedFingerprint)));
+        assertThat(fingerprint, is(LiveStateFingerprint.createOfResource(application)));
+    }
+
+}
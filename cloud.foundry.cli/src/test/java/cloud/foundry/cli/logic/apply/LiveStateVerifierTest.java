@@ -0,0 +1,108 @@
+package cloud.foundry.cli.logic.apply;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cloud.foundry.cli.crosscutting.concurrency.Deadline;
+import cloud.foundry.cli.crosscutting.exceptions.ApplyException;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
+import cloud.foundry.cli.logic.apply.ApplyOperation.Type;
+import cloud.foundry.cli.operations.ApplicationsOperations;
+import cloud.foundry.cli.operations.ServicesOperations;
+import cloud.foundry.cli.operations.SpaceDevelopersOperations;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Test for {@link LiveStateVerifier}
+ */
+public class LiveStateVerifierTest {
+
+    @Test
+    public void testChangedResourcesCoverBothNamesOfRenamedResources() {
+        // given
+        ApplyGraph graph = new ApplyGraph();
+        graph.addOperation(new ApplyOperation(Type.ASSIGN_SPACE_DEVELOPER, "developer", Mono.empty()));
+        graph.addOperation(new ApplyOperation(Type.RENAME_SERVICE, "newService", "oldService", Mono.empty()));
+        graph.addOperation(new ApplyOperation(Type.SCALE_APPLICATION, "app", Mono.empty()));
+
+        // when
+        Set<String> resources = LiveStateVerifier.getChangedResources(graph);
+
+        // then
+        assertThat(resources, contains("apps/app", "services/newService", "services/oldService"));
+    }
+
+    @Test
+    public void testFetchResourceFingerprintsOnlyFetchesTheChangedResources() {
+        // given
+        ApplicationBean applicationBean = new ApplicationBean();
+        applicationBean.setPath("some/path");
+        ConfigBean configBean = new ConfigBean();
+        configBean.setSpec(new SpecBean());
+        configBean.getSpec().setApps(Collections.singletonMap("app", applicationBean));
+        Set<String> changedResources = new HashSet<>(Arrays.asList("apps/app", "services/service"));
+        List<ApplySelection> fetchedSelections = new LinkedList<>();
+
+        LiveStateVerifier verifier = new LiveStateVerifier(mock(SpaceDevelopersOperations.class),
+                mock(ApplicationsOperations.class), mock(ServicesOperations.class),
+                selection -> {
+                    fetchedSelections.add(selection);
+                    return configBean;
+                },
+                Deadline.none());
+
+        // when
+        Map<String, String> fingerprints = verifier.fetchResourceFingerprints(changedResources);
+
+        // then
+        assertThat(fingerprints, is(Collections.singletonMap("apps/app",
+                LiveStateFingerprint.createOfResource(applicationBean))));
+        assertThat(fetchedSelections, contains(ApplySelection.of(changedResources)));
+    }
+
+    @Test
+    public void testVerifyCompletedOperationsFailsIfCreatedServiceIsGone() {
+        // given
+        ApplicationsOperations applicationsOperations = mock(ApplicationsOperations.class);
+        when(applicationsOperations.getSummaries()).thenReturn(Mono.just(Collections.singletonMap("app", "id=1")));
+        ServicesOperations servicesOperations = mock(ServicesOperations.class);
+        when(servicesOperations.getSummaries()).thenReturn(Mono.just(Collections.emptyMap()));
+        SpaceDevelopersOperations spaceDevelopersOperations = mock(SpaceDevelopersOperations.class);
+
+        ApplyGraph graph = new ApplyGraph();
+        graph.addOperation(new ApplyOperation(Type.CREATE_APPLICATION, "app", Mono.empty()));
+        graph.addOperation(new ApplyOperation(Type.CREATE_SERVICE, "service", Mono.empty()));
+        Set<String> completedOperations = new HashSet<>(Arrays.asList("create application app",
+                "create service service"));
+
+        LiveStateVerifier verifier = new LiveStateVerifier(spaceDevelopersOperations, applicationsOperations,
+                servicesOperations, selection -> new ConfigBean(), Deadline.none());
+
+        // when
+        ApplyException exception = assertThrows(ApplyException.class,
+                () -> verifier.verifyCompletedOperations(graph, completedOperations));
+
+        // then
+        assertThat(exception.getMessage(), containsString("create service service"));
+        verify(spaceDevelopersOperations, never()).getAll();
+    }
+
+}
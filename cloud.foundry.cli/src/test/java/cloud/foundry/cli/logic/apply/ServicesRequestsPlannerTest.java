@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import cloud.foundry.cli.crosscutting.exceptions.ApplyException;
@@ -17,6 +18,8 @@ import cloud.foundry.cli.logic.diff.change.object.CfObjectValueChanged;
 import cloud.foundry.cli.logic.diff.change.ChangeType;
 import cloud.foundry.cli.logic.diff.change.container.CfContainerChange;
 import cloud.foundry.cli.logic.diff.change.container.CfContainerValueChanged;
+import cloud.foundry.cli.logic.diff.change.map.CfMapChange;
+import cloud.foundry.cli.logic.diff.change.map.CfMapValueChanged;
 import cloud.foundry.cli.logic.diff.change.object.CfRemovedObject;
 import cloud.foundry.cli.operations.ServicesOperations;
 import org.junit.jupiter.api.Test;
@@ -121,12 +124,12 @@ public class ServicesRequestsPlannerTest {
 
   
     @Test
-    public void testCreateWithObjectValueChangedSucceeds() {
+    public void testCreateWithServiceOfferingChangedRecreatesService() {
         // given
         String serviceName = "serviceName";
         ServiceBean serviceBeanMock = mock(ServiceBean.class);
         ServicesOperations servicesOperations = mock(ServicesOperations.class);
-        CfChange objectChanged = new CfObjectValueChanged(serviceBeanMock, serviceName,
+        CfChange objectChanged = new CfObjectValueChanged(serviceBeanMock, "service",
             Collections.singletonList("root"),
             "valueBefore", "valueAfter");
         Void voidMock = mock(Void.class);
@@ -140,6 +143,7 @@ public class ServicesRequestsPlannerTest {
         // then
         assertThat(requests, notNullValue());
         verify(servicesOperations, times(1)).update(serviceName, serviceBeanMock);
+        verifyNoMoreInteractions(servicesOperations);
         StepVerifier.create(requests)
             .expectNext(voidMock)
             .expectComplete()
@@ -166,19 +170,22 @@ public class ServicesRequestsPlannerTest {
 
 
     @Test
-    public void testCreateWithCfContainerChangeSucceeds() {
+    public void testCreateWithCfContainerChangeUpdatesTagsInPlace() {
         // given
         String serviceName = "serviceName";
-        ServiceBean serviceBeanMock = mock(ServiceBean.class);
+        ServiceBean serviceBean = new ServiceBean();
+        serviceBean.setPlan("free");
+        serviceBean.setTags(Arrays.asList("tags1"));
         ServicesOperations servicesOperations = mock(ServicesOperations.class);
 
         List<CfContainerValueChanged> changedValues = createCfContainerChange();
-        CfChange newChange = new CfContainerChange(serviceBeanMock, serviceName,
+        CfChange newChange = new CfContainerChange(serviceBean, "tags",
             Collections.singletonList("root"),
             changedValues);
 
         Void voidMock = mock(Void.class);
-        Mockito.when(servicesOperations.update(serviceName, serviceBeanMock)).thenReturn(Mono.just(voidMock));
+        Mockito.when(servicesOperations.updateInstance(serviceName, null, null, Arrays.asList("tags1")))
+            .thenReturn(Mono.just(voidMock));
         List<CfChange> cfChanges = new LinkedList<>();
         cfChanges.add(newChange);
         ServiceRequestsPlanner serviceRequestsPlanner = new ServiceRequestsPlanner(servicesOperations);
@@ -187,7 +194,8 @@ public class ServicesRequestsPlannerTest {
 
         // then
         assertThat(requests, notNullValue());
-        verify(servicesOperations, times(1)).update(serviceName, serviceBeanMock);
+        verify(servicesOperations, times(1)).updateInstance(serviceName, null, null, Arrays.asList("tags1"));
+        verifyNoMoreInteractions(servicesOperations);
         StepVerifier.create(requests)
             .expectNext(voidMock)
             .expectComplete()
@@ -196,33 +204,45 @@ public class ServicesRequestsPlannerTest {
 
    
     @Test
-    public void testCreateWithUpdateServiceSucceeds() {
+    public void testCreateWithPlanTagsAndParamsChangeUpdatesServiceInPlace() {
         // given
         String serviceName = "serviceName";
-        ServiceBean serviceBeanMock = mock(ServiceBean.class);
+        ServiceBean serviceBean = new ServiceBean();
+        serviceBean.setService("mySQL");
+        serviceBean.setPlan("large");
+        serviceBean.setParams(Collections.singletonMap("size", "10GB"));
         ServicesOperations servicesOperations = mock(ServicesOperations.class);
 
         List<CfContainerValueChanged> changedValues = createCfContainerChange();
-        CfChange containerChanged = new CfContainerChange(serviceBeanMock, serviceName,
+        CfChange containerChanged = new CfContainerChange(serviceBean, "tags",
             Collections.singletonList("root"),
             changedValues);
 
-        CfChange objectChanged = new CfObjectValueChanged(serviceBeanMock, serviceName,
+        CfChange objectChanged = new CfObjectValueChanged(serviceBean, "plan",
             Collections.singletonList("root"),
-            "valueBefore", "valueAfter");
+            "small", "large");
+
+        CfChange mapChanged = new CfMapChange(serviceBean, "params",
+            Collections.singletonList("root"),
+            Collections.singletonList(new CfMapValueChanged("size", "5GB", "10GB", ChangeType.CHANGED)));
 
         Void voidMock = mock(Void.class);
-        Mockito.when(servicesOperations.update(serviceName, serviceBeanMock)).thenReturn(Mono.just(voidMock));
+        Mockito.when(servicesOperations.updateInstance(serviceName, "large",
+                Collections.singletonMap("size", "10GB"), Collections.emptyList()))
+            .thenReturn(Mono.just(voidMock));
         List<CfChange> cfChanges = new LinkedList<>();
         cfChanges.add(containerChanged);
         cfChanges.add(objectChanged);
+        cfChanges.add(mapChanged);
         ServiceRequestsPlanner serviceRequestsPlanner = new ServiceRequestsPlanner(servicesOperations);
         // when
         Flux<Void> requests = serviceRequestsPlanner.createApplyRequests(serviceName, cfChanges);
 
         // then
         assertThat(requests, notNullValue());
-        verify(servicesOperations, times(1)).update(serviceName, serviceBeanMock);
+        verify(servicesOperations, times(1)).updateInstance(serviceName, "large",
+                Collections.singletonMap("size", "10GB"), Collections.emptyList());
+        verifyNoMoreInteractions(servicesOperations);
         StepVerifier.create(requests)
             .expectNext(voidMock)
             .expectComplete()
@@ -0,0 +1,130 @@
+package cloud.foundry.cli.logic.diff;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationManifestBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Test for {@link LastAppliedBaseline}
+ */
+public class LastAppliedBaselineTest {
+
+    @Test
+    public void testNormalizeSkipsTheComparisonOfUnchangedSections() {
+        // given
+        ApplicationManifestBean liveManifest = createManifest(2048);
+        ConfigBean liveConfigBean = createConfigBean(createApplication(liveManifest), createService("small"));
+        liveConfigBean.getSpec().setSpaceDevelopers(Arrays.asList("developer", "other-developer"));
+        ConfigBean desiredConfigBean = createConfigBean(createApplication(createManifest(1024)),
+                createService("small"));
+        desiredConfigBean.getSpec().setSpaceDevelopers(Collections.singletonList("developer"));
+        ConfigBean lastAppliedConfigBean = createConfigBean(createApplication(createManifest(1024)),
+                createService("small"));
+        lastAppliedConfigBean.getSpec().setSpaceDevelopers(Collections.singletonList("developer"));
+
+        // when
+        ConfigBean normalizedConfigBean = LastAppliedBaseline.normalize(liveConfigBean, desiredConfigBean,
+                lastAppliedConfigBean);
+
+        // then
+        SpecBean normalizedSpec = normalizedConfigBean.getSpec();
+        assertThat(normalizedSpec.getApps().get("app"), is(sameInstance(desiredConfigBean.getSpec().getApps()
+                .get("app"))));
+        assertThat(normalizedSpec.getServices().get("service"), is(sameInstance(desiredConfigBean.getSpec()
+                .getServices().get("service"))));
+        assertThat(normalizedSpec.getSpaceDevelopers(), contains("developer"));
+        // the live configuration is left untouched
+        assertThat(liveManifest.getMemory(), is(2048));
+    }
+
+    @Test
+    public void testNormalizeDropsUndeclaredAndKeepsRemovedSettingsOfChangedSections() {
+        // given
+        ApplicationManifestBean liveManifest = createManifest(1024);
+        liveManifest.setInstances(3);
+        liveManifest.setStack("cflinuxfs3");
+        ServiceBean liveService = createService("small");
+        liveService.setTags(Collections.singletonList("sql"));
+        ConfigBean liveConfigBean = createConfigBean(createApplication(liveManifest), liveService);
+        ConfigBean desiredConfigBean = createConfigBean(createApplication(createManifest(2048)),
+                createService("large"));
+        ApplicationManifestBean lastAppliedManifest = createManifest(1024);
+        lastAppliedManifest.setInstances(3);
+        ConfigBean lastAppliedConfigBean = createConfigBean(createApplication(lastAppliedManifest),
+                createService("small"));
+
+        // when
+        ConfigBean normalizedConfigBean = LastAppliedBaseline.normalize(liveConfigBean, desiredConfigBean,
+                lastAppliedConfigBean);
+
+        // then
+        ApplicationManifestBean normalizedManifest = normalizedConfigBean.getSpec().getApps().get("app")
+                .getManifest();
+        assertThat(normalizedManifest.getMemory(), is(1024));
+        assertThat(normalizedManifest.getInstances(), is(3));
+        assertThat(normalizedManifest.getStack(), is(nullValue()));
+        ServiceBean normalizedService = normalizedConfigBean.getSpec().getServices().get("service");
+        assertThat(normalizedService.getPlan(), is("small"));
+        assertThat(normalizedService.getTags(), is(nullValue()));
+        assertThat(liveManifest.getStack(), is("cflinuxfs3"));
+    }
+
+    @Test
+    public void testNormalizeComparesSectionsMissingInTheLastAppliedConfiguration() {
+        // given
+        ApplicationManifestBean liveManifest = createManifest(2048);
+        ConfigBean liveConfigBean = createConfigBean(createApplication(liveManifest), createService("small"));
+        ConfigBean desiredConfigBean = createConfigBean(createApplication(createManifest(1024)),
+                createService("small"));
+        ConfigBean lastAppliedConfigBean = new ConfigBean();
+        lastAppliedConfigBean.setSpec(new SpecBean());
+
+        // when
+        ConfigBean normalizedConfigBean = LastAppliedBaseline.normalize(liveConfigBean, desiredConfigBean,
+                lastAppliedConfigBean);
+
+        // then
+        assertThat(normalizedConfigBean.getSpec().getApps().get("app").getManifest().getMemory(), is(2048));
+    }
+
+    private ConfigBean createConfigBean(ApplicationBean application, ServiceBean service) {
+        ConfigBean configBean = new ConfigBean();
+        configBean.setSpec(new SpecBean());
+        configBean.getSpec().setApps(Collections.singletonMap("app", application));
+        configBean.getSpec().setServices(Collections.singletonMap("service", service));
+        return configBean;
+    }
+
+    private ApplicationBean createApplication(ApplicationManifestBean manifest) {
+        ApplicationBean application = new ApplicationBean();
+        application.setPath("some/path");
+        application.setManifest(manifest);
+        return application;
+    }
+
+    private ApplicationManifestBean createManifest(int memory) {
+        ApplicationManifestBean manifest = new ApplicationManifestBean();
+        manifest.setMemory(memory);
+        return manifest;
+    }
+
+    private ServiceBean createService(String plan) {
+        ServiceBean service = new ServiceBean();
+        service.setService("sqlservice");
+        service.setPlan(plan);
+        return service;
+    }
+
+}
@@ -0,0 +1,109 @@
+package cloud.foundry.cli.logic.diff;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationManifestBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.ConfigBean;
+import cloud.foundry.cli.crosscutting.mapping.beans.SpecBean;
+import org.cloudfoundry.operations.applications.ApplicationHealthCheck;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+/**
+ * Test for {@link ManifestDefaults}
+ */
+public class ManifestDefaultsTest {
+
+    @Test
+    public void testNormalizeDropsDefaultsTheDesiredManifestOmits() {
+        // given
+        ApplicationManifestBean liveManifest = new ApplicationManifestBean();
+        liveManifest.setDisk(1024);
+        liveManifest.setHealthCheckType(ApplicationHealthCheck.PORT);
+        liveManifest.setInstances(1);
+        liveManifest.setMemory(1024);
+        liveManifest.setStack("cflinuxfs3");
+        liveManifest.setTimeout(60);
+        liveManifest.setBuildpack("java_buildpack");
+        ApplicationBean liveApplication = createApplication(liveManifest);
+        liveApplication.setPriority(5);
+        ConfigBean liveConfigBean = createConfigBean(liveApplication);
+        ConfigBean desiredConfigBean = createConfigBean(createApplication(new ApplicationManifestBean()));
+
+        // when
+        ConfigBean normalizedConfigBean = ManifestDefaults.normalize(liveConfigBean, desiredConfigBean);
+
+        // then
+        ApplicationBean normalizedApplication = normalizedConfigBean.getSpec().getApps().get("app");
+        ApplicationManifestBean normalizedManifest = normalizedApplication.getManifest();
+        assertThat(normalizedManifest.getDisk(), is(nullValue()));
+        assertThat(normalizedManifest.getHealthCheckType(), is(nullValue()));
+        assertThat(normalizedManifest.getInstances(), is(nullValue()));
+        assertThat(normalizedManifest.getMemory(), is(nullValue()));
+        assertThat(normalizedManifest.getStack(), is(nullValue()));
+        assertThat(normalizedManifest.getTimeout(), is(nullValue()));
+        assertThat(normalizedManifest.getBuildpack(), is("java_buildpack"));
+        assertThat(normalizedApplication.getPath(), is("some/path"));
+        assertThat(normalizedApplication.getPriority(), is(5));
+        // the live configuration is left untouched
+        assertThat(liveManifest.getMemory(), is(1024));
+        assertThat(liveManifest.getStack(), is("cflinuxfs3"));
+    }
+
+    @Test
+    public void testNormalizeKeepsValuesThatDifferFromDefaultsOrAreSpecified() {
+        // given
+        ApplicationManifestBean liveManifest = new ApplicationManifestBean();
+        liveManifest.setInstances(3);
+        liveManifest.setMemory(1024);
+        liveManifest.setStack("cflinuxfs3");
+        ConfigBean liveConfigBean = createConfigBean(createApplication(liveManifest));
+        ApplicationManifestBean desiredManifest = new ApplicationManifestBean();
+        desiredManifest.setMemory(512);
+        desiredManifest.setStack("cflinuxfs4");
+        ConfigBean desiredConfigBean = createConfigBean(createApplication(desiredManifest));
+
+        // when
+        ConfigBean normalizedConfigBean = ManifestDefaults.normalize(liveConfigBean, desiredConfigBean);
+
+        // then
+        assertThat(normalizedConfigBean, is(sameInstance(liveConfigBean)));
+    }
+
+    @Test
+    public void testNormalizeKeepsApplicationsTheDesiredConfigurationDoesNotContain() {
+        // given
+        ApplicationManifestBean liveManifest = new ApplicationManifestBean();
+        liveManifest.setMemory(1024);
+        ConfigBean liveConfigBean = createConfigBean(createApplication(liveManifest));
+        ConfigBean desiredConfigBean = new ConfigBean();
+        desiredConfigBean.setSpec(new SpecBean());
+        desiredConfigBean.getSpec().setApps(Collections.emptyMap());
+
+        // when
+        ConfigBean normalizedConfigBean = ManifestDefaults.normalize(liveConfigBean, desiredConfigBean);
+
+        // then
+        assertThat(normalizedConfigBean, is(sameInstance(liveConfigBean)));
+    }
+
+    private ConfigBean createConfigBean(ApplicationBean application) {
+        ConfigBean configBean = new ConfigBean();
+        configBean.setSpec(new SpecBean());
+        configBean.getSpec().setApps(Collections.singletonMap("app", application));
+        return configBean;
+    }
+
+    private ApplicationBean createApplication(ApplicationManifestBean manifest) {
+        ApplicationBean application = new ApplicationBean();
+        application.setPath("some/path");
+        application.setManifest(manifest);
+        return application;
+    }
+
+}
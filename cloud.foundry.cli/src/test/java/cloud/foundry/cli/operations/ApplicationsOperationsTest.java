@@ -15,16 +15,82 @@ import cloud.foundry.cli.mocking.CloudFoundryClientMockBuilder;
 import cloud.foundry.cli.mocking.DefaultCloudFoundryOperationsMockBuilder;
 import cloud.foundry.cli.crosscutting.mapping.beans.ApplicationBean;
 import cloud.foundry.cli.crosscutting.exceptions.CreationException;
+import org.cloudfoundry.client.v3.BuildpackData;
+import org.cloudfoundry.client.v3.Lifecycle;
+import org.cloudfoundry.client.v3.LifecycleType;
 import org.cloudfoundry.client.v3.Metadata;
+import org.cloudfoundry.client.v3.Relationship;
+import org.cloudfoundry.client.v3.ToOneRelationship;
 
 import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.applications.ApplicationsV2;
+import org.cloudfoundry.client.v2.applications.RemoveApplicationRouteRequest;
+import org.cloudfoundry.client.v2.applications.UpdateApplicationResponse;
+import org.cloudfoundry.client.v2.servicebindings.CreateServiceBindingRequest;
+import org.cloudfoundry.client.v2.servicebindings.DeleteServiceBindingRequest;
+import org.cloudfoundry.client.v2.servicebindings.ListServiceBindingsRequest;
+import org.cloudfoundry.client.v2.servicebindings.ListServiceBindingsResponse;
+import org.cloudfoundry.client.v2.servicebindings.ServiceBindingResource;
+import org.cloudfoundry.client.v2.servicebindings.ServiceBindingsV2;
+import org.cloudfoundry.client.v3.applications.ApplicationState;
 import org.cloudfoundry.client.v3.applications.ApplicationsV3;
+import org.cloudfoundry.client.v3.applications.GetApplicationRequest;
+import org.cloudfoundry.client.v3.applications.GetApplicationProcessRequest;
+import org.cloudfoundry.client.v3.applications.GetApplicationProcessResponse;
+import org.cloudfoundry.client.v3.applications.GetApplicationProcessStatisticsRequest;
+import org.cloudfoundry.client.v3.applications.GetApplicationProcessStatisticsResponse;
+import org.cloudfoundry.client.v3.applications.GetApplicationResponse;
+import org.cloudfoundry.client.v3.applications.ListApplicationPackagesRequest;
+import org.cloudfoundry.client.v3.applications.ListApplicationPackagesResponse;
+import org.cloudfoundry.client.v3.applications.ScaleApplicationRequest;
+import org.cloudfoundry.client.v3.applications.ScaleApplicationResponse;
+import org.cloudfoundry.client.v3.applications.SetApplicationCurrentDropletRequest;
+import org.cloudfoundry.client.v3.applications.SetApplicationCurrentDropletResponse;
+import org.cloudfoundry.client.v3.applications.UpdateApplicationEnvironmentVariablesRequest;
+import org.cloudfoundry.client.v3.applications.UpdateApplicationEnvironmentVariablesResponse;
 import org.cloudfoundry.client.v3.applications.UpdateApplicationRequest;
+import org.cloudfoundry.client.v3.builds.BuildState;
+import org.cloudfoundry.client.v3.builds.Builds;
+import org.cloudfoundry.client.v3.builds.CreateBuildRequest;
+import org.cloudfoundry.client.v3.builds.CreateBuildResponse;
+import org.cloudfoundry.client.v3.builds.Droplet;
+import org.cloudfoundry.client.v3.builds.GetBuildRequest;
+import org.cloudfoundry.client.v3.builds.GetBuildResponse;
+import org.cloudfoundry.client.v3.deployments.CreateDeploymentRequest;
+import org.cloudfoundry.client.v3.deployments.CreateDeploymentResponse;
+import org.cloudfoundry.client.v3.deployments.DeploymentRelationships;
+import org.cloudfoundry.client.v3.deployments.DeploymentStatusReason;
+import org.cloudfoundry.client.v3.deployments.DeploymentStatusValue;
+import org.cloudfoundry.client.v3.deployments.DeploymentsV3;
+import org.cloudfoundry.client.v3.deployments.GetDeploymentRequest;
+import org.cloudfoundry.client.v3.deployments.GetDeploymentResponse;
+import org.cloudfoundry.client.v3.jobs.GetJobRequest;
+import org.cloudfoundry.client.v3.jobs.GetJobResponse;
+import org.cloudfoundry.client.v3.jobs.JobState;
+import org.cloudfoundry.client.v3.jobs.JobsV3;
+import org.cloudfoundry.client.v3.packages.CreatePackageRequest;
+import org.cloudfoundry.client.v3.packages.CreatePackageResponse;
+import org.cloudfoundry.client.v3.packages.GetPackageRequest;
+import org.cloudfoundry.client.v3.packages.GetPackageResponse;
+import org.cloudfoundry.client.v3.packages.PackageResource;
+import org.cloudfoundry.client.v3.packages.PackageState;
+import org.cloudfoundry.client.v3.packages.Packages;
+import org.cloudfoundry.client.v3.packages.UploadPackageRequest;
+import org.cloudfoundry.client.v3.packages.UploadPackageResponse;
+import org.cloudfoundry.client.v3.processes.Data;
+import org.cloudfoundry.client.v3.processes.HealthCheck;
+import org.cloudfoundry.client.v3.processes.HealthCheckType;
+import org.cloudfoundry.client.v3.processes.ProcessState;
+import org.cloudfoundry.client.v3.processes.ProcessStatisticsResource;
+import org.cloudfoundry.client.v3.processes.Processes;
+import org.cloudfoundry.client.v3.processes.UpdateProcessRequest;
+import org.cloudfoundry.client.v3.processes.UpdateProcessResponse;
 import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
 import org.cloudfoundry.operations.applications.*;
 import org.cloudfoundry.operations.domains.Domain;
 import org.cloudfoundry.operations.domains.Domains;
 import org.cloudfoundry.operations.domains.Status;
+import org.cloudfoundry.operations.routes.ListRoutesRequest;
 import org.cloudfoundry.operations.routes.MapRouteRequest;
 import org.cloudfoundry.operations.routes.Routes;
 import org.cloudfoundry.operations.routes.UnmapRouteRequest;
@@ -32,13 +98,18 @@ import org.cloudfoundry.operations.services.BindServiceInstanceRequest;
 import org.cloudfoundry.operations.services.Services;
 import org.cloudfoundry.operations.services.UnbindServiceInstanceRequest;
 import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.OngoingStubbing;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Test for {@link ApplicationsOperations}
@@ -277,19 +348,70 @@ public class ApplicationsOperationsTest {
     @Test
     public void testRemoveApplication() {
         // given
-        Applications applicationsMock = ApplicationsMockBuilder.get().build();
-        DefaultCloudFoundryOperations cfoMock = DefaultCloudFoundryOperationsMockBuilder
-                .get()
+        CloudFoundryClient cfcMock = mockDeleteApplicationClient(JobState.PROCESSING, JobState.COMPLETE);
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        DefaultCloudFoundryOperations cfoMock = DefaultCloudFoundryOperationsMockBuilder.get()
                 .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
                 .build();
-        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfoMock);
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfoMock, true,
+                new RequestCoalescer(), new AsyncOperationPoller(Duration.ofMillis(1), Duration.ofMillis(4), 4));
 
         // when
         Mono<Void> request = applicationsOperations.remove(SOME_APPLICATION);
+        request.block();
 
         // then
         assertThat(request, notNullValue());
-        verify(cfoMock.applications(), times(1)).delete(any(DeleteApplicationRequest.class));
+        verify(cfcMock.applicationsV3(), times(1))
+                .delete(org.cloudfoundry.client.v3.applications.DeleteApplicationRequest.builder()
+                        .applicationId("appId")
+                        .build());
+        verify(cfcMock.jobsV3(), times(2)).get(GetJobRequest.builder().jobId("jobId").build());
+        verify(applicationsMock, never()).delete(any(DeleteApplicationRequest.class));
+    }
+
+    @Test
+    public void testRemoveApplicationFailsWhenDeletionJobFails() {
+        // given
+        CloudFoundryClient cfcMock = mockDeleteApplicationClient(JobState.FAILED);
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        DefaultCloudFoundryOperations cfoMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfoMock);
+
+        // when
+        Mono<Void> request = applicationsOperations.remove(SOME_APPLICATION);
+
+        // then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, request::block);
+        assertThat(exception.getMessage(), containsString("Removal of application " + SOME_APPLICATION + " failed"));
+    }
+
+    private CloudFoundryClient mockDeleteApplicationClient(JobState... jobStates) {
+        ApplicationsV3 applicationsV3Mock = mock(ApplicationsV3.class);
+        when(applicationsV3Mock.delete(any(org.cloudfoundry.client.v3.applications.DeleteApplicationRequest.class)))
+                .thenReturn(Mono.just("jobId"));
+        List<Mono<GetJobResponse>> jobResponses = new LinkedList<>();
+        for (JobState jobState : jobStates) {
+            GetJobResponse jobResponse = mock(GetJobResponse.class);
+            when(jobResponse.getState()).thenReturn(jobState);
+            jobResponses.add(Mono.just(jobResponse));
+        }
+        JobsV3 jobsV3Mock = mock(JobsV3.class);
+        OngoingStubbing<Mono<GetJobResponse>> getJobStubbing = when(jobsV3Mock.get(any(GetJobRequest.class)));
+        for (Mono<GetJobResponse> jobResponse : jobResponses) {
+            getJobStubbing = getJobStubbing.thenReturn(jobResponse);
+        }
+        CloudFoundryClient cfcMock = CloudFoundryClientMockBuilder.get()
+                .setApplicationsV3(applicationsV3Mock)
+                .build();
+        when(cfcMock.jobsV3()).thenReturn(jobsV3Mock);
+        return cfcMock;
     }
 
     @Test
@@ -347,54 +469,63 @@ public class ApplicationsOperationsTest {
     }
 
     @Test
-    public void testScaleSucceeds() {
+    public void testScaleScalesWebProcessWithoutRestartingIt() {
         // given
-        DefaultCloudFoundryOperations cfOperationsMock = getCloudFoundryOperationsMock(Collections.emptyMap(),
-                Collections.emptyMap(),
-                null);
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        ApplicationsV3 applicationsV3Mock = mock(ApplicationsV3.class);
+        when(applicationsV3Mock.scale(any(ScaleApplicationRequest.class)))
+                .thenReturn(Mono.just(mock(ScaleApplicationResponse.class)));
+        CloudFoundryClient cfcMock = CloudFoundryClientMockBuilder.get()
+                .setApplicationsV3(applicationsV3Mock)
+                .build();
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
 
         ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
 
-        final Integer diskLimit = 42;
-        final Integer memoryLimit = 112;
-        final Integer instances = 3;
-
         // when
-        Mono<Void> scaleResult = applicationsOperations.scale(SOME_APPLICATION, diskLimit, memoryLimit, instances);
+        applicationsOperations.scale(SOME_APPLICATION, 42, 112, 3).block();
 
         // then
-        assertThat(scaleResult, is(notNullValue()));
-
-        ScaleApplicationRequest scaleApplicationRequest = ScaleApplicationRequest
-                .builder()
-                .name(SOME_APPLICATION)
-                .instances(instances)
-                .diskLimit(diskLimit)
-                .memoryLimit(memoryLimit)
-                .build();
-        verify(cfOperationsMock.applications(), times(1)).scale(scaleApplicationRequest);
+        verify(applicationsV3Mock, times(1)).scale(ScaleApplicationRequest.builder()
+                .applicationId("appId")
+                .type("web")
+                .diskInMb(42)
+                .memoryInMb(112)
+                .instances(3)
+                .build());
+        verify(applicationsMock, never()).restart(any(RestartApplicationRequest.class));
     }
 
     @Test
-    public void testScaleSucceedsWithNullArguments() {
+    public void testScaleWithNullArgumentsLeavesLimitsUnchanged() {
         // given
-        DefaultCloudFoundryOperations cfOperationsMock = getCloudFoundryOperationsMock(Collections.emptyMap(),
-                Collections.emptyMap(),
-                null);
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        ApplicationsV3 applicationsV3Mock = mock(ApplicationsV3.class);
+        when(applicationsV3Mock.scale(any(ScaleApplicationRequest.class)))
+                .thenReturn(Mono.just(mock(ScaleApplicationResponse.class)));
+        CloudFoundryClient cfcMock = CloudFoundryClientMockBuilder.get()
+                .setApplicationsV3(applicationsV3Mock)
+                .build();
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
 
         ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
 
         // when
-        Mono<Void> scaleResult = applicationsOperations.scale(SOME_APPLICATION, null, null, null);
+        applicationsOperations.scale(SOME_APPLICATION, null, null, null).block();
 
         // then
-        assertThat(scaleResult, is(notNullValue()));
-
-        ScaleApplicationRequest scaleRequest = ScaleApplicationRequest
-                .builder()
-                .name(SOME_APPLICATION)
-                .build();
-        verify(cfOperationsMock.applications(), times(1)).scale(scaleRequest);
+        verify(applicationsV3Mock, times(1)).scale(ScaleApplicationRequest.builder()
+                .applicationId("appId")
+                .type("web")
+                .build());
     }
 
     @Test
@@ -409,129 +540,565 @@ public class ApplicationsOperationsTest {
     }
 
     @Test
-    public void testAddEnvironmentVariableSucceeds() {
+    public void testSetHealthCheckSucceeds() {
         // given
         DefaultCloudFoundryOperations cfOperationsMock = mock(DefaultCloudFoundryOperations.class);
         Applications applicationsMock = mock(Applications.class);
         when(cfOperationsMock.applications()).thenReturn(applicationsMock);
-        when(applicationsMock.setEnvironmentVariable(any(SetEnvironmentVariableApplicationRequest.class)))
+        when(applicationsMock.setHealthCheck(any(SetApplicationHealthCheckRequest.class)))
                 .thenReturn(Mono.just(mock(Void.class)));
 
         ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
 
+        ApplicationHealthCheck desiredHealthCheckType = mock(ApplicationHealthCheck.class);
+
         // when
-        Mono<Void> addEnvVarResult = applicationsOperations
-                .addEnvironmentVariable(SOME_APPLICATION, "newVar", "newVal");
+        Mono<Void> setHealthCheckResult = applicationsOperations
+                .setHealthCheck(SOME_APPLICATION, desiredHealthCheckType);
 
         // then
-        assertThat(addEnvVarResult, is(notNullValue()));
+        assertThat(setHealthCheckResult, is(notNullValue()));
 
-        SetEnvironmentVariableApplicationRequest request = SetEnvironmentVariableApplicationRequest
+        SetApplicationHealthCheckRequest healthCheckRequest = SetApplicationHealthCheckRequest
                 .builder()
                 .name(SOME_APPLICATION)
-                .variableName("newVar")
-                .variableValue("newVal")
+                .type(desiredHealthCheckType)
                 .build();
-        verify(applicationsMock, times(1)).setEnvironmentVariable(request);
+        verify(applicationsMock, times(1)).setHealthCheck(healthCheckRequest);
     }
 
     @Test
-    public void testAddEnvironmentVariableWithNullValuesAsArgumentsThrowsNullPointerException() {
+    public void testSetHealthCheckWithNullValuesAsArgumentsThrowsNullPointerException() {
         //given
         ApplicationsOperations applicationsOperations = new ApplicationsOperations(
                 mock(DefaultCloudFoundryOperations.class));
 
         //when + then
         assertThrows(NullPointerException.class, () ->
-                applicationsOperations.addEnvironmentVariable(null, "var", "val"));
+                applicationsOperations.setHealthCheck(null, mock(ApplicationHealthCheck.class)));
 
         assertThrows(NullPointerException.class, () ->
-                applicationsOperations.addEnvironmentVariable("app", null, "val"));
+                applicationsOperations.setHealthCheck("app", null));
+    }
 
-        assertThrows(NullPointerException.class, () ->
-                applicationsOperations.addEnvironmentVariable("app", "var", null));
+    @Test
+    public void testDeployRollsOutNewDropletOfStartedApplication() {
+        // given
+        CloudFoundryClient cfcMock = mockDeploymentClient(BuildState.STAGED);
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+        ApplicationBean applicationBean = new ApplicationBean();
+        applicationBean.setPath("some/path");
+
+        // when
+        applicationsOperations.deploy(SOME_APPLICATION, applicationBean).block();
+
+        // then
+        verify(cfcMock.packages(), times(1)).upload(UploadPackageRequest.builder()
+                .packageId("packageId")
+                .bits(Paths.get("some/path"))
+                .build());
+        verify(cfcMock.builds(), times(1)).create(CreateBuildRequest.builder()
+                .getPackage(Relationship.builder().id("packageId").build())
+                .build());
+        verify(cfcMock.deploymentsV3(), times(1)).create(CreateDeploymentRequest.builder()
+                .droplet(Relationship.builder().id("dropletId").build())
+                .relationships(DeploymentRelationships.builder()
+                        .app(ToOneRelationship.builder().data(Relationship.builder().id("appId").build()).build())
+                        .build())
+                .build());
+        verify(cfcMock.applicationsV3(), never()).setCurrentDroplet(any(SetApplicationCurrentDropletRequest.class));
     }
 
     @Test
-    public void testRemoveEnvironmentVariableSucceeds() {
+    public void testDeployAssignsNewDropletToStoppedApplication() {
         // given
-        DefaultCloudFoundryOperations cfOperationsMock = mock(DefaultCloudFoundryOperations.class);
+        CloudFoundryClient cfcMock = mockDeploymentClient(BuildState.STAGED);
         Applications applicationsMock = mock(Applications.class);
-        when(cfOperationsMock.applications()).thenReturn(applicationsMock);
-        when(applicationsMock.unsetEnvironmentVariable(any(UnsetEnvironmentVariableApplicationRequest.class)))
-                .thenReturn(Mono.just(mock(Void.class)));
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STOPPED")));
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
 
         ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
 
         // when
-        Mono<Void> removeEnvVarResult = applicationsOperations
-                .removeEnvironmentVariable(SOME_APPLICATION, "varToRemove");
+        applicationsOperations.deploy(SOME_APPLICATION, new ApplicationBean()).block();
 
         // then
-        assertThat(removeEnvVarResult, is(notNullValue()));
+        verify(cfcMock.applicationsV3(), times(1)).setCurrentDroplet(SetApplicationCurrentDropletRequest.builder()
+                .applicationId("appId")
+                .data(Relationship.builder().id("dropletId").build())
+                .build());
+        verify(cfcMock.deploymentsV3(), never()).create(any(CreateDeploymentRequest.class));
+    }
 
-        UnsetEnvironmentVariableApplicationRequest request = UnsetEnvironmentVariableApplicationRequest
-                .builder()
-                .name(SOME_APPLICATION)
-                .variableName("varToRemove")
+    @Test
+    public void testDeployFailsWhenStagingFails() {
+        // given
+        CloudFoundryClient cfcMock = mockDeploymentClient(BuildState.FAILED);
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
                 .build();
-        verify(applicationsMock, times(1)).unsetEnvironmentVariable(request);
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+        Mono<Void> request = applicationsOperations.deploy(SOME_APPLICATION, new ApplicationBean());
+
+        // when + then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, request::block);
+        assertThat(exception.getMessage(), containsString("Staging of application " + SOME_APPLICATION + " failed"));
+        verify(cfcMock.deploymentsV3(), never()).create(any(CreateDeploymentRequest.class));
     }
 
     @Test
-    public void testRemoveEnvironmentVariableWithNullValuesAsArgumentsThrowsNullPointerException() {
-        //given
-        ApplicationsOperations applicationsOperations = new ApplicationsOperations(
-                mock(DefaultCloudFoundryOperations.class));
+    public void testDeployFailsWhenDeploymentIsSuperseded() {
+        // given
+        CloudFoundryClient cfcMock = mockDeploymentClient(BuildState.STAGED, DeploymentStatusReason.SUPERSEDED);
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
 
-        //when + then
-        assertThrows(NullPointerException.class, () ->
-                applicationsOperations.removeEnvironmentVariable(null, "varToRemove"));
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+        Mono<Void> request = applicationsOperations.deploy(SOME_APPLICATION, new ApplicationBean());
 
-        assertThrows(NullPointerException.class, () ->
-                applicationsOperations.removeEnvironmentVariable("app", null));
+        // when + then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, request::block);
+        assertThat(exception.getMessage(), containsString("Deployment of application " + SOME_APPLICATION
+                + " did not complete: " + DeploymentStatusReason.SUPERSEDED));
+        verify(cfcMock.deploymentsV3(), times(1)).get(any(GetDeploymentRequest.class));
     }
 
     @Test
-    public void testSetHealthCheckSucceeds() {
+    public void testStageEmitsNewDropletWithoutTouchingTheApplication() {
         // given
-        DefaultCloudFoundryOperations cfOperationsMock = mock(DefaultCloudFoundryOperations.class);
+        CloudFoundryClient cfcMock = mockDeploymentClient(BuildState.STAGED);
         Applications applicationsMock = mock(Applications.class);
-        when(cfOperationsMock.applications()).thenReturn(applicationsMock);
-        when(applicationsMock.setHealthCheck(any(SetApplicationHealthCheckRequest.class)))
-                .thenReturn(Mono.just(mock(Void.class)));
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
 
         ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
 
-        ApplicationHealthCheck desiredHealthCheckType = mock(ApplicationHealthCheck.class);
+        // when
+        String dropletId = applicationsOperations.stage(SOME_APPLICATION, new ApplicationBean()).block();
+
+        // then
+        assertThat(dropletId, is("dropletId"));
+        verify(cfcMock.builds(), times(1)).create(CreateBuildRequest.builder()
+                .getPackage(Relationship.builder().id("packageId").build())
+                .build());
+        verify(cfcMock.applicationsV3(), never()).setCurrentDroplet(any(SetApplicationCurrentDropletRequest.class));
+        verify(cfcMock.deploymentsV3(), never()).create(any(CreateDeploymentRequest.class));
+        verify(applicationsMock, never()).restart(any(RestartApplicationRequest.class));
+    }
+
+    @Test
+    public void testSwitchDropletAssignsDropletAndRestartsApplication() {
+        // given
+        CloudFoundryClient cfcMock = mockDeploymentClient(BuildState.STAGED);
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        when(applicationsMock.restart(any(RestartApplicationRequest.class))).thenReturn(Mono.empty());
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
 
         // when
-        Mono<Void> setHealthCheckResult = applicationsOperations
-                .setHealthCheck(SOME_APPLICATION, desiredHealthCheckType);
+        applicationsOperations.switchDroplet(SOME_APPLICATION, "dropletId").block();
 
         // then
-        assertThat(setHealthCheckResult, is(notNullValue()));
+        verify(cfcMock.applicationsV3(), times(1)).setCurrentDroplet(SetApplicationCurrentDropletRequest.builder()
+                .applicationId("appId")
+                .data(Relationship.builder().id("dropletId").build())
+                .build());
+        verify(applicationsMock, times(1))
+                .restart(RestartApplicationRequest.builder().name(SOME_APPLICATION).build());
+    }
 
-        SetApplicationHealthCheckRequest healthCheckRequest = SetApplicationHealthCheckRequest
+    @Test
+    public void testUpdateProcessSucceeds() {
+        // given
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        ApplicationsV3 applicationsV3Mock = mock(ApplicationsV3.class);
+        GetApplicationProcessResponse processResponseMock = mock(GetApplicationProcessResponse.class);
+        when(processResponseMock.getId()).thenReturn("processId");
+        when(applicationsV3Mock.getProcess(any(GetApplicationProcessRequest.class)))
+                .thenReturn(Mono.just(processResponseMock));
+        Processes processesMock = mock(Processes.class);
+        when(processesMock.update(any(UpdateProcessRequest.class)))
+                .thenReturn(Mono.just(mock(UpdateProcessResponse.class)));
+        CloudFoundryClient cfcMock = CloudFoundryClientMockBuilder.get()
+                .setApplicationsV3(applicationsV3Mock)
+                .build();
+        when(cfcMock.processes()).thenReturn(processesMock);
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+
+        // when
+        applicationsOperations.updateProcess(SOME_APPLICATION, "start.sh", ApplicationHealthCheck.HTTP, "/health")
+                .block();
+
+        // then
+        verify(applicationsV3Mock, times(1)).getProcess(GetApplicationProcessRequest.builder()
+                .applicationId("appId")
+                .type("web")
+                .build());
+        verify(processesMock, times(1)).update(UpdateProcessRequest.builder()
+                .processId("processId")
+                .command("start.sh")
+                .healthCheck(HealthCheck.builder()
+                        .type(HealthCheckType.HTTP)
+                        .data(Data.builder().endpoint("/health").build())
+                        .build())
+                .build());
+    }
+
+    @Test
+    public void testUpdateProcessWithDetectedCommandResetsCommand() {
+        // given
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        ApplicationsV2 applicationsV2Mock = mock(ApplicationsV2.class);
+        when(applicationsV2Mock.update(any(org.cloudfoundry.client.v2.applications.UpdateApplicationRequest.class)))
+                .thenReturn(Mono.just(mock(UpdateApplicationResponse.class)));
+        Processes processesMock = mock(Processes.class);
+        CloudFoundryClient cfcMock = CloudFoundryClientMockBuilder.get().build();
+        when(cfcMock.applicationsV2()).thenReturn(applicationsV2Mock);
+        when(cfcMock.processes()).thenReturn(processesMock);
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+
+        // when
+        applicationsOperations.updateProcess(SOME_APPLICATION, ApplicationsOperations.DETECTED_COMMAND, null, null)
+                .block();
+
+        // then
+        verify(applicationsV2Mock, times(1)).update(org.cloudfoundry.client.v2.applications.UpdateApplicationRequest
                 .builder()
-                .name(SOME_APPLICATION)
-                .type(desiredHealthCheckType)
+                .applicationId("appId")
+                .command("")
+                .build());
+        verifyNoInteractions(processesMock);
+    }
+
+    @Test
+    public void testUpdateEnvironmentVariablesSendsAllChangesInOneRequest() {
+        // given
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        ApplicationsV3 applicationsV3Mock = mock(ApplicationsV3.class);
+        when(applicationsV3Mock.updateEnvironmentVariables(any(UpdateApplicationEnvironmentVariablesRequest.class)))
+                .thenReturn(Mono.just(mock(UpdateApplicationEnvironmentVariablesResponse.class)));
+        CloudFoundryClient cfcMock = CloudFoundryClientMockBuilder.get()
+                .setApplicationsV3(applicationsV3Mock)
                 .build();
-        verify(applicationsMock, times(1)).setHealthCheck(healthCheckRequest);
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+        Map<String, String> variables = new HashMap<>();
+        variables.put("newVar", "newVal");
+        variables.put("varToRemove", null);
+
+        // when
+        applicationsOperations.updateEnvironmentVariables(SOME_APPLICATION, variables).block();
+
+        // then
+        verify(applicationsV3Mock, times(1)).updateEnvironmentVariables(
+                UpdateApplicationEnvironmentVariablesRequest.builder()
+                        .applicationId("appId")
+                        .var("newVar", "newVal")
+                        .var("varToRemove", null)
+                        .build());
+        verifyNoMoreInteractions(applicationsV3Mock);
     }
 
     @Test
-    public void testSetHealthCheckWithNullValuesAsArgumentsThrowsNullPointerException() {
-        //given
-        ApplicationsOperations applicationsOperations = new ApplicationsOperations(
-                mock(DefaultCloudFoundryOperations.class));
+    public void testUpdateLifecycleSucceeds() {
+        // given
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        ApplicationsV3 applicationsV3Mock = ApplicationsV3MockBuilder.get().build();
+        CloudFoundryClient cfcMock = CloudFoundryClientMockBuilder.get()
+                .setApplicationsV3(applicationsV3Mock)
+                .build();
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
 
-        //when + then
-        assertThrows(NullPointerException.class, () ->
-                applicationsOperations.setHealthCheck(null, mock(ApplicationHealthCheck.class)));
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
 
-        assertThrows(NullPointerException.class, () ->
-                applicationsOperations.setHealthCheck("app", null));
+        // when
+        applicationsOperations.updateLifecycle(SOME_APPLICATION, "java_buildpack", "cflinuxfs3").block();
+
+        // then
+        verify(applicationsV3Mock, times(1)).update(UpdateApplicationRequest.builder()
+                .applicationId("appId")
+                .lifecycle(Lifecycle.builder()
+                        .type(LifecycleType.BUILDPACK)
+                        .data(BuildpackData.builder().buildpack("java_buildpack").stack("cflinuxfs3").build())
+                        .build())
+                .build());
+    }
+
+    @Test
+    public void testRestartRestartsStartedApplication() {
+        // given
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        when(applicationsMock.restart(any(RestartApplicationRequest.class))).thenReturn(Mono.empty());
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+
+        // when
+        applicationsOperations.restart(SOME_APPLICATION).block();
+
+        // then
+        verify(applicationsMock, times(1))
+                .restart(RestartApplicationRequest.builder().name(SOME_APPLICATION).build());
+    }
+
+    @Test
+    public void testRestartDoesNotStartStoppedApplication() {
+        // given
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STOPPED")));
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+
+        // when
+        applicationsOperations.restart(SOME_APPLICATION).block();
+
+        // then
+        verify(applicationsMock, never()).restart(any(RestartApplicationRequest.class));
+    }
+
+    @Test
+    public void testRollingRestartDeploysCurrentDropletOfStartedApplication() {
+        // given
+        CloudFoundryClient cfcMock = mockDeploymentClient(BuildState.STAGED);
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+
+        // when
+        applicationsOperations.rollingRestart(SOME_APPLICATION).block();
+
+        // then
+        verify(cfcMock.deploymentsV3(), times(1)).create(CreateDeploymentRequest.builder()
+                .relationships(DeploymentRelationships.builder()
+                        .app(ToOneRelationship.builder().data(Relationship.builder().id("appId").build()).build())
+                        .build())
+                .build());
+        verify(applicationsMock, never()).restart(any(RestartApplicationRequest.class));
+    }
+
+    @Test
+    public void testRollingRestartDoesNotStartStoppedApplication() {
+        // given
+        CloudFoundryClient cfcMock = mockDeploymentClient(BuildState.STAGED);
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STOPPED")));
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+
+        // when
+        applicationsOperations.rollingRestart(SOME_APPLICATION).block();
+
+        // then
+        verify(cfcMock.deploymentsV3(), never()).create(any(CreateDeploymentRequest.class));
+    }
+
+    @Test
+    public void testRollingRestageDeploysNewDropletOfLatestPackage() {
+        // given
+        CloudFoundryClient cfcMock = mockDeploymentClient(BuildState.STAGED);
+        PackageResource latestPackage = mock(PackageResource.class);
+        when(latestPackage.getId()).thenReturn("latestPackageId");
+        ListApplicationPackagesResponse listPackagesResponse = mock(ListApplicationPackagesResponse.class);
+        when(listPackagesResponse.getResources()).thenReturn(Collections.singletonList(latestPackage));
+        when(cfcMock.applicationsV3().listPackages(any(ListApplicationPackagesRequest.class)))
+                .thenReturn(Mono.just(listPackagesResponse));
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+
+        // when
+        applicationsOperations.rollingRestage(SOME_APPLICATION).block();
+
+        // then
+        verify(cfcMock.packages(), never()).upload(any(UploadPackageRequest.class));
+        verify(cfcMock.builds(), times(1)).create(CreateBuildRequest.builder()
+                .getPackage(Relationship.builder().id("latestPackageId").build())
+                .build());
+        verify(cfcMock.deploymentsV3(), times(1)).create(CreateDeploymentRequest.builder()
+                .droplet(Relationship.builder().id("dropletId").build())
+                .relationships(DeploymentRelationships.builder()
+                        .app(ToOneRelationship.builder().data(Relationship.builder().id("appId").build()).build())
+                        .build())
+                .build());
+        verify(applicationsMock, never()).restage(any(RestageApplicationRequest.class));
+    }
+
+    @Test
+    public void testRestageSucceeds() {
+        // given
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.restage(any(RestageApplicationRequest.class))).thenReturn(Mono.empty());
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+
+        // when
+        applicationsOperations.restage(SOME_APPLICATION).block();
+
+        // then
+        verify(applicationsMock, times(1))
+                .restage(RestageApplicationRequest.builder().name(SOME_APPLICATION).build());
+    }
+
+    @Test
+    public void testAwaitHealthyWaitsUntilAllInstancesAreRunning() {
+        // given
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        GetApplicationProcessStatisticsResponse startingResponse = createProcessStatisticsResponse(
+                ProcessState.RUNNING, ProcessState.STARTING);
+        GetApplicationProcessStatisticsResponse runningResponse = createProcessStatisticsResponse(
+                ProcessState.RUNNING, ProcessState.RUNNING);
+        GetApplicationResponse applicationResponse = createApplicationResponse(ApplicationState.STARTED);
+        ApplicationsV3 applicationsV3Mock = mock(ApplicationsV3.class);
+        when(applicationsV3Mock.get(any(GetApplicationRequest.class))).thenReturn(Mono.just(applicationResponse));
+        when(applicationsV3Mock.getProcessStatistics(any(GetApplicationProcessStatisticsRequest.class)))
+                .thenReturn(Mono.just(startingResponse))
+                .thenReturn(Mono.just(runningResponse));
+        CloudFoundryClient cfcMock = CloudFoundryClientMockBuilder.get()
+                .setApplicationsV3(applicationsV3Mock)
+                .build();
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock, true,
+                new RequestCoalescer(), new AsyncOperationPoller(Duration.ofMillis(1), Duration.ofMillis(10), 1));
+
+        // when
+        applicationsOperations.awaitHealthy(SOME_APPLICATION).block();
+
+        // then
+        verify(applicationsV3Mock, times(2)).getProcessStatistics(GetApplicationProcessStatisticsRequest.builder()
+                .applicationId("appId")
+                .type("web")
+                .build());
+    }
+
+    @Test
+    public void testAwaitHealthyFailsWhenInstanceCrashed() {
+        // given
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        GetApplicationProcessStatisticsResponse crashedResponse = createProcessStatisticsResponse(
+                ProcessState.RUNNING, ProcessState.CRASHED);
+        GetApplicationResponse applicationResponse = createApplicationResponse(ApplicationState.STARTED);
+        ApplicationsV3 applicationsV3Mock = mock(ApplicationsV3.class);
+        when(applicationsV3Mock.get(any(GetApplicationRequest.class))).thenReturn(Mono.just(applicationResponse));
+        when(applicationsV3Mock.getProcessStatistics(any(GetApplicationProcessStatisticsRequest.class)))
+                .thenReturn(Mono.just(crashedResponse));
+        CloudFoundryClient cfcMock = CloudFoundryClientMockBuilder.get()
+                .setApplicationsV3(applicationsV3Mock)
+                .build();
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+
+        // when
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> applicationsOperations.awaitHealthy(SOME_APPLICATION).block());
+
+        // then
+        assertThat(exception.getMessage(), containsString("crashed"));
+    }
+
+    @Test
+    public void testAwaitHealthyDoesNotAwaitStoppedApplication() {
+        // given
+        Applications applicationsMock = mock(Applications.class);
+        // the application has been stopped since it was listed
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        GetApplicationResponse applicationResponse = createApplicationResponse(ApplicationState.STOPPED);
+        ApplicationsV3 applicationsV3Mock = mock(ApplicationsV3.class);
+        when(applicationsV3Mock.get(any(GetApplicationRequest.class))).thenReturn(Mono.just(applicationResponse));
+        CloudFoundryClient cfcMock = CloudFoundryClientMockBuilder.get()
+                .setApplicationsV3(applicationsV3Mock)
+                .build();
+        DefaultCloudFoundryOperations cfOperationsMock = DefaultCloudFoundryOperationsMockBuilder.get()
+                .setApplications(applicationsMock)
+                .setCloudFoundryClient(cfcMock)
+                .build();
+
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock);
+
+        // when
+        applicationsOperations.awaitHealthy(SOME_APPLICATION).block();
+
+        // then
+        verify(applicationsV3Mock, never()).getProcessStatistics(any(GetApplicationProcessStatisticsRequest.class));
     }
 
     @Test
@@ -559,6 +1126,55 @@ public class ApplicationsOperationsTest {
         verify(servicesMock, times(1)).bind(request);
     }
 
+    @Test
+    public void testBindAppWithIndexedIdsCreatesBindingWithoutNameLookups() {
+        // given
+        ServiceBindingsV2 serviceBindingsMock = mock(ServiceBindingsV2.class);
+        when(serviceBindingsMock.create(any(CreateServiceBindingRequest.class))).thenReturn(Mono.empty());
+        CloudFoundryClient cloudFoundryClientMock = mock(CloudFoundryClient.class);
+        when(cloudFoundryClientMock.serviceBindingsV2()).thenReturn(serviceBindingsMock);
+        DefaultCloudFoundryOperations cfOperationsMock = mock(DefaultCloudFoundryOperations.class);
+        Services servicesMock = mock(Services.class);
+        when(cfOperationsMock.services()).thenReturn(servicesMock);
+        when(cfOperationsMock.getCloudFoundryClient()).thenReturn(cloudFoundryClientMock);
+        when(servicesMock.bind(any(BindServiceInstanceRequest.class))).thenReturn(Mono.error(new AssertionError()));
+
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        requestCoalescer.getGuidIndex().put(GuidIndex.Kind.APPLICATION, "someApplication", "appId");
+        requestCoalescer.getGuidIndex().put(GuidIndex.Kind.SERVICE_INSTANCE, "someService", "serviceId");
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock, true,
+                requestCoalescer);
+
+        // when
+        applicationsOperations.bindToService("someApplication", "someService").block();
+
+        // then
+        verify(serviceBindingsMock, times(1)).create(CreateServiceBindingRequest.builder()
+                .applicationId("appId")
+                .serviceInstanceId("serviceId")
+                .build());
+    }
+
+    @Test
+    public void testGetSummariesIndexesIdsOfApplications() {
+        // given
+        Applications applicationsMock = mock(Applications.class);
+        when(applicationsMock.list()).thenReturn(Flux.just(createApplicationSummary("STARTED")));
+        DefaultCloudFoundryOperations cfOperationsMock = mock(DefaultCloudFoundryOperations.class);
+        when(cfOperationsMock.applications()).thenReturn(applicationsMock);
+
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock, true,
+                requestCoalescer);
+
+        // when
+        applicationsOperations.getSummaries().block();
+
+        // then
+        assertThat(requestCoalescer.getGuidIndex().get(GuidIndex.Kind.APPLICATION, SOME_APPLICATION),
+                is(Optional.of("appId")));
+    }
+
     @Test
     public void testBindAppWithNullValuesAsArgumentsThrowsNullPointerException() {
         //given
@@ -598,6 +1214,47 @@ public class ApplicationsOperationsTest {
         verify(servicesMock, times(1)).unbind(unbindFromServiceRequest);
     }
 
+    @Test
+    public void testUnbindAppWithIndexedIdsDeletesBindingWithoutNameLookups() {
+        // given
+        ServiceBindingsV2 serviceBindingsMock = mock(ServiceBindingsV2.class);
+        when(serviceBindingsMock.list(any(ListServiceBindingsRequest.class)))
+                .thenReturn(Mono.just(createListServiceBindingsResponse("bindingId")));
+        when(serviceBindingsMock.delete(any(DeleteServiceBindingRequest.class))).thenReturn(Mono.empty());
+        ApplicationsOperations applicationsOperations = createOperationsWithIndexedIds(serviceBindingsMock);
+
+        // when
+        applicationsOperations.unbindFromService("someApplication", "someService").block();
+
+        // then
+        verify(serviceBindingsMock, times(1)).list(ListServiceBindingsRequest.builder()
+                .applicationId("appId")
+                .serviceInstanceId("serviceId")
+                .build());
+        verify(serviceBindingsMock, times(1)).delete(DeleteServiceBindingRequest.builder()
+                .serviceBindingId("bindingId")
+                .async(false)
+                .build());
+    }
+
+    @Test
+    public void testUnbindAppWithIndexedIdsFailsIfAppIsNotBoundToService() {
+        // given
+        ServiceBindingsV2 serviceBindingsMock = mock(ServiceBindingsV2.class);
+        when(serviceBindingsMock.list(any(ListServiceBindingsRequest.class)))
+                .thenReturn(Mono.just(createListServiceBindingsResponse()));
+        ApplicationsOperations applicationsOperations = createOperationsWithIndexedIds(serviceBindingsMock);
+
+        // when
+        Mono<Void> unbindFromServiceResult = applicationsOperations.unbindFromService("someApplication", "someService");
+
+        // then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, unbindFromServiceResult::block);
+        assertThat(exception.getMessage(),
+                is("Service instance someService is not bound to application someApplication"));
+        verify(serviceBindingsMock, never()).delete(any(DeleteServiceBindingRequest.class));
+    }
+
     @Test
     public void testUnbindAppWithNullValuesAsArgumentsThrowsNullPointerException() {
         //given
@@ -694,6 +1351,51 @@ public class ApplicationsOperationsTest {
         verify(routesMock, times(1)).unmap(unmapRouteRequest);
     }
 
+    @Test
+    public void testRemoveRouteFromAppWithIndexedAppIdListsRoutesOnceAndRemovesRouteById() {
+        // given
+        DefaultCloudFoundryOperations cfOperationsMock = mock(DefaultCloudFoundryOperations.class);
+        Routes routesMock = mock(Routes.class);
+        when(cfOperationsMock.routes()).thenReturn(routesMock);
+        when(routesMock.list(any(ListRoutesRequest.class))).thenReturn(Flux.just(
+                createRoute("firstRouteId", "first"),
+                createRoute("secondRouteId", "second")));
+        when(routesMock.unmap(any(UnmapRouteRequest.class))).thenReturn(Mono.error(new AssertionError()));
+
+        Domains domainMock = mock(Domains.class);
+        when(cfOperationsMock.domains()).thenReturn(domainMock);
+        when(domainMock.list()).thenReturn(Flux.just(Domain.builder()
+                .id("domainId")
+                .status(Status.OWNED)
+                .name("cfapps.io").build()));
+
+        ApplicationsV2 applicationsV2Mock = mock(ApplicationsV2.class);
+        when(applicationsV2Mock.removeRoute(any(RemoveApplicationRouteRequest.class))).thenReturn(Mono.empty());
+        CloudFoundryClient cloudFoundryClientMock = mock(CloudFoundryClient.class);
+        when(cloudFoundryClientMock.applicationsV2()).thenReturn(applicationsV2Mock);
+        when(cfOperationsMock.getCloudFoundryClient()).thenReturn(cloudFoundryClientMock);
+
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        requestCoalescer.getGuidIndex().put(GuidIndex.Kind.APPLICATION, "someApplication", "appId");
+        ApplicationsOperations applicationsOperations = new ApplicationsOperations(cfOperationsMock, true,
+                requestCoalescer);
+
+        // when
+        applicationsOperations.removeRoute("someApplication", "first.cfapps.io").block();
+        applicationsOperations.removeRoute("someApplication", "second.cfapps.io").block();
+
+        // then
+        verify(routesMock, times(1)).list(any(ListRoutesRequest.class));
+        verify(applicationsV2Mock, times(1)).removeRoute(RemoveApplicationRouteRequest.builder()
+                .applicationId("appId")
+                .routeId("firstRouteId")
+                .build());
+        verify(applicationsV2Mock, times(1)).removeRoute(RemoveApplicationRouteRequest.builder()
+                .applicationId("appId")
+                .routeId("secondRouteId")
+                .build());
+    }
+
     @Test
     public void testRemoveRouteFromAppWithNullValuesAsArgumentsThrowsNullPointerException() {
         //given
@@ -708,6 +1410,41 @@ public class ApplicationsOperationsTest {
                 applicationsOperations.removeRoute("someApp", null));
     }
 
+    private ApplicationsOperations createOperationsWithIndexedIds(ServiceBindingsV2 serviceBindingsMock) {
+        CloudFoundryClient cloudFoundryClientMock = mock(CloudFoundryClient.class);
+        when(cloudFoundryClientMock.serviceBindingsV2()).thenReturn(serviceBindingsMock);
+        DefaultCloudFoundryOperations cfOperationsMock = mock(DefaultCloudFoundryOperations.class);
+        Services servicesMock = mock(Services.class);
+        when(cfOperationsMock.services()).thenReturn(servicesMock);
+        when(cfOperationsMock.getCloudFoundryClient()).thenReturn(cloudFoundryClientMock);
+        when(servicesMock.unbind(any(UnbindServiceInstanceRequest.class))).thenReturn(Mono.error(new AssertionError()));
+
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        requestCoalescer.getGuidIndex().put(GuidIndex.Kind.APPLICATION, "someApplication", "appId");
+        requestCoalescer.getGuidIndex().put(GuidIndex.Kind.SERVICE_INSTANCE, "someService", "serviceId");
+        return new ApplicationsOperations(cfOperationsMock, true, requestCoalescer);
+    }
+
+    private ListServiceBindingsResponse createListServiceBindingsResponse(String... serviceBindingIds) {
+        List<ServiceBindingResource> resources = new LinkedList<>();
+        for (String serviceBindingId : serviceBindingIds) {
+            resources.add(ServiceBindingResource.builder()
+                    .metadata(org.cloudfoundry.client.v2.Metadata.builder().id(serviceBindingId).build())
+                    .build());
+        }
+        return ListServiceBindingsResponse.builder().resources(resources).build();
+    }
+
+    private org.cloudfoundry.operations.routes.Route createRoute(String id, String host) {
+        return org.cloudfoundry.operations.routes.Route.builder()
+                .id(id)
+                .host(host)
+                .domain("cfapps.io")
+                .path("")
+                .space("space")
+                .build();
+    }
+
     /**
      * Creates an {@link ApplicationManifest} with partially random data to increase
      * test reliability.
@@ -767,4 +1504,87 @@ public class ApplicationsOperationsTest {
                 .build();
     }
 
+    private ApplicationSummary createApplicationSummary(String requestedState) {
+        return ApplicationSummary.builder()
+                .name(SOME_APPLICATION)
+                .id("appId")
+                .requestedState(requestedState)
+                .runningInstances(1)
+                .instances(1)
+                .memoryLimit(1024)
+                .diskQuota(1024)
+                .build();
+    }
+
+    private CloudFoundryClient mockDeploymentClient(BuildState buildState) {
+        return mockDeploymentClient(buildState, DeploymentStatusReason.DEPLOYED);
+    }
+
+    private CloudFoundryClient mockDeploymentClient(BuildState buildState, DeploymentStatusReason deploymentReason) {
+        Packages packagesMock = mock(Packages.class);
+        CreatePackageResponse createPackageResponse = mock(CreatePackageResponse.class);
+        when(createPackageResponse.getId()).thenReturn("packageId");
+        when(packagesMock.create(any(CreatePackageRequest.class))).thenReturn(Mono.just(createPackageResponse));
+        UploadPackageResponse uploadPackageResponse = mock(UploadPackageResponse.class);
+        when(uploadPackageResponse.getId()).thenReturn("packageId");
+        when(packagesMock.upload(any(UploadPackageRequest.class))).thenReturn(Mono.just(uploadPackageResponse));
+        GetPackageResponse getPackageResponse = mock(GetPackageResponse.class);
+        when(getPackageResponse.getId()).thenReturn("packageId");
+        when(getPackageResponse.getState()).thenReturn(PackageState.READY);
+        when(packagesMock.get(any(GetPackageRequest.class))).thenReturn(Mono.just(getPackageResponse));
+
+        Builds buildsMock = mock(Builds.class);
+        CreateBuildResponse createBuildResponse = mock(CreateBuildResponse.class);
+        when(createBuildResponse.getId()).thenReturn("buildId");
+        when(buildsMock.create(any(CreateBuildRequest.class))).thenReturn(Mono.just(createBuildResponse));
+        GetBuildResponse getBuildResponse = mock(GetBuildResponse.class);
+        when(getBuildResponse.getState()).thenReturn(buildState);
+        when(getBuildResponse.getError()).thenReturn("buildpack compile failed");
+        when(getBuildResponse.getDroplet()).thenReturn(Droplet.builder().id("dropletId").build());
+        when(buildsMock.get(any(GetBuildRequest.class))).thenReturn(Mono.just(getBuildResponse));
+
+        DeploymentsV3 deploymentsMock = mock(DeploymentsV3.class);
+        CreateDeploymentResponse createDeploymentResponse = mock(CreateDeploymentResponse.class);
+        when(createDeploymentResponse.getId()).thenReturn("deploymentId");
+        when(deploymentsMock.create(any(CreateDeploymentRequest.class)))
+                .thenReturn(Mono.just(createDeploymentResponse));
+        GetDeploymentResponse getDeploymentResponse = mock(GetDeploymentResponse.class);
+        when(getDeploymentResponse.getStatus()).thenReturn(org.cloudfoundry.client.v3.deployments.Status.builder()
+                .value(DeploymentStatusValue.FINALIZED)
+                .reason(deploymentReason)
+                .build());
+        when(deploymentsMock.get(any(GetDeploymentRequest.class))).thenReturn(Mono.just(getDeploymentResponse));
+
+        ApplicationsV3 applicationsV3Mock = mock(ApplicationsV3.class);
+        when(applicationsV3Mock.setCurrentDroplet(any(SetApplicationCurrentDropletRequest.class)))
+                .thenReturn(Mono.just(mock(SetApplicationCurrentDropletResponse.class)));
+
+        CloudFoundryClient cfcMock = CloudFoundryClientMockBuilder.get()
+                .setApplicationsV3(applicationsV3Mock)
+                .build();
+        when(cfcMock.packages()).thenReturn(packagesMock);
+        when(cfcMock.builds()).thenReturn(buildsMock);
+        when(cfcMock.deploymentsV3()).thenReturn(deploymentsMock);
+        return cfcMock;
+    }
+
+    private GetApplicationResponse createApplicationResponse(ApplicationState state) {
+        GetApplicationResponse response = mock(GetApplicationResponse.class);
+        when(response.getId()).thenReturn("appId");
+        when(response.getState()).thenReturn(state);
+        return response;
+    }
+
+    private GetApplicationProcessStatisticsResponse createProcessStatisticsResponse(ProcessState... states) {
+        List<ProcessStatisticsResource> instances = new LinkedList<>();
+        for (ProcessState state : states) {
+            ProcessStatisticsResource instance = mock(ProcessStatisticsResource.class);
+            when(instance.getState()).thenReturn(state);
+            instances.add(instance);
+        }
+        GetApplicationProcessStatisticsResponse response = mock(GetApplicationProcessStatisticsResponse.class);
+        when(response.getResources()).thenReturn(instances);
+        return response;
+    }
+
 }
@@ -0,0 +1,110 @@
+package cloud.foundry.cli.operations;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test for {@link AsyncOperationPoller}
+ */
+public class AsyncOperationPollerTest {
+
+    @Test
+    public void testAwaitCompletesOnceStatusIsDone() {
+        // given
+        AsyncOperationPoller poller = new AsyncOperationPoller(Duration.ofMillis(1), Duration.ofMillis(4), 4);
+        AtomicInteger polls = new AtomicInteger(0);
+
+        // when
+        Integer status = poller.await("operation", () -> Mono.just(polls.incrementAndGet()), poll -> poll == 3)
+                .block(Duration.ofSeconds(5));
+
+        // then
+        assertThat(status, is(3));
+        assertThat(poller.getOutstandingCount(), is(0));
+    }
+
+    @Test
+    public void testAwaitPollsAllOutstandingOperationsTogether() {
+        // given
+        AsyncOperationPoller poller = new AsyncOperationPoller(Duration.ofMillis(1), Duration.ofMillis(4), 4);
+        AtomicInteger firstPolls = new AtomicInteger(0);
+        AtomicInteger secondPolls = new AtomicInteger(0);
+
+        Mono<String> first = poller.await("first", () -> Mono.just(firstPolls.incrementAndGet()), poll -> poll == 2)
+                .map(poll -> "first");
+        Mono<String> second = poller.await("second", () -> Mono.just(secondPolls.incrementAndGet()),
+                poll -> poll == 5)
+                .map(poll -> "second");
+
+        // when
+        List<String> completed = Flux.merge(first, second).collectList().block(Duration.ofSeconds(5));
+
+        // then
+        assertThat(completed, contains("first", "second"));
+        assertThat(firstPolls.get(), is(2));
+        assertThat(secondPolls.get(), greaterThanOrEqualTo(5));
+    }
+
+    @Test
+    public void testAwaitFailsWhenStatusCheckFails() {
+        // given
+        AsyncOperationPoller poller = new AsyncOperationPoller(Duration.ofMillis(1), Duration.ofMillis(4), 4);
+        Mono<String> operation = poller.await("operation", () -> Mono.just("FAILED"), status -> {
+            throw new IllegalStateException("operation failed");
+        });
+
+        // when + then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> operation.block(Duration.ofSeconds(5)));
+        assertThat(exception.getMessage(), is("operation failed"));
+        assertThat(poller.getOutstandingCount(), is(0));
+    }
+
+    @Test
+    public void testCancelledOperationIsNoLongerPolled() {
+        // given
+        AsyncOperationPoller poller = new AsyncOperationPoller(Duration.ofMillis(1), Duration.ofMillis(4), 4);
+        Disposable subscription = poller.await("operation", () -> Mono.just("PENDING"), status -> false)
+                .subscribe();
+
+        // when
+        subscription.dispose();
+
+        // then
+        assertThat(poller.getOutstandingCount(), is(0));
+    }
+
+    @Test
+    public void testNextIntervalGrowsUpToMaximumAndResetsOnCompletion() {
+        // given
+        AsyncOperationPoller poller = new AsyncOperationPoller(Duration.ofSeconds(1), Duration.ofSeconds(15), 4);
+
+        // when + then
+        assertThat(poller.getNextInterval(Duration.ofSeconds(1), false), is(Duration.ofSeconds(2)));
+        assertThat(poller.getNextInterval(Duration.ofSeconds(4), false), is(Duration.ofSeconds(8)));
+        assertThat(poller.getNextInterval(Duration.ofSeconds(8), false), is(Duration.ofSeconds(15)));
+        assertThat(poller.getNextInterval(Duration.ofSeconds(15), false), is(Duration.ofSeconds(15)));
+        assertThat(poller.getNextInterval(Duration.ofSeconds(15), true), is(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    public void testConstructorRejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AsyncOperationPoller(Duration.ofSeconds(2), Duration.ofSeconds(1), 4));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AsyncOperationPoller(Duration.ofSeconds(1), Duration.ofSeconds(2), 0));
+    }
+
+}
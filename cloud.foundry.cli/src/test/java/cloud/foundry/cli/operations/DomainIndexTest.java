@@ -0,0 +1,91 @@
+package cloud.foundry.cli.operations;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.cloudfoundry.operations.applications.DecomposedRoute;
+import org.cloudfoundry.operations.applications.DomainSummary;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Test for {@link DomainIndex}
+ */
+public class DomainIndexTest {
+
+    @Test
+    public void testFindDomainReturnsLongestMatchingDomain() {
+        // given
+        DomainIndex domainIndex = new DomainIndex(Arrays.asList(
+                createDomainSummary("example.com"),
+                createDomainSummary("apps.example.com")));
+
+        // when
+        String domainOfHost = domainIndex.findDomain("myapp.apps.example.com");
+        String domainOfOtherHost = domainIndex.findDomain("myapp.example.com");
+        String domainOfDomain = domainIndex.findDomain("apps.example.com");
+
+        // then
+        assertThat(domainOfHost, is("apps.example.com"));
+        assertThat(domainOfOtherHost, is("example.com"));
+        assertThat(domainOfDomain, is("apps.example.com"));
+    }
+
+    @Test
+    public void testFindDomainMatchesWholeLabelsOnly() {
+        // given
+        DomainIndex domainIndex = new DomainIndex(Collections.singletonList(createDomainSummary("example.com")));
+
+        // when
+        String domainOfHost = domainIndex.findDomain("myexample.com");
+        String domainOfParent = domainIndex.findDomain("com");
+
+        // then
+        assertThat(domainOfHost, is(nullValue()));
+        assertThat(domainOfParent, is(nullValue()));
+    }
+
+    @Test
+    public void testDecomposeRouteSplitsHostDomainPathAndPort() {
+        // given
+        DomainIndex domainIndex = new DomainIndex(Arrays.asList(
+                createDomainSummary("example.com"),
+                createDomainSummary("tcp.example.com")));
+
+        // when
+        DecomposedRoute routeWithPath = RouteUtils.decomposeRoute(domainIndex, "myapp.example.com/path", null).block();
+        DecomposedRoute routeWithPort = RouteUtils.decomposeRoute(domainIndex, "tcp.example.com:1234", null).block();
+
+        // then
+        assertThat(routeWithPath.getHost(), is("myapp"));
+        assertThat(routeWithPath.getDomain(), is("example.com"));
+        assertThat(routeWithPath.getPath(), is("/path"));
+        assertThat(routeWithPath.getPort(), is(nullValue()));
+        assertThat(routeWithPort.getHost(), is(nullValue()));
+        assertThat(routeWithPort.getDomain(), is("tcp.example.com"));
+        assertThat(routeWithPort.getPort(), is(1234));
+    }
+
+    @Test
+    public void testDecomposeRouteWithUnknownDomainThrowsIllegalArgumentException() {
+        // given
+        DomainIndex domainIndex = new DomainIndex(Collections.singletonList(createDomainSummary("example.com")));
+
+        // when and then
+        assertThrows(IllegalArgumentException.class,
+                () -> RouteUtils.decomposeRoute(domainIndex, "myapp.example.org", null));
+    }
+
+    private static DomainSummary createDomainSummary(String name) {
+        return DomainSummary.builder()
+                .id(name + "Id")
+                .name(name)
+                .type("")
+                .build();
+    }
+
+}
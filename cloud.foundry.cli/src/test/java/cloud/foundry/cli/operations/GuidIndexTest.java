@@ -0,0 +1,56 @@
+package cloud.foundry.cli.operations;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import cloud.foundry.cli.operations.GuidIndex.Kind;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+/**
+ * Test for {@link GuidIndex}
+ */
+public class GuidIndexTest {
+
+    @Test
+    public void testGetReturnsGuidOfSameKindOnly() {
+        // given
+        GuidIndex guidIndex = new GuidIndex();
+
+        // when
+        guidIndex.put(Kind.APPLICATION, "name", "appId");
+
+        // then
+        assertThat(guidIndex.get(Kind.APPLICATION, "name"), is(Optional.of("appId")));
+        assertThat(guidIndex.get(Kind.SERVICE_INSTANCE, "name"), is(Optional.empty()));
+    }
+
+    @Test
+    public void testRenameKeepsGuidUnderNewName() {
+        // given
+        GuidIndex guidIndex = new GuidIndex();
+        guidIndex.put(Kind.SERVICE_INSTANCE, "oldName", "serviceId");
+
+        // when
+        guidIndex.rename(Kind.SERVICE_INSTANCE, "oldName", "newName");
+
+        // then
+        assertThat(guidIndex.get(Kind.SERVICE_INSTANCE, "oldName"), is(Optional.empty()));
+        assertThat(guidIndex.get(Kind.SERVICE_INSTANCE, "newName"), is(Optional.of("serviceId")));
+    }
+
+    @Test
+    public void testRemoveForgetsGuid() {
+        // given
+        GuidIndex guidIndex = new GuidIndex();
+        guidIndex.put(Kind.APPLICATION, "name", "appId");
+
+        // when
+        guidIndex.remove(Kind.APPLICATION, "name");
+
+        // then
+        assertThat(guidIndex.get(Kind.APPLICATION, "name"), is(Optional.empty()));
+    }
+
+}
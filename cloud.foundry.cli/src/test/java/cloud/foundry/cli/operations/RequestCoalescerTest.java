@@ -0,0 +1,150 @@
+package cloud.foundry.cli.operations;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test for {@link RequestCoalescer}
+ */
+public class RequestCoalescerTest {
+
+    @Test
+    public void testCoalesceSharesInFlightRequest() {
+        // given
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger(0);
+        MonoProcessor<String> pendingResponse = MonoProcessor.create();
+
+        Mono<String> firstRequest = requestCoalescer.coalesce(RequestCoalescer.key("get", "name"), () -> {
+            calls.incrementAndGet();
+            return pendingResponse;
+        });
+        Mono<String> secondRequest = requestCoalescer.coalesce(RequestCoalescer.key("get", "name"), () -> {
+            calls.incrementAndGet();
+            return pendingResponse;
+        });
+
+        // when
+        Mono<List<String>> bothRequests = Flux.merge(firstRequest, secondRequest).collectList();
+        bothRequests.subscribe();
+        pendingResponse.onNext("response");
+
+        // then
+        assertThat(calls.get(), is(1));
+        assertThat(bothRequests.block(), contains("response", "response"));
+    }
+
+    @Test
+    public void testCoalesceMemoizesResultUntilInvalidated() {
+        // given
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger(0);
+        Mono<Integer> request = requestCoalescer.coalesce(RequestCoalescer.key("get", "name"),
+                () -> Mono.fromCallable(calls::incrementAndGet));
+
+        // when
+        Integer firstResult = request.block();
+        Integer secondResult = request.block();
+        requestCoalescer.invalidate(RequestCoalescer.key("get", "name"));
+        Integer thirdResult = request.block();
+
+        // then
+        assertThat(firstResult, is(1));
+        assertThat(secondResult, is(1));
+        assertThat(thirdResult, is(2));
+    }
+
+    @Test
+    public void testCoalesceDistinguishesParameters() {
+        // given
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger(0);
+
+        // when
+        requestCoalescer.coalesce(RequestCoalescer.key("get", "first"),
+                () -> Mono.fromCallable(calls::incrementAndGet)).block();
+        requestCoalescer.coalesce(RequestCoalescer.key("get", "second"),
+                () -> Mono.fromCallable(calls::incrementAndGet)).block();
+
+        // then
+        assertThat(calls.get(), is(2));
+    }
+
+    @Test
+    public void testCoalesceDoesNotMemoizeErrors() {
+        // given
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger(0);
+        Mono<Integer> request = requestCoalescer.coalesce(RequestCoalescer.key("get"), () -> Mono.fromCallable(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("first call fails");
+            }
+            return calls.get();
+        }));
+
+        // when
+        assertThrows(IllegalStateException.class, request::block);
+        Integer result = request.block();
+
+        // then
+        assertThat(result, is(2));
+    }
+
+    @Test
+    public void testCoalesceManySharesAllElements() {
+        // given
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger(0);
+
+        // when
+        List<String> firstResult = requestCoalescer.coalesceMany(RequestCoalescer.key("list"), () -> {
+            calls.incrementAndGet();
+            return Flux.just("a", "b");
+        }).collectList().block();
+        List<String> secondResult = requestCoalescer.coalesceMany(RequestCoalescer.key("list"), () -> {
+            calls.incrementAndGet();
+            return Flux.just("c");
+        }).collectList().block();
+
+        // then
+        assertThat(calls.get(), is(1));
+        assertThat(firstResult, contains("a", "b"));
+        assertThat(secondResult, contains("a", "b"));
+    }
+
+    @Test
+    public void testInvalidateAllDiscardsRequestsOfType() {
+        // given
+        RequestCoalescer requestCoalescer = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger(0);
+        Mono<Integer> first = requestCoalescer.coalesce(RequestCoalescer.key("get", "first"),
+                () -> Mono.fromCallable(calls::incrementAndGet));
+        Mono<Integer> other = requestCoalescer.coalesce(RequestCoalescer.key("list"),
+                () -> Mono.fromCallable(calls::incrementAndGet));
+        first.block();
+        other.block();
+
+        // when
+        requestCoalescer.invalidateAll("get");
+        first.block();
+        other.block();
+
+        // then
+        assertThat(calls.get(), is(3));
+    }
+
+    @Test
+    public void testKeyOnNullRequestTypeThrowsException() {
+        assertThrows(NullPointerException.class, () -> RequestCoalescer.key(null));
+    }
+}
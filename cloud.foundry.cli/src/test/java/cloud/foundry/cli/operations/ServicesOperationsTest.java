@@ -8,11 +8,31 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import cloud.foundry.cli.crosscutting.mapping.beans.ServiceBean;
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.ClientV2Exception;
+import org.cloudfoundry.client.v2.serviceinstances.CreateServiceInstanceResponse;
+import org.cloudfoundry.client.v2.serviceinstances.DeleteServiceInstanceResponse;
+import org.cloudfoundry.client.v2.serviceinstances.GetServiceInstanceResponse;
+import org.cloudfoundry.client.v2.serviceinstances.LastOperation;
+import org.cloudfoundry.client.v2.serviceinstances.ServiceInstanceEntity;
+import org.cloudfoundry.client.v2.serviceinstances.ServiceInstances;
+import org.cloudfoundry.client.v2.serviceinstances.UpdateServiceInstanceResponse;
+import org.cloudfoundry.client.v2.serviceplans.ListServicePlansRequest;
+import org.cloudfoundry.client.v2.serviceplans.ListServicePlansResponse;
+import org.cloudfoundry.client.v2.serviceplans.ServicePlanEntity;
+import org.cloudfoundry.client.v2.serviceplans.ServicePlanResource;
+import org.cloudfoundry.client.v2.serviceplans.ServicePlans;
+import org.cloudfoundry.client.v2.services.ServiceEntity;
+import org.cloudfoundry.client.v2.services.ServiceResource;
+import org.cloudfoundry.client.v2.spaces.ListSpaceServicesRequest;
+import org.cloudfoundry.client.v2.spaces.ListSpaceServicesResponse;
+import org.cloudfoundry.client.v2.spaces.Spaces;
 import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
 import org.cloudfoundry.operations.routes.ListRoutesRequest;
 import org.cloudfoundry.operations.routes.Route;
@@ -26,6 +46,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -95,14 +116,16 @@ public class ServicesOperationsTest {
         String serviceInstanceName = "serviceInstanceName";
         ServiceBean serviceBeanMock = mockServiceBean();
         DefaultCloudFoundryOperations cfMock = Mockito.mock(DefaultCloudFoundryOperations.class);
-        Services servicesMock = Mockito.mock(Services.class);
-
-        Mono<Void> mono = Mono.empty();
-        when(cfMock.services()).thenReturn(servicesMock);
-        when(servicesMock.createInstance(any(CreateServiceInstanceRequest.class)))
-            .thenReturn(mono);
+        ServiceInstances serviceInstancesMock = mockServiceInstancesClient(cfMock);
+        mockCreateServiceInstance(cfMock, serviceInstancesMock);
+        GetServiceInstanceResponse inProgressResponse = createGetServiceInstanceResponse("in progress");
+        GetServiceInstanceResponse succeededResponse = createGetServiceInstanceResponse("succeeded");
+        when(serviceInstancesMock.get(any(org.cloudfoundry.client.v2.serviceinstances.GetServiceInstanceRequest.class)))
+            .thenReturn(Mono.just(inProgressResponse))
+            .thenReturn(Mono.just(succeededResponse));
 
-        ServicesOperations servicesOperations = new ServicesOperations(cfMock);
+        ServicesOperations servicesOperations = new ServicesOperations(cfMock, new RequestCoalescer(),
+            new AsyncOperationPoller(Duration.ofMillis(1), Duration.ofMillis(4), 4));
 
         // when
         Mono<Void> actualMono = servicesOperations.create(serviceInstanceName, serviceBeanMock);
@@ -110,14 +133,38 @@ public class ServicesOperationsTest {
 
         // then
         assertThat(actualMono, notNullValue());
-        verify(serviceBeanMock, times(1)).getParams();
-        verify(serviceBeanMock, times(1)).getPlan();
-        verify(serviceBeanMock, times(1)).getTags();
-        verify(serviceBeanMock, times(1)).getService();
-        verify(servicesMock, times(1)).createInstance(any(CreateServiceInstanceRequest.class));
-        StepVerifier.create(actualMono)
-            .expectComplete()
-            .verify();
+        verify(serviceInstancesMock, times(1)).create(
+            org.cloudfoundry.client.v2.serviceinstances.CreateServiceInstanceRequest.builder()
+                .name(serviceInstanceName)
+                .spaceId("spaceId")
+                .servicePlanId("planId")
+                .tags("Tag1", "Tag2")
+                .parameters(serviceBeanMock.getParams())
+                .acceptsIncomplete(true)
+                .build());
+        verify(serviceInstancesMock, times(2))
+            .get(any(org.cloudfoundry.client.v2.serviceinstances.GetServiceInstanceRequest.class));
+    }
+
+    @Test
+    public void testCreateWithUnknownPlanFails() {
+        // given
+        ServiceBean serviceBeanMock = mockServiceBean();
+        when(serviceBeanMock.getPlan()).thenReturn("premium");
+        DefaultCloudFoundryOperations cfMock = Mockito.mock(DefaultCloudFoundryOperations.class);
+        ServiceInstances serviceInstancesMock = mockServiceInstancesClient(cfMock);
+        mockCreateServiceInstance(cfMock, serviceInstancesMock);
+
+        ServicesOperations servicesOperations = new ServicesOperations(cfMock);
+
+        // when
+        Mono<Void> request = servicesOperations.create("serviceInstanceName", serviceBeanMock);
+
+        // then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, request::block);
+        assertThat(exception.getMessage(), is("Service plan premium of service elephantsql does not exist"));
+        verify(serviceInstancesMock, never())
+            .create(any(org.cloudfoundry.client.v2.serviceinstances.CreateServiceInstanceRequest.class));
     }
 
     @Test
@@ -167,14 +214,16 @@ public class ServicesOperationsTest {
         mockListServiceKeys(cfOperationsMock, servicesMock, Arrays.asList(serviceKey, serviceKey2));
         mockDeleteServiceKey(cfOperationsMock, servicesMock);
         mockCreateServiceKey(cfOperationsMock, servicesMock);
-        mockDeleteServiceInstance(cfOperationsMock, servicesMock);
+        ServiceInstances serviceInstancesMock = mockDeleteServiceInstance(cfOperationsMock, servicesMock);
 
         // for create service instance
         ServiceBean serviceBeanMock = mockServiceBean();
-        Mono<Void> mono = Mono.empty();
-        when(cfOperationsMock.services()).thenReturn(servicesMock);
-        when(servicesMock.createInstance(any(CreateServiceInstanceRequest.class)))
-            .thenReturn(mono);
+        mockCreateServiceInstance(cfOperationsMock, serviceInstancesMock);
+        GetServiceInstanceResponse succeededResponse = createGetServiceInstanceResponse("succeeded");
+        when(serviceInstancesMock.get(org.cloudfoundry.client.v2.serviceinstances.GetServiceInstanceRequest.builder()
+            .serviceInstanceId("newid")
+            .build()))
+            .thenReturn(Mono.just(succeededResponse));
 
         // when
         ServicesOperations servicesOperations = new ServicesOperations(cfOperationsMock);
@@ -184,13 +233,15 @@ public class ServicesOperationsTest {
         // then
         assertThat(request, notNullValue());
 
-        verify(servicesMock, times(3)).getInstance(any());
-        verify(routesMock, times(2)).list(any());
+        // the reads of the snapshot are shared with the removal of the service instance
+        verify(servicesMock, times(1)).getInstance(any());
+        verify(routesMock, times(1)).list(any());
         verify(servicesMock, times(2)).unbindRoute(any());
         verify(servicesMock, times(2)).unbind(any());
-        verify(servicesMock, times(2)).listServiceKeys(any());
+        verify(servicesMock, times(1)).listServiceKeys(any());
         verify(servicesMock, times(2)).deleteServiceKey(any());
-        verify(servicesMock, times(1)).deleteInstance(any(DeleteServiceInstanceRequest.class));
+        verify(serviceInstancesMock, times(1))
+            .delete(any(org.cloudfoundry.client.v2.serviceinstances.DeleteServiceInstanceRequest.class));
         verify(servicesMock, times(2)).bindRoute(any());
         verify(servicesMock, times(2)).bind(any());
         verify(servicesMock, times(2)).createServiceKey(any());
@@ -199,7 +250,8 @@ public class ServicesOperationsTest {
         verify(serviceBeanMock, times(1)).getPlan();
         verify(serviceBeanMock, times(1)).getTags();
         verify(serviceBeanMock, times(1)).getService();
-        verify(servicesMock, times(1)).createInstance(any(CreateServiceInstanceRequest.class));
+        verify(serviceInstancesMock, times(1))
+            .create(any(org.cloudfoundry.client.v2.serviceinstances.CreateServiceInstanceRequest.class));
 
         StepVerifier.create(request)
             .expectNext()
@@ -218,6 +270,68 @@ public class ServicesOperationsTest {
         assertThrows(NullPointerException.class, () -> servicesOperations.update("oldname", null));
     }
 
+    @Test
+    public void testUpdateInstanceSendsOnlyChangedSettings() {
+        // given
+        DefaultCloudFoundryOperations cfOperationsMock = mock(DefaultCloudFoundryOperations.class);
+        Services servicesMock = mock(Services.class);
+        mockGetServiceInstance(cfOperationsMock, servicesMock, createManagedServiceInstance());
+        ServiceInstances serviceInstancesMock = mockUpdateServiceInstance(cfOperationsMock);
+
+        ServicesOperations servicesOperations = new ServicesOperations(cfOperationsMock);
+
+        // when
+        servicesOperations.updateInstance("someservice", null, null, Arrays.asList("tag1", "tag2")).block();
+
+        // then
+        verify(serviceInstancesMock, times(1)).update(
+            org.cloudfoundry.client.v2.serviceinstances.UpdateServiceInstanceRequest.builder()
+                .serviceInstanceId("someid")
+                .tags("tag1", "tag2")
+                .acceptsIncomplete(true)
+                .build());
+        verify(cfOperationsMock.getCloudFoundryClient(), never()).servicePlans();
+        verify(servicesMock, never()).updateInstance(any(UpdateServiceInstanceRequest.class));
+        verify(servicesMock, never()).deleteInstance(any(DeleteServiceInstanceRequest.class));
+        verify(servicesMock, never()).createInstance(any(CreateServiceInstanceRequest.class));
+    }
+
+    @Test
+    public void testUpdateInstanceLooksUpServicePlanOncePerRun() {
+        // given
+        DefaultCloudFoundryOperations cfOperationsMock = mock(DefaultCloudFoundryOperations.class);
+        Services servicesMock = mock(Services.class);
+        mockGetServiceInstance(cfOperationsMock, servicesMock, createManagedServiceInstance());
+        ServiceInstances serviceInstancesMock = mockUpdateServiceInstance(cfOperationsMock);
+        ServicePlans servicePlansMock = mockServicePlans(cfOperationsMock);
+
+        ServicesOperations servicesOperations = new ServicesOperations(cfOperationsMock);
+
+        // when
+        servicesOperations.updateInstance("someservice", "standard", null, null).block();
+        servicesOperations.updateInstance("someservice", "standard", null, null).block();
+
+        // then
+        verify(serviceInstancesMock, times(2)).update(
+            org.cloudfoundry.client.v2.serviceinstances.UpdateServiceInstanceRequest.builder()
+                .serviceInstanceId("someid")
+                .servicePlanId("planId")
+                .acceptsIncomplete(true)
+                .build());
+        verify(servicePlansMock, times(1)).list(any(ListServicePlansRequest.class));
+    }
+
+    @Test
+    public void testUpdateInstanceOnNullNameThrowsException() {
+        // given
+        DefaultCloudFoundryOperations cfOperationsMock = mock(DefaultCloudFoundryOperations.class);
+        ServicesOperations servicesOperations = new ServicesOperations(cfOperationsMock);
+
+        // when + then
+        assertThrows(NullPointerException.class,
+            () -> servicesOperations.updateInstance(null, "plan", null, null));
+    }
+
     @Test
     public void testRename() {
         // given
@@ -292,7 +406,7 @@ public class ServicesOperationsTest {
         request.block();
 
         // then
-        verify(servicesMock, times(2)).getInstance(any());
+        verify(servicesMock, times(1)).getInstance(any());
         verify(routesMock, times(1)).list(any());
         verify(servicesMock, times(2)).unbindRoute(any());
         verify(servicesMock, times(2)).unbind(any());
@@ -324,7 +438,7 @@ public class ServicesOperationsTest {
         mockUnbindApp(cfOperationsMock, servicesMock);
         mockListServiceKeys(cfOperationsMock, servicesMock, Collections.emptyList());
         mockDeleteServiceKey(cfOperationsMock, servicesMock);
-        mockDeleteServiceInstance(cfOperationsMock, servicesMock);
+        ServiceInstances serviceInstancesMock = mockDeleteServiceInstance(cfOperationsMock, servicesMock);
 
         ServicesOperations servicesOperations = new ServicesOperations(cfOperationsMock);
 
@@ -333,8 +447,13 @@ public class ServicesOperationsTest {
         request.block();
 
         // then
-        verify(servicesMock, times(2)).getInstance(any(GetServiceInstanceRequest.class));
-        verify(servicesMock, times(1)).deleteInstance(any(DeleteServiceInstanceRequest.class));
+        verify(servicesMock, times(1)).getInstance(any(GetServiceInstanceRequest.class));
+        verify(serviceInstancesMock, times(1)).delete(
+            org.cloudfoundry.client.v2.serviceinstances.DeleteServiceInstanceRequest.builder()
+                .serviceInstanceId("someid")
+                .acceptsIncomplete(true)
+                .build());
+        verify(servicesMock, never()).deleteInstance(any(DeleteServiceInstanceRequest.class));
         verify(servicesMock, times(1)).listServiceKeys(any(ListServiceKeysRequest.class));
         verify(routesMock, times(1)).list(any(ListRoutesRequest.class));
         verify(servicesMock, times(0)).deleteServiceKey(any(DeleteServiceKeyRequest.class));
@@ -346,6 +465,73 @@ public class ServicesOperationsTest {
             .verify();
     }
 
+    @Test
+    public void testRemoveServiceInstanceAwaitsAsynchronousBroker() {
+        // given
+        ServiceInstance serviceInstance = ServiceInstance.builder()
+            .service("someservice")
+            .name("servicename")
+            .id("someid")
+            .type(ServiceInstanceType.MANAGED)
+            .build();
+
+        DefaultCloudFoundryOperations cfOperationsMock = mock(DefaultCloudFoundryOperations.class);
+        Services servicesMock = mock(Services.class);
+        Routes routesMock = mock(Routes.class);
+
+        mockGetServiceInstance(cfOperationsMock, servicesMock, serviceInstance);
+        mockListRoutes(cfOperationsMock, routesMock, Collections.emptyList());
+        mockListServiceKeys(cfOperationsMock, servicesMock, Collections.emptyList());
+        ServiceInstances serviceInstancesMock = mockDeleteServiceInstance(cfOperationsMock, servicesMock);
+        GetServiceInstanceResponse inProgressResponse = createGetServiceInstanceResponse("in progress");
+        GetServiceInstanceResponse failedResponse = createGetServiceInstanceResponse("failed");
+        when(serviceInstancesMock.get(any(org.cloudfoundry.client.v2.serviceinstances.GetServiceInstanceRequest.class)))
+            .thenReturn(Mono.just(inProgressResponse))
+            .thenReturn(Mono.just(failedResponse));
+
+        ServicesOperations servicesOperations = new ServicesOperations(cfOperationsMock, new RequestCoalescer(),
+            new AsyncOperationPoller(Duration.ofMillis(1), Duration.ofMillis(4), 4));
+
+        // when
+        Mono<Void> request = servicesOperations.remove("someservice");
+
+        // then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, request::block);
+        assertThat(exception.getMessage(), is("Removal of service someservice failed: broker unavailable"));
+        verify(serviceInstancesMock, times(2))
+            .get(any(org.cloudfoundry.client.v2.serviceinstances.GetServiceInstanceRequest.class));
+    }
+
+    @Test
+    public void testRemoveUserProvidedServiceInstance() {
+        // given
+        ServiceInstance serviceInstance = ServiceInstance.builder()
+            .name("servicename")
+            .id("someid")
+            .type(ServiceInstanceType.USER_PROVIDED)
+            .build();
+
+        DefaultCloudFoundryOperations cfOperationsMock = mock(DefaultCloudFoundryOperations.class);
+        Services servicesMock = mock(Services.class);
+        Routes routesMock = mock(Routes.class);
+
+        mockGetServiceInstance(cfOperationsMock, servicesMock, serviceInstance);
+        mockListRoutes(cfOperationsMock, routesMock, Collections.emptyList());
+        ServiceInstances serviceInstancesMock = mockDeleteServiceInstance(cfOperationsMock, servicesMock);
+
+        ServicesOperations servicesOperations = new ServicesOperations(cfOperationsMock);
+
+        // when
+        servicesOperations.remove("someservice").block();
+
+        // then
+        verify(servicesMock, times(1)).deleteInstance(DeleteServiceInstanceRequest.builder()
+            .name("someservice")
+            .build());
+        verify(serviceInstancesMock, never())
+            .delete(any(org.cloudfoundry.client.v2.serviceinstances.DeleteServiceInstanceRequest.class));
+    }
+
     @Test
     public void testRemoveOnNullNameThrowsException() {
         // given
@@ -705,12 +891,102 @@ public class ServicesOperationsTest {
             .thenReturn(Mono.empty());
     }
 
-    private void mockDeleteServiceInstance(DefaultCloudFoundryOperations cfOperationsMock, Services serivcesMock) {
+    private ServiceInstances mockDeleteServiceInstance(DefaultCloudFoundryOperations cfOperationsMock,
+                                                       Services serivcesMock) {
         when(cfOperationsMock.services())
             .thenReturn(serivcesMock);
 
         when(serivcesMock.deleteInstance(any(DeleteServiceInstanceRequest.class)))
             .thenReturn(Mono.empty());
+
+        // managed service instances are removed via the client, they are gone once the removal has completed
+        ServiceInstances serviceInstancesMock = mockServiceInstancesClient(cfOperationsMock);
+        when(serviceInstancesMock.delete(
+            any(org.cloudfoundry.client.v2.serviceinstances.DeleteServiceInstanceRequest.class)))
+            .thenReturn(Mono.just(mock(DeleteServiceInstanceResponse.class)));
+        when(serviceInstancesMock.get(any(org.cloudfoundry.client.v2.serviceinstances.GetServiceInstanceRequest.class)))
+            .thenReturn(Mono.error(new ClientV2Exception(404, 60004, "The service instance could not be found",
+                "CF-ServiceInstanceNotFound")));
+        return serviceInstancesMock;
+    }
+
+    private ServiceInstances mockServiceInstancesClient(DefaultCloudFoundryOperations cfOperationsMock) {
+        ServiceInstances serviceInstancesMock = mock(ServiceInstances.class);
+        CloudFoundryClient cfcMock = mock(CloudFoundryClient.class);
+        when(cfcMock.serviceInstances()).thenReturn(serviceInstancesMock);
+        when(cfOperationsMock.getCloudFoundryClient()).thenReturn(cfcMock);
+        return serviceInstancesMock;
+    }
+
+    // the service elephantsql offers the plan standard, new service instances get the id newid
+    private void mockCreateServiceInstance(DefaultCloudFoundryOperations cfOperationsMock,
+                                           ServiceInstances serviceInstancesMock) {
+        mockServicePlans(cfOperationsMock);
+        CreateServiceInstanceResponse createResponse = CreateServiceInstanceResponse.builder()
+            .metadata(org.cloudfoundry.client.v2.Metadata.builder().id("newid").build())
+            .build();
+        when(serviceInstancesMock.create(
+            any(org.cloudfoundry.client.v2.serviceinstances.CreateServiceInstanceRequest.class)))
+            .thenReturn(Mono.just(createResponse));
+    }
+
+    private ServicePlans mockServicePlans(DefaultCloudFoundryOperations cfOperationsMock) {
+        when(cfOperationsMock.getSpaceId()).thenReturn(Mono.just("spaceId"));
+        CloudFoundryClient cfcMock = cfOperationsMock.getCloudFoundryClient();
+
+        ListSpaceServicesResponse servicesResponse = ListSpaceServicesResponse.builder()
+            .resource(ServiceResource.builder()
+                .metadata(org.cloudfoundry.client.v2.Metadata.builder().id("serviceId").build())
+                .entity(ServiceEntity.builder().label("elephantsql").build())
+                .build())
+            .totalPages(1)
+            .build();
+        Spaces spacesMock = mock(Spaces.class);
+        when(spacesMock.listServices(any(ListSpaceServicesRequest.class))).thenReturn(Mono.just(servicesResponse));
+        when(cfcMock.spaces()).thenReturn(spacesMock);
+
+        ListServicePlansResponse servicePlansResponse = ListServicePlansResponse.builder()
+            .resource(ServicePlanResource.builder()
+                .metadata(org.cloudfoundry.client.v2.Metadata.builder().id("planId").build())
+                .entity(ServicePlanEntity.builder().name("standard").serviceId("serviceId").build())
+                .build())
+            .totalPages(1)
+            .build();
+        ServicePlans servicePlansMock = mock(ServicePlans.class);
+        when(servicePlansMock.list(any(ListServicePlansRequest.class))).thenReturn(Mono.just(servicePlansResponse));
+        when(cfcMock.servicePlans()).thenReturn(servicePlansMock);
+        return servicePlansMock;
+    }
+
+    private ServiceInstances mockUpdateServiceInstance(DefaultCloudFoundryOperations cfOperationsMock) {
+        ServiceInstances serviceInstancesMock = mockServiceInstancesClient(cfOperationsMock);
+        when(serviceInstancesMock.update(
+            any(org.cloudfoundry.client.v2.serviceinstances.UpdateServiceInstanceRequest.class)))
+            .thenReturn(Mono.just(mock(UpdateServiceInstanceResponse.class)));
+        GetServiceInstanceResponse succeededResponse = createGetServiceInstanceResponse("succeeded");
+        when(serviceInstancesMock.get(any(org.cloudfoundry.client.v2.serviceinstances.GetServiceInstanceRequest.class)))
+            .thenReturn(Mono.just(succeededResponse));
+        return serviceInstancesMock;
+    }
+
+    private ServiceInstance createManagedServiceInstance() {
+        return ServiceInstance.builder()
+            .service("elephantsql")
+            .name("someservice")
+            .id("someid")
+            .type(ServiceInstanceType.MANAGED)
+            .build();
+    }
+
+    private GetServiceInstanceResponse createGetServiceInstanceResponse(String lastOperationState) {
+        GetServiceInstanceResponse response = mock(GetServiceInstanceResponse.class);
+        when(response.getEntity()).thenReturn(ServiceInstanceEntity.builder()
+            .lastOperation(LastOperation.builder()
+                .state(lastOperationState)
+                .description("broker unavailable")
+                .build())
+            .build());
+        return response;
     }
 
     private ServiceBean mockServiceBean() {